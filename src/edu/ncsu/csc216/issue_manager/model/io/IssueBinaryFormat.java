@@ -0,0 +1,439 @@
+package edu.ncsu.csc216.issue_manager.model.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+import edu.ncsu.csc216.issue_manager.model.command.Command;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue;
+
+/**
+ * The IssueBinaryFormat class encodes and decodes the compact binary issue file
+ * format. A binary file starts with a four byte magic number, a version byte
+ * and a flags byte, followed by the number of issues and one record per issue.
+ * A record stores the id as a varint, the state, type, resolution and confirmed
+ * flag as single bytes, the summary and owner as length-prefixed UTF-8 strings,
+ * and the notes as a note count followed by the notes. Each note starts with a
+ * byte naming the "[State] " prefix the note begins with, or 0 if it has none,
+ * followed by the rest of the note as a length-prefixed UTF-8 string.
+ *
+ * Files with the CHECKSUMS flag frame each record as its length, the record
+ * and the CRC32C of the record, and end with a footer: the file offset of
+ * every record, a CRC32C of the file header and the offset table, the offset
+ * of the table and a footer magic number. A damaged record is then detected
+ * by its own checksum, and the offset table lets the records of a file be
+ * verified in parallel, see IssueChecksumVerifier.
+ *
+ * @author Nirvan Reddy Anumandla
+ */
+class IssueBinaryFormat {
+	/** Magic number at the start of every binary issue file. */
+	static final byte[] MAGIC = { 0, 'I', 'S', 'B' };
+	/** Current version of the format. */
+	static final int VERSION = 1;
+	/** Length of the file header: magic, version and flags. */
+	static final int HEADER_LENGTH = MAGIC.length + 2;
+	/** Flag of files whose records carry a CRC32C and that end with a footer. */
+	static final int FLAG_CHECKSUMS = 1;
+	/** Magic number at the very end of a checksummed file. */
+	static final byte[] FOOTER_MAGIC = { 'I', 'S', 'F', 0 };
+	/** Length of the end of the footer: checksum, table offset and magic. */
+	static final int TRAILER_LENGTH = Integer.BYTES + Long.BYTES + FOOTER_MAGIC.length;
+	/** State names in the order of their codes. */
+	private static final String[] STATES = { Issue.NEW_NAME, Issue.WORKING_NAME, Issue.CONFIRMED_NAME,
+			Issue.VERIFYING_NAME, Issue.CLOSED_NAME };
+	/** Issue types in the order of their codes. */
+	private static final String[] TYPES = { Issue.I_BUG, Issue.I_ENHANCEMENT };
+	/** Note prefixes in the order of their codes, where 0 means no prefix. */
+	private static final String[] NOTE_PREFIXES = { "", "[" + Issue.NEW_NAME + "] ", "[" + Issue.WORKING_NAME + "] ",
+			"[" + Issue.CONFIRMED_NAME + "] ", "[" + Issue.VERIFYING_NAME + "] ", "[" + Issue.CLOSED_NAME + "] " };
+	/** Resolutions in the order of their codes, where 0 means no resolution. */
+	private static final String[] RESOLUTIONS = { "", Command.R_FIXED, Command.R_DUPLICATE, Command.R_WONTFIX,
+			Command.R_WORKSFORME };
+
+	/**
+	 * Checks whether the given bytes start with the binary format's magic number.
+	 *
+	 * @param header The first bytes of a file.
+	 * @param length The number of valid bytes in <code>header</code>.
+	 * @return true if the bytes start with the magic number.
+	 */
+	static boolean hasMagic(byte[] header, int length) {
+		if (length < MAGIC.length) {
+			return false;
+		}
+		for (int i = 0; i < MAGIC.length; i++) {
+			if (header[i] != MAGIC[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Writes the file header and the number of issues that follow.
+	 *
+	 * @param out   The stream to write to.
+	 * @param flags The format flags.
+	 * @param count The number of issues in the file.
+	 * @throws IOException If the stream cannot be written.
+	 */
+	static void writeHeader(DataOutputStream out, int flags, int count) throws IOException {
+		out.write(MAGIC);
+		out.writeByte(VERSION);
+		out.writeByte(flags);
+		writeVarint(out, count);
+	}
+
+	/**
+	 * Writes a whole file: the header and the records of a list of issues, and
+	 * with checksums, the checksum of each record and the footer.
+	 *
+	 * @param out       The stream to write to.
+	 * @param issues    The issues to write.
+	 * @param checksums Whether to write a checksummed file.
+	 * @throws IOException If the stream cannot be written.
+	 */
+	static void writeIssues(DataOutputStream out, List<Issue> issues, boolean checksums) throws IOException {
+		if (!checksums) {
+			writeHeader(out, 0, issues.size());
+			for (int i = 0; i < issues.size(); i++) {
+				writeIssue(out, issues.get(i));
+			}
+			return;
+		}
+		CRC32C footerCrc = new CRC32C();
+		RecordBuffer record = new RecordBuffer();
+		DataOutputStream recordOut = new DataOutputStream(record);
+		writeHeader(recordOut, FLAG_CHECKSUMS, issues.size());
+		out.write(record.array(), 0, record.size());
+		footerCrc.update(record.array(), 0, record.size());
+		long position = record.size();
+		long[] offsets = new long[issues.size()];
+		CRC32C crc = new CRC32C();
+		for (int i = 0; i < issues.size(); i++) {
+			record.reset();
+			writeIssue(recordOut, issues.get(i));
+			int length = record.size();
+			crc.reset();
+			crc.update(record.array(), 0, length);
+			offsets[i] = position;
+			writeVarint(out, length);
+			out.write(record.array(), 0, length);
+			out.writeInt((int) crc.getValue());
+			position += varintLength(length) + length + Integer.BYTES;
+		}
+		ByteBuffer table = ByteBuffer.allocate(offsets.length * Long.BYTES + Long.BYTES);
+		for (long offset : offsets) {
+			table.putLong(offset);
+		}
+		table.putLong(position);
+		footerCrc.update(table.array(), 0, table.position());
+		out.write(table.array(), 0, offsets.length * Long.BYTES);
+		out.writeInt((int) footerCrc.getValue());
+		out.writeLong(position);
+		out.write(FOOTER_MAGIC);
+	}
+
+	/**
+	 * Reads the issues of a whole file. Records that describe invalid issues are
+	 * skipped; in a checksummed file, so are records whose checksum does not
+	 * match. Skipped records are added to the report, if there is one.
+	 *
+	 * @param in     The stream to read from, at the start of the file.
+	 * @param report The report to add skipped records to, or null.
+	 * @return The valid issues, in file order.
+	 * @throws IOException              If the stream cannot be read.
+	 * @throws IllegalArgumentException If the stream is not a supported binary
+	 *                                  issue file.
+	 */
+	static ArrayList<Issue> readIssues(DataInputStream in, IssueLoadReport report) throws IOException {
+		boolean checksums = (readHeader(in) & FLAG_CHECKSUMS) != 0;
+		int count = readVarint(in);
+		long position = HEADER_LENGTH + varintLength(count);
+		ArrayList<Issue> issues = new ArrayList<>(Math.min(count, 1 << 20));
+		byte[] record = new byte[256];
+		CRC32C crc = new CRC32C();
+		for (int i = 0; i < count; i++) {
+			Issue issue;
+			String rule = IssueLoadReport.INVALID_ISSUE;
+			if (checksums) {
+				int length = readVarint(in);
+				if (length < 0) {
+					throw new IllegalArgumentException("Unable to load file.");
+				}
+				if (record.length < length) {
+					record = new byte[Math.max(length, record.length * 2)];
+				}
+				in.readFully(record, 0, length);
+				int expected = in.readInt();
+				crc.reset();
+				crc.update(record, 0, length);
+				if ((int) crc.getValue() != expected) {
+					issue = null;
+					rule = IssueLoadReport.CHECKSUM_MISMATCH;
+				} else {
+					issue = readRecord(record, length);
+				}
+				if (report != null && issue == null) {
+					report.reject(i, position, rule);
+				}
+				position += varintLength(length) + length + Integer.BYTES;
+			} else {
+				issue = readIssue(in);
+				if (report != null && issue == null) {
+					report.reject(i, -1, rule);
+				}
+			}
+			if (issue != null) {
+				issues.add(issue);
+				if (report != null) {
+					report.accept();
+				}
+			}
+		}
+		return issues;
+	}
+
+	/**
+	 * Decodes a record whose checksum matched.
+	 *
+	 * @param record The buffer holding the record.
+	 * @param length The length of the record.
+	 * @return The issue, or null if the record does not describe a valid issue.
+	 */
+	private static Issue readRecord(byte[] record, int length) {
+		try {
+			return readIssue(new DataInputStream(new ByteArrayInputStream(record, 0, length)));
+		} catch (IOException | IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Reads and checks the file header.
+	 *
+	 * @param in The stream to read from.
+	 * @return The format flags.
+	 * @throws IOException              If the stream cannot be read.
+	 * @throws IllegalArgumentException If the stream is not a supported binary
+	 *                                  issue file.
+	 */
+	static int readHeader(DataInputStream in) throws IOException {
+		byte[] magic = new byte[MAGIC.length];
+		in.readFully(magic);
+		if (!hasMagic(magic, magic.length) || in.readUnsignedByte() != VERSION) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		return in.readUnsignedByte();
+	}
+
+	/**
+	 * Writes one issue record.
+	 *
+	 * @param out   The stream to write to.
+	 * @param issue The issue to write.
+	 * @throws IOException If the stream cannot be written.
+	 */
+	static void writeIssue(DataOutputStream out, Issue issue) throws IOException {
+		writeVarint(out, issue.getIssueId());
+		out.writeByte(code(STATES, issue.getStateName()));
+		out.writeByte(code(TYPES, issue.getIssueType()));
+		out.writeByte(issue.getResolution() == null ? 0 : code(RESOLUTIONS, issue.getResolution()));
+		out.writeBoolean(issue.isConfirmed());
+		writeString(out, issue.getSummary());
+		writeString(out, issue.getOwner() == null ? "" : issue.getOwner());
+		ArrayList<String> notes = issue.getNotes();
+		writeVarint(out, notes.size());
+		for (String note : notes) {
+			int prefix = notePrefix(note);
+			out.writeByte(prefix);
+			writeString(out, note.substring(NOTE_PREFIXES[prefix].length()));
+		}
+	}
+
+	/**
+	 * Reads one issue record.
+	 *
+	 * @param in The stream to read from.
+	 * @return The issue, or null if the record describes an invalid issue.
+	 * @throws IOException              If the stream cannot be read.
+	 * @throws IllegalArgumentException If the record is corrupt.
+	 */
+	static Issue readIssue(DataInputStream in) throws IOException {
+		int issueId = readVarint(in);
+		String state = decode(STATES, in.readUnsignedByte());
+		String issueType = decode(TYPES, in.readUnsignedByte());
+		String resolution = decode(RESOLUTIONS, in.readUnsignedByte());
+		boolean confirmed = in.readBoolean();
+		String summary = readString(in);
+		String owner = readString(in);
+		int noteCount = readVarint(in);
+		ArrayList<String> notes = new ArrayList<>(Math.min(noteCount, 64));
+		for (int i = 0; i < noteCount; i++) {
+			String prefix = decode(NOTE_PREFIXES, in.readUnsignedByte());
+			String note = readString(in);
+			notes.add(prefix.isEmpty() ? note : prefix.concat(note));
+		}
+		try {
+			return new Issue(issueId, state, issueType, summary, owner, confirmed, resolution, notes);
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Writes an unsigned varint, seven bits per byte with the high bit set on all
+	 * but the last byte.
+	 *
+	 * @param out   The stream to write to.
+	 * @param value The value to write.
+	 * @throws IOException If the stream cannot be written.
+	 */
+	static void writeVarint(DataOutputStream out, int value) throws IOException {
+		while ((value & ~0x7F) != 0) {
+			out.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte(value);
+	}
+
+	/**
+	 * Gets the number of bytes a value takes as a varint.
+	 *
+	 * @param value The value.
+	 * @return The length of the varint.
+	 */
+	static int varintLength(int value) {
+		int length = 1;
+		while ((value & ~0x7F) != 0) {
+			value >>>= 7;
+			length++;
+		}
+		return length;
+	}
+
+	/**
+	 * Reads an unsigned varint.
+	 *
+	 * @param in The stream to read from.
+	 * @return The value read.
+	 * @throws IOException              If the stream cannot be read.
+	 * @throws IllegalArgumentException If the varint is longer than five bytes.
+	 */
+	static int readVarint(InputStream in) throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			int b = in.read();
+			if (b < 0) {
+				throw new EOFException();
+			}
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IllegalArgumentException("Unable to load file.");
+	}
+
+	/**
+	 * Writes a length-prefixed UTF-8 string.
+	 *
+	 * @param out The stream to write to.
+	 * @param s   The string to write.
+	 * @throws IOException If the stream cannot be written.
+	 */
+	static void writeString(DataOutputStream out, String s) throws IOException {
+		byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+		writeVarint(out, bytes.length);
+		out.write(bytes);
+	}
+
+	/**
+	 * Reads a length-prefixed UTF-8 string.
+	 *
+	 * @param in The stream to read from.
+	 * @return The string read.
+	 * @throws IOException If the stream cannot be read.
+	 */
+	static String readString(DataInputStream in) throws IOException {
+		int length = readVarint(in);
+		if (length < 0) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Finds the code of the state prefix a note starts with.
+	 *
+	 * @param note The note.
+	 * @return The code of the note's prefix, or 0 if it has none.
+	 */
+	private static int notePrefix(String note) {
+		if (note.startsWith("[")) {
+			for (int i = 1; i < NOTE_PREFIXES.length; i++) {
+				if (note.startsWith(NOTE_PREFIXES[i])) {
+					return i;
+				}
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Finds the code of a value.
+	 *
+	 * @param values The values in code order.
+	 * @param value  The value to look up.
+	 * @return The code of the value.
+	 */
+	private static int code(String[] values, String value) {
+		for (int i = 0; i < values.length; i++) {
+			if (values[i].equals(value)) {
+				return i;
+			}
+		}
+		throw new IllegalArgumentException("Unable to save file");
+	}
+
+	/**
+	 * Finds the value for a code.
+	 *
+	 * @param values The values in code order.
+	 * @param code   The code to look up.
+	 * @return The value for the code.
+	 * @throws IllegalArgumentException If the code is unknown.
+	 */
+	private static String decode(String[] values, int code) {
+		if (code >= values.length) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		return values[code];
+	}
+
+	/**
+	 * A byte array output stream whose bytes can be read without copying them.
+	 */
+	private static class RecordBuffer extends ByteArrayOutputStream {
+		/**
+		 * Gets the buffer holding the bytes written so far.
+		 *
+		 * @return The buffer, valid up to {@link #size()}.
+		 */
+		byte[] array() {
+			return buf;
+		}
+	}
+}
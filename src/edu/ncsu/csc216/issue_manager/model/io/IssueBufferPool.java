@@ -0,0 +1,64 @@
+package edu.ncsu.csc216.issue_manager.model.io;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The IssueBufferPool class keeps direct byte buffers of a fixed size for
+ * reuse, so saves do not allocate new native memory each time. Direct buffers
+ * are written to a FileChannel without first being copied into a temporary
+ * buffer, as heap buffers are. At most {@link #MAX_POOLED} buffers are kept;
+ * buffers released beyond that are left to the garbage collector.
+ *
+ * The pool is safe for use by multiple threads.
+ *
+ * @author Nirvan Reddy Anumandla
+ */
+final class IssueBufferPool {
+	/** Size in bytes of every pooled buffer. */
+	static final int BUFFER_SIZE = 64 * 1024;
+	/** Largest number of buffers kept in the pool. */
+	static final int MAX_POOLED = 64;
+
+	/** Buffers ready for reuse. */
+	private static final ConcurrentLinkedQueue<ByteBuffer> FREE = new ConcurrentLinkedQueue<>();
+	/** Number of buffers in the free queue. */
+	private static final AtomicInteger FREE_COUNT = new AtomicInteger();
+
+	/**
+	 * Prevents the pool from being instantiated.
+	 */
+	private IssueBufferPool() {
+		// only static methods
+	}
+
+	/**
+	 * Takes a cleared buffer from the pool, or allocates one if the pool is
+	 * empty.
+	 *
+	 * @return A direct buffer of {@link #BUFFER_SIZE} bytes.
+	 */
+	static ByteBuffer acquire() {
+		ByteBuffer buffer = FREE.poll();
+		if (buffer == null) {
+			return ByteBuffer.allocateDirect(BUFFER_SIZE);
+		}
+		FREE_COUNT.decrementAndGet();
+		return buffer;
+	}
+
+	/**
+	 * Returns a buffer to the pool. The buffer must not be used afterwards.
+	 *
+	 * @param buffer A buffer taken with {@link #acquire()}.
+	 */
+	static void release(ByteBuffer buffer) {
+		buffer.clear();
+		if (FREE_COUNT.incrementAndGet() <= MAX_POOLED) {
+			FREE.offer(buffer);
+		} else {
+			FREE_COUNT.decrementAndGet();
+		}
+	}
+}
@@ -0,0 +1,289 @@
+package edu.ncsu.csc216.issue_manager.model.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.zip.CRC32C;
+
+/**
+ * The IssueChecksumVerifier class checks the records of an uncompressed binary
+ * issue file written with checksums, without decoding them. The footer gives
+ * the offset of every record, so the file is split into chunks of whole
+ * records that are mapped and checked concurrently on a ForkJoinPool. CRC32C
+ * is computed by the JDK with the processor's CRC instructions where they
+ * exist, so a file is checked at close to the speed it can be mapped.
+ *
+ * Each record must fill the space between its offset and the next one, and
+ * its bytes must match its checksum. Records that do not are reported with
+ * their index and offset.
+ *
+ * @author Nirvan Reddy Anumandla
+ */
+class IssueChecksumVerifier {
+	/** Largest number of bytes checked by a single task. */
+	private static final long CHUNK_SIZE = 16L * 1024 * 1024;
+
+	/** The file being checked. */
+	private final FileChannel channel;
+	/** Offset of every record, followed by the offset of the table. */
+	private final LongBuffer offsets;
+	/** Number of records in the file. */
+	private final int count;
+
+	/**
+	 * Constructs a verifier over a file whose footer has been checked.
+	 *
+	 * @param channel The file.
+	 * @param offsets The offset of every record, followed by the offset of the
+	 *                table.
+	 * @param count   The number of records.
+	 */
+	private IssueChecksumVerifier(FileChannel channel, LongBuffer offsets, int count) {
+		this.channel = channel;
+		this.offsets = offsets;
+		this.count = count;
+	}
+
+	/**
+	 * Checks the records of a checksummed binary file.
+	 *
+	 * @param channel The file, open for reading.
+	 * @param pool    The pool to check the chunks of the file on.
+	 * @param report  The report to add damaged records to.
+	 * @return false if the footer is missing or damaged, in which case no
+	 *         record was checked.
+	 * @throws IOException If the file cannot be read.
+	 */
+	static boolean verify(FileChannel channel, ForkJoinPool pool, IssueLoadReport report) throws IOException {
+		long size = channel.size();
+		if (size < IssueBinaryFormat.HEADER_LENGTH + 1 + IssueBinaryFormat.TRAILER_LENGTH) {
+			return false;
+		}
+		ByteBuffer trailer = read(channel, size - IssueBinaryFormat.TRAILER_LENGTH, IssueBinaryFormat.TRAILER_LENGTH);
+		int footerCrc = trailer.getInt();
+		long tableOffset = trailer.getLong();
+		for (byte b : IssueBinaryFormat.FOOTER_MAGIC) {
+			if (trailer.get() != b) {
+				return false;
+			}
+		}
+		long tableLength = size - IssueBinaryFormat.TRAILER_LENGTH - tableOffset;
+		if (tableOffset < IssueBinaryFormat.HEADER_LENGTH || tableLength < 0 || tableLength % Long.BYTES != 0
+				|| tableLength / Long.BYTES > Integer.MAX_VALUE) {
+			return false;
+		}
+		int count = (int) (tableLength / Long.BYTES);
+		int headerLength = IssueBinaryFormat.HEADER_LENGTH + IssueBinaryFormat.varintLength(count);
+		if (headerLength > tableOffset) {
+			return false;
+		}
+		ByteBuffer header = read(channel, 0, headerLength);
+		ByteBuffer table = ByteBuffer.allocate((int) Math.min(tableLength + Long.BYTES, Integer.MAX_VALUE));
+		if (table.capacity() != tableLength + Long.BYTES) {
+			return false;
+		}
+		table.limit((int) tableLength);
+		while (table.hasRemaining()) {
+			if (channel.read(table, tableOffset + table.position()) < 0) {
+				return false;
+			}
+		}
+		table.limit(table.capacity());
+		table.putLong(tableOffset);
+		CRC32C crc = new CRC32C();
+		crc.update(header);
+		crc.update(table.array(), 0, table.capacity());
+		if ((int) crc.getValue() != footerCrc || !hasCount(header, count)) {
+			return false;
+		}
+		table.flip();
+		new IssueChecksumVerifier(channel, table.asLongBuffer(), count).verify(pool, report);
+		return true;
+	}
+
+	/**
+	 * Splits the records into chunks, checks them on the pool and adds the
+	 * results to the report in file order.
+	 *
+	 * @param pool   The pool to check the chunks on.
+	 * @param report The report to add the results to.
+	 */
+	private void verify(ForkJoinPool pool, IssueLoadReport report) {
+		List<ChunkTask> tasks = new ArrayList<>();
+		int from = 0;
+		while (from < count) {
+			int to = from + 1;
+			while (to < count && offsets.get(to + 1) - offsets.get(from) <= CHUNK_SIZE) {
+				to++;
+			}
+			tasks.add(new ChunkTask(from, to));
+			from = to;
+		}
+		for (ChunkTask task : tasks) {
+			pool.execute(task);
+		}
+		for (ChunkTask task : tasks) {
+			List<IssueLoadReport.Rejection> rejections = task.join();
+			for (IssueLoadReport.Rejection rejection : rejections) {
+				report.reject(rejection.getRecordIndex(), rejection.getOffset(), rejection.getRule());
+			}
+			for (int i = task.to - task.from - rejections.size(); i > 0; i--) {
+				report.accept();
+			}
+		}
+	}
+
+	/**
+	 * Checks the records of a chunk.
+	 *
+	 * @param from The index of the first record.
+	 * @param to   The index after the last record.
+	 * @return The damaged records, in file order.
+	 * @throws IOException If the file cannot be read.
+	 */
+	private List<IssueLoadReport.Rejection> verifyChunk(int from, int to) throws IOException {
+		List<IssueLoadReport.Rejection> rejections = new ArrayList<>();
+		long base = offsets.get(from);
+		long end = offsets.get(to);
+		if (base < 0 || end < base || end - base > Integer.MAX_VALUE) {
+			for (int i = from; i < to; i++) {
+				rejections.add(new IssueLoadReport.Rejection(i, offsets.get(i), IssueLoadReport.LENGTH_MISMATCH));
+			}
+			return rejections;
+		}
+		MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, base, end - base);
+		CRC32C crc = new CRC32C();
+		for (int i = from; i < to; i++) {
+			long start = offsets.get(i) - base;
+			long limit = offsets.get(i + 1) - base;
+			String rule = check(chunk, start, limit, crc);
+			if (rule != null) {
+				rejections.add(new IssueLoadReport.Rejection(i, offsets.get(i), rule));
+			}
+		}
+		return rejections;
+	}
+
+	/**
+	 * Checks one record.
+	 *
+	 * @param chunk The mapped chunk holding the record.
+	 * @param start The start of the record in the chunk.
+	 * @param limit The start of the next record in the chunk.
+	 * @param crc   The checksum to compute the record's checksum with.
+	 * @return The rule the record breaks, or null if it is intact.
+	 */
+	private static String check(MappedByteBuffer chunk, long start, long limit, CRC32C crc) {
+		if (start < 0 || limit > chunk.limit() || limit - start < 1 + Integer.BYTES) {
+			return IssueLoadReport.LENGTH_MISMATCH;
+		}
+		int position = (int) start;
+		int length = 0;
+		int b;
+		int shift = 0;
+		do {
+			b = chunk.get(position++);
+			length |= (b & 0x7F) << shift;
+			shift += 7;
+		} while ((b & 0x80) != 0 && shift < 35 && position < limit);
+		if ((b & 0x80) != 0 || length < 0 || position + (long) length + Integer.BYTES != limit) {
+			return IssueLoadReport.LENGTH_MISMATCH;
+		}
+		ByteBuffer record = chunk.duplicate();
+		record.position(position).limit(position + length);
+		crc.reset();
+		crc.update(record);
+		if ((int) crc.getValue() != chunk.getInt(position + length)) {
+			return IssueLoadReport.CHECKSUM_MISMATCH;
+		}
+		return null;
+	}
+
+	/**
+	 * Checks that a file header is a checksummed binary header for the given
+	 * number of records.
+	 *
+	 * @param header The header.
+	 * @param count  The number of records in the offset table.
+	 * @return true if the header matches.
+	 */
+	private static boolean hasCount(ByteBuffer header, int count) {
+		header.flip();
+		byte[] bytes = new byte[header.remaining()];
+		header.get(bytes);
+		if (!IssueBinaryFormat.hasMagic(bytes, bytes.length)
+				|| bytes[IssueBinaryFormat.MAGIC.length] != IssueBinaryFormat.VERSION
+				|| (bytes[IssueBinaryFormat.MAGIC.length + 1] & IssueBinaryFormat.FLAG_CHECKSUMS) == 0) {
+			return false;
+		}
+		int value = 0;
+		for (int i = IssueBinaryFormat.HEADER_LENGTH, shift = 0; i < bytes.length; i++, shift += 7) {
+			value |= (bytes[i] & 0x7F) << shift;
+		}
+		return value == count;
+	}
+
+	/**
+	 * Reads a range of a file.
+	 *
+	 * @param channel  The file.
+	 * @param position The start of the range.
+	 * @param length   The length of the range.
+	 * @return A buffer holding the range, positioned at its start.
+	 * @throws IOException If the file cannot be read.
+	 */
+	private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+		ByteBuffer bytes = ByteBuffer.allocate(length);
+		while (bytes.hasRemaining()) {
+			if (channel.read(bytes, position + bytes.position()) < 0) {
+				throw new IOException("Unexpected end of file");
+			}
+		}
+		bytes.flip();
+		return bytes;
+	}
+
+	/**
+	 * Checks the records of one chunk of the file.
+	 */
+	private class ChunkTask extends RecursiveTask<List<IssueLoadReport.Rejection>> {
+		/** Serial version UID. */
+		private static final long serialVersionUID = 1L;
+		/** The index of the first record. */
+		private final int from;
+		/** The index after the last record. */
+		private final int to;
+
+		/**
+		 * Constructs a task for the records between <code>from</code> and
+		 * <code>to</code>.
+		 *
+		 * @param from The index of the first record.
+		 * @param to   The index after the last record.
+		 */
+		ChunkTask(int from, int to) {
+			this.from = from;
+			this.to = to;
+		}
+
+		/**
+		 * Checks the chunk.
+		 *
+		 * @return The damaged records, in file order.
+		 */
+		@Override
+		protected List<IssueLoadReport.Rejection> compute() {
+			try {
+				return verifyChunk(from, to);
+			} catch (IOException e) {
+				throw new IllegalArgumentException("Unable to load file.");
+			}
+		}
+	}
+}
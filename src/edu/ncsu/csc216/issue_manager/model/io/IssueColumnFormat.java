@@ -0,0 +1,286 @@
+package edu.ncsu.csc216.issue_manager.model.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.ncsu.csc216.issue_manager.model.io.IssueColumnReader.Column;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue;
+
+/**
+ * The IssueColumnFormat class writes the columnar issue file format, which
+ * stores each field of the issues as one contiguous block, so a reader can
+ * load the fields a query needs and skip the others, notes in particular.
+ *
+ * A columnar file starts with a four byte magic number, a version byte and a
+ * flags byte, the number of issues, and a directory giving the offset and
+ * length of every column in the order of Column. All numbers are big-endian.
+ * The columns are stored as follows.
+ * <ul>
+ * <li>The ids are an int per issue.</li>
+ * <li>The confirmed flags are a bit per issue, lowest bit first.</li>
+ * <li>The state, type, owner and resolution are dictionary encoded: the size
+ * of the dictionary, the width of a code in bytes (1, 2 or 4), a code per
+ * issue, and the dictionary values as strings. A missing owner or
+ * resolution is stored as an empty string.</li>
+ * <li>The summaries are strings.</li>
+ * <li>The notes are the index of the first note of each issue and, after the
+ * last issue, the number of notes, followed by the notes as strings.</li>
+ * </ul>
+ * A block of N strings is N + 1 int offsets, relative to the end of the
+ * offsets, followed by the UTF-8 bytes of the strings.
+ *
+ * @author Nirvan Reddy Anumandla
+ */
+class IssueColumnFormat {
+	/** Magic number at the start of every columnar issue file. */
+	static final byte[] MAGIC = { 0, 'I', 'S', 'C' };
+	/** Current version of the format. */
+	static final int VERSION = 1;
+	/** Length of the file header: magic, version, flags, count and directory. */
+	static final int HEADER_LENGTH = MAGIC.length + 2 + Integer.BYTES
+			+ Column.values().length * 2 * Long.BYTES;
+
+	/**
+	 * Writes issues to a channel in the columnar format, one column at a
+	 * time, so only one column is held in memory.
+	 *
+	 * @param channel The channel to write to, positioned at the start of the
+	 *                file.
+	 * @param issues  The issues to write.
+	 * @throws IOException If the channel cannot be written.
+	 */
+	static void write(FileChannel channel, List<Issue> issues) throws IOException {
+		int rows = issues.size();
+		long[] offsets = new long[Column.values().length];
+		long[] lengths = new long[offsets.length];
+		long position = HEADER_LENGTH;
+		for (Column column : Column.values()) {
+			ByteBuffer block = encode(column, issues);
+			offsets[column.ordinal()] = position;
+			lengths[column.ordinal()] = block.remaining();
+			while (block.hasRemaining()) {
+				position += channel.write(block, position);
+			}
+		}
+		ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+		header.put(MAGIC).put((byte) VERSION).put((byte) 0).putInt(rows);
+		for (int i = 0; i < offsets.length; i++) {
+			header.putLong(offsets[i]).putLong(lengths[i]);
+		}
+		header.flip();
+		long at = 0;
+		while (header.hasRemaining()) {
+			at += channel.write(header, at);
+		}
+	}
+
+	/**
+	 * Encodes one column of the issues.
+	 *
+	 * @param column The column to encode.
+	 * @param issues The issues.
+	 * @return The bytes of the column.
+	 */
+	private static ByteBuffer encode(Column column, List<Issue> issues) {
+		int rows = issues.size();
+		switch (column) {
+		case ID:
+			ByteBuffer ids = ByteBuffer.allocate(rows * Integer.BYTES);
+			for (int i = 0; i < rows; i++) {
+				ids.putInt(issues.get(i).getIssueId());
+			}
+			ids.flip();
+			return ids;
+		case CONFIRMED:
+			byte[] bits = new byte[(rows + 7) / 8];
+			for (int i = 0; i < rows; i++) {
+				if (issues.get(i).isConfirmed()) {
+					bits[i >> 3] |= 1 << (i & 7);
+				}
+			}
+			return ByteBuffer.wrap(bits);
+		case SUMMARY:
+			Strings summaries = new Strings(rows);
+			for (int i = 0; i < rows; i++) {
+				summaries.add(issues.get(i).getSummary());
+			}
+			return summaries.encode(0);
+		case NOTES:
+			int[] firstNote = new int[rows + 1];
+			Strings notes = new Strings(rows);
+			for (int i = 0; i < rows; i++) {
+				firstNote[i] = notes.size();
+				List<String> issueNotes = issues.get(i).getNotes();
+				for (int n = 0; n < issueNotes.size(); n++) {
+					notes.add(issueNotes.get(n));
+				}
+			}
+			firstNote[rows] = notes.size();
+			ByteBuffer noteBlock = notes.encode(firstNote.length * Integer.BYTES);
+			for (int i = 0; i < firstNote.length; i++) {
+				noteBlock.putInt(i * Integer.BYTES, firstNote[i]);
+			}
+			return noteBlock;
+		default:
+			return encodeDictionary(column, issues);
+		}
+	}
+
+	/**
+	 * Encodes a dictionary column of the issues.
+	 *
+	 * @param column The column to encode.
+	 * @param issues The issues.
+	 * @return The bytes of the column.
+	 */
+	private static ByteBuffer encodeDictionary(Column column, List<Issue> issues) {
+		int rows = issues.size();
+		Map<String, Integer> codes = new HashMap<>();
+		Strings dictionary = new Strings(8);
+		int[] rowCodes = new int[rows];
+		for (int i = 0; i < rows; i++) {
+			String value = value(column, issues.get(i));
+			Integer code = codes.get(value);
+			if (code == null) {
+				code = dictionary.size();
+				codes.put(value, code);
+				dictionary.add(value);
+			}
+			rowCodes[i] = code;
+		}
+		int width = codeWidth(dictionary.size());
+		int prefix = 2 * Integer.BYTES + rows * width;
+		ByteBuffer block = dictionary.encode(prefix);
+		block.putInt(0, dictionary.size());
+		block.putInt(Integer.BYTES, width);
+		int at = 2 * Integer.BYTES;
+		for (int i = 0; i < rows; i++, at += width) {
+			if (width == 1) {
+				block.put(at, (byte) rowCodes[i]);
+			} else if (width == 2) {
+				block.putShort(at, (short) rowCodes[i]);
+			} else {
+				block.putInt(at, rowCodes[i]);
+			}
+		}
+		return block;
+	}
+
+	/**
+	 * Gets the value of a dictionary column for an issue.
+	 *
+	 * @param column The column.
+	 * @param issue  The issue.
+	 * @return The value, or an empty string if the issue has none.
+	 */
+	private static String value(Column column, Issue issue) {
+		String value;
+		if (column == Column.STATE) {
+			value = issue.getStateName();
+		} else if (column == Column.TYPE) {
+			value = issue.getIssueType();
+		} else if (column == Column.OWNER) {
+			value = issue.getOwner();
+		} else {
+			value = issue.getResolution();
+		}
+		return value == null ? "" : value;
+	}
+
+	/**
+	 * Gets the number of bytes needed for the codes of a dictionary.
+	 *
+	 * @param size The number of values in the dictionary.
+	 * @return 1, 2 or 4.
+	 */
+	static int codeWidth(int size) {
+		if (size <= 1 << 8) {
+			return 1;
+		}
+		return size <= 1 << 16 ? 2 : 4;
+	}
+
+	/**
+	 * A block of strings being collected for a column.
+	 */
+	private static class Strings {
+		/** Offset of the end of each string in the bytes. */
+		private int[] ends;
+		/** Number of strings. */
+		private int count;
+		/** UTF-8 bytes of the strings. */
+		private byte[] bytes = new byte[1024];
+		/** Number of bytes used. */
+		private int length;
+
+		/**
+		 * Creates an empty block.
+		 *
+		 * @param capacity The number of strings expected.
+		 */
+		Strings(int capacity) {
+			ends = new int[Math.max(8, capacity)];
+		}
+
+		/**
+		 * Adds a string to the block.
+		 *
+		 * @param s The string.
+		 * @throws IllegalArgumentException If the block grows past 2 GiB.
+		 */
+		void add(String s) {
+			byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+			if (length + (long) utf8.length > Integer.MAX_VALUE - 8) {
+				throw new IllegalArgumentException("Unable to save file");
+			}
+			if (length + utf8.length > bytes.length) {
+				bytes = Arrays.copyOf(bytes, (int) Math.min(Integer.MAX_VALUE - 8,
+						Math.max(length + (long) utf8.length, bytes.length * 2L)));
+			}
+			System.arraycopy(utf8, 0, bytes, length, utf8.length);
+			length += utf8.length;
+			if (count == ends.length) {
+				ends = Arrays.copyOf(ends, count * 2);
+			}
+			ends[count++] = length;
+		}
+
+		/**
+		 * Gets the number of strings in the block.
+		 *
+		 * @return The number of strings.
+		 */
+		int size() {
+			return count;
+		}
+
+		/**
+		 * Encodes the block after room for a prefix the caller fills in.
+		 *
+		 * @param prefix The number of bytes to leave before the block.
+		 * @return The bytes of the prefix and the block.
+		 * @throws IllegalArgumentException If the block is larger than 2 GiB.
+		 */
+		ByteBuffer encode(int prefix) {
+			long total = prefix + (count + 1L) * Integer.BYTES + length;
+			if (total > Integer.MAX_VALUE - 8) {
+				throw new IllegalArgumentException("Unable to save file");
+			}
+			ByteBuffer block = ByteBuffer.allocate((int) total);
+			block.position(prefix);
+			block.putInt(0);
+			for (int i = 0; i < count; i++) {
+				block.putInt(ends[i]);
+			}
+			block.put(bytes, 0, length);
+			block.flip();
+			return block;
+		}
+	}
+}
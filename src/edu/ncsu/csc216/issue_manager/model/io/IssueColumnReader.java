@@ -0,0 +1,377 @@
+package edu.ncsu.csc216.issue_manager.model.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.ncsu.csc216.issue_manager.model.issue.Issue;
+
+/**
+ * The IssueColumnReader class reads the columns of a columnar issue file, see
+ * IssueColumnFormat. Only the bytes of the columns asked for are read from the
+ * file, so a query over the state and owner of every issue never touches the
+ * summaries or notes. The dictionary columns can also be read as codes and a
+ * dictionary, so issues can be counted by value without building a String per
+ * issue.
+ *
+ * A reader keeps the file open until it is closed, and is not safe for use by
+ * multiple threads.
+ *
+ * @author Nirvan Reddy Anumandla
+ */
+public class IssueColumnReader implements Closeable {
+	/**
+	 * The columns of a columnar issue file, in the order they are stored.
+	 */
+	public enum Column {
+		/** The issue ids. */
+		ID,
+		/** The state names, dictionary encoded. */
+		STATE,
+		/** The issue types, dictionary encoded. */
+		TYPE,
+		/** The summaries. */
+		SUMMARY,
+		/** The owners, dictionary encoded. */
+		OWNER,
+		/** The confirmed flags. */
+		CONFIRMED,
+		/** The resolutions, dictionary encoded. */
+		RESOLUTION,
+		/** The notes. */
+		NOTES
+	}
+
+	/** The file being read. */
+	private final FileChannel channel;
+	/** Number of issues in the file. */
+	private final int rows;
+	/** Offset of each column in the file. */
+	private final long[] offsets = new long[Column.values().length];
+	/** Length of each column in the file. */
+	private final long[] lengths = new long[Column.values().length];
+	/** Number of column bytes read so far. */
+	private long bytesRead;
+
+	/**
+	 * Opens a columnar issue file and reads its header.
+	 *
+	 * @param fileName The name of the file.
+	 * @throws IllegalArgumentException If the file cannot be read or is not a
+	 *                                  columnar issue file.
+	 */
+	public IssueColumnReader(String fileName) {
+		try {
+			channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ);
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		try {
+			ByteBuffer header = read(0, IssueColumnFormat.HEADER_LENGTH);
+			for (int i = 0; i < IssueColumnFormat.MAGIC.length; i++) {
+				if (header.get() != IssueColumnFormat.MAGIC[i]) {
+					throw new IllegalArgumentException("Unable to load file.");
+				}
+			}
+			if (header.get() != IssueColumnFormat.VERSION) {
+				throw new IllegalArgumentException("Unable to load file.");
+			}
+			header.get();
+			rows = header.getInt();
+			long size = channel.size();
+			for (int i = 0; i < offsets.length; i++) {
+				offsets[i] = header.getLong();
+				lengths[i] = header.getLong();
+				if (offsets[i] < 0 || lengths[i] < 0 || lengths[i] > Integer.MAX_VALUE
+						|| offsets[i] + lengths[i] > size) {
+					throw new IllegalArgumentException("Unable to load file.");
+				}
+			}
+			if (rows < 0) {
+				throw new IllegalArgumentException("Unable to load file.");
+			}
+		} catch (IOException | IllegalArgumentException e) {
+			close();
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+	}
+
+	/**
+	 * Gets the number of issues in the file.
+	 *
+	 * @return The number of issues.
+	 */
+	public int size() {
+		return rows;
+	}
+
+	/**
+	 * Reads the ids of the issues.
+	 *
+	 * @return The id of each issue.
+	 * @throws IllegalArgumentException If the column cannot be read.
+	 */
+	public int[] readIds() {
+		ByteBuffer block = readColumn(Column.ID);
+		check(block.remaining() == rows * (long) Integer.BYTES);
+		int[] ids = new int[rows];
+		block.asIntBuffer().get(ids);
+		return ids;
+	}
+
+	/**
+	 * Reads the confirmed flags of the issues.
+	 *
+	 * @return Whether each issue is confirmed.
+	 * @throws IllegalArgumentException If the column cannot be read.
+	 */
+	public boolean[] readConfirmed() {
+		ByteBuffer block = readColumn(Column.CONFIRMED);
+		check(block.remaining() == (rows + 7L) / 8);
+		boolean[] confirmed = new boolean[rows];
+		for (int i = 0; i < rows; i++) {
+			confirmed[i] = (block.get(i >> 3) & 1 << (i & 7)) != 0;
+		}
+		return confirmed;
+	}
+
+	/**
+	 * Reads the codes of a dictionary column. The value of an issue is the
+	 * entry of {@link #readDictionary(Column)} at its code.
+	 *
+	 * @param column STATE, TYPE, OWNER or RESOLUTION.
+	 * @return The code of each issue.
+	 * @throws IllegalArgumentException If the column is not dictionary encoded
+	 *                                  or cannot be read.
+	 */
+	public int[] readCodes(Column column) {
+		ByteBuffer block = readDictionaryColumn(column);
+		int size = block.getInt(0);
+		int width = block.getInt(Integer.BYTES);
+		int[] codes = new int[rows];
+		int at = 2 * Integer.BYTES;
+		for (int i = 0; i < rows; i++, at += width) {
+			if (width == 1) {
+				codes[i] = block.get(at) & 0xFF;
+			} else if (width == 2) {
+				codes[i] = block.getShort(at) & 0xFFFF;
+			} else {
+				codes[i] = block.getInt(at);
+			}
+			check(codes[i] >= 0 && codes[i] < size);
+		}
+		return codes;
+	}
+
+	/**
+	 * Reads the dictionary of a dictionary column.
+	 *
+	 * @param column STATE, TYPE, OWNER or RESOLUTION.
+	 * @return The values of the column, by code.
+	 * @throws IllegalArgumentException If the column is not dictionary encoded
+	 *                                  or cannot be read.
+	 */
+	public String[] readDictionary(Column column) {
+		ByteBuffer block = readDictionaryColumn(column);
+		int size = block.getInt(0);
+		int width = block.getInt(Integer.BYTES);
+		return decodeStrings(block, 2 * Integer.BYTES + rows * width, size);
+	}
+
+	/**
+	 * Reads the values of a column of strings for every issue.
+	 *
+	 * @param column STATE, TYPE, SUMMARY, OWNER or RESOLUTION.
+	 * @return The value of each issue, with an empty string for a missing owner
+	 *         or resolution.
+	 * @throws IllegalArgumentException If the column does not hold strings or
+	 *                                  cannot be read.
+	 */
+	public String[] readStrings(Column column) {
+		if (column == Column.SUMMARY) {
+			return decodeStrings(readColumn(column), 0, rows);
+		}
+		String[] dictionary = readDictionary(column);
+		int[] codes = readCodes(column);
+		String[] values = new String[rows];
+		for (int i = 0; i < rows; i++) {
+			values[i] = dictionary[codes[i]];
+		}
+		return values;
+	}
+
+	/**
+	 * Reads the notes of every issue.
+	 *
+	 * @return The notes of each issue.
+	 * @throws IllegalArgumentException If the column cannot be read.
+	 */
+	public List<ArrayList<String>> readNotes() {
+		ByteBuffer block = readColumn(Column.NOTES);
+		check(block.remaining() >= (rows + 1L) * Integer.BYTES);
+		int noteCount = block.getInt(rows * Integer.BYTES);
+		String[] notes = decodeStrings(block, (rows + 1) * Integer.BYTES, noteCount);
+		List<ArrayList<String>> issueNotes = new ArrayList<>(rows);
+		for (int i = 0; i < rows; i++) {
+			int first = block.getInt(i * Integer.BYTES);
+			int last = block.getInt((i + 1) * Integer.BYTES);
+			check(first >= 0 && first <= last && last <= noteCount);
+			ArrayList<String> list = new ArrayList<>(last - first);
+			for (int n = first; n < last; n++) {
+				list.add(notes[n]);
+			}
+			issueNotes.add(list);
+		}
+		return issueNotes;
+	}
+
+	/**
+	 * Reads every column and builds the issues. Rows that do not describe a
+	 * valid issue are skipped.
+	 *
+	 * @return The issues, in file order.
+	 * @throws IllegalArgumentException If a column cannot be read.
+	 */
+	public ArrayList<Issue> readIssues() {
+		int[] ids = readIds();
+		String[] states = readStrings(Column.STATE);
+		String[] types = readStrings(Column.TYPE);
+		String[] summaries = readStrings(Column.SUMMARY);
+		String[] owners = readStrings(Column.OWNER);
+		boolean[] confirmed = readConfirmed();
+		String[] resolutions = readStrings(Column.RESOLUTION);
+		List<ArrayList<String>> notes = readNotes();
+		ArrayList<Issue> issues = new ArrayList<>(rows);
+		for (int i = 0; i < rows; i++) {
+			try {
+				issues.add(new Issue(ids[i], states[i], types[i], summaries[i], owners[i], confirmed[i],
+						resolutions[i], notes.get(i)));
+			} catch (IllegalArgumentException e) {
+				// the row is skipped, as invalid records of the other formats are
+			}
+		}
+		return issues;
+	}
+
+	/**
+	 * Gets the number of column bytes read from the file so far.
+	 *
+	 * @return The number of bytes read.
+	 */
+	public long getBytesRead() {
+		return bytesRead;
+	}
+
+	/**
+	 * Closes the file.
+	 */
+	@Override
+	public void close() {
+		try {
+			channel.close();
+		} catch (IOException e) {
+			// the file is closed either way
+		}
+	}
+
+	/**
+	 * Reads a dictionary column and checks its codes fit in it.
+	 *
+	 * @param column The column.
+	 * @return The bytes of the column.
+	 * @throws IllegalArgumentException If the column is not dictionary encoded
+	 *                                  or is corrupt.
+	 */
+	private ByteBuffer readDictionaryColumn(Column column) {
+		if (column != Column.STATE && column != Column.TYPE && column != Column.OWNER
+				&& column != Column.RESOLUTION) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		ByteBuffer block = readColumn(column);
+		check(block.remaining() >= 2 * Integer.BYTES);
+		int size = block.getInt(0);
+		int width = block.getInt(Integer.BYTES);
+		check(size >= 0 && width == IssueColumnFormat.codeWidth(size));
+		check(block.remaining() >= 2L * Integer.BYTES + (long) rows * width + (size + 1L) * Integer.BYTES);
+		return block;
+	}
+
+	/**
+	 * Reads the bytes of a column.
+	 *
+	 * @param column The column.
+	 * @return The bytes of the column.
+	 * @throws IllegalArgumentException If the file cannot be read.
+	 */
+	private ByteBuffer readColumn(Column column) {
+		try {
+			int length = (int) lengths[column.ordinal()];
+			bytesRead += length;
+			return read(offsets[column.ordinal()], length);
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+	}
+
+	/**
+	 * Decodes a block of strings.
+	 *
+	 * @param block The bytes of the column holding the block.
+	 * @param start The offset of the block in the column.
+	 * @param count The number of strings in the block.
+	 * @return The strings.
+	 * @throws IllegalArgumentException If the block is corrupt.
+	 */
+	private static String[] decodeStrings(ByteBuffer block, int start, int count) {
+		check(count >= 0 && start + (count + 1L) * Integer.BYTES <= block.remaining());
+		int data = start + (count + 1) * Integer.BYTES;
+		byte[] bytes = block.array();
+		String[] strings = new String[count];
+		int from = block.getInt(start);
+		for (int i = 0; i < count; i++) {
+			int to = block.getInt(start + (i + 1) * Integer.BYTES);
+			check(from >= 0 && from <= to && data + (long) to <= block.remaining());
+			strings[i] = new String(bytes, block.arrayOffset() + data + from, to - from, StandardCharsets.UTF_8);
+			from = to;
+		}
+		return strings;
+	}
+
+	/**
+	 * Checks a condition the bytes of a valid file meet.
+	 *
+	 * @param valid The condition.
+	 * @throws IllegalArgumentException If the condition does not hold.
+	 */
+	private static void check(boolean valid) {
+		if (!valid) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+	}
+
+	/**
+	 * Reads bytes of the file.
+	 *
+	 * @param position The offset of the first byte.
+	 * @param length   The number of bytes.
+	 * @return A buffer over the bytes.
+	 * @throws IOException If the file cannot be read or ends too early.
+	 */
+	private ByteBuffer read(long position, int length) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(length);
+		while (buffer.hasRemaining()) {
+			int n = channel.read(buffer, position + buffer.position());
+			if (n < 0) {
+				throw new IOException("Unexpected end of file");
+			}
+		}
+		buffer.flip();
+		return buffer;
+	}
+}
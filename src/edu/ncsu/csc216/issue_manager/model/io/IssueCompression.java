@@ -0,0 +1,172 @@
+package edu.ncsu.csc216.issue_manager.model.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * The IssueCompression enum lists the codecs issue files can be compressed
+ * with. Compressed files are read and written through the streaming JDK codecs,
+ * so a compressed file is never decompressed to a temporary copy.
+ *
+ * When reading, the codec is picked from the first bytes of the file. When
+ * writing, it is picked from the file extension: ".gz" for gzip and ".deflate"
+ * or ".zz" for zlib deflate. A file without one of these extensions keeps the
+ * codec it was written with, if it exists.
+ *
+ * @author Nirvan Reddy Anumandla
+ */
+enum IssueCompression {
+	/** Uncompressed file. */
+	NONE,
+	/** gzip file, starting with the bytes 0x1f 0x8b. */
+	GZIP,
+	/** zlib deflate stream, starting with a two byte zlib header. */
+	DEFLATE;
+
+	/** Size of the codec buffers. */
+	private static final int BUFFER_SIZE = 64 * 1024;
+	/** Number of bytes needed to recognize a codec. */
+	private static final int HEADER_LENGTH = 2;
+
+	/**
+	 * Picks the codec of a file from its first bytes.
+	 *
+	 * @param header The first bytes of the file.
+	 * @param length The number of bytes in <code>header</code>.
+	 * @return The codec the bytes start with, or NONE.
+	 */
+	static IssueCompression detect(byte[] header, int length) {
+		if (length < HEADER_LENGTH) {
+			return NONE;
+		}
+		int b0 = header[0] & 0xFF;
+		int b1 = header[1] & 0xFF;
+		if (b0 == 0x1F && b1 == 0x8B) {
+			return GZIP;
+		}
+		if ((b0 & 0x0F) == 8 && (b0 >> 4) <= 7 && (b1 & 0x20) == 0 && ((b0 << 8) | b1) % 31 == 0) {
+			return DEFLATE;
+		}
+		return NONE;
+	}
+
+	/**
+	 * Picks the codec of an existing file from its first bytes.
+	 *
+	 * @param fileName The name of the file.
+	 * @return The codec the file is compressed with, or NONE.
+	 * @throws IOException If the file cannot be read.
+	 */
+	static IssueCompression forReading(String fileName) throws IOException {
+		try (FileInputStream in = new FileInputStream(fileName)) {
+			byte[] header = new byte[HEADER_LENGTH];
+			return detect(header, in.readNBytes(header, 0, header.length));
+		}
+	}
+
+	/**
+	 * Picks the codec to write a file with, from its extension or else from the
+	 * codec the existing file was written with.
+	 *
+	 * @param fileName The name of the file.
+	 * @return The codec to write the file with.
+	 */
+	static IssueCompression forWriting(String fileName) {
+		String name = fileName.toLowerCase();
+		if (name.endsWith(".gz")) {
+			return GZIP;
+		}
+		if (name.endsWith(".deflate") || name.endsWith(".zz")) {
+			return DEFLATE;
+		}
+		if (new File(fileName).isFile()) {
+			try {
+				return forReading(fileName);
+			} catch (IOException e) {
+				return NONE;
+			}
+		}
+		return NONE;
+	}
+
+	/**
+	 * Opens a file for reading, decompressing it if its first bytes show that it
+	 * is compressed.
+	 *
+	 * @param fileName The name of the file.
+	 * @return A stream over the uncompressed bytes of the file.
+	 * @throws IOException If the file cannot be opened or read.
+	 */
+	static InputStream open(String fileName) throws IOException {
+		PushbackInputStream in = new PushbackInputStream(new FileInputStream(fileName), HEADER_LENGTH);
+		try {
+			byte[] header = new byte[HEADER_LENGTH];
+			int length = in.readNBytes(header, 0, header.length);
+			in.unread(header, 0, length);
+			return detect(header, length).wrap(in);
+		} catch (IOException e) {
+			in.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Wraps a stream so the bytes read from it are decompressed with this codec.
+	 *
+	 * @param in The stream holding the compressed bytes.
+	 * @return A stream over the uncompressed bytes.
+	 * @throws IOException If the compressed stream has an invalid header.
+	 */
+	InputStream wrap(InputStream in) throws IOException {
+		switch (this) {
+		case GZIP:
+			return new GZIPInputStream(in, BUFFER_SIZE);
+		case DEFLATE:
+			return new InflaterInputStream(new BufferedInputStream(in, BUFFER_SIZE));
+		default:
+			return in;
+		}
+	}
+
+	/**
+	 * Wraps a stream so the bytes written to it are compressed with this codec.
+	 *
+	 * @param out The stream the compressed bytes are written to.
+	 * @return A stream that compresses what is written to it.
+	 * @throws IOException If the compressed header cannot be written.
+	 */
+	OutputStream wrap(OutputStream out) throws IOException {
+		switch (this) {
+		case GZIP:
+			return new GZIPOutputStream(out, BUFFER_SIZE);
+		case DEFLATE:
+			return new DeflaterOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+		default:
+			return out;
+		}
+	}
+
+	/**
+	 * Writes the rest of the compressed data to the underlying stream without
+	 * closing it, so the file can be forced to disk before it is closed.
+	 *
+	 * @param out A stream returned by {@link #wrap(OutputStream)}.
+	 * @throws IOException If the stream cannot be written.
+	 */
+	static void finish(OutputStream out) throws IOException {
+		if (out instanceof DeflaterOutputStream) {
+			((DeflaterOutputStream) out).finish();
+		}
+		out.flush();
+	}
+}
@@ -0,0 +1,234 @@
+package edu.ncsu.csc216.issue_manager.model.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.util.ArrayList;
+
+import edu.ncsu.csc216.issue_manager.model.issue.Issue;
+
+/**
+ * The IssueDirectEncoder class writes the text records of issues to a channel
+ * through a chain of pooled direct buffers. Records are encoded straight to
+ * UTF-8 in the buffers, so a save creates no garbage per issue. When a buffer
+ * fills, encoding goes on in the next one, so a record or note of any length
+ * is split over as many buffers as it needs; once every buffer of the chain is
+ * full, the chain is written with a single gathering write. The bytes match
+ * those of IssueRecordEncoder.
+ *
+ * An encoder is not safe for use by multiple threads, and must be closed to
+ * return its buffers to the pool.
+ *
+ * @author Nirvan Reddy Anumandla
+ */
+class IssueDirectEncoder implements Closeable {
+	/** Number of buffers written by one gathering write. */
+	private static final int CHAIN_LENGTH = 16;
+	/** Line separator written after each record. */
+	private static final String LINE_SEPARATOR = System.lineSeparator();
+
+	/** Channel the records are written to. */
+	private final GatheringByteChannel channel;
+	/** Buffers of the chain, taken from the pool as they are needed. */
+	private final ByteBuffer[] chain = new ByteBuffer[CHAIN_LENGTH];
+	/** Index in the chain of the buffer being filled. */
+	private int used;
+	/** Buffer being filled. */
+	private ByteBuffer current;
+	/** Number of bytes encoded before the current buffer. */
+	private long position;
+
+	/**
+	 * Creates an encoder writing to a channel.
+	 *
+	 * @param channel The channel to write the records to.
+	 */
+	IssueDirectEncoder(GatheringByteChannel channel) {
+		this.channel = channel;
+		chain[0] = IssueBufferPool.acquire();
+		current = chain[0];
+	}
+
+	/**
+	 * Encodes the record of an issue, writing out the chain if it fills.
+	 *
+	 * @param issue The issue to encode.
+	 * @return The number of bytes in the record.
+	 * @throws IOException If the channel cannot be written.
+	 */
+	int append(Issue issue) throws IOException {
+		long before = position();
+		putByte('*');
+		putInt(issue.getIssueId());
+		putByte(',');
+		putString(issue.getStateName());
+		putByte(',');
+		putString(issue.getIssueType());
+		putByte(',');
+		putString(issue.getSummary());
+		putByte(',');
+		putString(issue.getOwner());
+		putByte(',');
+		putString(issue.isConfirmed() ? "true" : "false");
+		putByte(',');
+		String resolution = issue.getResolution();
+		if (resolution != null) {
+			putString(resolution);
+		}
+		putByte('\n');
+		ArrayList<String> notes = issue.getNotes();
+		for (int i = 0; i < notes.size(); i++) {
+			putByte('-');
+			putString(notes.get(i));
+			putByte('\n');
+		}
+		putString(LINE_SEPARATOR);
+		return (int) (position() - before);
+	}
+
+	/**
+	 * Gets the number of bytes encoded so far, whether written out or not.
+	 *
+	 * @return The offset of the next record.
+	 */
+	long position() {
+		return position + current.position();
+	}
+
+	/**
+	 * Writes out every encoded byte.
+	 *
+	 * @throws IOException If the channel cannot be written.
+	 */
+	void flush() throws IOException {
+		position += current.position();
+		current.flip();
+		while (current.hasRemaining()) {
+			channel.write(chain, 0, used + 1);
+		}
+		for (int i = 0; i <= used; i++) {
+			chain[i].clear();
+		}
+		used = 0;
+		current = chain[0];
+	}
+
+	/**
+	 * Returns the buffers of the chain to the pool. Bytes that were not flushed
+	 * are dropped.
+	 */
+	@Override
+	public void close() {
+		for (int i = 0; i < chain.length && chain[i] != null; i++) {
+			IssueBufferPool.release(chain[i]);
+			chain[i] = null;
+		}
+		current = null;
+	}
+
+	/**
+	 * Makes sure the current buffer has room for at least <code>bytes</code>
+	 * more bytes, moving on to the next buffer of the chain, or writing out the
+	 * chain, if it has not.
+	 *
+	 * @param bytes The number of bytes about to be encoded, at most the size of
+	 *              a buffer.
+	 * @throws IOException If the channel cannot be written.
+	 */
+	private void ensureRemaining(int bytes) throws IOException {
+		if (current.remaining() >= bytes) {
+			return;
+		}
+		if (used + 1 == chain.length) {
+			flush();
+			return;
+		}
+		position += current.position();
+		current.flip();
+		used++;
+		if (chain[used] == null) {
+			chain[used] = IssueBufferPool.acquire();
+		}
+		current = chain[used];
+	}
+
+	/**
+	 * Encodes the decimal digits of an integer.
+	 *
+	 * @param value The integer to encode.
+	 * @throws IOException If the channel cannot be written.
+	 */
+	private void putInt(int value) throws IOException {
+		ensureRemaining(11);
+		long v = value;
+		if (v < 0) {
+			current.put((byte) '-');
+			v = -v;
+		}
+		int digits = 1;
+		for (long p = 10; p <= v; p *= 10) {
+			digits++;
+		}
+		int start = current.position();
+		for (int i = start + digits - 1; i >= start; i--) {
+			current.put(i, (byte) ('0' + v % 10));
+			v /= 10;
+		}
+		current.position(start + digits);
+	}
+
+	/**
+	 * Encodes a string as UTF-8, or "null" for a null string, the same way
+	 * IssueRecordEncoder does. A string that fits in the current buffer is
+	 * encoded without checking for room per character.
+	 *
+	 * @param s The string to encode.
+	 * @throws IOException If the channel cannot be written.
+	 */
+	private void putString(String s) throws IOException {
+		if (s == null) {
+			s = "null";
+		}
+		int length = s.length();
+		boolean fits = current.remaining() >= length * 3L + 1;
+		ByteBuffer b = current;
+		for (int i = 0; i < length; i++) {
+			if (!fits) {
+				ensureRemaining(4);
+				b = current;
+			}
+			char c = s.charAt(i);
+			if (c < 0x80) {
+				b.put((byte) c);
+			} else if (c < 0x800) {
+				b.put((byte) (0xC0 | c >> 6));
+				b.put((byte) (0x80 | c & 0x3F));
+			} else if (Character.isHighSurrogate(c) && i + 1 < length
+					&& Character.isLowSurrogate(s.charAt(i + 1))) {
+				int cp = Character.toCodePoint(c, s.charAt(++i));
+				b.put((byte) (0xF0 | cp >> 18));
+				b.put((byte) (0x80 | cp >> 12 & 0x3F));
+				b.put((byte) (0x80 | cp >> 6 & 0x3F));
+				b.put((byte) (0x80 | cp & 0x3F));
+			} else if (Character.isSurrogate(c)) {
+				b.put((byte) '?');
+			} else {
+				b.put((byte) (0xE0 | c >> 12));
+				b.put((byte) (0x80 | c >> 6 & 0x3F));
+				b.put((byte) (0x80 | c & 0x3F));
+			}
+		}
+	}
+
+	/**
+	 * Encodes a single ASCII character.
+	 *
+	 * @param c The character to encode.
+	 * @throws IOException If the channel cannot be written.
+	 */
+	private void putByte(char c) throws IOException {
+		ensureRemaining(1);
+		current.put((byte) c);
+	}
+}
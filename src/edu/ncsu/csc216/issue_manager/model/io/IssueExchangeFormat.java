@@ -0,0 +1,226 @@
+package edu.ncsu.csc216.issue_manager.model.io;
+
+import java.util.List;
+import java.util.Locale;
+
+import edu.ncsu.csc216.issue_manager.model.command.Command;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue;
+
+/**
+ * The IssueExchangeFormat class encodes issues in the formats used to move
+ * them to and from other systems: CSV with a header row, and JSON lines with
+ * one object per issue. The format of a file is picked from its extension,
+ * after any compression extension: ".csv" for CSV, and ".ndjson", ".jsonl" or
+ * ".json" for JSON lines.
+ *
+ * Both formats have the fields id, state, type, summary, owner, confirmed,
+ * resolution and notes. An issue without an owner or resolution has an empty
+ * one. In JSON the notes are an array of strings. In CSV they are one field
+ * laid out as in the text issue format: every note starts on a new line with
+ * '-', and a line that does not start with '-' continues the note before it.
+ *
+ * @author Nirvan Reddy Anumandla
+ */
+class IssueExchangeFormat {
+	/** Format code of CSV files. */
+	static final int CSV = 0;
+	/** Format code of JSON lines files. */
+	static final int NDJSON = 1;
+	/** Names of the fields, in the column order of exported CSV files. */
+	static final String[] FIELDS = { "id", "state", "type", "summary", "owner", "confirmed", "resolution", "notes" };
+	/** Known state names, so imported issues share the constants. */
+	static final String[] STATES = { Issue.NEW_NAME, Issue.WORKING_NAME, Issue.CONFIRMED_NAME, Issue.VERIFYING_NAME,
+			Issue.CLOSED_NAME };
+	/** Known issue types. */
+	static final String[] TYPES = { Issue.I_BUG, Issue.I_ENHANCEMENT };
+	/** Known resolutions. */
+	static final String[] RESOLUTIONS = { Command.R_FIXED, Command.R_DUPLICATE, Command.R_WONTFIX,
+			Command.R_WORKSFORME };
+	/** Compression extensions ignored when the format is picked. */
+	private static final String[] COMPRESSION_EXTENSIONS = { ".gz", ".deflate", ".zz" };
+
+	/**
+	 * Picks the exchange format of a file from its extension.
+	 *
+	 * @param fileName The name of the file.
+	 * @return The format code, or -1 if the extension is not an exchange format.
+	 */
+	static int formatOf(String fileName) {
+		String name = fileName.toLowerCase(Locale.ROOT);
+		for (String extension : COMPRESSION_EXTENSIONS) {
+			if (name.endsWith(extension)) {
+				name = name.substring(0, name.length() - extension.length());
+				break;
+			}
+		}
+		if (name.endsWith(".csv")) {
+			return CSV;
+		} else if (name.endsWith(".ndjson") || name.endsWith(".jsonl") || name.endsWith(".json")) {
+			return NDJSON;
+		}
+		return -1;
+	}
+
+	/**
+	 * Appends the CSV header row.
+	 *
+	 * @param out The text to append to.
+	 */
+	static void appendCsvHeader(StringBuilder out) {
+		for (int i = 0; i < FIELDS.length; i++) {
+			if (i > 0) {
+				out.append(',');
+			}
+			out.append(FIELDS[i]);
+		}
+		out.append('\n');
+	}
+
+	/**
+	 * Appends an issue as a CSV row.
+	 *
+	 * @param out   The text to append to.
+	 * @param issue The issue.
+	 */
+	static void appendCsv(StringBuilder out, Issue issue) {
+		out.append(issue.getIssueId()).append(',');
+		out.append(issue.getStateName()).append(',');
+		out.append(issue.getIssueType()).append(',');
+		appendCsvField(out, issue.getSummary());
+		out.append(',');
+		appendCsvField(out, issue.getOwner() == null ? "" : issue.getOwner());
+		out.append(',').append(issue.isConfirmed()).append(',');
+		out.append(issue.getResolution() == null ? "" : issue.getResolution()).append(',');
+		List<String> notes = issue.getNotes();
+		boolean quote = notes.size() > 1;
+		for (int i = 0; !quote && i < notes.size(); i++) {
+			quote = needsQuotes(notes.get(i));
+		}
+		if (quote) {
+			out.append('"');
+		}
+		for (int i = 0; i < notes.size(); i++) {
+			if (i > 0) {
+				out.append('\n');
+			}
+			out.append('-');
+			appendEscaped(out, notes.get(i), quote);
+		}
+		if (quote) {
+			out.append('"');
+		}
+		out.append('\n');
+	}
+
+	/**
+	 * Appends an issue as a JSON object on its own line.
+	 *
+	 * @param out   The text to append to.
+	 * @param issue The issue.
+	 */
+	static void appendJson(StringBuilder out, Issue issue) {
+		out.append("{\"id\":").append(issue.getIssueId());
+		out.append(",\"state\":");
+		appendJsonString(out, issue.getStateName());
+		out.append(",\"type\":");
+		appendJsonString(out, issue.getIssueType());
+		out.append(",\"summary\":");
+		appendJsonString(out, issue.getSummary());
+		out.append(",\"owner\":");
+		appendJsonString(out, issue.getOwner() == null ? "" : issue.getOwner());
+		out.append(",\"confirmed\":").append(issue.isConfirmed());
+		out.append(",\"resolution\":");
+		appendJsonString(out, issue.getResolution() == null ? "" : issue.getResolution());
+		out.append(",\"notes\":[");
+		List<String> notes = issue.getNotes();
+		for (int i = 0; i < notes.size(); i++) {
+			if (i > 0) {
+				out.append(',');
+			}
+			appendJsonString(out, notes.get(i));
+		}
+		out.append("]}\n");
+	}
+
+	/**
+	 * Appends a CSV field, quoting it if it holds a separator, a quote or a line
+	 * break.
+	 *
+	 * @param out   The text to append to.
+	 * @param value The field.
+	 */
+	private static void appendCsvField(StringBuilder out, String value) {
+		boolean quote = needsQuotes(value);
+		if (quote) {
+			out.append('"');
+		}
+		appendEscaped(out, value, quote);
+		if (quote) {
+			out.append('"');
+		}
+	}
+
+	/**
+	 * Appends the text of a CSV field, doubling quotes if the field is quoted.
+	 *
+	 * @param out    The text to append to.
+	 * @param value  The text.
+	 * @param quoted Whether the field is quoted.
+	 */
+	private static void appendEscaped(StringBuilder out, String value, boolean quoted) {
+		if (!quoted) {
+			out.append(value);
+			return;
+		}
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '"') {
+				out.append('"');
+			}
+			out.append(c);
+		}
+	}
+
+	/**
+	 * Checks whether a CSV field must be quoted.
+	 *
+	 * @param value The field.
+	 * @return true if the field holds a comma, quote or line break.
+	 */
+	private static boolean needsQuotes(String value) {
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Appends a JSON string literal.
+	 *
+	 * @param out   The text to append to.
+	 * @param value The string.
+	 */
+	private static void appendJsonString(StringBuilder out, String value) {
+		out.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '"' || c == '\\') {
+				out.append('\\').append(c);
+			} else if (c == '\n') {
+				out.append("\\n");
+			} else if (c == '\r') {
+				out.append("\\r");
+			} else if (c == '\t') {
+				out.append("\\t");
+			} else if (c < 0x20) {
+				out.append(String.format("\\u%04x", (int) c));
+			} else {
+				out.append(c);
+			}
+		}
+		out.append('"');
+	}
+}
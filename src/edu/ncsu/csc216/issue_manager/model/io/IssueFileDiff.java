@@ -0,0 +1,169 @@
+package edu.ncsu.csc216.issue_manager.model.io;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32C;
+
+import edu.ncsu.csc216.issue_manager.model.issue.Issue;
+
+/**
+ * The IssueFileDiff class finds the issues that changed in a text issue file
+ * since it was last looked at, without parsing the records that did not
+ * change. It keeps the CRC32C and length of every record, without its
+ * trailing line breaks, by issue id, so the last record of the file checks
+ * the same once another record follows it. Each
+ * update scans the raw records of the file again, reads only the id of each
+ * record and compares its checksum; only records whose checksum changed, and
+ * records of new ids, are parsed into issues. Ids whose records are gone, or
+ * no longer valid, are reported as deleted. When a file holds several records
+ * with the same id, the last one counts.
+ *
+ * @author Nirvan Reddy Anumandla
+ */
+public class IssueFileDiff {
+	/** The file being compared. */
+	private final String fileName;
+	/** Checksum in the low and length in the high 32 bits of each record, by issue id. */
+	private Map<Integer, Long> records = new HashMap<>();
+
+	/**
+	 * Takes the checksums of the records of a file as they are now. The
+	 * records are not parsed, so every record with an id is remembered, valid
+	 * or not.
+	 *
+	 * @param fileName The name of the text issue file.
+	 * @throws IllegalArgumentException If the file cannot be found or read.
+	 */
+	public IssueFileDiff(String fileName) {
+		this.fileName = fileName;
+		scan(false);
+	}
+
+	/**
+	 * Compares the file with its records when it was last looked at, and
+	 * remembers its records as they are now.
+	 *
+	 * @return The issues whose records were added or changed, and the ids of
+	 *         the issues whose records were removed.
+	 * @throws IllegalArgumentException If the file cannot be found or read.
+	 */
+	public Changes update() {
+		return scan(true);
+	}
+
+	/**
+	 * Scans the records of the file and remembers their checksums.
+	 *
+	 * @param parse Whether to parse the records that changed.
+	 * @return The changes found, which are empty if the records are not parsed.
+	 * @throws IllegalArgumentException If the file cannot be found or read.
+	 */
+	private Changes scan(boolean parse) {
+		Map<Integer, Long> current = new HashMap<>(Math.max(16, records.size() * 4 / 3 + 1));
+		Map<Integer, Issue> changed = new HashMap<>();
+		IssueRecordParser parser = new IssueRecordParser();
+		CRC32C crc = new CRC32C();
+		try (IssueRecordScanner scanner = new IssueRecordScanner(IssueCompression.open(fileName))) {
+			while (scanner.next()) {
+				long id = IssueRecordParser.peekId(scanner.buffer(), scanner.start(), scanner.end());
+				if (id == Long.MIN_VALUE) {
+					continue;
+				}
+				int issueId = (int) id;
+				byte[] bytes = scanner.buffer().array();
+				int end = scanner.end();
+				while (end > scanner.start() && (bytes[end - 1] == '\n' || bytes[end - 1] == '\r')) {
+					end--;
+				}
+				crc.reset();
+				crc.update(bytes, scanner.start(), end - scanner.start());
+				long record = (long) (end - scanner.start()) << 32 | crc.getValue();
+				Long before = records.get(issueId);
+				if (!parse || before != null && before == record && !changed.containsKey(issueId)) {
+					current.put(issueId, record);
+					continue;
+				}
+				Issue issue = parser.tryParse(scanner.buffer(), scanner.start(), scanner.end(), null, 0);
+				if (issue == null) {
+					current.remove(issueId);
+					changed.remove(issueId);
+				} else {
+					current.put(issueId, record);
+					changed.put(issueId, issue);
+				}
+			}
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		Set<Integer> deleted = new HashSet<>();
+		for (Integer issueId : records.keySet()) {
+			if (parse && !current.containsKey(issueId)) {
+				deleted.add(issueId);
+			}
+		}
+		records = current;
+		return new Changes(new ArrayList<>(changed.values()), deleted);
+	}
+
+	/**
+	 * Gets the number of records the file had when it was last looked at.
+	 *
+	 * @return The number of records.
+	 */
+	public int getRecordCount() {
+		return records.size();
+	}
+
+	/**
+	 * The changes found by an update.
+	 */
+	public static class Changes {
+		/** Issues whose records were added or changed. */
+		private final List<Issue> changedIssues;
+		/** Ids of the issues whose records were removed. */
+		private final Set<Integer> deletedIds;
+
+		/**
+		 * Creates the changes found by an update.
+		 *
+		 * @param changedIssues The issues whose records were added or changed.
+		 * @param deletedIds    The ids of the issues whose records were removed.
+		 */
+		Changes(List<Issue> changedIssues, Set<Integer> deletedIds) {
+			this.changedIssues = changedIssues;
+			this.deletedIds = deletedIds;
+		}
+
+		/**
+		 * Gets the issues whose records were added or changed.
+		 *
+		 * @return The added or changed issues.
+		 */
+		public List<Issue> getChangedIssues() {
+			return changedIssues;
+		}
+
+		/**
+		 * Gets the ids of the issues whose records were removed.
+		 *
+		 * @return The ids of the removed issues.
+		 */
+		public Set<Integer> getDeletedIds() {
+			return deletedIds;
+		}
+
+		/**
+		 * Checks whether nothing changed.
+		 *
+		 * @return true if no record was added, changed or removed.
+		 */
+		public boolean isEmpty() {
+			return changedIssues.isEmpty() && deletedIds.isEmpty();
+		}
+	}
+}
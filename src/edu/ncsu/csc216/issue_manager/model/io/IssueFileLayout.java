@@ -0,0 +1,169 @@
+package edu.ncsu.csc216.issue_manager.model.io;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The IssueFileLayout class records where each issue's record is stored in an
+ * issue text file. Each issue id maps to the byte offset of its record and the
+ * length of the slot the record occupies, up to the start of the next record.
+ * IssueWriter uses the layout to rewrite only the records of changed issues.
+ *
+ * Records that are moved or deleted leave a hole of blank lines behind, which
+ * the reader skips. Once the holes make up more than half of the file the
+ * file should be rewritten in full.
+ *
+ * @author Nirvan Reddy Anumandla
+ */
+public class IssueFileLayout {
+	/** Offset and slot length of each issue's record. */
+	private final Map<Integer, long[]> slots = new HashMap<>();
+	/** Length of the file the layout describes. */
+	private long fileLength;
+	/** Number of bytes in the file used by records. */
+	private long liveBytes;
+	/** Whether the file holds more than one record for some issue id, or cannot be rewritten in place. */
+	private boolean ambiguous;
+	/** Whether the records are read in place by an IssueNotesLoader, so they must not move. */
+	private boolean pinned;
+
+	/**
+	 * Records the slot of an issue's record.
+	 *
+	 * @param issueId The id of the issue.
+	 * @param offset  The byte offset of the record.
+	 * @param length  The length of the record's slot.
+	 */
+	void put(int issueId, long offset, long length) {
+		long[] old = slots.put(issueId, new long[] { offset, length });
+		if (old != null) {
+			liveBytes -= old[1];
+		}
+		liveBytes += length;
+	}
+
+	/**
+	 * Records the slot of an issue read from the file. If the file already had a
+	 * record for the same id, the layout can no longer be used for incremental
+	 * writes.
+	 *
+	 * @param issueId The id of the issue.
+	 * @param offset  The byte offset of the record.
+	 * @param length  The length of the record's slot.
+	 */
+	void putRead(int issueId, long offset, long length) {
+		if (slots.containsKey(issueId)) {
+			ambiguous = true;
+		}
+		put(issueId, offset, length);
+	}
+
+	/**
+	 * Marks the layout as unusable for incremental writes, for example because
+	 * the file is compressed and its records cannot be rewritten in place.
+	 */
+	void invalidate() {
+		ambiguous = true;
+	}
+
+	/**
+	 * Marks the records as read in place by an IssueNotesLoader, so an
+	 * incremental write must not move unchanged records.
+	 */
+	void keepOffsets() {
+		pinned = true;
+	}
+
+	/**
+	 * Checks whether unchanged records must stay where they are.
+	 *
+	 * @return true if the records are read in place.
+	 */
+	boolean keepsOffsets() {
+		return pinned;
+	}
+
+	/**
+	 * Gets the slot of an issue's record.
+	 *
+	 * @param issueId The id of the issue.
+	 * @return The offset and length of the slot, or null if the issue has no
+	 *         record in the file.
+	 */
+	long[] get(int issueId) {
+		return slots.get(issueId);
+	}
+
+	/**
+	 * Forgets the slot of an issue's record, turning it into a hole.
+	 *
+	 * @param issueId The id of the issue.
+	 * @return The offset and length of the slot, or null if the issue had no
+	 *         record in the file.
+	 */
+	long[] remove(int issueId) {
+		long[] slot = slots.remove(issueId);
+		if (slot != null) {
+			liveBytes -= slot[1];
+		}
+		return slot;
+	}
+
+	/**
+	 * Gets the slots of all records in the layout.
+	 *
+	 * @return A read-only view of the offset and slot length of each issue's
+	 *         record, by issue id.
+	 */
+	Map<Integer, long[]> slots() {
+		return Collections.unmodifiableMap(slots);
+	}
+
+	/**
+	 * Gets the length of the file the layout describes.
+	 *
+	 * @return The length of the file.
+	 */
+	public long getFileLength() {
+		return fileLength;
+	}
+
+	/**
+	 * Sets the length of the file the layout describes.
+	 *
+	 * @param fileLength The length of the file.
+	 */
+	void setFileLength(long fileLength) {
+		this.fileLength = fileLength;
+	}
+
+	/**
+	 * Gets the number of issue records in the layout.
+	 *
+	 * @return The number of records.
+	 */
+	public int getRecordCount() {
+		return slots.size();
+	}
+
+	/**
+	 * Checks whether the layout can be used to rewrite single records.
+	 *
+	 * @return true if every issue id has exactly one record in the file and the
+	 *         file can be rewritten in place.
+	 */
+	public boolean isUsable() {
+		return !ambiguous;
+	}
+
+	/**
+	 * Checks whether holes left by moved or deleted records make up more than
+	 * half of the file, so the file should be rewritten in full.
+	 *
+	 * @return true if the file should be rewritten in full.
+	 */
+	public boolean needsCompaction() {
+		return fileLength - liveBytes > fileLength / 2;
+	}
+}
@@ -0,0 +1,710 @@
+package edu.ncsu.csc216.issue_manager.model.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import edu.ncsu.csc216.issue_manager.model.issue.Issue;
+
+/**
+ * The IssueImportIterator class lazily parses the issues of a CSV or JSON lines
+ * file, see IssueExchangeFormat. The file is read through a buffer that only
+ * grows to hold the longest record, so a file of any size is imported in
+ * constant memory. Records are split and decoded straight from the bytes of
+ * the file, and checked with the same rules as the Issue constructor without
+ * throwing, so invalid records are skipped cheaply. Skipped records are
+ * reported to an IssueLoadReport if one is given, with their index among the
+ * data records and their byte offset. The underlying stream is closed when the
+ * last issue has been returned or when the iterator is closed.
+ *
+ * The first record of a CSV file is its header row, which names the column of
+ * each field; columns may come in any order and unknown columns are ignored.
+ * Unknown keys of JSON objects are ignored too.
+ *
+ * @author Nirvan Reddy Anumandla
+ */
+public class IssueImportIterator implements Iterator<Issue>, Closeable {
+	/** Initial size of the read buffer. */
+	private static final int BUFFER_SIZE = 64 * 1024;
+	/** Index of the id field in IssueExchangeFormat.FIELDS. */
+	private static final int ID = 0;
+	/** Index of the state field. */
+	private static final int STATE = 1;
+	/** Index of the type field. */
+	private static final int TYPE = 2;
+	/** Index of the summary field. */
+	private static final int SUMMARY = 3;
+	/** Index of the owner field. */
+	private static final int OWNER = 4;
+	/** Index of the confirmed field. */
+	private static final int CONFIRMED = 5;
+	/** Index of the resolution field. */
+	private static final int RESOLUTION = 6;
+	/** Index of the notes field. */
+	private static final int NOTES = 7;
+
+	/** The stream the file is read from. */
+	private final InputStream in;
+	/** The format of the file. */
+	private final int format;
+	/** Report the skipped records are added to, or null. */
+	private final IssueLoadReport report;
+	/** The field values of the record being parsed, by field index. */
+	private final String[] values = new String[IssueExchangeFormat.FIELDS.length];
+	/** The read buffer. */
+	private byte[] buf = new byte[BUFFER_SIZE];
+	/** Start of the bytes of the buffer that have not been split into records. */
+	private int pos;
+	/** End of the bytes read into the buffer. */
+	private int limit;
+	/** File offset of the start of the buffer. */
+	private long bufferOffset;
+	/** Whether the end of the stream has been reached. */
+	private boolean eof;
+	/** Start of the current record in the buffer. */
+	private int recordStart;
+	/** End of the current record in the buffer, before its line break. */
+	private int recordEnd;
+	/** Index of the next data record. */
+	private int recordIndex;
+	/** The field index of each CSV column, or -1 for ignored columns; null until the header is read. */
+	private int[] columns;
+	/** The notes of the JSON record being parsed. */
+	private ArrayList<String> notes;
+	/** Position of the JSON parser in the buffer, or -1 once the record is found to be malformed. */
+	private int p;
+	/** End of the JSON record being parsed. */
+	private int end;
+	/** The rule broken by the last record that could not be parsed. */
+	private String rejection;
+	/** The next issue to return, or null if it has not been parsed yet. */
+	private Issue next;
+	/** Whether the iterator has been closed. */
+	private boolean closed;
+
+	/**
+	 * Constructs an iterator over the issues in a stream.
+	 *
+	 * @param in     The stream to read issues from.
+	 * @param format The format of the stream, IssueExchangeFormat.CSV or
+	 *               IssueExchangeFormat.NDJSON.
+	 * @param report The report to add skipped records to, or null.
+	 */
+	IssueImportIterator(InputStream in, int format, IssueLoadReport report) {
+		this.in = in;
+		this.format = format;
+		this.report = report;
+	}
+
+	/**
+	 * Checks if there is another issue, parsing ahead to the next valid record.
+	 *
+	 * @return true if there is another issue.
+	 * @throws IllegalArgumentException If the file cannot be read, or is a CSV
+	 *                                  file without an id column.
+	 */
+	@Override
+	public boolean hasNext() {
+		try {
+			while (next == null && !closed) {
+				if (!nextRecord()) {
+					close();
+					break;
+				}
+				int start = recordStart;
+				int stop = recordEnd > start && buf[recordEnd - 1] == '\r' ? recordEnd - 1 : recordEnd;
+				if (isBlank(start, stop)) {
+					continue;
+				}
+				if (format == IssueExchangeFormat.CSV && columns == null) {
+					readHeader(start, stop);
+					continue;
+				}
+				next = format == IssueExchangeFormat.CSV ? parseCsv(start, stop) : parseJson(start, stop);
+				if (report != null) {
+					if (next != null) {
+						report.accept();
+					} else {
+						report.reject(recordIndex, bufferOffset + start, rejection);
+					}
+				}
+				recordIndex++;
+			}
+		} catch (IOException e) {
+			close();
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		return next != null;
+	}
+
+	/**
+	 * Returns the next issue in the file.
+	 *
+	 * @return The next issue.
+	 * @throws NoSuchElementException If there are no more issues.
+	 */
+	@Override
+	public Issue next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		Issue issue = next;
+		next = null;
+		return issue;
+	}
+
+	/**
+	 * Closes the underlying stream. Closing an iterator more than once has no
+	 * effect.
+	 */
+	@Override
+	public void close() {
+		if (!closed) {
+			closed = true;
+			try {
+				in.close();
+			} catch (IOException e) {
+				// nothing more is read from the stream
+			}
+		}
+	}
+
+	/**
+	 * Finds the next record, which ends at a line break outside a quoted CSV
+	 * field or at the end of the file, reading more of the file as needed.
+	 *
+	 * @return false if there are no more records.
+	 * @throws IOException If the file cannot be read.
+	 */
+	private boolean nextRecord() throws IOException {
+		boolean csv = format == IssueExchangeFormat.CSV;
+		boolean quoted = false;
+		int scan = pos;
+		while (true) {
+			for (; scan < limit; scan++) {
+				byte b = buf[scan];
+				if (b == '\n' && !quoted) {
+					recordStart = pos;
+					recordEnd = scan;
+					pos = scan + 1;
+					return true;
+				} else if (b == '"' && csv) {
+					quoted = !quoted;
+				}
+			}
+			if (eof) {
+				if (pos == limit) {
+					return false;
+				}
+				recordStart = pos;
+				recordEnd = limit;
+				pos = limit;
+				return true;
+			}
+			if (pos > 0) {
+				System.arraycopy(buf, pos, buf, 0, limit - pos);
+				bufferOffset += pos;
+				limit -= pos;
+				scan -= pos;
+				pos = 0;
+			}
+			if (limit == buf.length) {
+				buf = Arrays.copyOf(buf, buf.length * 2);
+			}
+			int read = in.read(buf, limit, buf.length - limit);
+			if (read < 0) {
+				eof = true;
+			} else {
+				limit += read;
+			}
+		}
+	}
+
+	/**
+	 * Reads the CSV header row.
+	 *
+	 * @param start The start of the row.
+	 * @param stop  The end of the row.
+	 * @throws IllegalArgumentException If the row has no id column.
+	 */
+	private void readHeader(int start, int stop) {
+		String[] names = new String(buf, start, stop - start, StandardCharsets.UTF_8).split(",", -1);
+		columns = new int[names.length];
+		boolean hasId = false;
+		for (int i = 0; i < names.length; i++) {
+			String name = names[i].trim();
+			if (name.length() > 1 && name.startsWith("\"") && name.endsWith("\"")) {
+				name = name.substring(1, name.length() - 1);
+			}
+			columns[i] = -1;
+			for (int field = 0; field < IssueExchangeFormat.FIELDS.length; field++) {
+				if (IssueExchangeFormat.FIELDS[field].equalsIgnoreCase(name)) {
+					columns[i] = field;
+					hasId |= field == ID;
+				}
+			}
+		}
+		if (!hasId) {
+			close();
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+	}
+
+	/**
+	 * Parses a CSV row.
+	 *
+	 * @param start The start of the row.
+	 * @param stop  The end of the row.
+	 * @return The issue, or null if the row is malformed or describes an invalid
+	 *         issue.
+	 */
+	private Issue parseCsv(int start, int stop) {
+		Arrays.fill(values, null);
+		int column = 0;
+		int i = start;
+		while (true) {
+			String value;
+			if (i < stop && buf[i] == '"') {
+				int j = i + 1;
+				boolean escaped = false;
+				while (j < stop && !(buf[j] == '"' && (j + 1 == stop || buf[j + 1] != '"'))) {
+					if (buf[j] == '"') {
+						escaped = true;
+						j++;
+					}
+					j++;
+				}
+				if (j >= stop || (j + 1 < stop && buf[j + 1] != ',')) {
+					rejection = IssueLoadReport.MALFORMED_RECORD;
+					return null;
+				}
+				value = new String(buf, i + 1, j - i - 1, StandardCharsets.UTF_8);
+				if (escaped) {
+					value = value.replace("\"\"", "\"");
+				}
+				i = j + 1;
+			} else {
+				int j = i;
+				while (j < stop && buf[j] != ',') {
+					j++;
+				}
+				value = new String(buf, i, j - i, StandardCharsets.UTF_8);
+				i = j;
+			}
+			if (column < columns.length && columns[column] >= 0) {
+				values[columns[column]] = value;
+			}
+			column++;
+			if (i >= stop) {
+				break;
+			}
+			i++;
+		}
+		notes = values[NOTES] == null ? new ArrayList<>() : splitNotes(values[NOTES]);
+		return build();
+	}
+
+	/**
+	 * Splits the notes field of a CSV row into notes, the same way the notes of
+	 * a text issue file are split: a line starting with '-' starts a note, and
+	 * other lines continue the note before them. Lines are trimmed.
+	 *
+	 * @param text The notes field.
+	 * @return The notes.
+	 */
+	private static ArrayList<String> splitNotes(String text) {
+		ArrayList<String> split = new ArrayList<>();
+		int noteStart = -1;
+		int noteEnd = -1;
+		int lineStart = 0;
+		while (lineStart < text.length()) {
+			int lineEnd = text.indexOf('\n', lineStart);
+			if (lineEnd < 0) {
+				lineEnd = text.length();
+			}
+			int s = lineStart;
+			int e = lineEnd;
+			while (s < e && Character.isWhitespace(text.charAt(s))) {
+				s++;
+			}
+			while (e > s && Character.isWhitespace(text.charAt(e - 1))) {
+				e--;
+			}
+			if (s < e) {
+				if (text.charAt(s) == '-' || noteStart < 0) {
+					if (noteStart >= 0) {
+						split.add(text.substring(noteStart, noteEnd));
+					}
+					noteStart = text.charAt(s) == '-' ? s + 1 : s;
+				}
+				noteEnd = e;
+			}
+			lineStart = lineEnd + 1;
+		}
+		if (noteStart >= 0) {
+			split.add(text.substring(noteStart, noteEnd));
+		}
+		return split;
+	}
+
+	/**
+	 * Parses a JSON object.
+	 *
+	 * @param start The start of the object.
+	 * @param stop  The end of the object.
+	 * @return The issue, or null if the object is malformed or describes an
+	 *         invalid issue.
+	 */
+	private Issue parseJson(int start, int stop) {
+		Arrays.fill(values, null);
+		notes = null;
+		p = start;
+		end = stop;
+		skipSpace();
+		expect('{');
+		skipSpace();
+		if (peek() == '}') {
+			p++;
+		} else {
+			while (p >= 0) {
+				skipSpace();
+				String key = readString();
+				skipSpace();
+				expect(':');
+				skipSpace();
+				int field = fieldIndex(key);
+				if (field == NOTES) {
+					notes = readStringArray();
+				} else if (field >= 0) {
+					values[field] = readScalar();
+				} else {
+					skipValue();
+				}
+				skipSpace();
+				if (peek() != ',') {
+					expect('}');
+					break;
+				}
+				p++;
+			}
+		}
+		skipSpace();
+		if (p != end) {
+			rejection = IssueLoadReport.MALFORMED_RECORD;
+			return null;
+		}
+		if (notes == null) {
+			notes = new ArrayList<>();
+		}
+		return build();
+	}
+
+	/**
+	 * Builds the issue described by the parsed field values and notes.
+	 *
+	 * @return The issue, or null if the fields describe an invalid issue.
+	 */
+	private Issue build() {
+		long id = parseId(values[ID]);
+		if (id == Long.MIN_VALUE) {
+			rejection = IssueLoadReport.MALFORMED_ID;
+			return null;
+		}
+		String state = constant(values[STATE], IssueExchangeFormat.STATES);
+		String issueType = constant(values[TYPE], IssueExchangeFormat.TYPES);
+		String summary = values[SUMMARY];
+		String owner = values[OWNER] == null ? "" : values[OWNER];
+		boolean confirmed = "true".equalsIgnoreCase(values[CONFIRMED]);
+		String resolution = values[RESOLUTION] == null ? "" : constant(values[RESOLUTION], IssueExchangeFormat.RESOLUTIONS);
+		Issue.Violation violation = Issue.validate((int) id, state, issueType, summary, owner, confirmed, resolution,
+				notes.size());
+		if (violation != null) {
+			rejection = violation.getRule();
+			return null;
+		}
+		return new Issue((int) id, state, issueType, summary, owner, confirmed, resolution, notes);
+	}
+
+	/**
+	 * Parses an id.
+	 *
+	 * @param value The text of the id.
+	 * @return The id, or Long.MIN_VALUE if it is missing or not an integer.
+	 */
+	private static long parseId(String value) {
+		if (value == null) {
+			return Long.MIN_VALUE;
+		}
+		String digits = value.trim();
+		boolean negative = digits.startsWith("-");
+		if (negative) {
+			digits = digits.substring(1);
+		}
+		if (digits.isEmpty() || digits.length() > 10) {
+			return Long.MIN_VALUE;
+		}
+		long id = 0;
+		for (int i = 0; i < digits.length(); i++) {
+			char c = digits.charAt(i);
+			if (c < '0' || c > '9') {
+				return Long.MIN_VALUE;
+			}
+			id = id * 10 + (c - '0');
+		}
+		id = negative ? -id : id;
+		return id < Integer.MIN_VALUE || id > Integer.MAX_VALUE ? Long.MIN_VALUE : id;
+	}
+
+	/**
+	 * Replaces a value with the matching constant, so imported issues share
+	 * their state, type and resolution strings.
+	 *
+	 * @param value     The value.
+	 * @param constants The known values.
+	 * @return The matching constant, or the value if none matches.
+	 */
+	private static String constant(String value, String[] constants) {
+		for (String known : constants) {
+			if (known.equals(value)) {
+				return known;
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * Gets the index of a field by its name.
+	 *
+	 * @param key The name of the field.
+	 * @return The field index, or -1 if the field is unknown.
+	 */
+	private static int fieldIndex(String key) {
+		for (int field = 0; field < IssueExchangeFormat.FIELDS.length; field++) {
+			if (IssueExchangeFormat.FIELDS[field].equals(key)) {
+				return field;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Checks whether a range of the buffer holds only whitespace.
+	 *
+	 * @param start The start of the range.
+	 * @param stop  The end of the range.
+	 * @return true if the range is blank.
+	 */
+	private boolean isBlank(int start, int stop) {
+		for (int i = start; i < stop; i++) {
+			if (buf[i] != ' ' && buf[i] != '\t' && buf[i] != '\r') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Gets the byte at the JSON parser's position.
+	 *
+	 * @return The byte, or -1 at the end of the record or once it is malformed.
+	 */
+	private int peek() {
+		return p >= 0 && p < end ? buf[p] : -1;
+	}
+
+	/**
+	 * Skips JSON whitespace.
+	 */
+	private void skipSpace() {
+		while (p >= 0 && p < end && (buf[p] == ' ' || buf[p] == '\t' || buf[p] == '\r' || buf[p] == '\n')) {
+			p++;
+		}
+	}
+
+	/**
+	 * Consumes an expected byte, or marks the record malformed.
+	 *
+	 * @param c The expected byte.
+	 */
+	private void expect(char c) {
+		if (peek() == c) {
+			p++;
+		} else {
+			p = -1;
+		}
+	}
+
+	/**
+	 * Reads a JSON string.
+	 *
+	 * @return The string, or null if the record is malformed.
+	 */
+	private String readString() {
+		if (peek() != '"') {
+			p = -1;
+			return null;
+		}
+		int j = p + 1;
+		boolean escaped = false;
+		while (j < end && buf[j] != '"') {
+			if (buf[j] == '\\') {
+				escaped = true;
+				j++;
+			}
+			j++;
+		}
+		if (j >= end) {
+			p = -1;
+			return null;
+		}
+		String value = new String(buf, p + 1, j - p - 1, StandardCharsets.UTF_8);
+		p = j + 1;
+		return escaped ? unescape(value) : value;
+	}
+
+	/**
+	 * Replaces the escape sequences of a JSON string.
+	 *
+	 * @param value The string with escape sequences.
+	 * @return The string, or null if an escape sequence is malformed.
+	 */
+	private String unescape(String value) {
+		StringBuilder out = new StringBuilder(value.length());
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c != '\\') {
+				out.append(c);
+				continue;
+			}
+			char escape = ++i < value.length() ? value.charAt(i) : 0;
+			switch (escape) {
+			case '"':
+			case '\\':
+			case '/':
+				out.append(escape);
+				break;
+			case 'b':
+				out.append('\b');
+				break;
+			case 'f':
+				out.append('\f');
+				break;
+			case 'n':
+				out.append('\n');
+				break;
+			case 'r':
+				out.append('\r');
+				break;
+			case 't':
+				out.append('\t');
+				break;
+			case 'u':
+				if (i + 4 >= value.length()) {
+					p = -1;
+					return null;
+				}
+				try {
+					out.append((char) Integer.parseInt(value.substring(i + 1, i + 5), 16));
+				} catch (NumberFormatException e) {
+					p = -1;
+					return null;
+				}
+				i += 4;
+				break;
+			default:
+				p = -1;
+				return null;
+			}
+		}
+		return out.toString();
+	}
+
+	/**
+	 * Reads a JSON string, number, boolean or null as text.
+	 *
+	 * @return The text of the value, or null for a JSON null or a malformed
+	 *         record.
+	 */
+	private String readScalar() {
+		if (peek() == '"') {
+			return readString();
+		}
+		int start = p;
+		while (p >= 0 && p < end && buf[p] != ',' && buf[p] != '}' && buf[p] != ']' && buf[p] != ' '
+				&& buf[p] != '\t') {
+			p++;
+		}
+		if (p < 0 || p == start || buf[start] == '{' || buf[start] == '[') {
+			p = -1;
+			return null;
+		}
+		String value = new String(buf, start, p - start, StandardCharsets.US_ASCII);
+		return "null".equals(value) ? null : value;
+	}
+
+	/**
+	 * Reads a JSON array of strings.
+	 *
+	 * @return The strings, or null if the value is a JSON null.
+	 */
+	private ArrayList<String> readStringArray() {
+		if (peek() == 'n') {
+			readScalar();
+			return null;
+		}
+		ArrayList<String> strings = new ArrayList<>();
+		expect('[');
+		skipSpace();
+		if (peek() == ']') {
+			p++;
+			return strings;
+		}
+		while (p >= 0) {
+			skipSpace();
+			String value = readString();
+			if (value != null) {
+				strings.add(value);
+			}
+			skipSpace();
+			if (peek() != ',') {
+				expect(']');
+				break;
+			}
+			p++;
+		}
+		return strings;
+	}
+
+	/**
+	 * Skips a JSON value of any kind.
+	 */
+	private void skipValue() {
+		int c = peek();
+		if (c == '"') {
+			readString();
+		} else if (c == '{' || c == '[') {
+			int depth = 0;
+			while (p >= 0 && p < end) {
+				byte b = buf[p];
+				if (b == '"') {
+					readString();
+					continue;
+				}
+				p++;
+				if (b == '{' || b == '[') {
+					depth++;
+				} else if ((b == '}' || b == ']') && --depth == 0) {
+					return;
+				}
+			}
+			p = -1;
+		} else {
+			readScalar();
+		}
+	}
+}
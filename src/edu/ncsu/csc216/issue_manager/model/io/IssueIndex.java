@@ -0,0 +1,213 @@
+package edu.ncsu.csc216.issue_manager.model.io;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * The IssueIndex class is a sidecar index of an issue text file, mapping each
+ * issue id to the byte offset and slot length of its record. The index of a
+ * data file is kept next to it, in a file with the same name and an ".idx"
+ * extension, so a single issue can be read without parsing the whole file.
+ *
+ * The entries have a fixed width and are sorted by id, so an id is found with
+ * a binary search over the index file. The header records the length and
+ * modification time of the data file it was built for; an index that no longer
+ * matches its data file is not opened.
+ *
+ * @author Nirvan Reddy Anumandla
+ */
+public class IssueIndex implements Closeable {
+	/** Extension added to the data file name to name its index. */
+	public static final String EXTENSION = ".idx";
+	/** Magic number at the start of every index. */
+	private static final byte[] MAGIC = { 0, 'I', 'S', 'X' };
+	/** Current version of the index format. */
+	private static final int VERSION = 1;
+	/** Length of the index header. */
+	private static final int HEADER_LENGTH = MAGIC.length + 1 + 2 * Long.BYTES + Integer.BYTES;
+	/** Length of an entry: id, offset and slot length. */
+	private static final int ENTRY_LENGTH = Integer.BYTES + Long.BYTES + Integer.BYTES;
+
+	/** The index file. */
+	private final FileChannel channel;
+	/** Number of entries in the index. */
+	private final int count;
+	/** Buffer an entry is read into. */
+	private final ByteBuffer entry = ByteBuffer.allocate(ENTRY_LENGTH);
+
+	/**
+	 * Constructs an index over an open index file.
+	 *
+	 * @param channel The index file.
+	 * @param count   The number of entries.
+	 */
+	private IssueIndex(FileChannel channel, int count) {
+		this.channel = channel;
+		this.count = count;
+	}
+
+	/**
+	 * Writes the index of a data file from the layout it was written or read
+	 * with. The data file must already be in its final state.
+	 *
+	 * @param dataFileName The name of the data file.
+	 * @param layout       The layout of the data file.
+	 * @throws IllegalArgumentException If the index cannot be written.
+	 */
+	public static void write(String dataFileName, IssueFileLayout layout) {
+		Map<Integer, long[]> slots = layout.slots();
+		int[] ids = new int[slots.size()];
+		int n = 0;
+		for (int issueId : slots.keySet()) {
+			ids[n++] = issueId;
+		}
+		Arrays.sort(ids);
+		File data = new File(dataFileName);
+		ByteBuffer index = ByteBuffer.allocate(HEADER_LENGTH + ids.length * ENTRY_LENGTH);
+		index.put(MAGIC);
+		index.put((byte) VERSION);
+		index.putLong(data.length());
+		index.putLong(data.lastModified());
+		index.putInt(ids.length);
+		for (int issueId : ids) {
+			long[] slot = slots.get(issueId);
+			index.putInt(issueId);
+			index.putLong(slot[0]);
+			index.putInt((int) slot[1]);
+		}
+		index.flip();
+		try (FileChannel channel = FileChannel.open(Paths.get(dataFileName + EXTENSION), StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			while (index.hasRemaining()) {
+				channel.write(index);
+			}
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to save file");
+		}
+	}
+
+	/**
+	 * Opens the index of a data file.
+	 *
+	 * @param dataFileName The name of the data file.
+	 * @return The index, or null if the data file has no index or the index
+	 *         does not match the data file in its current state.
+	 */
+	public static IssueIndex open(String dataFileName) {
+		File data = new File(dataFileName);
+		FileChannel channel = null;
+		try {
+			channel = FileChannel.open(Paths.get(dataFileName + EXTENSION), StandardOpenOption.READ);
+			ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+			while (header.hasRemaining() && channel.read(header) >= 0) {
+				// keep reading until the header is complete
+			}
+			header.flip();
+			if (header.remaining() == HEADER_LENGTH && matchesMagic(header) && header.get() == VERSION
+					&& header.getLong() == data.length() && header.getLong() == data.lastModified()) {
+				int count = header.getInt();
+				if (count >= 0 && channel.size() == HEADER_LENGTH + (long) count * ENTRY_LENGTH) {
+					return new IssueIndex(channel, count);
+				}
+			}
+		} catch (NoSuchFileException e) {
+			return null;
+		} catch (IOException e) {
+			// an unreadable index is treated as a missing one
+		}
+		close(channel);
+		return null;
+	}
+
+	/**
+	 * Finds the record of an issue.
+	 *
+	 * @param issueId The id of the issue.
+	 * @return The offset and slot length of the issue's record, or null if the
+	 *         data file has no record for the issue.
+	 * @throws IllegalArgumentException If the index cannot be read.
+	 */
+	public long[] find(int issueId) {
+		int low = 0;
+		int high = count - 1;
+		try {
+			while (low <= high) {
+				int mid = (low + high) >>> 1;
+				entry.clear();
+				long position = HEADER_LENGTH + (long) mid * ENTRY_LENGTH;
+				while (entry.hasRemaining()) {
+					if (channel.read(entry, position + entry.position()) < 0) {
+						throw new IllegalArgumentException("Unable to load file.");
+					}
+				}
+				entry.flip();
+				int id = entry.getInt();
+				if (id < issueId) {
+					low = mid + 1;
+				} else if (id > issueId) {
+					high = mid - 1;
+				} else {
+					return new long[] { entry.getLong(), entry.getInt() };
+				}
+			}
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		return null;
+	}
+
+	/**
+	 * Gets the number of issues in the index.
+	 *
+	 * @return The number of entries.
+	 */
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * Closes the index file.
+	 */
+	@Override
+	public void close() {
+		close(channel);
+	}
+
+	/**
+	 * Checks the magic number at the start of the header.
+	 *
+	 * @param header The header, positioned at its start.
+	 * @return true if the header starts with the magic number.
+	 */
+	private static boolean matchesMagic(ByteBuffer header) {
+		for (int i = 0; i < MAGIC.length; i++) {
+			if (header.get() != MAGIC[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Closes a channel, ignoring errors.
+	 *
+	 * @param channel The channel to close, or null.
+	 */
+	private static void close(FileChannel channel) {
+		if (channel != null) {
+			try {
+				channel.close();
+			} catch (IOException e) {
+				// nothing was written through the channel
+			}
+		}
+	}
+}
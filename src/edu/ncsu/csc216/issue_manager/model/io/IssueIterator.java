@@ -0,0 +1,169 @@
+package edu.ncsu.csc216.issue_manager.model.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import edu.ncsu.csc216.issue_manager.model.issue.Issue;
+
+/**
+ * The IssueIterator class lazily parses the issues of an issue file. Only the
+ * record being parsed and the next issue are held in memory, so a file can be
+ * processed in a single pass regardless of its size. Records that cannot be
+ * processed are skipped, and reported to an IssueLoadReport if one is given.
+ * The underlying stream is closed when the last issue
+ * has been returned or when the iterator is closed.
+ *
+ * @author Nirvan Reddy Anumandla
+ */
+public class IssueIterator implements Iterator<Issue>, Closeable {
+	/** Scanner splitting the file into records. */
+	private final IssueRecordScanner scanner;
+	/** Parser for the records. */
+	private final IssueRecordParser parser = new IssueRecordParser();
+	/** Loader the issues read their notes with, or null to parse the notes. */
+	private final Issue.NotesLoader notesLoader;
+	/** The next issue to return, or null if it has not been parsed yet. */
+	private Issue next;
+	/** Report the skipped records are added to, or null. */
+	private final IssueLoadReport report;
+	/** Whether the iterator has been closed. */
+	private boolean closed;
+	/** File offset of the next issue's record. */
+	private long nextOffset;
+	/** Slot length of the next issue's record. */
+	private int nextLength;
+	/** File offset of the record of the issue last returned. */
+	private long recordOffset;
+	/** Slot length of the record of the issue last returned. */
+	private int recordLength;
+
+	/**
+	 * Constructs an iterator over the issues in the given stream.
+	 *
+	 * @param in The stream to read issues from.
+	 */
+	IssueIterator(InputStream in) {
+		this(in, null);
+	}
+
+	/**
+	 * Constructs an iterator over the issues in the given stream, whose notes
+	 * are left in the file for <code>notesLoader</code> to read when needed.
+	 *
+	 * @param in          The stream to read issues from, from the start of the
+	 *                    file.
+	 * @param notesLoader The loader the issues read their notes with, or null
+	 *                    to parse the notes.
+	 */
+	IssueIterator(InputStream in, Issue.NotesLoader notesLoader) {
+		this(in, notesLoader, null);
+	}
+
+	/**
+	 * Constructs an iterator over the issues in the given stream that adds the
+	 * records it skips to a report.
+	 *
+	 * @param in          The stream to read issues from, from the start of the
+	 *                    file.
+	 * @param notesLoader The loader the issues read their notes with, or null
+	 *                    to parse the notes.
+	 * @param report      The report to add skipped records to, or null.
+	 */
+	IssueIterator(InputStream in, Issue.NotesLoader notesLoader, IssueLoadReport report) {
+		this.scanner = new IssueRecordScanner(in);
+		this.notesLoader = notesLoader;
+		this.report = report;
+	}
+
+	/**
+	 * Checks if there is another issue, parsing ahead to the next valid record.
+	 *
+	 * @return true if there is another issue.
+	 * @throws IllegalArgumentException If the file cannot be read.
+	 */
+	@Override
+	public boolean hasNext() {
+		try {
+			while (next == null && !closed) {
+				if (!scanner.next()) {
+					close();
+					break;
+				}
+				next = parser.tryParse(scanner.buffer(), scanner.start(), scanner.end(), notesLoader,
+						scanner.offsetOf(0));
+				if (next != null) {
+					nextOffset = scanner.recordOffset();
+					nextLength = scanner.recordLength();
+				}
+				if (report != null) {
+					if (next != null) {
+						report.accept();
+					} else {
+						report.reject(scanner.index(), scanner.recordOffset(), parser.getRejection());
+					}
+				}
+			}
+		} catch (IOException e) {
+			close();
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		return next != null;
+	}
+
+	/**
+	 * Returns the next issue in the file.
+	 *
+	 * @return The next issue.
+	 * @throws NoSuchElementException If there are no more issues.
+	 */
+	@Override
+	public Issue next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		Issue issue = next;
+		next = null;
+		recordOffset = nextOffset;
+		recordLength = nextLength;
+		return issue;
+	}
+
+	/**
+	 * Gets the byte offset in the file of the record of the issue last returned
+	 * by {@link #next()}.
+	 *
+	 * @return The offset of the record.
+	 */
+	long recordOffset() {
+		return recordOffset;
+	}
+
+	/**
+	 * Gets the number of bytes the record of the issue last returned by
+	 * {@link #next()} occupies, up to the start of the next record.
+	 *
+	 * @return The length of the record's slot.
+	 */
+	int recordLength() {
+		return recordLength;
+	}
+
+	/**
+	 * Closes the underlying stream. Closing an iterator more than once has no
+	 * effect.
+	 */
+	@Override
+	public void close() {
+		if (!closed) {
+			closed = true;
+			try {
+				scanner.close();
+			} catch (IOException e) {
+				// nothing more is read from the stream
+			}
+		}
+	}
+}
@@ -0,0 +1,462 @@
+package edu.ncsu.csc216.issue_manager.model.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+import edu.ncsu.csc216.issue_manager.model.command.Command;
+import edu.ncsu.csc216.issue_manager.model.command.Command.CommandValue;
+import edu.ncsu.csc216.issue_manager.model.command.Command.Resolution;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue.IssueType;
+
+/**
+ * The IssueJournal class is an append-only log of the operations applied to an
+ * issue list since it was last written to its snapshot file. The journal of a
+ * snapshot is kept next to it, in a file with the same name and a ".journal"
+ * extension. Loading replays the journal on top of the snapshot.
+ *
+ * The journal header records the length and CRC32C of the snapshot it belongs
+ * to, so a journal left behind by another snapshot, or by an older version of
+ * the same one, is ignored instead of being replayed onto it. A record that
+ * was only partly written, for example because of a crash, ends the journal
+ * and is discarded. The same record format is used for the log segments of
+ * an IssueStore.
+ *
+ * @author Nirvan Reddy Anumandla
+ */
+public class IssueJournal implements Closeable {
+	/** Extension added to the snapshot file name to name its journal. */
+	public static final String EXTENSION = ".journal";
+	/** Magic number at the start of every journal. */
+	private static final byte[] MAGIC = { 0, 'I', 'S', 'J' };
+	/** Current version of the journal format. */
+	private static final int VERSION = 1;
+	/** Record type of an added issue. */
+	private static final int ADD = 1;
+	/** Record type of an executed command. */
+	private static final int COMMAND = 2;
+	/** Record type of a deleted issue. */
+	private static final int DELETE = 3;
+
+	/**
+	 * The operations a journal records, implemented by whatever the journal is
+	 * replayed onto.
+	 */
+	public interface Operations {
+		/**
+		 * Adds an issue with the id it was given when it was created.
+		 *
+		 * @param issue The issue to add.
+		 */
+		void addIssue(Issue issue);
+
+		/**
+		 * Executes a command on an issue.
+		 *
+		 * @param issueId The id of the issue.
+		 * @param command The command to execute.
+		 */
+		void executeCommand(int issueId, Command command);
+
+		/**
+		 * Deletes an issue.
+		 *
+		 * @param issueId The id of the issue.
+		 */
+		void deleteIssueById(int issueId);
+	}
+
+	/** Name of the journal file. */
+	private final String journalFileName;
+	/** Stream the records are appended to. */
+	private final DataOutputStream out;
+	/** Stream the records are appended to, used to sync to disk. */
+	private final FileOutputStream file;
+	/** Length of the journal before this journal object appended to it. */
+	private final long baseLength;
+
+	/**
+	 * Opens the journal of a snapshot for appending. If the journal does not
+	 * belong to the snapshot in its current state, or <code>validLength</code>
+	 * is 0, a new empty journal is started. Otherwise anything after
+	 * <code>validLength</code> is cut off before appending.
+	 *
+	 * @param snapshotFileName The name of the snapshot file.
+	 * @param validLength      The length of the journal returned by
+	 *                         {@link #replay(String, Operations)}.
+	 * @throws IllegalArgumentException If the journal cannot be opened.
+	 */
+	public IssueJournal(String snapshotFileName, long validLength) {
+		this(snapshotFileName + EXTENSION, validLength, snapshotHeader(snapshotFileName));
+	}
+
+	/**
+	 * Opens a journal file for appending. If <code>validLength</code> does not
+	 * cover the header, a new journal starting with <code>header</code> is
+	 * started. Otherwise anything after <code>validLength</code> is cut off
+	 * before appending.
+	 *
+	 * @param journalFileName The name of the journal file.
+	 * @param validLength     The length of the journal's valid part.
+	 * @param header          The header a new journal starts with.
+	 * @throws IllegalArgumentException If the journal cannot be opened.
+	 */
+	IssueJournal(String journalFileName, long validLength, byte[] header) {
+		this.journalFileName = journalFileName;
+		try {
+			try (RandomAccessFile raf = new RandomAccessFile(journalFileName, "rw")) {
+				if (validLength < header.length) {
+					raf.setLength(0);
+					raf.write(header);
+					validLength = header.length;
+				}
+				raf.setLength(validLength);
+			}
+			this.baseLength = validLength;
+			this.file = new FileOutputStream(journalFileName, true);
+			this.out = new DataOutputStream(new BufferedOutputStream(file));
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to open journal.");
+		}
+	}
+
+	/**
+	 * Replays the journal of a snapshot onto <code>target</code>. Operations
+	 * that fail are skipped, exactly as they failed when they were recorded.
+	 *
+	 * @param snapshotFileName The name of the snapshot file.
+	 * @param target           The operations to replay the journal onto.
+	 * @return The length of the valid part of the journal, or 0 if there is no
+	 *         journal for the snapshot in its current state.
+	 * @throws IllegalArgumentException If the journal cannot be read.
+	 */
+	public static long replay(String snapshotFileName, Operations target) {
+		return replay(new File(snapshotFileName + EXTENSION), snapshotHeader(snapshotFileName), target);
+	}
+
+	/**
+	 * Replays a journal file onto <code>target</code>, if it starts with the
+	 * expected header. A record that was only partly written ends the replay.
+	 *
+	 * @param journal The journal file.
+	 * @param header  The header the journal must start with.
+	 * @param target  The operations to replay the journal onto.
+	 * @return The length of the valid part of the journal, or 0 if the journal
+	 *         does not exist or does not start with the header.
+	 * @throws IllegalArgumentException If the journal cannot be read.
+	 */
+	static long replay(File journal, byte[] header, Operations target) {
+		if (!journal.isFile()) {
+			return 0;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(journal)))) {
+			byte[] actual = new byte[header.length];
+			in.readFully(actual);
+			if (!Arrays.equals(actual, header)) {
+				return 0;
+			}
+			CountingInput counter = new CountingInput(in);
+			long valid = header.length;
+			while (true) {
+				Runnable operation;
+				try {
+					operation = readRecord(counter.data, target);
+				} catch (EOFException e) {
+					return valid;
+				} catch (RuntimeException e) {
+					// a corrupt record ends the journal
+					return valid;
+				}
+				if (operation == null) {
+					return valid;
+				}
+				try {
+					operation.run();
+				} catch (RuntimeException e) {
+					// the operation failed when it was recorded as well
+				}
+				valid = header.length + counter.count();
+			}
+		} catch (EOFException e) {
+			return 0;
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+	}
+
+	/**
+	 * Builds a journal header.
+	 *
+	 * @param magic  The magic number of the journal.
+	 * @param first  The first value identifying what the journal belongs to.
+	 * @param second The second value identifying what the journal belongs to.
+	 * @return The header.
+	 */
+	static byte[] header(byte[] magic, long first, long second) {
+		ByteBuffer header = ByteBuffer.allocate(magic.length + 1 + 2 * Long.BYTES);
+		header.put(magic);
+		header.put((byte) VERSION);
+		header.putLong(first);
+		header.putLong(second);
+		return header.array();
+	}
+
+	/**
+	 * Builds the header of the journal of a snapshot in its current state.
+	 *
+	 * @param snapshotFileName The name of the snapshot file.
+	 * @return The header.
+	 */
+	private static byte[] snapshotHeader(String snapshotFileName) {
+		CRC32C crc = new CRC32C();
+		long length = 0;
+		try (FileChannel snapshot = FileChannel.open(Paths.get(snapshotFileName), StandardOpenOption.READ)) {
+			ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+			while (snapshot.read(buffer) >= 0) {
+				buffer.flip();
+				length += buffer.remaining();
+				crc.update(buffer);
+				buffer.clear();
+			}
+		} catch (NoSuchFileException e) {
+			return header(MAGIC, 0, 0);
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		return header(MAGIC, length, crc.getValue());
+	}
+
+	/**
+	 * Appends the addition of a new issue.
+	 *
+	 * @param issueId   The id the new issue was given.
+	 * @param issueType The type of the issue.
+	 * @param summary   The summary of the issue.
+	 * @param note      The note associated with the issue.
+	 * @throws IllegalArgumentException If the journal cannot be written.
+	 */
+	public void appendAdd(int issueId, IssueType issueType, String summary, String note) {
+		try {
+			out.writeByte(ADD);
+			IssueBinaryFormat.writeVarint(out, issueId);
+			out.writeByte(issueType == null ? 0 : issueType.ordinal() + 1);
+			writeNullableString(out, summary);
+			writeNullableString(out, note);
+			flush();
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to save file");
+		}
+	}
+
+	/**
+	 * Appends the execution of a command on an issue.
+	 *
+	 * @param issueId The id of the issue.
+	 * @param command The command that was executed.
+	 * @throws IllegalArgumentException If the journal cannot be written.
+	 */
+	public void appendCommand(int issueId, Command command) {
+		try {
+			out.writeByte(COMMAND);
+			IssueBinaryFormat.writeVarint(out, issueId);
+			out.writeByte(command.getCommand().ordinal());
+			writeNullableString(out, command.getOwnerId());
+			out.writeByte(command.getResolution() == null ? 0 : command.getResolution().ordinal() + 1);
+			writeNullableString(out, command.getNote());
+			flush();
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to save file");
+		}
+	}
+
+	/**
+	 * Appends the deletion of an issue.
+	 *
+	 * @param issueId The id of the issue.
+	 * @throws IllegalArgumentException If the journal cannot be written.
+	 */
+	public void appendDelete(int issueId) {
+		try {
+			out.writeByte(DELETE);
+			IssueBinaryFormat.writeVarint(out, issueId);
+			flush();
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to save file");
+		}
+	}
+
+	/**
+	 * Forces the appended records to disk.
+	 *
+	 * @throws IllegalArgumentException If the journal cannot be written.
+	 */
+	public void sync() {
+		try {
+			out.flush();
+			file.getFD().sync();
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to save file");
+		}
+	}
+
+	/**
+	 * Gets the current length of the journal in bytes.
+	 *
+	 * @return The length of the journal.
+	 */
+	public long size() {
+		return baseLength + out.size();
+	}
+
+	/**
+	 * Gets the name of the journal file.
+	 *
+	 * @return The name of the journal file.
+	 */
+	public String getJournalFileName() {
+		return journalFileName;
+	}
+
+	/**
+	 * Closes the journal.
+	 */
+	@Override
+	public void close() {
+		try {
+			out.close();
+		} catch (IOException e) {
+			// every record was already flushed when it was appended
+		}
+	}
+
+	/**
+	 * Hands the buffered records to the operating system.
+	 *
+	 * @throws IOException If the journal cannot be written.
+	 */
+	private void flush() throws IOException {
+		out.flush();
+	}
+
+	/**
+	 * Reads one record and returns the operation it describes.
+	 *
+	 * @param in     The stream to read from.
+	 * @param target The operations the record is applied to.
+	 * @return The operation, or null if the record type is unknown.
+	 * @throws IOException If the stream cannot be read.
+	 */
+	private static Runnable readRecord(DataInputStream in, Operations target) throws IOException {
+		int type = in.readUnsignedByte();
+		if (type == ADD) {
+			int issueId = IssueBinaryFormat.readVarint(in);
+			int typeCode = in.readUnsignedByte();
+			IssueType issueType = typeCode == 0 ? null : IssueType.values()[typeCode - 1];
+			String summary = readNullableString(in);
+			String note = readNullableString(in);
+			return () -> target.addIssue(new Issue(issueId, issueType, summary, note));
+		} else if (type == COMMAND) {
+			int issueId = IssueBinaryFormat.readVarint(in);
+			CommandValue value = CommandValue.values()[in.readUnsignedByte()];
+			String ownerId = readNullableString(in);
+			int resolutionCode = in.readUnsignedByte();
+			Resolution resolution = resolutionCode == 0 ? null : Resolution.values()[resolutionCode - 1];
+			String note = readNullableString(in);
+			return () -> target.executeCommand(issueId, new Command(value, ownerId, resolution, note));
+		} else if (type == DELETE) {
+			int issueId = IssueBinaryFormat.readVarint(in);
+			return () -> target.deleteIssueById(issueId);
+		}
+		return null;
+	}
+
+	/**
+	 * Writes a string that may be null.
+	 *
+	 * @param out The stream to write to.
+	 * @param s   The string to write.
+	 * @throws IOException If the stream cannot be written.
+	 */
+	private static void writeNullableString(DataOutputStream out, String s) throws IOException {
+		out.writeBoolean(s != null);
+		if (s != null) {
+			IssueBinaryFormat.writeString(out, s);
+		}
+	}
+
+	/**
+	 * Reads a string that may be null.
+	 *
+	 * @param in The stream to read from.
+	 * @return The string read, or null.
+	 * @throws IOException If the stream cannot be read.
+	 */
+	private static String readNullableString(DataInputStream in) throws IOException {
+		return in.readBoolean() ? IssueBinaryFormat.readString(in) : null;
+	}
+
+	/**
+	 * Counts the bytes read from a stream, so the end of the last complete
+	 * record is known.
+	 */
+	private static class CountingInput extends FilterInputStream {
+		/** Stream reading through the counter. */
+		private final DataInputStream data;
+		/** Number of bytes read. */
+		private long count;
+
+		/**
+		 * Wraps a stream.
+		 *
+		 * @param source The stream to count.
+		 */
+		CountingInput(DataInputStream source) {
+			super(source);
+			this.data = new DataInputStream(this);
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = super.read();
+			if (b >= 0) {
+				count++;
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int n = super.read(b, off, len);
+			if (n > 0) {
+				count += n;
+			}
+			return n;
+		}
+
+		/**
+		 * Gets the number of bytes read.
+		 *
+		 * @return The number of bytes read.
+		 */
+		long count() {
+			return count;
+		}
+	}
+}
@@ -0,0 +1,163 @@
+package edu.ncsu.csc216.issue_manager.model.io;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The IssueLoadReport class collects the records that were rejected while an
+ * issue file was read, see
+ * {@link IssueReader#readIssuesWithReport(String, IssueLoadReport)}. Each
+ * rejection gives the index of the record in the file, the byte offset of its
+ * '*' and the rule it broke, so a damaged file can be repaired by hand.
+ *
+ * Records are checked without exceptions, so reading a file with many invalid
+ * records costs about the same as reading a clean one.
+ *
+ * @author Nirvan Reddy Anumandla
+ */
+public class IssueLoadReport {
+	/** Rule reported for records whose header cannot be split into fields. */
+	public static final String MALFORMED_HEADER = "header does not have 7 fields";
+	/** Rule reported for records whose id is not an integer. */
+	public static final String MALFORMED_ID = "id is not an integer";
+	/** Rule reported for CSV rows and JSON lines that cannot be split into fields. */
+	public static final String MALFORMED_RECORD = "record is not a valid CSV row or JSON object";
+	/** Rule reported for binary records that do not describe a valid issue. */
+	public static final String INVALID_ISSUE = "invalid issue";
+	/** Rule reported for records whose bytes do not match their checksum. */
+	public static final String CHECKSUM_MISMATCH = "record checksum mismatch";
+	/** Rule reported for records that do not fit between their offsets in the footer. */
+	public static final String LENGTH_MISMATCH = "record length does not match the offset table";
+	/** Rule reported when the footer of a checksummed file is missing or damaged. */
+	public static final String FOOTER_DAMAGED = "footer is missing or damaged";
+
+	/** The rejected records, in file order. */
+	private final ArrayList<Rejection> rejections = new ArrayList<>();
+	/** Number of records that were read as issues. */
+	private int acceptedCount;
+
+	/**
+	 * The Rejection class describes a record that was not read as an issue.
+	 */
+	public static class Rejection {
+		/** Index of the record in the file, counting from 0. */
+		private final int recordIndex;
+		/** Byte offset of the record in the uncompressed file. */
+		private final long offset;
+		/** The rule the record broke. */
+		private final String rule;
+
+		/**
+		 * Constructs a rejection.
+		 *
+		 * @param recordIndex Index of the record in the file.
+		 * @param offset      Byte offset of the record.
+		 * @param rule        The rule the record broke.
+		 */
+		Rejection(int recordIndex, long offset, String rule) {
+			this.recordIndex = recordIndex;
+			this.offset = offset;
+			this.rule = rule;
+		}
+
+		/**
+		 * Gets the index of the record in the file, counting from 0. Damage to
+		 * the footer of a checksummed file is reported with an index of -1.
+		 *
+		 * @return The record index.
+		 */
+		public int getRecordIndex() {
+			return recordIndex;
+		}
+
+		/**
+		 * Gets the byte offset of the record in the uncompressed file. Records of
+		 * binary files without checksums have no known offset.
+		 *
+		 * @return The offset of the record, or -1 if it is not known.
+		 */
+		public long getOffset() {
+			return offset;
+		}
+
+		/**
+		 * Gets a short description of the rule the record broke.
+		 *
+		 * @return The rule.
+		 */
+		public String getRule() {
+			return rule;
+		}
+
+		/**
+		 * Returns the rejection as a line of the report.
+		 *
+		 * @return The rejection as a String.
+		 */
+		@Override
+		public String toString() {
+			return "record " + recordIndex + " at byte " + offset + ": " + rule;
+		}
+	}
+
+	/**
+	 * Records a rejected record.
+	 *
+	 * @param recordIndex Index of the record in the file.
+	 * @param offset      Byte offset of the record.
+	 * @param rule        The rule the record broke.
+	 */
+	void reject(int recordIndex, long offset, String rule) {
+		rejections.add(new Rejection(recordIndex, offset, rule));
+	}
+
+	/**
+	 * Records a record that was read as an issue.
+	 */
+	void accept() {
+		acceptedCount++;
+	}
+
+	/**
+	 * Gets the rejected records, in file order.
+	 *
+	 * @return The rejections.
+	 */
+	public List<Rejection> getRejections() {
+		return Collections.unmodifiableList(rejections);
+	}
+
+	/**
+	 * Gets the number of records that were rejected.
+	 *
+	 * @return The number of rejections.
+	 */
+	public int getRejectedCount() {
+		return rejections.size();
+	}
+
+	/**
+	 * Gets the number of records that were read as issues.
+	 *
+	 * @return The number of accepted records.
+	 */
+	public int getAcceptedCount() {
+		return acceptedCount;
+	}
+
+	/**
+	 * Returns the report, one rejection per line.
+	 *
+	 * @return The report as a String.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder report = new StringBuilder();
+		report.append(acceptedCount).append(" accepted, ").append(rejections.size()).append(" rejected");
+		for (Rejection rejection : rejections) {
+			report.append(System.lineSeparator()).append(rejection);
+		}
+		return report.toString();
+	}
+}
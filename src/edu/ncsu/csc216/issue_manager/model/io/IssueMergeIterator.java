@@ -0,0 +1,392 @@
+package edu.ncsu.csc216.issue_manager.model.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+import edu.ncsu.csc216.issue_manager.model.issue.Issue;
+
+/**
+ * The IssueMergeIterator class merges several issue files into one sequence of
+ * issues in id order. Each file is read one record at a time, and only the
+ * next issue of every file is held in memory, so N files of any size are
+ * merged with N issues in memory. When several records hold the same id,
+ * whether in different files or in the same one, one of them is kept as
+ * chosen by a ConflictPolicy and the others are dropped.
+ *
+ * The files are expected to be in id order, as files written from a list of
+ * issues in id order are. A file whose records are not in id order is
+ * detected when the merge reaches the out of order record; the merge then has
+ * to be restarted with that file sorted first, see
+ * {@link IssueWriter#mergeIssueFiles(String, List, ConflictPolicy)}. Such a
+ * file is sorted externally: it is split into sorted runs of RUN_SIZE issues
+ * in temporary files, which are merged back the same way.
+ *
+ * @author Nirvan Reddy Anumandla
+ */
+public class IssueMergeIterator implements Iterator<Issue>, Closeable {
+	/** Largest number of issues of an unsorted file held in memory while it is sorted. */
+	static final int RUN_SIZE = 64 * 1024;
+	/** Number of encoded bytes collected before they are written to a run. */
+	private static final int FLUSH_SIZE = 64 * 1024;
+	/** Order of sources by their next issue's id, then by their index. */
+	private static final Comparator<Source> HEAD_ORDER = Comparator
+			.comparingInt((Source s) -> s.head.getIssueId()).thenComparingInt(s -> s.file);
+
+	/**
+	 * The policies for choosing which issue to keep when several files hold an
+	 * issue with the same id.
+	 */
+	public enum ConflictPolicy {
+		/** Keep the issue from the file listed first. */
+		KEEP_FIRST,
+		/** Keep the issue from the file listed last. */
+		KEEP_LAST,
+		/**
+		 * Keep the issue that is furthest along in its workflow, from New to
+		 * Closed, or the one from the file listed first if they are equally far.
+		 */
+		MOST_PROGRESSED
+	}
+
+	/** Policy choosing the issue kept for an id held by several files. */
+	private final ConflictPolicy policy;
+	/** The next issue of every file that has one. */
+	private final PriorityQueue<Source> heads;
+	/** Sources of all files, in the order the files were listed. */
+	private final List<Source> sources = new ArrayList<>();
+	/** Issues with the id being merged, in file order. */
+	private final List<Issue> candidates = new ArrayList<>();
+	/** Sources of the issues with the id being merged. */
+	private final List<Source> merged = new ArrayList<>();
+	/** Number of issues dropped because another file held the same id. */
+	private int conflictCount;
+	/** Index of a file found out of id order, or -1. */
+	private int unsortedFile = -1;
+
+	/**
+	 * Opens all files and reads the first issue of each.
+	 *
+	 * @param fileNames The names of the files to merge. A file listed twice is
+	 *                  merged with itself.
+	 * @param policy    The policy for issues with the same id.
+	 * @param unsorted  The files known not to be in id order, which are sorted
+	 *                  in runs before they are merged, or null if there are
+	 *                  none.
+	 * @throws IllegalArgumentException If a file cannot be found or read.
+	 */
+	IssueMergeIterator(List<String> fileNames, ConflictPolicy policy, BitSet unsorted) {
+		this.policy = policy;
+		this.heads = new PriorityQueue<>(Math.max(1, fileNames.size()), HEAD_ORDER);
+		try {
+			for (int file = 0; file < fileNames.size(); file++) {
+				Iterator<Issue> issues;
+				if (unsorted != null && unsorted.get(file)) {
+					issues = new SortedRuns(fileNames.get(file));
+				} else {
+					issues = IssueReader.openIssueIterator(fileNames.get(file));
+				}
+				Source source = new Source(file, issues);
+				sources.add(source);
+				if (source.advance()) {
+					heads.add(source);
+				}
+			}
+		} catch (IllegalArgumentException e) {
+			close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Checks if there is another issue to merge.
+	 *
+	 * @return true if there is another issue.
+	 */
+	@Override
+	public boolean hasNext() {
+		return !heads.isEmpty() && unsortedFile < 0;
+	}
+
+	/**
+	 * Returns the issue with the next id, chosen by the policy if several files
+	 * hold an issue with that id.
+	 *
+	 * @return The next issue.
+	 * @throws NoSuchElementException If there are no more issues, or a file was
+	 *                                found out of id order.
+	 * @throws IllegalArgumentException If a file cannot be read.
+	 */
+	@Override
+	public Issue next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		candidates.clear();
+		merged.clear();
+		int id = heads.peek().head.getIssueId();
+		while (!heads.isEmpty() && heads.peek().head.getIssueId() == id) {
+			merged.add(heads.poll());
+		}
+		for (int i = 0; i < merged.size(); i++) {
+			Source source = merged.get(i);
+			boolean more;
+			do {
+				candidates.add(source.head);
+				more = source.advance();
+			} while (more && source.head.getIssueId() == id);
+			if (more) {
+				if (source.head.getIssueId() < id) {
+					unsortedFile = source.file;
+				}
+				heads.add(source);
+			}
+		}
+		conflictCount += candidates.size() - 1;
+		return choose();
+	}
+
+	/**
+	 * Gets the number of issues dropped so far because another file held an
+	 * issue with the same id.
+	 *
+	 * @return The number of dropped issues.
+	 */
+	public int getConflictCount() {
+		return conflictCount;
+	}
+
+	/**
+	 * Gets the file found with its records out of id order. Once one is found,
+	 * the iterator has no more issues.
+	 *
+	 * @return The index of the file in the list of files, or -1 if every file
+	 *         read so far is in id order.
+	 */
+	public int getUnsortedFile() {
+		return unsortedFile;
+	}
+
+	/**
+	 * Closes every file.
+	 */
+	@Override
+	public void close() {
+		for (Source source : sources) {
+			if (source.issues instanceof Closeable) {
+				try {
+					((Closeable) source.issues).close();
+				} catch (IOException e) {
+					// the file was only read
+				}
+			}
+		}
+		heads.clear();
+	}
+
+	/**
+	 * Chooses the issue to keep among the candidates.
+	 *
+	 * @return The issue to keep.
+	 */
+	private Issue choose() {
+		switch (policy) {
+		case KEEP_LAST:
+			return candidates.get(candidates.size() - 1);
+		case MOST_PROGRESSED:
+			Issue kept = candidates.get(0);
+			for (int i = 1; i < candidates.size(); i++) {
+				Issue issue = candidates.get(i);
+				if (progress(issue) > progress(kept)) {
+					kept = issue;
+				}
+			}
+			return kept;
+		default:
+			return candidates.get(0);
+		}
+	}
+
+	/**
+	 * Gets how far an issue is along its workflow.
+	 *
+	 * @param issue The issue.
+	 * @return The position of the issue's state, from 0 for New.
+	 */
+	private static int progress(Issue issue) {
+		String state = issue.getStateName();
+		for (int i = 0; i < IssueExchangeFormat.STATES.length; i++) {
+			if (IssueExchangeFormat.STATES[i].equals(state)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * The issues of one file and the next of them.
+	 */
+	private static class Source {
+		/** Index of the file in the list of files. */
+		private final int file;
+		/** The issues of the file. */
+		private final Iterator<Issue> issues;
+		/** The next issue of the file. */
+		private Issue head;
+
+		/**
+		 * Creates the source of a file.
+		 *
+		 * @param file   The index of the file.
+		 * @param issues The issues of the file.
+		 */
+		Source(int file, Iterator<Issue> issues) {
+			this.file = file;
+			this.issues = issues;
+		}
+
+		/**
+		 * Moves on to the next issue of the file.
+		 *
+		 * @return true if the file has another issue.
+		 */
+		boolean advance() {
+			head = issues.hasNext() ? issues.next() : null;
+			return head != null;
+		}
+	}
+
+	/**
+	 * The issues of a file that is not in id order, sorted by id without
+	 * holding the file in memory. The file is read in runs of RUN_SIZE issues,
+	 * and each run is sorted and written to a temporary file. The runs are then
+	 * merged with one issue per run in memory. Issues with the same id keep
+	 * the order they had in the file.
+	 */
+	private static class SortedRuns implements Iterator<Issue>, Closeable {
+		/** The temporary files holding the sorted runs. */
+		private final List<Path> runFiles = new ArrayList<>();
+		/** The issues of every run. */
+		private final List<IssueIterator> runs = new ArrayList<>();
+		/** The next issue of every run that has one. */
+		private final PriorityQueue<Source> heads = new PriorityQueue<>(HEAD_ORDER);
+
+		/**
+		 * Splits a file into sorted runs and reads the first issue of each.
+		 *
+		 * @param fileName The name of the file to sort.
+		 * @throws IllegalArgumentException If the file cannot be read or the
+		 *                                  runs cannot be written.
+		 */
+		SortedRuns(String fileName) {
+			try {
+				try (IssueIterator issues = IssueReader.openIssueIterator(fileName)) {
+					List<Issue> run = new ArrayList<>();
+					while (issues.hasNext()) {
+						run.add(issues.next());
+						if (run.size() == RUN_SIZE) {
+							writeRun(run);
+							run.clear();
+						}
+					}
+					if (!run.isEmpty()) {
+						writeRun(run);
+					}
+				}
+				for (int i = 0; i < runFiles.size(); i++) {
+					IssueIterator run = IssueReader.openIssueIterator(runFiles.get(i).toString());
+					runs.add(run);
+					Source source = new Source(i, run);
+					if (source.advance()) {
+						heads.add(source);
+					}
+				}
+			} catch (IOException e) {
+				close();
+				throw new IllegalArgumentException("Unable to load file.");
+			} catch (IllegalArgumentException e) {
+				close();
+				throw e;
+			}
+		}
+
+		/**
+		 * Sorts a run by id and writes it to a new temporary file.
+		 *
+		 * @param run The issues of the run.
+		 * @throws IOException If the run cannot be written.
+		 */
+		private void writeRun(List<Issue> run) throws IOException {
+			run.sort(Comparator.comparingInt(Issue::getIssueId));
+			Path path = Files.createTempFile("issues", ".run");
+			runFiles.add(path);
+			IssueRecordEncoder encoder = new IssueRecordEncoder();
+			try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+				for (Issue issue : run) {
+					encoder.append(issue);
+					if (encoder.size() >= FLUSH_SIZE) {
+						encoder.writeTo(channel);
+					}
+				}
+				encoder.writeTo(channel);
+			}
+		}
+
+		/**
+		 * Checks if the file has another issue.
+		 *
+		 * @return true if there is another issue.
+		 */
+		@Override
+		public boolean hasNext() {
+			return !heads.isEmpty();
+		}
+
+		/**
+		 * Returns the issue of the file with the next id.
+		 *
+		 * @return The next issue.
+		 * @throws NoSuchElementException If there are no more issues.
+		 */
+		@Override
+		public Issue next() {
+			Source source = heads.poll();
+			if (source == null) {
+				throw new NoSuchElementException();
+			}
+			Issue issue = source.head;
+			if (source.advance()) {
+				heads.add(source);
+			}
+			return issue;
+		}
+
+		/**
+		 * Closes and deletes every run.
+		 */
+		@Override
+		public void close() {
+			for (IssueIterator run : runs) {
+				run.close();
+			}
+			for (Path path : runFiles) {
+				try {
+					Files.deleteIfExists(path);
+				} catch (IOException e) {
+					// a temporary file the system cleans up eventually
+				}
+			}
+			heads.clear();
+		}
+	}
+}
@@ -0,0 +1,110 @@
+package edu.ncsu.csc216.issue_manager.model.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import edu.ncsu.csc216.issue_manager.model.issue.Issue;
+
+/**
+ * The IssueNotesLoader class reads the notes of issues that were loaded
+ * without them, see
+ * {@link IssueReader#readIssuesFromFile(String, IssueFileLayout, IssueNotesLoader)}.
+ * The file stays open while the loader is in use, and the notes are read from
+ * it the first time they are asked for.
+ *
+ * The most recently used note lists are kept, up to a fixed number, so that
+ * repeatedly showing the same issue does not read the file again.
+ *
+ * @author Nirvan Reddy Anumandla
+ */
+public class IssueNotesLoader implements Issue.NotesLoader, Closeable {
+	/** The file the notes are read from. */
+	private final FileChannel channel;
+	/** The most recently loaded note lists, by the offset of the notes. */
+	private final LinkedHashMap<Long, ArrayList<String>> cache;
+	/** Parser for the notes. */
+	private final IssueRecordParser parser = new IssueRecordParser();
+
+	/**
+	 * Opens a file to load notes from.
+	 *
+	 * @param fileName       The name of the file the issues are read from.
+	 * @param maxCachedNotes The largest number of note lists to keep.
+	 * @throws IllegalArgumentException If the file cannot be opened.
+	 */
+	public IssueNotesLoader(String fileName, int maxCachedNotes) {
+		try {
+			this.channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ);
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		int max = Math.max(1, maxCachedNotes);
+		this.cache = new LinkedHashMap<Long, ArrayList<String>>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, ArrayList<String>> eldest) {
+				return size() > max;
+			}
+		};
+	}
+
+	/**
+	 * Loads the notes stored in a range of the file, starting at the line break
+	 * that ends the record header.
+	 *
+	 * @param offset The offset of the notes in the file.
+	 * @param length The length in bytes of the notes.
+	 * @return The notes.
+	 * @throws IllegalArgumentException If the notes cannot be read.
+	 */
+	@Override
+	public synchronized ArrayList<String> loadNotes(long offset, int length) {
+		ArrayList<String> notes = cache.get(offset);
+		if (notes != null) {
+			return notes;
+		}
+		ByteBuffer bytes = ByteBuffer.allocate(length);
+		try {
+			while (bytes.hasRemaining()) {
+				if (channel.read(bytes, offset + bytes.position()) < 0) {
+					throw new IllegalArgumentException("Unable to load file.");
+				}
+			}
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		notes = parser.parseNotes(bytes, 0, length);
+		cache.put(offset, notes);
+		return notes;
+	}
+
+	/**
+	 * Gets the number of note lists currently kept.
+	 *
+	 * @return The number of cached note lists.
+	 */
+	public synchronized int getCachedCount() {
+		return cache.size();
+	}
+
+	/**
+	 * Closes the file. Notes that are not cached can no longer be loaded.
+	 */
+	@Override
+	public synchronized void close() {
+		cache.clear();
+		try {
+			channel.close();
+		} catch (IOException e) {
+			// the file was only read
+		}
+	}
+}
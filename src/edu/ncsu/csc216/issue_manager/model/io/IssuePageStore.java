@@ -0,0 +1,1348 @@
+package edu.ncsu.csc216.issue_manager.model.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.zip.CRC32C;
+
+import edu.ncsu.csc216.issue_manager.model.command.Command;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue;
+
+/**
+ * The IssuePageStore class keeps an issue list on disk in a B+tree keyed by
+ * issue id, for lists too large to hold in memory. The tree lives in a single
+ * file of fixed-size pages. Page 0 is the header, inner pages hold ids and the
+ * numbers of their child pages, and leaf pages hold the issue records in id
+ * order, linked from left to right so the issues can be walked in order.
+ * Records use the record encoding of the binary issue format. A record too
+ * long to share a leaf with others is kept in a chain of overflow pages, and
+ * its leaf entry only points to the first one. Every leaf entry also carries
+ * the type of its issue, so iterating by type skips the other issues without
+ * decoding them.
+ *
+ * Pages are read through a cache that keeps a bounded number of the most
+ * recently used pages in memory. Changed pages are never written over the
+ * page file between syncs: a changed page that is evicted goes to a
+ * write-ahead log next to the file, in a file with the same name and a ".wal"
+ * extension, and is read back from there. {@link #sync()} adds the other
+ * changed pages and the header to the log, commits and forces it, and only
+ * then copies its pages into the page file and empties it. Opening a store
+ * copies a committed log into the file and drops one that was not committed,
+ * so a crash loses the changes made since the last sync, never the file.
+ * Every log frame and the commit record carry a CRC32C.
+ *
+ * Issue ids only grow, so when the rightmost page of a level splits, the left
+ * page is left full and the new page starts with the new id; a store filled
+ * in id order stays dense. Deletes do not merge pages.
+ *
+ * The store implements the operations an IssueJournal records, so a journal
+ * can be replayed onto it as onto an IssueList.
+ *
+ * @author Nirvan Reddy Anumandla
+ */
+public class IssuePageStore implements IssueJournal.Operations, Closeable {
+	/** Size in bytes of every page. */
+	public static final int PAGE_SIZE = 4096;
+	/** Extension added to the name of the page file to name its log. */
+	public static final String LOG_EXTENSION = ".wal";
+	/** Smallest number of pages kept in the cache. */
+	private static final int MIN_CACHED_PAGES = 16;
+	/** Magic number at the start of every page store. */
+	private static final byte[] MAGIC = { 0, 'I', 'S', 'P' };
+	/** Current version of the page store format. */
+	private static final int VERSION = 1;
+	/** Page kind of a leaf page. */
+	private static final byte LEAF = 1;
+	/** Page kind of an inner page. */
+	private static final byte INNER = 2;
+	/** Page kind of an overflow page. */
+	private static final byte OVERFLOW = 3;
+	/** Page kind of a page on the free list. */
+	private static final byte FREE = 4;
+	/** Length of the header of leaf and inner pages: kind, count and a page number. */
+	private static final int PAGE_HEADER = 1 + Short.BYTES + Integer.BYTES;
+	/** Length of the header of overflow and free pages: kind and the next page. */
+	private static final int CHAIN_HEADER = 1 + Integer.BYTES;
+	/** Length of a leaf entry without its record: id, type and record length. */
+	private static final int ENTRY_HEADER = Integer.BYTES + 1 + Integer.BYTES;
+	/** Longest record kept in its leaf. */
+	private static final int MAX_INLINE = PAGE_SIZE / 4;
+	/** Largest number of ids in an inner page. */
+	private static final int MAX_KEYS = (PAGE_SIZE - PAGE_HEADER) / (2 * Integer.BYTES);
+	/** Type code stored for bugs. */
+	private static final byte BUG = 0;
+	/** Type code stored for enhancements. */
+	private static final byte ENHANCEMENT = 1;
+	/** Length of the header of a log frame: CRC32C and page number. */
+	private static final int FRAME_HEADER = 2 * Integer.BYTES;
+	/** Length of a log frame: its header and a page. */
+	private static final int FRAME_SIZE = FRAME_HEADER + PAGE_SIZE;
+	/** Length of the commit record of the log: CRC32C, marker and frame count. */
+	private static final int COMMIT_SIZE = 3 * Integer.BYTES;
+	/** Marker in place of the page number that starts the commit record. */
+	private static final int COMMIT = -1;
+
+	/** The name of the page file. */
+	private final String fileName;
+	/** The page file. */
+	private final FileChannel channel;
+	/** The write-ahead log of the page file. */
+	private final FileChannel log;
+	/** Largest number of pages kept in the cache. */
+	private final int maxCachedPages;
+	/** The cached pages by page number, least recently used first. */
+	private final LinkedHashMap<Integer, Page> cache = new LinkedHashMap<>(64, 0.75f, true);
+	/** Buffer pages are read and written through. */
+	private final ByteBuffer buffer = ByteBuffer.allocate(PAGE_SIZE);
+	/** Buffer log frames are read and written through. */
+	private final ByteBuffer frame = ByteBuffer.allocate(FRAME_SIZE);
+	/** The frame of every page in the log by page number, in frame order. */
+	private final LinkedHashMap<Integer, Integer> logFrames = new LinkedHashMap<>();
+	/** The root page of the tree. */
+	private int root;
+	/** Number of pages in the file. */
+	private int pageCount;
+	/** First page of the free list, or 0 if it is empty. */
+	private int freeHead;
+	/** Number of issues in the store. */
+	private int size;
+	/** The id given to the next new issue. */
+	private int nextId;
+	/** Whether the header changed since it was last written. */
+	private boolean headerDirty;
+	/** Counts the changes to the store, so iterators can detect them. */
+	private int modCount;
+
+	/**
+	 * Constructs a store over an open page file.
+	 *
+	 * @param fileName       The name of the page file.
+	 * @param channel        The page file.
+	 * @param log            The write-ahead log of the page file.
+	 * @param maxCachedPages The largest number of pages to cache.
+	 */
+	private IssuePageStore(String fileName, FileChannel channel, FileChannel log, int maxCachedPages) {
+		this.fileName = fileName;
+		this.channel = channel;
+		this.log = log;
+		this.maxCachedPages = Math.max(MIN_CACHED_PAGES, maxCachedPages);
+	}
+
+	/**
+	 * Creates a new page store holding the given issues. An existing file with
+	 * the same name is replaced, and so is its log.
+	 *
+	 * @param fileName       The name of the page file.
+	 * @param maxCachedPages The largest number of pages to keep in memory.
+	 * @param issues         The issues the store starts with.
+	 * @return The store.
+	 * @throws IllegalArgumentException If the file cannot be written.
+	 */
+	public static IssuePageStore create(String fileName, int maxCachedPages, List<Issue> issues) {
+		FileChannel channel;
+		FileChannel log;
+		try {
+			log = FileChannel.open(Paths.get(fileName + LOG_EXTENSION), StandardOpenOption.CREATE,
+					StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to save file");
+		}
+		try {
+			channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.CREATE,
+					StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		} catch (IOException e) {
+			closeQuietly(log);
+			throw new IllegalArgumentException("Unable to save file");
+		}
+		IssuePageStore store = new IssuePageStore(fileName, channel, log, maxCachedPages);
+		try {
+			store.pageCount = 1;
+			store.nextId = 1;
+			Leaf leaf = new Leaf(store.allocatePage());
+			store.cache.put(leaf.number, leaf);
+			store.root = leaf.number;
+			List<Issue> sorted = new ArrayList<>(issues);
+			sorted.sort(Comparator.comparingInt(Issue::getIssueId));
+			for (Issue issue : sorted) {
+				store.addIssue(issue);
+			}
+			store.sync();
+		} catch (IllegalArgumentException e) {
+			store.closeChannel();
+			throw e;
+		}
+		return store;
+	}
+
+	/**
+	 * Opens an existing page store. A committed log left by a sync that did not
+	 * finish is copied into the file first, and a log that was not committed is
+	 * dropped.
+	 *
+	 * @param fileName       The name of the page file.
+	 * @param maxCachedPages The largest number of pages to keep in memory.
+	 * @return The store.
+	 * @throws IllegalArgumentException If the file cannot be read or is not a
+	 *                                  page store.
+	 */
+	public static IssuePageStore open(String fileName, int maxCachedPages) {
+		FileChannel channel;
+		FileChannel log;
+		try {
+			channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ, StandardOpenOption.WRITE);
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		try {
+			log = FileChannel.open(Paths.get(fileName + LOG_EXTENSION), StandardOpenOption.CREATE,
+					StandardOpenOption.READ, StandardOpenOption.WRITE);
+		} catch (IOException e) {
+			closeQuietly(channel);
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		IssuePageStore store = new IssuePageStore(fileName, channel, log, maxCachedPages);
+		try {
+			store.recover();
+			ByteBuffer header = store.readPage(0);
+			for (byte b : MAGIC) {
+				if (header.get() != b) {
+					throw new IllegalArgumentException("Unable to load file.");
+				}
+			}
+			if (header.get() != VERSION || header.getInt() != PAGE_SIZE) {
+				throw new IllegalArgumentException("Unable to load file.");
+			}
+			store.root = header.getInt();
+			store.pageCount = header.getInt();
+			store.freeHead = header.getInt();
+			store.size = header.getInt();
+			store.nextId = header.getInt();
+			if (store.root < 1 || store.root >= store.pageCount || store.freeHead < 0
+					|| store.freeHead >= store.pageCount || store.size < 0) {
+				throw new IllegalArgumentException("Unable to load file.");
+			}
+		} catch (IllegalArgumentException e) {
+			store.closeChannel();
+			throw e;
+		}
+		return store;
+	}
+
+	/**
+	 * Checks whether a file is a page store by looking at the magic number at
+	 * its start.
+	 *
+	 * @param fileName The name of the file to check.
+	 * @return true if the file starts with the page store's magic number, false
+	 *         if it does not or does not exist.
+	 * @throws IllegalArgumentException If the file cannot be read.
+	 */
+	public static boolean isPageStore(String fileName) {
+		try (FileInputStream in = new FileInputStream(fileName)) {
+			byte[] header = new byte[MAGIC.length];
+			return in.readNBytes(header, 0, header.length) == header.length && Arrays.equals(header, MAGIC);
+		} catch (FileNotFoundException e) {
+			return false;
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+	}
+
+	/**
+	 * Adds an issue with the id it was given when it was created. An issue with
+	 * the same id as an issue in the store is not added.
+	 *
+	 * @param issue The issue to add.
+	 * @throws IllegalArgumentException If the file cannot be read or written.
+	 */
+	@Override
+	public synchronized void addIssue(Issue issue) {
+		put(issue, false);
+	}
+
+	/**
+	 * Gets an issue by its id. The issue is decoded from its record, so changes
+	 * to it are not stored; use {@link #executeCommand(int, Command)} instead.
+	 *
+	 * @param issueId The id of the issue.
+	 * @return The issue, or null if there is no issue with the id.
+	 * @throws IllegalArgumentException If the file cannot be read.
+	 */
+	public synchronized Issue getIssueById(int issueId) {
+		Leaf leaf = findLeaf(issueId);
+		int index = search(leaf, issueId);
+		Issue issue = index < 0 ? null : decode(leaf.entries.get(index));
+		trim();
+		return issue;
+	}
+
+	/**
+	 * Executes a command on an issue and stores the updated issue. The updated
+	 * issue is checked first, since a state can accept a command that leaves
+	 * the issue invalid, and an invalid record could not be read back.
+	 *
+	 * @param issueId The id of the issue.
+	 * @param command The command to execute.
+	 * @throws UnsupportedOperationException If the command is not valid for the
+	 *                                       state of the issue, or leaves it
+	 *                                       invalid.
+	 * @throws IllegalArgumentException      If the file cannot be read or
+	 *                                       written.
+	 */
+	@Override
+	public synchronized void executeCommand(int issueId, Command command) {
+		Issue issue = getIssueById(issueId);
+		if (issue != null) {
+			issue.update(command);
+			String owner = issue.getOwner() == null ? "" : issue.getOwner();
+			String resolution = issue.getResolution() == null ? "" : issue.getResolution();
+			Issue.Violation violation = Issue.validate(issue.getIssueId(), issue.getStateName(),
+					issue.getIssueType(), issue.getSummary(), owner, issue.isConfirmed(), resolution,
+					issue.getNotes().size());
+			if (violation != null) {
+				throw new UnsupportedOperationException(violation.getMessage());
+			}
+			put(issue, true);
+		}
+	}
+
+	/**
+	 * Deletes an issue.
+	 *
+	 * @param issueId The id of the issue.
+	 * @throws IllegalArgumentException If the file cannot be read or written.
+	 */
+	@Override
+	public synchronized void deleteIssueById(int issueId) {
+		Leaf leaf = findLeaf(issueId);
+		int index = search(leaf, issueId);
+		if (index >= 0) {
+			freeOverflow(leaf.entries.remove(index));
+			leaf.dirty = true;
+			size--;
+			headerDirty = true;
+			modCount++;
+		}
+		trim();
+	}
+
+	/**
+	 * Gets the id the next new issue should be given, which is after the largest
+	 * id ever added to the store.
+	 *
+	 * @return The next issue id.
+	 */
+	public synchronized int nextIssueId() {
+		return nextId;
+	}
+
+	/**
+	 * Gets the number of issues in the store.
+	 *
+	 * @return The number of issues.
+	 */
+	public synchronized int size() {
+		return size;
+	}
+
+	/**
+	 * Gets the name of the page file.
+	 *
+	 * @return The file name.
+	 */
+	public String getFileName() {
+		return fileName;
+	}
+
+	/**
+	 * Gets the number of pages currently cached.
+	 *
+	 * @return The number of cached pages.
+	 */
+	public synchronized int getCachedPageCount() {
+		return cache.size();
+	}
+
+	/**
+	 * Returns an iterator over the issues of a type, in id order. Only the
+	 * records of matching issues are decoded. The store must not be changed
+	 * while the iterator is in use.
+	 *
+	 * @param issueType The type of the issues, or null for all issues.
+	 * @return The iterator.
+	 */
+	public synchronized Iterator<Issue> iterator(String issueType) {
+		return new PageIterator(issueType == null ? -1 : typeCode(issueType));
+	}
+
+	/**
+	 * Gets all issues in the store, in id order.
+	 *
+	 * @return The issues.
+	 * @throws IllegalArgumentException If the file cannot be read.
+	 */
+	public synchronized List<Issue> getIssues() {
+		return getIssuesByType(null);
+	}
+
+	/**
+	 * Gets the issues of a type, in id order.
+	 *
+	 * @param issueType The type of the issues, or null for all issues.
+	 * @return The issues.
+	 * @throws IllegalArgumentException If the file cannot be read.
+	 */
+	public synchronized List<Issue> getIssuesByType(String issueType) {
+		List<Issue> issues = new ArrayList<>();
+		for (Iterator<Issue> it = iterator(issueType); it.hasNext();) {
+			issues.add(it.next());
+		}
+		return issues;
+	}
+
+	/**
+	 * Writes every changed page and the header to the log, commits it and
+	 * copies its pages into the page file. The changes are on disk once the
+	 * commit is forced; a crash after that is recovered when the store is
+	 * opened.
+	 *
+	 * @throws IllegalArgumentException If the file cannot be written.
+	 */
+	public synchronized void sync() {
+		for (Page page : cache.values()) {
+			if (page.dirty) {
+				writePage(page);
+			}
+		}
+		if (headerDirty) {
+			buffer.clear();
+			buffer.put(MAGIC);
+			buffer.put((byte) VERSION);
+			buffer.putInt(PAGE_SIZE);
+			buffer.putInt(root);
+			buffer.putInt(pageCount);
+			buffer.putInt(freeHead);
+			buffer.putInt(size);
+			buffer.putInt(nextId);
+			write(0);
+			headerDirty = false;
+		}
+		if (logFrames.isEmpty()) {
+			return;
+		}
+		frame.clear();
+		frame.putInt(0);
+		frame.putInt(COMMIT);
+		frame.putInt(logFrames.size());
+		frame.flip();
+		frame.putInt(0, checksum(frame, COMMIT_SIZE));
+		try {
+			writeFully(log, frame, (long) logFrames.size() * FRAME_SIZE);
+			log.force(false);
+			copyLog(logFrames.size());
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to save file");
+		}
+		logFrames.clear();
+	}
+
+	/**
+	 * Syncs the store, closes the file and removes its empty log.
+	 *
+	 * @throws IllegalArgumentException If the file cannot be written.
+	 */
+	@Override
+	public synchronized void close() {
+		try {
+			sync();
+		} finally {
+			cache.clear();
+			closeChannel();
+		}
+		try {
+			Files.deleteIfExists(Paths.get(fileName + LOG_EXTENSION));
+		} catch (IOException e) {
+			// an empty log is dropped when the store is opened
+		}
+	}
+
+	/**
+	 * Adds an issue or replaces the stored issue with the same id.
+	 *
+	 * @param issue   The issue to store.
+	 * @param replace Whether an issue with the same id is replaced.
+	 */
+	private void put(Issue issue, boolean replace) {
+		Entry entry = new Entry(issue.getIssueId(), typeCode(issue.getIssueType()), encode(issue));
+		Split split = insert(root, entry, replace, true);
+		if (split != null) {
+			Inner inner = new Inner(allocatePage());
+			inner.children[0] = root;
+			inner.keys[0] = split.key;
+			inner.children[1] = split.page;
+			inner.count = 1;
+			cache.put(inner.number, inner);
+			root = inner.number;
+			headerDirty = true;
+		}
+		trim();
+	}
+
+	/**
+	 * Inserts an entry into the subtree under a page.
+	 *
+	 * @param pageNumber The root of the subtree.
+	 * @param entry      The entry to insert.
+	 * @param replace    Whether an entry with the same id is replaced.
+	 * @param rightEdge  Whether the page is the rightmost page of its level.
+	 * @return The split of the page, or null if it did not split.
+	 */
+	private Split insert(int pageNumber, Entry entry, boolean replace, boolean rightEdge) {
+		Page page = load(pageNumber);
+		if (page instanceof Leaf) {
+			return insertIntoLeaf((Leaf) page, entry, replace, rightEdge);
+		}
+		Inner inner = (Inner) page;
+		int index = childIndex(inner, entry.id);
+		Split split = insert(inner.children[index], entry, replace, rightEdge && index == inner.count);
+		if (split == null) {
+			return null;
+		}
+		System.arraycopy(inner.keys, index, inner.keys, index + 1, inner.count - index);
+		System.arraycopy(inner.children, index + 1, inner.children, index + 2, inner.count - index);
+		inner.keys[index] = split.key;
+		inner.children[index + 1] = split.page;
+		inner.count++;
+		inner.dirty = true;
+		if (inner.count <= MAX_KEYS) {
+			return null;
+		}
+		int middle = rightEdge && index == inner.count - 1 ? inner.count - 2 : inner.count / 2;
+		Inner right = new Inner(allocatePage());
+		right.count = inner.count - middle - 1;
+		System.arraycopy(inner.keys, middle + 1, right.keys, 0, right.count);
+		System.arraycopy(inner.children, middle + 1, right.children, 0, right.count + 1);
+		inner.count = middle;
+		cache.put(right.number, right);
+		return new Split(inner.keys[middle], right.number);
+	}
+
+	/**
+	 * Inserts an entry into a leaf and splits the leaf if it no longer fits in a
+	 * page.
+	 *
+	 * @param leaf      The leaf.
+	 * @param entry     The entry to insert.
+	 * @param replace   Whether an entry with the same id is replaced.
+	 * @param rightEdge Whether the leaf is the rightmost leaf.
+	 * @return The split of the leaf, or null if it did not split.
+	 */
+	private Split insertIntoLeaf(Leaf leaf, Entry entry, boolean replace, boolean rightEdge) {
+		int index = search(leaf, entry.id);
+		if (index >= 0) {
+			if (!replace) {
+				return null;
+			}
+			freeOverflow(leaf.entries.get(index));
+			leaf.entries.set(index, spill(entry));
+		} else {
+			index = -index - 1;
+			leaf.entries.add(index, spill(entry));
+			size++;
+			nextId = Math.max(nextId, entry.id + 1);
+			headerDirty = true;
+		}
+		leaf.dirty = true;
+		modCount++;
+		int length = leaf.length();
+		if (length <= PAGE_SIZE) {
+			return null;
+		}
+		int from;
+		if (rightEdge && index == leaf.entries.size() - 1) {
+			from = index;
+		} else {
+			from = 0;
+			for (int used = PAGE_HEADER; used < length / 2; from++) {
+				used += leaf.entries.get(from).length();
+			}
+			from = Math.max(1, Math.min(from, leaf.entries.size() - 1));
+		}
+		Leaf right = new Leaf(allocatePage());
+		List<Entry> moved = leaf.entries.subList(from, leaf.entries.size());
+		right.entries.addAll(moved);
+		moved.clear();
+		right.next = leaf.next;
+		leaf.next = right.number;
+		cache.put(right.number, right);
+		return new Split(right.entries.get(0).id, right.number);
+	}
+
+	/**
+	 * Finds the leaf an id belongs in.
+	 *
+	 * @param issueId The id.
+	 * @return The leaf.
+	 */
+	private Leaf findLeaf(int issueId) {
+		Page page = load(root);
+		while (page instanceof Inner) {
+			Inner inner = (Inner) page;
+			page = load(inner.children[childIndex(inner, issueId)]);
+		}
+		return (Leaf) page;
+	}
+
+	/**
+	 * Finds the child of an inner page an id belongs under.
+	 *
+	 * @param inner   The inner page.
+	 * @param issueId The id.
+	 * @return The index of the child, which is the number of keys not greater
+	 *         than the id.
+	 */
+	private static int childIndex(Inner inner, int issueId) {
+		int low = 0;
+		int high = inner.count;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (inner.keys[mid] <= issueId) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Finds an id in a leaf.
+	 *
+	 * @param leaf    The leaf.
+	 * @param issueId The id.
+	 * @return The index of the id's entry, or <code>-(insertion point) - 1</code>
+	 *         if the leaf has no entry for it.
+	 */
+	private static int search(Leaf leaf, int issueId) {
+		int low = 0;
+		int high = leaf.entries.size() - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int id = leaf.entries.get(mid).id;
+			if (id < issueId) {
+				low = mid + 1;
+			} else if (id > issueId) {
+				high = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		return -low - 1;
+	}
+
+	/**
+	 * Gets a page through the cache, reading it if it is not cached.
+	 *
+	 * @param pageNumber The number of the page.
+	 * @return The page.
+	 * @throws IllegalArgumentException If the page cannot be read or is not a
+	 *                                  tree page.
+	 */
+	private Page load(int pageNumber) {
+		Page page = cache.get(pageNumber);
+		if (page != null) {
+			return page;
+		}
+		if (pageNumber < 1 || pageNumber >= pageCount) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		ByteBuffer bytes = readPage(pageNumber);
+		byte kind = bytes.get();
+		int count = bytes.getShort() & 0xFFFF;
+		if (kind == LEAF) {
+			Leaf leaf = new Leaf(pageNumber);
+			leaf.next = bytes.getInt();
+			for (int i = 0; i < count; i++) {
+				int id = bytes.getInt();
+				byte type = bytes.get();
+				int length = bytes.getInt();
+				if (length < 0) {
+					leaf.entries.add(new Entry(id, type, ~length, bytes.getInt()));
+				} else {
+					byte[] record = new byte[length];
+					bytes.get(record);
+					leaf.entries.add(new Entry(id, type, record));
+				}
+			}
+			page = leaf;
+		} else if (kind == INNER && count <= MAX_KEYS) {
+			Inner inner = new Inner(pageNumber);
+			inner.count = count;
+			inner.children[0] = bytes.getInt();
+			for (int i = 0; i < count; i++) {
+				inner.keys[i] = bytes.getInt();
+				inner.children[i + 1] = bytes.getInt();
+			}
+			page = inner;
+		} else {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		page.dirty = false;
+		cache.put(pageNumber, page);
+		return page;
+	}
+
+	/**
+	 * Evicts the least recently used pages until the cache is within its bound,
+	 * writing the ones that changed. Called at the end of every operation, so
+	 * the pages an operation is working on are never evicted under it.
+	 */
+	private void trim() {
+		Iterator<Page> pages = cache.values().iterator();
+		while (cache.size() > maxCachedPages) {
+			Page page = pages.next();
+			if (page.dirty) {
+				writePage(page);
+			}
+			pages.remove();
+		}
+	}
+
+	/**
+	 * Writes a tree page.
+	 *
+	 * @param page The page.
+	 */
+	private void writePage(Page page) {
+		buffer.clear();
+		if (page instanceof Leaf) {
+			Leaf leaf = (Leaf) page;
+			buffer.put(LEAF);
+			buffer.putShort((short) leaf.entries.size());
+			buffer.putInt(leaf.next);
+			for (Entry entry : leaf.entries) {
+				buffer.putInt(entry.id);
+				buffer.put(entry.type);
+				if (entry.record == null) {
+					buffer.putInt(~entry.recordLength);
+					buffer.putInt(entry.overflow);
+				} else {
+					buffer.putInt(entry.record.length);
+					buffer.put(entry.record);
+				}
+			}
+		} else {
+			Inner inner = (Inner) page;
+			buffer.put(INNER);
+			buffer.putShort((short) inner.count);
+			buffer.putInt(inner.children[0]);
+			for (int i = 0; i < inner.count; i++) {
+				buffer.putInt(inner.keys[i]);
+				buffer.putInt(inner.children[i + 1]);
+			}
+		}
+		write(page.number);
+		page.dirty = false;
+	}
+
+	/**
+	 * Moves the record of an entry to overflow pages if it is too long to keep
+	 * in a leaf.
+	 *
+	 * @param entry The entry.
+	 * @return The entry.
+	 */
+	private Entry spill(Entry entry) {
+		if (entry.record.length <= MAX_INLINE) {
+			return entry;
+		}
+		byte[] record = entry.record;
+		int payload = PAGE_SIZE - CHAIN_HEADER;
+		int[] pages = new int[(record.length + payload - 1) / payload];
+		for (int i = 0; i < pages.length; i++) {
+			pages[i] = allocatePage();
+		}
+		for (int i = 0; i < pages.length; i++) {
+			buffer.clear();
+			buffer.put(OVERFLOW);
+			buffer.putInt(i + 1 < pages.length ? pages[i + 1] : 0);
+			buffer.put(record, i * payload, Math.min(payload, record.length - i * payload));
+			write(pages[i]);
+		}
+		return new Entry(entry.id, entry.type, record.length, pages[0]);
+	}
+
+	/**
+	 * Reads the record of an entry from its overflow pages.
+	 *
+	 * @param entry The entry.
+	 * @return The record.
+	 */
+	private byte[] readOverflow(Entry entry) {
+		byte[] record = new byte[entry.recordLength];
+		int pageNumber = entry.overflow;
+		for (int read = 0; read < record.length;) {
+			ByteBuffer bytes = readChainPage(pageNumber, OVERFLOW);
+			pageNumber = bytes.getInt();
+			int length = Math.min(bytes.remaining(), record.length - read);
+			bytes.get(record, read, length);
+			read += length;
+		}
+		return record;
+	}
+
+	/**
+	 * Puts the overflow pages of an entry on the free list.
+	 *
+	 * @param entry The entry, whose record may be in its leaf.
+	 */
+	private void freeOverflow(Entry entry) {
+		int pageNumber = entry.record == null ? entry.overflow : 0;
+		while (pageNumber != 0) {
+			int next = readChainPage(pageNumber, OVERFLOW).getInt();
+			buffer.clear();
+			buffer.put(FREE);
+			buffer.putInt(freeHead);
+			write(pageNumber);
+			freeHead = pageNumber;
+			headerDirty = true;
+			pageNumber = next;
+		}
+	}
+
+	/**
+	 * Takes a page from the free list, or adds one to the end of the file.
+	 *
+	 * @return The number of the page.
+	 */
+	private int allocatePage() {
+		headerDirty = true;
+		if (freeHead == 0) {
+			return pageCount++;
+		}
+		int pageNumber = freeHead;
+		freeHead = readChainPage(pageNumber, FREE).getInt();
+		return pageNumber;
+	}
+
+	/**
+	 * Reads an overflow or free page.
+	 *
+	 * @param pageNumber The number of the page.
+	 * @param kind       The kind the page must be.
+	 * @return The page, positioned after its kind.
+	 * @throws IllegalArgumentException If the page cannot be read or is of
+	 *                                  another kind.
+	 */
+	private ByteBuffer readChainPage(int pageNumber, byte kind) {
+		if (pageNumber < 1 || pageNumber >= pageCount) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		ByteBuffer bytes = readPage(pageNumber);
+		if (bytes.get() != kind) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		return bytes;
+	}
+
+	/**
+	 * Reads a page into the page buffer, from the log if the page changed since
+	 * the last sync.
+	 *
+	 * @param pageNumber The number of the page.
+	 * @return The page buffer, positioned at the start of the page.
+	 * @throws IllegalArgumentException If the page cannot be read.
+	 */
+	private ByteBuffer readPage(int pageNumber) {
+		buffer.clear();
+		Integer logFrame = logFrames.get(pageNumber);
+		try {
+			if (logFrame == null) {
+				readFully(channel, buffer, (long) pageNumber * PAGE_SIZE);
+			} else {
+				readFully(log, buffer, (long) logFrame * FRAME_SIZE + FRAME_HEADER);
+			}
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		buffer.flip();
+		return buffer;
+	}
+
+	/**
+	 * Writes the page buffer as a whole page, padding it with zeros. The page
+	 * goes to the log, in the frame it was given since the last sync or in a
+	 * new one, so the page file keeps the pages of the last sync.
+	 *
+	 * @param pageNumber The number of the page.
+	 * @throws IllegalArgumentException If the page cannot be written.
+	 */
+	private void write(int pageNumber) {
+		Arrays.fill(buffer.array(), buffer.position(), PAGE_SIZE, (byte) 0);
+		Integer logFrame = logFrames.get(pageNumber);
+		if (logFrame == null) {
+			logFrame = logFrames.size();
+			logFrames.put(pageNumber, logFrame);
+		}
+		frame.clear();
+		frame.putInt(0);
+		frame.putInt(pageNumber);
+		frame.put(buffer.array());
+		frame.flip();
+		frame.putInt(0, checksum(frame, FRAME_SIZE));
+		try {
+			writeFully(log, frame, (long) logFrame * FRAME_SIZE);
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to save file");
+		}
+	}
+
+	/**
+	 * Copies a committed log left by a sync that did not finish into the page
+	 * file, and empties the log. A log without a valid commit record was not
+	 * committed, so the page file still holds the last sync and the log is
+	 * only emptied.
+	 *
+	 * @throws IllegalArgumentException If a committed log cannot be read or
+	 *                                  copied.
+	 */
+	private void recover() {
+		try {
+			long length = log.size();
+			if (length == 0) {
+				return;
+			}
+			int frames = (int) ((length - COMMIT_SIZE) / FRAME_SIZE);
+			if (length >= COMMIT_SIZE && (long) frames * FRAME_SIZE + COMMIT_SIZE == length) {
+				frame.clear().limit(COMMIT_SIZE);
+				readFully(log, frame, length - COMMIT_SIZE);
+				frame.flip();
+				if (frame.getInt(0) == checksum(frame, COMMIT_SIZE) && frame.getInt(Integer.BYTES) == COMMIT
+						&& frame.getInt(2 * Integer.BYTES) == frames) {
+					for (int i = 0; i < frames; i++) {
+						readFrame(i);
+					}
+					copyLog(frames);
+					return;
+				}
+			}
+			log.truncate(0);
+			log.force(false);
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+	}
+
+	/**
+	 * Copies the pages of a committed log into the page file, forces it and
+	 * empties the log.
+	 *
+	 * @param frames The number of frames in the log.
+	 * @throws IOException              If a file cannot be read or written.
+	 * @throws IllegalArgumentException If a frame is damaged.
+	 */
+	private void copyLog(int frames) throws IOException {
+		for (int i = 0; i < frames; i++) {
+			int pageNumber = readFrame(i);
+			frame.position(FRAME_HEADER);
+			writeFully(channel, frame, (long) pageNumber * PAGE_SIZE);
+		}
+		channel.force(false);
+		log.truncate(0);
+		log.force(false);
+	}
+
+	/**
+	 * Reads a log frame into the frame buffer and checks it.
+	 *
+	 * @param index The index of the frame.
+	 * @return The number of the page in the frame.
+	 * @throws IOException              If the log cannot be read.
+	 * @throws IllegalArgumentException If the frame is damaged.
+	 */
+	private int readFrame(int index) throws IOException {
+		frame.clear();
+		readFully(log, frame, (long) index * FRAME_SIZE);
+		frame.flip();
+		int pageNumber = frame.getInt(Integer.BYTES);
+		if (frame.getInt(0) != checksum(frame, FRAME_SIZE) || pageNumber < 0) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		return pageNumber;
+	}
+
+	/**
+	 * Computes the CRC32C of a log frame or commit record, after the CRC32C
+	 * stored at its start.
+	 *
+	 * @param bytes  The buffer holding the frame or record at its start.
+	 * @param length The length of the frame or record.
+	 * @return The CRC32C.
+	 */
+	private static int checksum(ByteBuffer bytes, int length) {
+		CRC32C crc = new CRC32C();
+		crc.update(bytes.array(), Integer.BYTES, length - Integer.BYTES);
+		return (int) crc.getValue();
+	}
+
+	/**
+	 * Reads bytes from a file until the buffer is full.
+	 *
+	 * @param file     The file.
+	 * @param bytes    The buffer.
+	 * @param position The position in the file to read from.
+	 * @throws IOException If the file cannot be read or ends first.
+	 */
+	private static void readFully(FileChannel file, ByteBuffer bytes, long position) throws IOException {
+		long start = position - bytes.position();
+		while (bytes.hasRemaining()) {
+			if (file.read(bytes, start + bytes.position()) < 0) {
+				throw new IOException("Unexpected end of file");
+			}
+		}
+	}
+
+	/**
+	 * Writes the remaining bytes of a buffer to a file.
+	 *
+	 * @param file     The file.
+	 * @param bytes    The buffer.
+	 * @param position The position in the file to write to.
+	 * @throws IOException If the file cannot be written.
+	 */
+	private static void writeFully(FileChannel file, ByteBuffer bytes, long position) throws IOException {
+		long start = position - bytes.position();
+		while (bytes.hasRemaining()) {
+			file.write(bytes, start + bytes.position());
+		}
+	}
+
+	/**
+	 * Closes the page file and its log, ignoring errors.
+	 */
+	private void closeChannel() {
+		closeQuietly(channel);
+		closeQuietly(log);
+	}
+
+	/**
+	 * Closes a file, ignoring errors.
+	 *
+	 * @param file The file.
+	 */
+	private static void closeQuietly(FileChannel file) {
+		try {
+			file.close();
+		} catch (IOException e) {
+			// everything that had to reach the file was synced
+		}
+	}
+
+	/**
+	 * Encodes an issue as a record.
+	 *
+	 * @param issue The issue.
+	 * @return The record.
+	 */
+	private static byte[] encode(Issue issue) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			IssueBinaryFormat.writeIssue(out, issue);
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to save file");
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Decodes the record of an entry.
+	 *
+	 * @param entry The entry.
+	 * @return The issue.
+	 * @throws IllegalArgumentException If the record cannot be read or does not
+	 *                                  describe a valid issue.
+	 */
+	private Issue decode(Entry entry) {
+		byte[] record = entry.record == null ? readOverflow(entry) : entry.record;
+		Issue issue;
+		try {
+			issue = IssueBinaryFormat.readIssue(new DataInputStream(new ByteArrayInputStream(record)));
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		if (issue == null) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		return issue;
+	}
+
+	/**
+	 * Gets the code stored for an issue type.
+	 *
+	 * @param issueType The issue type.
+	 * @return The code, or -2 if the type is unknown.
+	 */
+	private static byte typeCode(String issueType) {
+		if (Issue.I_BUG.equals(issueType)) {
+			return BUG;
+		} else if (Issue.I_ENHANCEMENT.equals(issueType)) {
+			return ENHANCEMENT;
+		}
+		return -2;
+	}
+
+	/**
+	 * A page of the tree held in memory.
+	 */
+	private abstract static class Page {
+		/** The number of the page. */
+		final int number;
+		/** Whether the page changed since it was last written. */
+		boolean dirty = true;
+
+		/**
+		 * Constructs a page.
+		 *
+		 * @param number The number of the page.
+		 */
+		Page(int number) {
+			this.number = number;
+		}
+	}
+
+	/**
+	 * A leaf page, holding entries in id order.
+	 */
+	private static class Leaf extends Page {
+		/** The entries of the leaf. */
+		final ArrayList<Entry> entries = new ArrayList<>();
+		/** The next leaf to the right, or 0 if this is the last. */
+		int next;
+
+		/**
+		 * Constructs an empty leaf.
+		 *
+		 * @param number The number of the page.
+		 */
+		Leaf(int number) {
+			super(number);
+		}
+
+		/**
+		 * Gets the length of the leaf when written as a page.
+		 *
+		 * @return The length in bytes.
+		 */
+		int length() {
+			int length = PAGE_HEADER;
+			for (Entry entry : entries) {
+				length += entry.length();
+			}
+			return length;
+		}
+	}
+
+	/**
+	 * An inner page, holding ids and the pages between them.
+	 */
+	private static class Inner extends Page {
+		/** The ids separating the children; child i holds ids below key i. */
+		final int[] keys = new int[MAX_KEYS + 1];
+		/** The child pages. */
+		final int[] children = new int[MAX_KEYS + 2];
+		/** Number of keys. */
+		int count;
+
+		/**
+		 * Constructs an empty inner page.
+		 *
+		 * @param number The number of the page.
+		 */
+		Inner(int number) {
+			super(number);
+		}
+	}
+
+	/**
+	 * An entry of a leaf.
+	 */
+	private static class Entry {
+		/** The id of the issue. */
+		final int id;
+		/** The type code of the issue. */
+		final byte type;
+		/** The record, or null if it is in overflow pages. */
+		final byte[] record;
+		/** Length of the record. */
+		final int recordLength;
+		/** First overflow page of the record, or 0 if it is in the leaf. */
+		final int overflow;
+
+		/**
+		 * Constructs an entry holding its record.
+		 *
+		 * @param id     The id of the issue.
+		 * @param type   The type code of the issue.
+		 * @param record The record.
+		 */
+		Entry(int id, byte type, byte[] record) {
+			this.id = id;
+			this.type = type;
+			this.record = record;
+			this.recordLength = record.length;
+			this.overflow = 0;
+		}
+
+		/**
+		 * Constructs an entry whose record is in overflow pages.
+		 *
+		 * @param id           The id of the issue.
+		 * @param type         The type code of the issue.
+		 * @param recordLength The length of the record.
+		 * @param overflow     The first overflow page.
+		 */
+		Entry(int id, byte type, int recordLength, int overflow) {
+			this.id = id;
+			this.type = type;
+			this.record = null;
+			this.recordLength = recordLength;
+			this.overflow = overflow;
+		}
+
+		/**
+		 * Gets the length of the entry when written in a leaf.
+		 *
+		 * @return The length in bytes.
+		 */
+		int length() {
+			return ENTRY_HEADER + (record == null ? Integer.BYTES : record.length);
+		}
+	}
+
+	/**
+	 * The result of splitting a page.
+	 */
+	private static class Split {
+		/** The first id of the new page. */
+		final int key;
+		/** The number of the new page. */
+		final int page;
+
+		/**
+		 * Constructs a split.
+		 *
+		 * @param key  The first id of the new page.
+		 * @param page The number of the new page.
+		 */
+		Split(int key, int page) {
+			this.key = key;
+			this.page = page;
+		}
+	}
+
+	/**
+	 * Walks the leaves from left to right, decoding the entries of one type.
+	 */
+	private class PageIterator implements Iterator<Issue> {
+		/** The type code of the issues returned, or -1 for all issues. */
+		private final int typeCode;
+		/** The change count of the store when the iterator was created. */
+		private final int expectedModCount;
+		/** The leaf being walked, or null at the end. */
+		private Leaf leaf;
+		/** The index of the next entry of the leaf. */
+		private int index;
+		/** The next issue, or null at the end. */
+		private Issue next;
+
+		/**
+		 * Constructs an iterator starting at the leftmost leaf.
+		 *
+		 * @param typeCode The type code of the issues to return, or -1 for all.
+		 */
+		PageIterator(int typeCode) {
+			this.typeCode = typeCode;
+			this.expectedModCount = modCount;
+			Page page = load(root);
+			while (page instanceof Inner) {
+				page = load(((Inner) page).children[0]);
+			}
+			leaf = (Leaf) page;
+			advance();
+		}
+
+		/**
+		 * Finds the next matching entry that can be decoded. Entries that cannot
+		 * be decoded are skipped, as the readers skip invalid records.
+		 */
+		private void advance() {
+			next = null;
+			while (leaf != null) {
+				while (index < leaf.entries.size()) {
+					Entry entry = leaf.entries.get(index++);
+					if (typeCode < 0 || entry.type == typeCode) {
+						try {
+							next = decode(entry);
+							return;
+						} catch (IllegalArgumentException e) {
+							// skip the record, as the readers do
+						}
+					}
+				}
+				leaf = leaf.next == 0 ? null : (Leaf) load(leaf.next);
+				index = 0;
+				trim();
+			}
+		}
+
+		/**
+		 * Checks whether there is another issue.
+		 *
+		 * @return true if there is another issue.
+		 */
+		@Override
+		public boolean hasNext() {
+			return next != null;
+		}
+
+		/**
+		 * Gets the next issue.
+		 *
+		 * @return The next issue.
+		 * @throws NoSuchElementException          If there are no more issues.
+		 * @throws ConcurrentModificationException If the store changed.
+		 */
+		@Override
+		public Issue next() {
+			synchronized (IssuePageStore.this) {
+				if (next == null) {
+					throw new NoSuchElementException();
+				}
+				if (modCount != expectedModCount) {
+					throw new ConcurrentModificationException();
+				}
+				Issue issue = next;
+				advance();
+				return issue;
+			}
+		}
+	}
+}
@@ -0,0 +1,240 @@
+package edu.ncsu.csc216.issue_manager.model.io;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * The IssuePatch class collects the writes of an in-place update of an issue
+ * text file and applies them so that a crash cannot leave the file half
+ * written. The writes are first saved with a checksum to a patch file next to
+ * the target, with the same name and a ".patch" extension, and forced to disk.
+ * Only then are they applied to the target, which is forced before the patch
+ * file is deleted.
+ *
+ * A patch file left behind by a crash is applied again by
+ * {@link #recover(Path)} before the file is read or replaced. A patch file
+ * that was only partly written is deleted, since the target was not touched
+ * yet.
+ *
+ * @author Nirvan Reddy Anumandla
+ */
+class IssuePatch {
+	/** Extension added to the target file name to name its patch file. */
+	static final String EXTENSION = ".patch";
+	/** Magic number at the start of every patch file. */
+	private static final byte[] MAGIC = { 0, 'I', 'S', 'P' };
+	/** Current version of the patch format. */
+	private static final int VERSION = 1;
+	/** Length of the header: magic, version, both file lengths and the write count. */
+	private static final int HEADER_SIZE = MAGIC.length + 4 + 8 + 8 + 4;
+
+	/** Offsets in the target of the collected writes. */
+	private final List<Long> offsets = new ArrayList<>();
+	/** Bytes of the collected writes. */
+	private final List<ByteBuffer> writes = new ArrayList<>();
+	/** Number of bytes the collected writes take up in the patch file. */
+	private long size = HEADER_SIZE + 4;
+
+	/**
+	 * Adds a write of some bytes at an offset of the target.
+	 *
+	 * @param offset The offset to write at.
+	 * @param bytes  The bytes to write, which are not copied.
+	 */
+	void add(long offset, ByteBuffer bytes) {
+		if (bytes.hasRemaining()) {
+			offsets.add(offset);
+			writes.add(bytes);
+			size += 12 + bytes.remaining();
+		}
+	}
+
+	/**
+	 * Adds a write of blank lines, which the reader skips, over part of the
+	 * target.
+	 *
+	 * @param offset The start of the range to blank.
+	 * @param length The length of the range to blank.
+	 */
+	void addBlank(long offset, long length) {
+		byte[] newlines = new byte[(int) length];
+		Arrays.fill(newlines, (byte) '\n');
+		add(offset, ByteBuffer.wrap(newlines));
+	}
+
+	/**
+	 * Applies the collected writes to a file through its patch file, and sets
+	 * the file's length.
+	 *
+	 * @param target    The file to update.
+	 * @param oldLength The length of the file before the update.
+	 * @param newLength The length of the file after the update.
+	 * @throws IOException If the patch file or the target cannot be written.
+	 */
+	void apply(Path target, long oldLength, long newLength) throws IOException {
+		if (writes.isEmpty() && oldLength == newLength) {
+			return;
+		}
+		Path patchFile = save(target, oldLength, newLength);
+		write(target, offsets, writes, newLength);
+		Files.delete(patchFile);
+		IssueWriter.syncDirectory(patchFile);
+	}
+
+	/**
+	 * Writes the collected writes to the patch file of a file and forces it to
+	 * disk, without applying them.
+	 *
+	 * @param target    The file to update.
+	 * @param oldLength The length of the file before the update.
+	 * @param newLength The length of the file after the update.
+	 * @return The patch file.
+	 * @throws IOException If the patch file cannot be written.
+	 */
+	Path save(Path target, long oldLength, long newLength) throws IOException {
+		if (size > Integer.MAX_VALUE) {
+			throw new IOException("Patch too large");
+		}
+		ByteBuffer patch = ByteBuffer.allocate((int) size);
+		patch.put(MAGIC).putInt(VERSION).putLong(oldLength).putLong(newLength).putInt(writes.size());
+		for (int i = 0; i < writes.size(); i++) {
+			ByteBuffer bytes = writes.get(i).duplicate();
+			patch.putLong(offsets.get(i)).putInt(bytes.remaining()).put(bytes);
+		}
+		CRC32C crc = new CRC32C();
+		crc.update(patch.array(), 0, patch.position());
+		patch.putInt((int) crc.getValue());
+		patch.flip();
+
+		Path patchFile = patchFile(target);
+		try (FileChannel channel = FileChannel.open(patchFile, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			while (patch.hasRemaining()) {
+				channel.write(patch);
+			}
+			channel.force(true);
+		}
+		IssueWriter.syncDirectory(patchFile);
+		return patchFile;
+	}
+
+	/**
+	 * Finishes an update of a file that was interrupted by a crash. If a
+	 * complete patch file for the file in its state before or after the update
+	 * is found, its writes are applied again. The patch file is deleted in any
+	 * case.
+	 *
+	 * @param target The file that may have been updated.
+	 * @throws IOException If the patch file or the target cannot be accessed.
+	 */
+	static void recover(Path target) throws IOException {
+		Path patchFile = patchFile(target);
+		if (!Files.exists(patchFile)) {
+			return;
+		}
+		ByteBuffer patch = ByteBuffer.wrap(Files.readAllBytes(patchFile));
+		List<Long> offsets = new ArrayList<>();
+		List<ByteBuffer> writes = new ArrayList<>();
+		long newLength = read(patch, offsets, writes);
+		long length;
+		try {
+			length = Files.size(target);
+		} catch (NoSuchFileException e) {
+			length = -1;
+		}
+		if (newLength >= 0 && (length == patch.getLong(MAGIC.length + 4) || length == newLength)) {
+			write(target, offsets, writes, newLength);
+		}
+		Files.delete(patchFile);
+		IssueWriter.syncDirectory(patchFile);
+	}
+
+	/**
+	 * Reads the writes of a patch file, if it is complete.
+	 *
+	 * @param patch   The contents of the patch file.
+	 * @param offsets The list to add the offsets of the writes to.
+	 * @param writes  The list to add the bytes of the writes to.
+	 * @return The length of the target after the update, or -1 if the patch
+	 *         file is not complete.
+	 */
+	private static long read(ByteBuffer patch, List<Long> offsets, List<ByteBuffer> writes) {
+		int end = patch.limit() - 4;
+		if (end < HEADER_SIZE) {
+			return -1;
+		}
+		CRC32C crc = new CRC32C();
+		crc.update(patch.array(), 0, end);
+		byte[] magic = new byte[MAGIC.length];
+		patch.get(magic);
+		if (!Arrays.equals(magic, MAGIC) || patch.getInt() != VERSION
+				|| patch.getInt(end) != (int) crc.getValue()) {
+			return -1;
+		}
+		patch.getLong();
+		long newLength = patch.getLong();
+		int count = patch.getInt();
+		try {
+			for (int i = 0; i < count; i++) {
+				long offset = patch.getLong();
+				int length = patch.getInt();
+				if (offset < 0 || length < 0 || length > end - patch.position()) {
+					return -1;
+				}
+				ByteBuffer bytes = patch.slice();
+				bytes.limit(length);
+				patch.position(patch.position() + length);
+				offsets.add(offset);
+				writes.add(bytes);
+			}
+		} catch (BufferUnderflowException e) {
+			return -1;
+		}
+		return patch.position() == end ? newLength : -1;
+	}
+
+	/**
+	 * Writes bytes at offsets of a file, sets its length and forces it to disk.
+	 *
+	 * @param target    The file to write.
+	 * @param offsets   The offsets of the writes.
+	 * @param writes    The bytes of the writes.
+	 * @param newLength The length of the file after the writes.
+	 * @throws IOException If the file cannot be written.
+	 */
+	private static void write(Path target, List<Long> offsets, List<ByteBuffer> writes, long newLength)
+			throws IOException {
+		try (FileChannel channel = FileChannel.open(target, StandardOpenOption.WRITE)) {
+			for (int i = 0; i < writes.size(); i++) {
+				ByteBuffer bytes = writes.get(i).duplicate();
+				long position = offsets.get(i);
+				while (bytes.hasRemaining()) {
+					position += channel.write(bytes, position);
+				}
+			}
+			channel.truncate(newLength);
+			channel.force(true);
+		}
+	}
+
+	/**
+	 * Gets the patch file of a file.
+	 *
+	 * @param target The file.
+	 * @return The file the file's patch is written to.
+	 */
+	private static Path patchFile(Path target) {
+		return Paths.get(target.toString() + EXTENSION);
+	}
+}
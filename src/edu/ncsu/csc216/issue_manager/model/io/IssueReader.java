@@ -1,20 +1,30 @@
 package edu.ncsu.csc216.issue_manager.model.io;
 
-import java.io.FileNotFoundException;
-
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.NoSuchElementException;
-import java.util.Scanner;
-import java.io.FileInputStream;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import edu.ncsu.csc216.issue_manager.model.issue.Issue;
 
 /**
  * The IssueReader class provides methods for reading and processing issues from
- * a file. It includes a method to read issues from a specified file and another
- * method to process a string representation of an issue and create an Issue
- * object with the extracted information.
+ * a file, in the text format or in the binary format described by
+ * IssueBinaryFormat. Invalid records are skipped without exceptions.
  *
  * The file containing issues should be formatted with each issue represented as
  * a separate block of text, using '*' as a delimiter between issues.
@@ -22,79 +32,595 @@ import edu.ncsu.csc216.issue_manager.model.issue.Issue;
  * @author Nirvan Reddy Anumandla
  */
 public class IssueReader {
+	/** Largest part of a file that is mapped at once when reading a mapped file. */
+	private static final int MAPPED_WINDOW_SIZE = 256 * 1024 * 1024;
+	/** Smallest chunk of a window that is parsed by a single parallel task. */
+	private static final int PARALLEL_CHUNK_SIZE = 1024 * 1024;
+	/** Number of chunks created per worker thread, to even out uneven chunks. */
+	private static final int CHUNKS_PER_THREAD = 4;
 
 	/**
 	 * Reads issues from a file and returns them as a Arraylist of Issue. The method
-	 * processes each line as an issue, and adds them to an ArrayList of Issue
-	 * objects. The file should be formatted with each issue represented as a
-	 * separate issues, using '*' as a delimiter between issues.
+	 * processes each record as an issue, and adds the valid ones to an ArrayList of
+	 * Issue objects. Records that cannot be processed are skipped. The file should
+	 * be formatted with each issue represented as a separate issues, using '*' as a
+	 * delimiter between issues.
 	 * 
 	 * @param fileName The name of the file to read issues from.
 	 * @return A Arraylist of issues read from the file.
-	 * @throws FileNotFoundException    If the specified file is not found.
-	 * @throws IllegalArgumentException If there is an issue with the file format or
-	 *                                  if an error occurs during the reading or
-	 *                                  processing of the file.
+	 * @throws IllegalArgumentException If the file cannot be found or read.
 	 */
 	public static ArrayList<Issue> readIssuesFromFile(String fileName) {
+		return readIssuesFromFile(fileName, null);
+	}
+
+	/**
+	 * Reads issues from a file as {@link #readIssuesFromFile(String)} does, and
+	 * records where each issue's record is stored in the file.
+	 *
+	 * @param fileName The name of the file to read issues from.
+	 * @param layout   The layout to record the issues' records in, or null.
+	 * @return A Arraylist of issues read from the file.
+	 * @throws IllegalArgumentException If the file cannot be found or read.
+	 */
+	public static ArrayList<Issue> readIssuesFromFile(String fileName, IssueFileLayout layout) {
+		return readIssuesFromFile(fileName, layout, null);
+	}
+
+	/**
+	 * Reads issues from a file as {@link #readIssuesFromFile(String)} does, but
+	 * only keeps the header fields of each issue in memory. The notes are left
+	 * in the file and read through <code>notesLoader</code>, which must be open
+	 * on the same file, the first time an issue's notes are needed. Compressed
+	 * files cannot be read at an offset, so their notes are always parsed.
+	 *
+	 * @param fileName    The name of the file to read issues from.
+	 * @param layout      The layout to record the issues' records in, or null.
+	 * @param notesLoader The loader to read the notes with, or null to parse the
+	 *                    notes.
+	 * @return A Arraylist of issues read from the file.
+	 * @throws IllegalArgumentException If the file cannot be found or read.
+	 */
+	public static ArrayList<Issue> readIssuesFromFile(String fileName, IssueFileLayout layout,
+			IssueNotesLoader notesLoader) {
+		return readIssuesFromFile(fileName, layout, notesLoader, null);
+	}
+
+	/**
+	 * Reads issues from a file as {@link #readIssuesFromFile(String)} does, and
+	 * adds every record that is skipped to a report, with its index, its byte
+	 * offset and the rule it broke. Records are checked without exceptions, so
+	 * invalid records cost no more to read than valid ones.
+	 *
+	 * @param fileName The name of the file to read issues from.
+	 * @param report   The report to add the skipped records to.
+	 * @return A Arraylist of the valid issues read from the file.
+	 * @throws IllegalArgumentException If the file cannot be found or read.
+	 */
+	public static ArrayList<Issue> readIssuesWithReport(String fileName, IssueLoadReport report) {
+		return readIssuesFromFile(fileName, null, null, report);
+	}
+
+	/**
+	 * Reads issues from a file, recording their layout, leaving their notes in
+	 * the file and reporting the skipped records as requested.
+	 *
+	 * @param fileName    The name of the file to read issues from.
+	 * @param layout      The layout to record the issues' records in, or null.
+	 * @param notesLoader The loader to read the notes with, or null to parse the
+	 *                    notes.
+	 * @param report      The report to add skipped records to, or null.
+	 * @return A Arraylist of issues read from the file.
+	 * @throws IllegalArgumentException If the file cannot be found or read.
+	 */
+	private static ArrayList<Issue> readIssuesFromFile(String fileName, IssueFileLayout layout,
+			IssueNotesLoader notesLoader, IssueLoadReport report) {
+		if ((layout != null || notesLoader != null) && isCompressedIssueFile(fileName)) {
+			// offsets in the uncompressed bytes cannot be used to rewrite records
+			if (layout != null) {
+				layout.invalidate();
+			}
+			layout = null;
+			notesLoader = null;
+		}
+		if (layout != null && notesLoader != null) {
+			layout.keepOffsets();
+		}
 		ArrayList<Issue> issues = new ArrayList<>();
-		String issueString = "";
+		try (IssueIterator iterator = openIssueIterator(fileName, notesLoader, report)) {
+			while (iterator.hasNext()) {
+				Issue issue = iterator.next();
+				issues.add(issue);
+				if (layout != null) {
+					layout.putRead(issue.getIssueId(), iterator.recordOffset(), iterator.recordLength());
+				}
+			}
+		}
+		if (layout != null) {
+			layout.setFileLength(new File(fileName).length());
+		}
+		return issues;
+	}
+
+	/**
+	 * Opens an iterator that parses the issues of a file one record at a time.
+	 * Compressed files are decompressed as they are read. The caller must close
+	 * the iterator if it stops before the last issue.
+	 *
+	 * @param fileName The name of the file to read issues from.
+	 * @return An iterator over the valid issues in the file.
+	 * @throws IllegalArgumentException If the file cannot be found.
+	 */
+	public static IssueIterator openIssueIterator(String fileName) {
+		return openIssueIterator(fileName, null, null);
+	}
+
+	/**
+	 * Opens an iterator over the issues of a file.
+	 *
+	 * @param fileName    The name of the file to read issues from.
+	 * @param notesLoader The loader the issues read their notes with, or null
+	 *                    to parse the notes.
+	 * @param report      The report to add skipped records to, or null.
+	 * @return An iterator over the valid issues in the file.
+	 * @throws IllegalArgumentException If the file cannot be found.
+	 */
+	private static IssueIterator openIssueIterator(String fileName, Issue.NotesLoader notesLoader,
+			IssueLoadReport report) {
+		recover(fileName);
+		try {
+			return new IssueIterator(IssueCompression.open(fileName), notesLoader, report);
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+	}
+
+	/**
+	 * Finishes an in-place update of a file that was interrupted by a crash,
+	 * see IssuePatch.
+	 *
+	 * @param fileName The name of the file about to be read.
+	 * @throws IllegalArgumentException If the update cannot be finished.
+	 */
+	private static void recover(String fileName) {
+		try {
+			IssuePatch.recover(Paths.get(fileName));
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+	}
+
+	/**
+	 * Returns a lazily parsed stream of the issues in a file. Records are only
+	 * parsed as the stream is consumed, so callers can filter the issues or stop
+	 * early without parsing the rest of the file. The stream should be closed,
+	 * for example with try-with-resources, to release the file.
+	 *
+	 * @param fileName The name of the file to read issues from.
+	 * @return A sequential stream of the valid issues in the file.
+	 * @throws IllegalArgumentException If the file cannot be found.
+	 */
+	public static Stream<Issue> streamIssuesFromFile(String fileName) {
+		IssueIterator iterator = openIssueIterator(fileName);
+		Spliterator<Issue> spliterator = Spliterators.spliteratorUnknownSize(iterator,
+				Spliterator.ORDERED | Spliterator.NONNULL);
+		return StreamSupport.stream(spliterator, false).onClose(iterator::close);
+	}
+
+	/**
+	 * Opens an iterator that imports the issues of a CSV or JSON lines file one
+	 * record at a time, in constant memory. The format is picked from the file's
+	 * extension as described in IssueExchangeFormat, and compressed files are
+	 * decompressed as they are read. Records are checked with the same rules as
+	 * the Issue constructor; invalid ones are skipped and added to the report.
+	 * The caller must close the iterator if it stops before the last issue.
+	 *
+	 * @param fileName The name of the file to import issues from.
+	 * @param report   The report to add skipped records to, or null.
+	 * @return An iterator over the valid issues in the file.
+	 * @throws IllegalArgumentException If the file cannot be found or its name
+	 *                                  has no exchange format extension.
+	 */
+	public static IssueImportIterator openImportIterator(String fileName, IssueLoadReport report) {
+		int format = IssueExchangeFormat.formatOf(fileName);
+		if (format < 0) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		try {
+			return new IssueImportIterator(IssueCompression.open(fileName), format, report);
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+	}
+
+	/**
+	 * Imports the issues of a CSV or JSON lines file, see
+	 * {@link #openImportIterator(String, IssueLoadReport)}.
+	 *
+	 * @param fileName The name of the file to import issues from.
+	 * @param report   The report to add skipped records to, or null.
+	 * @return A Arraylist of the valid issues in the file, in file order.
+	 * @throws IllegalArgumentException If the file cannot be found or read.
+	 */
+	public static ArrayList<Issue> importIssues(String fileName, IssueLoadReport report) {
+		ArrayList<Issue> issues = new ArrayList<>();
+		try (IssueImportIterator iterator = openImportIterator(fileName, report)) {
+			while (iterator.hasNext()) {
+				issues.add(iterator.next());
+			}
+		}
+		return issues;
+	}
+
+	/**
+	 * Opens a columnar issue file written by
+	 * {@link IssueWriter#writeIssuesToColumnFile(String, List)}. Only the
+	 * columns asked of the reader are read from the file. The caller must close
+	 * the reader.
+	 *
+	 * @param fileName The name of the file to read issues from.
+	 * @return A reader over the columns of the file.
+	 * @throws IllegalArgumentException If the file cannot be found or is not a
+	 *                                  columnar issue file.
+	 */
+	public static IssueColumnReader openColumnFile(String fileName) {
+		return new IssueColumnReader(fileName);
+	}
+
+	/**
+	 * Reads a single issue from a file by its id. If the file has an up to date
+	 * IssueIndex, only the issue's record is read and parsed. The record is
+	 * checked to be a valid record of the requested issue; if it is not, or the
+	 * file has no usable index, the file is scanned for the issue instead.
+	 *
+	 * @param fileName The name of the file to read the issue from.
+	 * @param issueId  The id of the issue.
+	 * @return The issue with the given id, or null if the file has no valid
+	 *         record for it.
+	 * @throws IllegalArgumentException If the file cannot be found or read.
+	 */
+	public static Issue readIssueById(String fileName, int issueId) {
+		try (IssueIndex index = IssueIndex.open(fileName)) {
+			if (index != null) {
+				long[] slot = index.find(issueId);
+				if (slot == null) {
+					return null;
+				}
+				Issue issue = readRecord(fileName, slot[0], slot[1]);
+				if (issue != null && issue.getIssueId() == issueId) {
+					return issue;
+				}
+			}
+		}
+		try (IssueIterator iterator = openIssueIterator(fileName)) {
+			while (iterator.hasNext()) {
+				Issue issue = iterator.next();
+				if (issue.getIssueId() == issueId) {
+					return issue;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Checks whether a file is compressed with gzip or zlib deflate by looking at
+	 * its first bytes.
+	 *
+	 * @param fileName The name of the file to check.
+	 * @return true if the file is compressed.
+	 * @throws IllegalArgumentException If the file cannot be found or read.
+	 */
+	public static boolean isCompressedIssueFile(String fileName) {
 		try {
-			Scanner fileReader = new Scanner(new FileInputStream(fileName));
-			fileReader.useDelimiter("\\r?\\n?[*]");
-			while (fileReader.hasNext()) {
-				issueString = fileReader.next();
-				try {
-					Issue issue = processIssue(issueString);
-					issues.add(issue);
-				} catch (Exception e) {
+			return IssueCompression.forReading(fileName) != IssueCompression.NONE;
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+	}
+
+	/**
+	 * Checks whether a file is in the binary issue format by looking at the magic
+	 * number at the start of the file, after decompressing it if it is
+	 * compressed.
+	 *
+	 * @param fileName The name of the file to check.
+	 * @return true if the file starts with the binary format's magic number.
+	 * @throws IllegalArgumentException If the file cannot be found or read.
+	 */
+	public static boolean isBinaryIssueFile(String fileName) {
+		try (InputStream in = IssueCompression.open(fileName)) {
+			byte[] header = new byte[IssueBinaryFormat.MAGIC.length];
+			int length = in.readNBytes(header, 0, header.length);
+			return IssueBinaryFormat.hasMagic(header, length);
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+	}
+
+	/**
+	 * Reads issues from a file in the compact binary format. Records that
+	 * describe invalid issues are skipped, and so are records of a checksummed
+	 * file whose bytes do not match their checksum.
+	 *
+	 * @param fileName The name of the file to read issues from.
+	 * @return A Arraylist of issues read from the file.
+	 * @throws IllegalArgumentException If the file cannot be found or read, or is
+	 *                                  not a binary issue file.
+	 */
+	public static ArrayList<Issue> readIssuesFromBinaryFile(String fileName) {
+		return readIssuesFromBinaryFile(fileName, null);
+	}
+
+	/**
+	 * Reads issues from a file in the compact binary format as
+	 * {@link #readIssuesFromBinaryFile(String)} does, and adds every record that
+	 * is skipped to a report.
+	 *
+	 * @param fileName The name of the file to read issues from.
+	 * @param report   The report to add skipped records to, or null.
+	 * @return A Arraylist of issues read from the file.
+	 * @throws IllegalArgumentException If the file cannot be found or read, or is
+	 *                                  not a binary issue file.
+	 */
+	public static ArrayList<Issue> readIssuesFromBinaryFile(String fileName, IssueLoadReport report) {
+		try (DataInputStream in = new DataInputStream(
+				new BufferedInputStream(IssueCompression.open(fileName), 64 * 1024))) {
+			return IssueBinaryFormat.readIssues(in, report);
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+	}
+
+	/**
+	 * Checks whether a file is a binary issue file written with checksums.
+	 *
+	 * @param fileName The name of the file to check.
+	 * @return true if the file is a checksummed binary issue file.
+	 * @throws IllegalArgumentException If the file cannot be found or read.
+	 */
+	public static boolean isChecksummedIssueFile(String fileName) {
+		try (InputStream in = IssueCompression.open(fileName)) {
+			byte[] header = new byte[IssueBinaryFormat.HEADER_LENGTH];
+			int length = in.readNBytes(header, 0, header.length);
+			return length == header.length && IssueBinaryFormat.hasMagic(header, length)
+					&& (header[IssueBinaryFormat.HEADER_LENGTH - 1] & IssueBinaryFormat.FLAG_CHECKSUMS) != 0;
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+	}
+
+	/**
+	 * Checks a file for damaged records and reports them with their index, byte
+	 * offset and the rule they break. An uncompressed binary file written with
+	 * checksums is checked from its footer: its records are mapped and their
+	 * checksums computed in parallel on the common ForkJoinPool, without being
+	 * decoded. If the footer itself is damaged, that is reported and the file is
+	 * checked record by record instead. Any other file, including a compressed
+	 * one, is read in full and its invalid records are reported, as by
+	 * {@link #readIssuesWithReport(String, IssueLoadReport)}.
+	 *
+	 * @param fileName The name of the file to check.
+	 * @return The report of the damaged records.
+	 * @throws IllegalArgumentException If the file cannot be found or read.
+	 */
+	public static IssueLoadReport verifyIssueFile(String fileName) {
+		IssueLoadReport report = new IssueLoadReport();
+		if (!isBinaryIssueFile(fileName)) {
+			readIssuesWithReport(fileName, report);
+			return report;
+		}
+		if (isChecksummedIssueFile(fileName) && !isCompressedIssueFile(fileName)) {
+			try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+				if (IssueChecksumVerifier.verify(channel, ForkJoinPool.commonPool(), report)) {
+					return report;
 				}
+				report.reject(-1, channel.size(), IssueLoadReport.FOOTER_DAMAGED);
+			} catch (IOException e) {
+				throw new IllegalArgumentException("Unable to load file.");
 			}
-		} catch (FileNotFoundException e) {
+		}
+		readIssuesFromBinaryFile(fileName, report);
+		return report;
+	}
+
+	/**
+	 * Reads issues from a file through a read-only memory mapping of the file.
+	 * Record boundaries and fields are found directly on the mapped bytes and only
+	 * the fields an Issue keeps are decoded. The file is mapped in windows, so
+	 * files larger than 2 GB can be read. Records that cannot be processed are
+	 * skipped, as with {@link #readIssuesFromFile(String)}. Compressed files
+	 * cannot be mapped and are read as by {@link #readIssuesFromFile(String)}.
+	 *
+	 * @param fileName The name of the file to read issues from.
+	 * @return A Arraylist of issues read from the file.
+	 * @throws IllegalArgumentException If the file cannot be found or read.
+	 */
+	public static ArrayList<Issue> readIssuesFromMappedFile(String fileName) {
+		return readMappedFile(fileName, null);
+	}
+
+	/**
+	 * Reads issues from a file, parsing the records on all cores of the common
+	 * ForkJoinPool. The file is mapped as in
+	 * {@link #readIssuesFromMappedFile(String)}, each window is split into chunks
+	 * at record boundaries, and the chunks are parsed concurrently. The parsed
+	 * issues are returned in file order. Records that cannot be processed are
+	 * skipped. Compressed files are read on the calling thread as by
+	 * {@link #readIssuesFromFile(String)}.
+	 *
+	 * @param fileName The name of the file to read issues from.
+	 * @return A Arraylist of issues read from the file, in file order.
+	 * @throws IllegalArgumentException If the file cannot be found or read.
+	 */
+	public static ArrayList<Issue> readIssuesInParallel(String fileName) {
+		return readMappedFile(fileName, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Reads and parses the record stored in a slot of a file.
+	 *
+	 * @param fileName The name of the file.
+	 * @param offset   The offset of the record's '*'.
+	 * @param length   The length of the record's slot.
+	 * @return The issue, or null if the slot does not hold a valid record.
+	 * @throws IllegalArgumentException If the file cannot be found or read.
+	 */
+	private static Issue readRecord(String fileName, long offset, long length) {
+		try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+			if (length < 2 || length > Integer.MAX_VALUE || offset < 0 || offset + length > channel.size()) {
+				return null;
+			}
+			ByteBuffer record = ByteBuffer.allocate((int) length);
+			while (record.hasRemaining()) {
+				if (channel.read(record, offset + record.position()) < 0) {
+					return null;
+				}
+			}
+			int end = record.limit();
+			while (end > 1 && IssueRecordParser.isWhitespace(record.get(end - 1))) {
+				end--;
+			}
+			if (record.get(0) != '*' || IssueRecordParser.indexOf(record, (byte) '*', 1, end) != end) {
+				return null;
+			}
+			return new IssueRecordParser().parse(record, 1, end);
+		} catch (IllegalArgumentException e) {
+			return null;
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+	}
+
+	/**
+	 * Reads issues from a mapped file one window at a time.
+	 *
+	 * @param fileName The name of the file to read issues from.
+	 * @param pool     The pool to parse each window on, or null to parse on the
+	 *                 calling thread.
+	 * @return A Arraylist of issues read from the file.
+	 * @throws IllegalArgumentException If the file cannot be found or read.
+	 */
+	private static ArrayList<Issue> readMappedFile(String fileName, ForkJoinPool pool) {
+		recover(fileName);
+		if (isCompressedIssueFile(fileName)) {
+			return readIssuesFromFile(fileName);
+		}
+		ArrayList<Issue> issues = new ArrayList<>();
+		try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+			IssueRecordParser parser = new IssueRecordParser();
+			long size = channel.size();
+			long position = 0;
+			long windowSize = MAPPED_WINDOW_SIZE;
+			while (position < size) {
+				int length = (int) Math.min(windowSize, size - position);
+				MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+				boolean last = position + length == size;
+				int to = last ? length : lastRecordStart(window, length);
+				if (to <= 0) {
+					if (windowSize >= Integer.MAX_VALUE) {
+						throw new IllegalArgumentException("Unable to load file.");
+					}
+					windowSize = Math.min(windowSize * 2, Integer.MAX_VALUE);
+					continue;
+				}
+				if (pool == null) {
+					parser.parseRecords(window, 0, to, issues);
+				} else {
+					parseInParallel(pool, window, to, issues);
+				}
+				position += to;
+				windowSize = MAPPED_WINDOW_SIZE;
+			}
+		} catch (IOException e) {
 			throw new IllegalArgumentException("Unable to load file.");
 		}
 		return issues;
 	}
 
 	/**
-	 * Processes a string representing an issue and returns an Issue object.
-	 *
-	 * This method takes a string representation of an issue, parses it, and creates
-	 * an Issue object with the extracted information. The issue information is
-	 * expected to be in a comma-separated format with the following fields:
-	 *
-	 * - Issue ID (int) - State (String) - Issue Type (String) - Summary (String) -
-	 * Owner (String) - Confirmed (boolean) - Resolution (String) - Notes
-	 * (ArrayList<String)
-	 *
-	 * @param fileName The string representation of the issue to be processed.
-	 * @return An Issue object containing the parsed information.
-	 * @throws IllegalArgumentException If there is an issue with the format of the
-	 *                                  input string or if an error occurs during
-	 *                                  the processing of the issue.
-	 */
-	private static Issue processIssue(String issueToken) {
-		try (Scanner scan = new Scanner(issueToken)) {
-			
-			scan.useDelimiter(",");
-			int issueId = Integer.parseInt(scan.next().trim());
-			String state = scan.next().trim();
-			String issueType = scan.next().trim();
-			String summary = scan.next().trim();
-			String owner = scan.next().trim();
-			boolean confirmed = Boolean.parseBoolean(scan.next().trim());
-			String temp[] = scan.next().split("\n");
-			String resolution = temp[0];
-			ArrayList<String> notes = new ArrayList<>();
-			for (int i = 1; i < temp.length; i++) {
-				notes.add(temp[i].trim()); 
+	 * Splits a window into chunks at record boundaries, parses the chunks on the
+	 * pool, and appends the results to <code>issues</code> in window order.
+	 *
+	 * @param pool   The pool to parse the chunks on.
+	 * @param window The mapped window.
+	 * @param to     The end of the last complete record in the window.
+	 * @param issues The list the parsed issues are added to.
+	 */
+	private static void parseInParallel(ForkJoinPool pool, MappedByteBuffer window, int to, List<Issue> issues) {
+		int chunks = pool.getParallelism() * CHUNKS_PER_THREAD;
+		int chunkSize = Math.max(PARALLEL_CHUNK_SIZE, to / chunks + 1);
+		List<ChunkTask> tasks = new ArrayList<>();
+		int from = 0;
+		while (from < to) {
+			int chunkEnd = from + chunkSize >= to ? to
+					: IssueRecordParser.indexOf(window, (byte) '*', from + chunkSize, to);
+			tasks.add(new ChunkTask(window, from, chunkEnd));
+			from = chunkEnd;
+		}
+		for (ChunkTask task : tasks) {
+			pool.execute(task);
+		}
+		for (ChunkTask task : tasks) {
+			issues.addAll(task.join());
+		}
+	}
+
+	/**
+	 * Finds the start of the last record in a window, where the window is cut so
+	 * that no record is split between windows.
+	 *
+	 * @param window The mapped window.
+	 * @param length The length of the window.
+	 * @return The position of the last '*' in the window, or 0 if the window only
+	 *         holds part of a single record.
+	 */
+	private static int lastRecordStart(MappedByteBuffer window, int length) {
+		for (int i = length - 1; i > 0; i--) {
+			if (window.get(i) == '*') {
+				return i;
 			}
-			
-			Issue newIssue = new Issue(issueId, state, issueType, summary, owner, confirmed, resolution, notes);
-			return newIssue;
-		} catch (NoSuchElementException e) {
-			throw new IllegalArgumentException("Unable to process issue.");
+		}
+		return 0;
+	}
+
+	/**
+	 * Parses the records of one chunk of a mapped window.
+	 */
+	private static class ChunkTask extends RecursiveTask<List<Issue>> {
+		/** Serial version UID. */
+		private static final long serialVersionUID = 1L;
+		/** The mapped window holding the chunk. */
+		private final transient MappedByteBuffer window;
+		/** The start of the chunk. */
+		private final int from;
+		/** The end of the chunk. */
+		private final int to;
+
+		/**
+		 * Constructs a task for the chunk between <code>from</code> and
+		 * <code>to</code>.
+		 *
+		 * @param window The mapped window holding the chunk.
+		 * @param from   The start of the chunk, at a record boundary.
+		 * @param to     The end of the chunk, at a record boundary.
+		 */
+		ChunkTask(MappedByteBuffer window, int from, int to) {
+			this.window = window;
+			this.from = from;
+			this.to = to;
+		}
+
+		/**
+		 * Parses the chunk.
+		 *
+		 * @return The issues in the chunk, in file order.
+		 */
+		@Override
+		protected List<Issue> compute() {
+			List<Issue> issues = new ArrayList<>();
+			new IssueRecordParser().parseRecords(window, from, to, issues);
+			return issues;
 		}
 	}
-		
 }
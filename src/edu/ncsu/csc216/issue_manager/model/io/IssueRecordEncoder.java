@@ -0,0 +1,190 @@
+package edu.ncsu.csc216.issue_manager.model.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import edu.ncsu.csc216.issue_manager.model.issue.Issue;
+
+/**
+ * The IssueRecordEncoder class writes the text records of issues into a
+ * reusable byte buffer. Each field is encoded straight to UTF-8, so no String
+ * is built for a record. The bytes match those of
+ * <code>issue.toString()</code> followed by a line separator.
+ *
+ * An encoder is not safe for use by multiple threads.
+ *
+ * @author Nirvan Reddy Anumandla
+ */
+class IssueRecordEncoder {
+	/** Initial size of the buffer. */
+	private static final int BUFFER_SIZE = 64 * 1024;
+	/** Line separator written after each record. */
+	private static final String LINE_SEPARATOR = System.lineSeparator();
+
+	/** Buffer holding the encoded records. */
+	private byte[] buf = new byte[BUFFER_SIZE];
+	/** Number of bytes in the buffer. */
+	private int count;
+
+	/**
+	 * Appends the record of an issue to the buffer.
+	 *
+	 * @param issue The issue to encode.
+	 * @return The number of bytes in the record.
+	 */
+	int append(Issue issue) {
+		int before = count;
+		putByte('*');
+		putInt(issue.getIssueId());
+		putByte(',');
+		putString(issue.getStateName());
+		putByte(',');
+		putString(issue.getIssueType());
+		putByte(',');
+		putString(issue.getSummary());
+		putByte(',');
+		putString(issue.getOwner());
+		putByte(',');
+		putString(issue.isConfirmed() ? "true" : "false");
+		putByte(',');
+		String resolution = issue.getResolution();
+		if (resolution != null) {
+			putString(resolution);
+		}
+		putByte('\n');
+		ArrayList<String> notes = issue.getNotes();
+		for (int i = 0; i < notes.size(); i++) {
+			putByte('-');
+			putString(notes.get(i));
+			putByte('\n');
+		}
+		putString(LINE_SEPARATOR);
+		return count - before;
+	}
+
+	/**
+	 * Gets the number of bytes in the buffer.
+	 *
+	 * @return The number of buffered bytes.
+	 */
+	int size() {
+		return count;
+	}
+
+	/**
+	 * Gets a view of the buffered bytes.
+	 *
+	 * @return A buffer over the encoded records.
+	 */
+	ByteBuffer buffer() {
+		return ByteBuffer.wrap(buf, 0, count);
+	}
+
+	/**
+	 * Discards the buffered bytes.
+	 */
+	void reset() {
+		count = 0;
+	}
+
+	/**
+	 * Writes the buffered bytes to a channel and empties the buffer.
+	 *
+	 * @param channel The channel to write to.
+	 * @throws IOException If the channel cannot be written.
+	 */
+	void writeTo(WritableByteChannel channel) throws IOException {
+		ByteBuffer buffer = buffer();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		count = 0;
+	}
+
+	/**
+	 * Appends the decimal digits of an integer.
+	 *
+	 * @param value The integer to append.
+	 */
+	private void putInt(int value) {
+		long v = value;
+		if (v < 0) {
+			putByte('-');
+			v = -v;
+		}
+		ensureCapacity(20);
+		int digits = 1;
+		for (long p = 10; p <= v; p *= 10) {
+			digits++;
+		}
+		for (int i = count + digits - 1; i >= count; i--) {
+			buf[i] = (byte) ('0' + v % 10);
+			v /= 10;
+		}
+		count += digits;
+	}
+
+	/**
+	 * Appends a string encoded as UTF-8, or "null" for a null string, the same
+	 * way string concatenation does. Unpaired surrogates are written as '?', as
+	 * {@link String#getBytes(java.nio.charset.Charset)} does.
+	 *
+	 * @param s The string to append.
+	 */
+	private void putString(String s) {
+		if (s == null) {
+			s = "null";
+		}
+		int length = s.length();
+		ensureCapacity(length * 3);
+		byte[] b = buf;
+		int n = count;
+		for (int i = 0; i < length; i++) {
+			char c = s.charAt(i);
+			if (c < 0x80) {
+				b[n++] = (byte) c;
+			} else if (c < 0x800) {
+				b[n++] = (byte) (0xC0 | c >> 6);
+				b[n++] = (byte) (0x80 | c & 0x3F);
+			} else if (Character.isHighSurrogate(c) && i + 1 < length
+					&& Character.isLowSurrogate(s.charAt(i + 1))) {
+				int cp = Character.toCodePoint(c, s.charAt(++i));
+				b[n++] = (byte) (0xF0 | cp >> 18);
+				b[n++] = (byte) (0x80 | cp >> 12 & 0x3F);
+				b[n++] = (byte) (0x80 | cp >> 6 & 0x3F);
+				b[n++] = (byte) (0x80 | cp & 0x3F);
+			} else if (Character.isSurrogate(c)) {
+				b[n++] = '?';
+			} else {
+				b[n++] = (byte) (0xE0 | c >> 12);
+				b[n++] = (byte) (0x80 | c >> 6 & 0x3F);
+				b[n++] = (byte) (0x80 | c & 0x3F);
+			}
+		}
+		count = n;
+	}
+
+	/**
+	 * Appends a single ASCII character.
+	 *
+	 * @param c The character to append.
+	 */
+	private void putByte(char c) {
+		ensureCapacity(1);
+		buf[count++] = (byte) c;
+	}
+
+	/**
+	 * Grows the buffer so it has room for at least <code>extra</code> more bytes.
+	 *
+	 * @param extra The number of bytes about to be appended.
+	 */
+	private void ensureCapacity(int extra) {
+		if (count + extra > buf.length) {
+			buf = Arrays.copyOf(buf, Math.max(count + extra, buf.length * 2));
+		}
+	}
+}
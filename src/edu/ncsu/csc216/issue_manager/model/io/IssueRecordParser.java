@@ -0,0 +1,514 @@
+package edu.ncsu.csc216.issue_manager.model.io;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.ncsu.csc216.issue_manager.model.command.Command;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue;
+
+/**
+ * The IssueRecordParser class turns the bytes of a single issue record into an
+ * Issue object. A record consists of a header line with the fields
+ * <code>id,state,type,summary,owner,confirmed,resolution</code> followed by
+ * note lines that start with '-'. Lines that do not start with '-' continue the
+ * previous note.
+ *
+ * The parser works directly on the UTF-8 bytes of the record and only creates
+ * Strings for the values an Issue keeps. The notes can also be left in the
+ * file, with only their byte range recorded, for a NotesLoader to read later.
+ * Records are checked without throwing exceptions: {@link #tryParse} returns
+ * null for an invalid record and records the rule it broke.
+ *
+ * A record is accepted exactly when the old Scanner based reader accepted it,
+ * with these differences: CRLF line breaks read like LF; an owner of "null"
+ * reads as no owner unless the state needs one, so files written for unowned
+ * issues read back; a record whose note lines hold no text is rejected; and
+ * the header must be one line of seven fields, with the notes read whole
+ * rather than cut at the first comma after the header.
+ * A parser reuses its scratch space between records and is not safe for use by
+ * multiple threads.
+ *
+ * @author Nirvan Reddy Anumandla
+ */
+class IssueRecordParser {
+	/** Number of comma separated fields in a record header. */
+	private static final int HEADER_FIELDS = 7;
+	/** Owner value written for issues that have no owner. */
+	private static final String NULL_OWNER = "null";
+	/** Known state names, matched without decoding. */
+	private static final String[] STATES = { Issue.NEW_NAME, Issue.WORKING_NAME, Issue.CONFIRMED_NAME,
+			Issue.VERIFYING_NAME, Issue.CLOSED_NAME };
+	/** Known issue types, matched without decoding. */
+	private static final String[] TYPES = { Issue.I_BUG, Issue.I_ENHANCEMENT };
+	/** Known resolutions, matched without decoding. */
+	private static final String[] RESOLUTIONS = { Command.R_FIXED, Command.R_DUPLICATE, Command.R_WONTFIX,
+			Command.R_WORKSFORME };
+
+	/** Start of each header field. */
+	private final int[] fieldStart = new int[HEADER_FIELDS];
+	/** End of each header field. */
+	private final int[] fieldEnd = new int[HEADER_FIELDS];
+	/** Start of the resolution, which is not trimmed. */
+	private int resolutionStart;
+	/** End of the resolution, before the line break. */
+	private int resolutionEnd;
+	/** Scratch space for decoding fields of buffers without a backing array. */
+	private byte[] scratch = new byte[256];
+	/** The rule broken by the last record that could not be parsed. */
+	private String rejection;
+
+	/**
+	 * Parses the record stored in <code>buf</code> between <code>start</code>
+	 * (just past the record's '*') and <code>end</code>.
+	 *
+	 * @param buf   The buffer holding the record.
+	 * @param start The first byte of the record.
+	 * @param end   The end of the record, exclusive.
+	 * @return The issue described by the record.
+	 * @throws IllegalArgumentException If the record is malformed or describes
+	 *                                  an invalid issue.
+	 */
+	Issue parse(ByteBuffer buf, int start, int end) {
+		return parse(buf, start, end, null, 0);
+	}
+
+	/**
+	 * Parses the record stored in <code>buf</code> between <code>start</code>
+	 * and <code>end</code>. If <code>notesLoader</code> is not null the notes are
+	 * not parsed; the issue records their byte range in the file instead.
+	 *
+	 * @param buf          The buffer holding the record.
+	 * @param start        The first byte of the record.
+	 * @param end          The end of the record, exclusive.
+	 * @param notesLoader  The loader the issue reads its notes with, or null to
+	 *                     parse the notes now.
+	 * @param bufferOffset The file offset of the start of <code>buf</code>.
+	 * @return The issue described by the record.
+	 * @throws IllegalArgumentException If the record is malformed or describes
+	 *                                  an invalid issue.
+	 */
+	Issue parse(ByteBuffer buf, int start, int end, Issue.NotesLoader notesLoader, long bufferOffset) {
+		Issue issue = tryParse(buf, start, end, notesLoader, bufferOffset);
+		if (issue == null) {
+			throw new IllegalArgumentException("Unable to process issue.");
+		}
+		return issue;
+	}
+
+	/**
+	 * Parses a record as {@link #parse(ByteBuffer, int, int, Issue.NotesLoader, long)}
+	 * does, but returns null instead of throwing if the record is malformed or
+	 * describes an invalid issue. The rule the record broke is then returned by
+	 * {@link #getRejection()}.
+	 *
+	 * @param buf          The buffer holding the record.
+	 * @param start        The first byte of the record.
+	 * @param end          The end of the record, exclusive.
+	 * @param notesLoader  The loader the issue reads its notes with, or null to
+	 *                     parse the notes now.
+	 * @param bufferOffset The file offset of the start of <code>buf</code>.
+	 * @return The issue described by the record, or null if it is invalid.
+	 */
+	Issue tryParse(ByteBuffer buf, int start, int end, Issue.NotesLoader notesLoader, long bufferOffset) {
+		int headerEnd = indexOf(buf, (byte) '\n', start, end);
+		if (!splitHeader(buf, start, headerEnd)) {
+			rejection = IssueLoadReport.MALFORMED_HEADER;
+			return null;
+		}
+		long id = parseId(buf, fieldStart[0], fieldEnd[0]);
+		if (id == Long.MIN_VALUE) {
+			rejection = IssueLoadReport.MALFORMED_ID;
+			return null;
+		}
+		int issueId = (int) id;
+		String state = constant(buf, fieldStart[1], fieldEnd[1], STATES);
+		String issueType = constant(buf, fieldStart[2], fieldEnd[2], TYPES);
+		String summary = decode(buf, fieldStart[3], fieldEnd[3]);
+		String owner = decode(buf, fieldStart[4], fieldEnd[4]);
+		if (NULL_OWNER.equals(owner) && !Issue.WORKING_NAME.equals(state) && !Issue.VERIFYING_NAME.equals(state)) {
+			owner = "";
+		}
+		boolean confirmed = parseBoolean(buf, fieldStart[5], fieldEnd[5]);
+		String resolution = constant(buf, resolutionStart, resolutionEnd, RESOLUTIONS);
+		ArrayList<String> notes = null;
+		int notesLength = 0;
+		int noteCount;
+		if (notesLoader == null) {
+			notes = parseNotes(buf, headerEnd, end);
+			noteCount = notes.size();
+		} else {
+			notesLength = hasContent(buf, headerEnd, end) ? end - headerEnd : 0;
+			noteCount = Math.min(notesLength, 1);
+		}
+		Issue.Violation violation = Issue.validate(issueId, state, issueType, summary, owner, confirmed, resolution,
+				noteCount);
+		if (violation != null) {
+			rejection = violation.getRule();
+			return null;
+		}
+		if (notesLoader == null) {
+			return new Issue(issueId, state, issueType, summary, owner, confirmed, resolution, notes);
+		}
+		return new Issue(issueId, state, issueType, summary, owner, confirmed, resolution, notesLoader,
+				bufferOffset + headerEnd, notesLength);
+	}
+
+	/**
+	 * Gets the rule broken by the last record {@link #tryParse} could not parse.
+	 *
+	 * @return The rule, or null if every record so far was valid.
+	 */
+	String getRejection() {
+		return rejection;
+	}
+
+	/**
+	 * Parses every record in <code>buf</code> between <code>from</code> and
+	 * <code>to</code>. <code>from</code> must be at the start of a record, either
+	 * a '*' or the start of the file, and <code>to</code> must be at a '*' or the
+	 * end of the file. Records that cannot be processed are skipped.
+	 *
+	 * @param buf    The buffer holding the records.
+	 * @param from   The start of the first record.
+	 * @param to     The end of the last record, exclusive.
+	 * @param issues The list the parsed issues are added to.
+	 */
+	void parseRecords(ByteBuffer buf, int from, int to, List<Issue> issues) {
+		int i = from;
+		while (i < to) {
+			int start = buf.get(i) == '*' ? i + 1 : i;
+			int next = indexOf(buf, (byte) '*', start, to);
+			int end = next;
+			if (end > start && buf.get(end - 1) == '\n') {
+				end--;
+			}
+			if (end > start && buf.get(end - 1) == '\r') {
+				end--;
+			}
+			if (end > start) {
+				Issue issue = tryParse(buf, start, end, null, 0);
+				if (issue != null) {
+					issues.add(issue);
+				}
+			}
+			i = next;
+		}
+	}
+
+	/**
+	 * Records the trimmed bounds of each header field.
+	 *
+	 * @param buf   The buffer holding the record.
+	 * @param start The start of the header line.
+	 * @param end   The end of the header line.
+	 * @return true if the header has exactly the expected number of fields.
+	 */
+	private boolean splitHeader(ByteBuffer buf, int start, int end) {
+		int field = 0;
+		int fieldFrom = start;
+		for (int i = start; i <= end; i++) {
+			if (i == end || buf.get(i) == ',') {
+				if (field == HEADER_FIELDS) {
+					return false;
+				}
+				int s = fieldFrom;
+				int e = i;
+				while (s < e && isWhitespace(buf.get(s))) {
+					s++;
+				}
+				while (e > s && isWhitespace(buf.get(e - 1))) {
+					e--;
+				}
+				fieldStart[field] = s;
+				fieldEnd[field] = e;
+				resolutionStart = fieldFrom;
+				field++;
+				fieldFrom = i + 1;
+			}
+		}
+		resolutionEnd = end > resolutionStart && buf.get(end - 1) == '\r' ? end - 1 : end;
+		return field == HEADER_FIELDS;
+	}
+
+	/**
+	 * Parses the notes that follow the header line.
+	 *
+	 * @param buf   The buffer holding the record.
+	 * @param start The end of the header line.
+	 * @param end   The end of the record.
+	 * @return The notes of the record.
+	 */
+	ArrayList<String> parseNotes(ByteBuffer buf, int start, int end) {
+		ArrayList<String> notes = new ArrayList<>();
+		int noteStart = -1;
+		int noteEnd = -1;
+		int lineStart = start + 1;
+		while (lineStart < end) {
+			int lineEnd = indexOf(buf, (byte) '\n', lineStart, end);
+			int s = lineStart;
+			int e = lineEnd;
+			while (s < e && isWhitespace(buf.get(s))) {
+				s++;
+			}
+			while (e > s && isWhitespace(buf.get(e - 1))) {
+				e--;
+			}
+			if (s < e) {
+				if (buf.get(s) == '-' || noteStart < 0) {
+					if (noteStart >= 0) {
+						notes.add(decodeNote(buf, noteStart, noteEnd));
+					}
+					noteStart = buf.get(s) == '-' ? s + 1 : s;
+				}
+				noteEnd = e;
+			}
+			lineStart = lineEnd + 1;
+		}
+		if (noteStart >= 0) {
+			notes.add(decodeNote(buf, noteStart, noteEnd));
+		}
+		return notes;
+	}
+
+	/**
+	 * Checks whether a range holds anything other than whitespace.
+	 *
+	 * @param buf   The buffer holding the range.
+	 * @param start The start of the range.
+	 * @param end   The end of the range.
+	 * @return true if the range holds a non-whitespace byte.
+	 */
+	private static boolean hasContent(ByteBuffer buf, int start, int end) {
+		for (int i = start; i < end; i++) {
+			if (!isWhitespace(buf.get(i))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Decodes a note that may span several lines, normalizing line breaks.
+	 *
+	 * @param buf   The buffer holding the note.
+	 * @param start The first byte of the note.
+	 * @param end   The end of the note.
+	 * @return The note text.
+	 */
+	private String decodeNote(ByteBuffer buf, int start, int end) {
+		String note = decode(buf, start, end);
+		if (note.indexOf('\r') >= 0) {
+			note = note.replace("\r\n", "\n");
+		}
+		return note;
+	}
+
+	/**
+	 * Reads the id of a record without parsing the rest of it.
+	 *
+	 * @param buf   The buffer holding the record.
+	 * @param start The first byte of the record, just past its '*'.
+	 * @param end   The end of the record, exclusive.
+	 * @return The id in the record's first field, or Long.MIN_VALUE if it is not
+	 *         an integer.
+	 */
+	static long peekId(ByteBuffer buf, int start, int end) {
+		int fieldEnd = start;
+		while (fieldEnd < end && buf.get(fieldEnd) != ',' && buf.get(fieldEnd) != '\n') {
+			fieldEnd++;
+		}
+		while (start < fieldEnd && isWhitespace(buf.get(start))) {
+			start++;
+		}
+		while (fieldEnd > start && isWhitespace(buf.get(fieldEnd - 1))) {
+			fieldEnd--;
+		}
+		return parseId(buf, start, fieldEnd);
+	}
+
+	/**
+	 * Parses an issue id without creating intermediate Strings.
+	 *
+	 * @param buf   The buffer holding the field.
+	 * @param start The first byte of the field.
+	 * @param end   The end of the field.
+	 * @return The issue id, or Long.MIN_VALUE if the field is not an integer.
+	 */
+	private static long parseId(ByteBuffer buf, int start, int end) {
+		int i = start;
+		boolean negative = false;
+		if (i < end && (buf.get(i) == '-' || buf.get(i) == '+')) {
+			negative = buf.get(i) == '-';
+			i++;
+		}
+		if (i == end) {
+			return Long.MIN_VALUE;
+		}
+		long value = 0;
+		for (; i < end; i++) {
+			if (buf.get(i) < 0) {
+				return parseUnicodeId(buf, start, end);
+			}
+			int digit = buf.get(i) - '0';
+			if (digit < 0 || digit > 9) {
+				return Long.MIN_VALUE;
+			}
+			value = value * 10 + digit;
+			if (value > Integer.MAX_VALUE + 1L) {
+				return Long.MIN_VALUE;
+			}
+		}
+		value = negative ? -value : value;
+		if (value > Integer.MAX_VALUE) {
+			return Long.MIN_VALUE;
+		}
+		return value;
+	}
+
+	/**
+	 * Parses an issue id holding non-ASCII characters, which
+	 * {@link Integer#parseInt(String)} accepts as digits if they are decimal
+	 * digits in any script.
+	 *
+	 * @param buf   The buffer holding the field.
+	 * @param start The first byte of the field.
+	 * @param end   The end of the field.
+	 * @return The issue id, or Long.MIN_VALUE if the field is not an integer.
+	 */
+	private static long parseUnicodeId(ByteBuffer buf, int start, int end) {
+		byte[] bytes = new byte[end - start];
+		buf.get(start, bytes);
+		String field = new String(bytes, StandardCharsets.UTF_8);
+		int i = 0;
+		boolean negative = false;
+		if (field.charAt(0) == '-' || field.charAt(0) == '+') {
+			negative = field.charAt(0) == '-';
+			i++;
+		}
+		if (i == field.length()) {
+			return Long.MIN_VALUE;
+		}
+		long value = 0;
+		for (; i < field.length(); i++) {
+			int digit = Character.digit(field.charAt(i), 10);
+			if (digit < 0) {
+				return Long.MIN_VALUE;
+			}
+			value = value * 10 + digit;
+			if (value > Integer.MAX_VALUE + 1L) {
+				return Long.MIN_VALUE;
+			}
+		}
+		value = negative ? -value : value;
+		return value > Integer.MAX_VALUE ? Long.MIN_VALUE : value;
+	}
+
+	/**
+	 * Parses a boolean the same way as {@link Boolean#parseBoolean(String)}.
+	 *
+	 * @param buf   The buffer holding the field.
+	 * @param start The first byte of the field.
+	 * @param end   The end of the field.
+	 * @return true if the field is "true", ignoring case.
+	 */
+	private static boolean parseBoolean(ByteBuffer buf, int start, int end) {
+		if (end - start != 4) {
+			return false;
+		}
+		return (buf.get(start) | 0x20) == 't' && (buf.get(start + 1) | 0x20) == 'r'
+				&& (buf.get(start + 2) | 0x20) == 'u' && (buf.get(start + 3) | 0x20) == 'e';
+	}
+
+	/**
+	 * Returns the constant matching the field, or the decoded field if none of
+	 * the constants match.
+	 *
+	 * @param buf       The buffer holding the field.
+	 * @param start     The first byte of the field.
+	 * @param end       The end of the field.
+	 * @param constants The candidate values.
+	 * @return The matching constant or the decoded field.
+	 */
+	private String constant(ByteBuffer buf, int start, int end, String[] constants) {
+		for (String c : constants) {
+			if (matches(buf, start, end, c)) {
+				return c;
+			}
+		}
+		return decode(buf, start, end);
+	}
+
+	/**
+	 * Checks whether the field holds exactly the given ASCII value.
+	 *
+	 * @param buf   The buffer holding the field.
+	 * @param start The first byte of the field.
+	 * @param end   The end of the field.
+	 * @param value The value to compare with.
+	 * @return true if the field equals the value.
+	 */
+	static boolean matches(ByteBuffer buf, int start, int end, String value) {
+		if (end - start != value.length()) {
+			return false;
+		}
+		for (int i = 0; i < value.length(); i++) {
+			if (buf.get(start + i) != value.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Decodes a UTF-8 field into a String.
+	 *
+	 * @param buf   The buffer holding the field.
+	 * @param start The first byte of the field.
+	 * @param end   The end of the field.
+	 * @return The decoded field.
+	 */
+	String decode(ByteBuffer buf, int start, int end) {
+		int length = end - start;
+		if (length == 0) {
+			return "";
+		}
+		if (buf.hasArray()) {
+			return new String(buf.array(), buf.arrayOffset() + start, length, StandardCharsets.UTF_8);
+		}
+		if (scratch.length < length) {
+			scratch = new byte[Math.max(length, scratch.length * 2)];
+		}
+		buf.get(start, scratch, 0, length);
+		return new String(scratch, 0, length, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Finds the first occurrence of a byte in a range.
+	 *
+	 * @param buf   The buffer to search.
+	 * @param b     The byte to find.
+	 * @param start The start of the range.
+	 * @param end   The end of the range.
+	 * @return The position of the byte, or <code>end</code> if it is not found.
+	 */
+	static int indexOf(ByteBuffer buf, byte b, int start, int end) {
+		for (int i = start; i < end; i++) {
+			if (buf.get(i) == b) {
+				return i;
+			}
+		}
+		return end;
+	}
+
+	/**
+	 * Checks whether a byte is whitespace in the sense of {@link String#trim()}.
+	 *
+	 * @param b The byte to check.
+	 * @return true if the byte is a space or control character.
+	 */
+	static boolean isWhitespace(byte b) {
+		return b >= 0 && b <= ' ';
+	}
+}
@@ -0,0 +1,226 @@
+package edu.ncsu.csc216.issue_manager.model.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The IssueRecordScanner class splits an issue file into its '*' delimited
+ * records in a single buffered pass over the raw bytes. Only the bytes of the
+ * current record are kept in memory, so the scanner can be used on files of
+ * any size. The record boundaries match the original
+ * <code>\r?\n?[*]</code> delimiter used by the issue file format.
+ *
+ * @author Nirvan Reddy Anumandla
+ */
+class IssueRecordScanner implements Closeable {
+	/** Initial size of the read buffer. */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/** Stream the records are read from. */
+	private final InputStream in;
+	/** Read buffer. */
+	private byte[] buf;
+	/** View of the read buffer handed to the record parser. */
+	private ByteBuffer view;
+	/** Number of valid bytes in the buffer. */
+	private int limit;
+	/** Position in the buffer where scanning resumes. */
+	private int pos;
+	/** File offset of the first byte in the buffer. */
+	private long bufferOffset;
+	/** Whether the end of the stream has been reached. */
+	private boolean eof;
+	/** Start of the current record's content. */
+	private int start;
+	/** End of the current record's content, excluding the trailing line break. */
+	private int end;
+	/** File offset of the current record. */
+	private long recordOffset;
+	/** Length in bytes of the current record, up to the next record. */
+	private int recordLength;
+	/** Index of the current record in the file. */
+	private int index = -1;
+
+	/**
+	 * Constructs a scanner over the given stream.
+	 *
+	 * @param in The stream to read records from.
+	 */
+	IssueRecordScanner(InputStream in) {
+		this.in = in;
+		this.buf = new byte[BUFFER_SIZE];
+		this.view = ByteBuffer.wrap(buf);
+	}
+
+	/**
+	 * Advances to the next non-empty record in the stream.
+	 *
+	 * @return true if a record was found, false at the end of the stream.
+	 * @throws IOException If the stream cannot be read.
+	 */
+	boolean next() throws IOException {
+		while (true) {
+			if (pos >= limit && !fill(pos)) {
+				return false;
+			}
+			int recordStart = pos;
+			if (buf[recordStart] == '*') {
+				recordStart++;
+			}
+			int star = indexOfStar(recordStart);
+			while (star < 0 && !eof) {
+				int scanned = limit - pos;
+				int relativeStart = recordStart - pos;
+				boolean filled = fill(pos);
+				recordStart = relativeStart;
+				if (!filled) {
+					break;
+				}
+				star = indexOfStar(scanned);
+			}
+			int recordEnd = star < 0 ? limit : star;
+			recordOffset = bufferOffset + pos;
+			recordLength = recordEnd - pos;
+			start = recordStart;
+			end = recordEnd;
+			pos = recordEnd;
+			if (star >= 0) {
+				if (end > start && buf[end - 1] == '\n') {
+					end--;
+				}
+				if (end > start && buf[end - 1] == '\r') {
+					end--;
+				}
+			}
+			if (end > start) {
+				index++;
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Gets the buffer holding the current record.
+	 *
+	 * @return The buffer holding the current record.
+	 */
+	ByteBuffer buffer() {
+		return view;
+	}
+
+	/**
+	 * Gets the start of the current record's content, just past its '*'.
+	 *
+	 * @return The start of the current record's content in the buffer.
+	 */
+	int start() {
+		return start;
+	}
+
+	/**
+	 * Gets the end of the current record's content.
+	 *
+	 * @return The end of the current record's content in the buffer.
+	 */
+	int end() {
+		return end;
+	}
+
+	/**
+	 * Gets the file offset of a position in the buffer.
+	 *
+	 * @param index The position in the buffer.
+	 * @return The offset of the position in the file.
+	 */
+	long offsetOf(int index) {
+		return bufferOffset + index;
+	}
+
+	/**
+	 * Gets the byte offset of the current record in the file, including its '*'.
+	 *
+	 * @return The byte offset of the current record.
+	 */
+	long recordOffset() {
+		return recordOffset;
+	}
+
+	/**
+	 * Gets the number of bytes the current record occupies in the file, up to
+	 * the start of the next record.
+	 *
+	 * @return The length of the current record.
+	 */
+	int recordLength() {
+		return recordLength;
+	}
+
+	/**
+	 * Gets the index of the current record among the non-empty records read.
+	 *
+	 * @return The index of the current record.
+	 */
+	int index() {
+		return index;
+	}
+
+	/**
+	 * Closes the underlying stream.
+	 *
+	 * @throws IOException If the stream cannot be closed.
+	 */
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+
+	/**
+	 * Finds the next record delimiter at or after the given position.
+	 *
+	 * @param from The position to start searching from.
+	 * @return The position of the next '*', or -1 if there is none in the buffer.
+	 */
+	private int indexOfStar(int from) {
+		for (int i = from; i < limit; i++) {
+			if (buf[i] == '*') {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Discards the bytes before <code>keep</code> and reads more bytes from the
+	 * stream, growing the buffer if a single record does not fit.
+	 *
+	 * @param keep The first buffered byte that must be retained.
+	 * @return true if more bytes were read, false at the end of the stream.
+	 * @throws IOException If the stream cannot be read.
+	 */
+	private boolean fill(int keep) throws IOException {
+		if (eof) {
+			return false;
+		}
+		int remaining = limit - keep;
+		if (keep > 0) {
+			System.arraycopy(buf, keep, buf, 0, remaining);
+			bufferOffset += keep;
+			pos -= keep;
+			limit = remaining;
+		}
+		if (limit == buf.length) {
+			buf = Arrays.copyOf(buf, buf.length * 2);
+			view = ByteBuffer.wrap(buf);
+		}
+		int n = in.read(buf, limit, buf.length - limit);
+		if (n < 0) {
+			eof = true;
+			return false;
+		}
+		limit += n;
+		return true;
+	}
+}
@@ -0,0 +1,278 @@
+package edu.ncsu.csc216.issue_manager.model.io;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import edu.ncsu.csc216.issue_manager.model.issue.Issue;
+
+/**
+ * The IssueShards class persists an issue list as a manifest and a fixed
+ * number of shard files, so the list can be saved and loaded by several
+ * threads at once and a change only rewrites the shard holding the changed
+ * issue. An issue belongs to shard <code>id % shardCount</code>, so issues
+ * with consecutive ids are spread evenly over the shards. The shards of a
+ * manifest named <code>base</code> are the text issue files
+ * <code>base.shard.0</code> to <code>base.shard.N-1</code>.
+ *
+ * The manifest is a small text file naming the number of shards. It is
+ * written after the shards, through a temporary file that is renamed over
+ * the previous manifest, and it starts with a line that is not an issue
+ * record, so a manifest is never mistaken for an issue file. Shards are read
+ * and written on the common ForkJoinPool, and a loaded list is in id order.
+ *
+ * @author Nirvan Reddy Anumandla
+ */
+public class IssueShards {
+	/** First line of every manifest. */
+	private static final String MAGIC = "#issue-shards 1";
+	/** Infix of shard file names. */
+	private static final String SHARD = ".shard.";
+
+	/**
+	 * Gets the name of a shard file.
+	 *
+	 * @param manifestName The name of the manifest.
+	 * @param shard        The number of the shard.
+	 * @return The name of the shard file.
+	 */
+	public static String shardName(String manifestName, int shard) {
+		return manifestName + SHARD + shard;
+	}
+
+	/**
+	 * Gets the shard an issue belongs to.
+	 *
+	 * @param issueId    The id of the issue.
+	 * @param shardCount The number of shards.
+	 * @return The number of the issue's shard.
+	 */
+	public static int shardOf(int issueId, int shardCount) {
+		return Math.floorMod(issueId, shardCount);
+	}
+
+	/**
+	 * Checks whether a file is a shard manifest.
+	 *
+	 * @param fileName The name of the file.
+	 * @return true if the file is a shard manifest.
+	 * @throws IllegalArgumentException If the file cannot be found or read.
+	 */
+	public static boolean isManifest(String fileName) {
+		try (FileInputStream in = new FileInputStream(fileName)) {
+			byte[] magic = MAGIC.getBytes(StandardCharsets.US_ASCII);
+			byte[] header = new byte[magic.length];
+			return in.readNBytes(header, 0, header.length) == header.length
+					&& new String(header, StandardCharsets.US_ASCII).equals(MAGIC);
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+	}
+
+	/**
+	 * Reads the number of shards from a manifest.
+	 *
+	 * @param manifestName The name of the manifest.
+	 * @return The number of shards.
+	 * @throws IllegalArgumentException If the manifest cannot be read or is not
+	 *                                  a shard manifest.
+	 */
+	public static int readShardCount(String manifestName) {
+		try (BufferedReader in = new BufferedReader(
+				new InputStreamReader(new FileInputStream(manifestName), StandardCharsets.UTF_8))) {
+			if (!MAGIC.equals(in.readLine())) {
+				throw new IllegalArgumentException("Unable to load file.");
+			}
+			String count = in.readLine();
+			int shardCount = count == null ? 0 : Integer.parseInt(count.trim());
+			if (shardCount < 1) {
+				throw new IllegalArgumentException("Unable to load file.");
+			}
+			return shardCount;
+		} catch (IOException | NumberFormatException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+	}
+
+	/**
+	 * Reads the issues of every shard of a manifest, one shard per task.
+	 * Records that cannot be processed are skipped, as by
+	 * {@link IssueReader#readIssuesFromFile(String)}.
+	 *
+	 * @param manifestName The name of the manifest.
+	 * @return The issues of all shards, in id order.
+	 * @throws IllegalArgumentException If the manifest or a shard cannot be
+	 *                                  found or read.
+	 */
+	public static ArrayList<Issue> read(String manifestName) {
+		int shardCount = readShardCount(manifestName);
+		List<Callable<ArrayList<Issue>>> tasks = new ArrayList<>();
+		for (int shard = 0; shard < shardCount; shard++) {
+			String shardName = shardName(manifestName, shard);
+			tasks.add(() -> IssueReader.readIssuesFromFile(shardName));
+		}
+		ArrayList<Issue> issues = new ArrayList<>();
+		for (ArrayList<Issue> shard : run(tasks)) {
+			issues.addAll(shard);
+		}
+		issues.sort(Comparator.comparingInt(Issue::getIssueId));
+		return issues;
+	}
+
+	/**
+	 * Writes a list of issues as shards, one shard per task, and then the
+	 * manifest. Only the shards marked dirty are written; the other shard files
+	 * must already hold the issues of their shard. Shard files left over from a
+	 * manifest with more shards are deleted.
+	 *
+	 * @param manifestName The name of the manifest.
+	 * @param issues       The issues to write.
+	 * @param shardCount   The number of shards.
+	 * @param dirty        The shards to write, or null to write them all.
+	 * @throws IllegalArgumentException If a file cannot be written.
+	 */
+	public static void write(String manifestName, List<Issue> issues, int shardCount, BitSet dirty) {
+		List<List<Issue>> shards = partition(issues, shardCount, dirty);
+		List<Callable<Void>> tasks = new ArrayList<>();
+		for (int shard = 0; shard < shardCount; shard++) {
+			List<Issue> shardIssues = shards.get(shard);
+			if (shardIssues != null) {
+				String shardName = shardName(manifestName, shard);
+				tasks.add(() -> {
+					IssueWriter.writeIssuesToFile(shardName, shardIssues);
+					return null;
+				});
+			}
+		}
+		run(tasks);
+		writeManifest(manifestName, shardCount);
+	}
+
+	/**
+	 * Encodes the shards of a list of issues in memory, so they can be written
+	 * later with {@link #writeEncoded(String, ByteBuffer[])} while the issues go
+	 * on changing.
+	 *
+	 * @param issues     The issues to encode.
+	 * @param shardCount The number of shards.
+	 * @param dirty      The shards to encode, or null to encode them all.
+	 * @return The bytes of each shard file, or null for shards that are not
+	 *         dirty.
+	 */
+	public static ByteBuffer[] encode(List<Issue> issues, int shardCount, BitSet dirty) {
+		List<List<Issue>> shards = partition(issues, shardCount, dirty);
+		ByteBuffer[] encoded = new ByteBuffer[shardCount];
+		for (int shard = 0; shard < shardCount; shard++) {
+			if (shards.get(shard) != null) {
+				encoded[shard] = IssueWriter.encodeIssues(shards.get(shard), null);
+			}
+		}
+		return encoded;
+	}
+
+	/**
+	 * Writes shards encoded by {@link #encode(List, int, BitSet)}, one shard per
+	 * task, and then the manifest.
+	 *
+	 * @param manifestName The name of the manifest.
+	 * @param shards       The bytes of each shard file, or null for shards that
+	 *                     are not written.
+	 * @throws IllegalArgumentException If a file cannot be written.
+	 */
+	public static void writeEncoded(String manifestName, ByteBuffer[] shards) {
+		List<Callable<Void>> tasks = new ArrayList<>();
+		for (int shard = 0; shard < shards.length; shard++) {
+			ByteBuffer encoded = shards[shard];
+			if (encoded != null) {
+				String shardName = shardName(manifestName, shard);
+				tasks.add(() -> {
+					IssueWriter.writeEncodedIssues(shardName, encoded, null);
+					return null;
+				});
+			}
+		}
+		run(tasks);
+		writeManifest(manifestName, shards.length);
+	}
+
+	/**
+	 * Splits a list of issues into its shards, keeping the order of the list.
+	 *
+	 * @param issues     The issues to split.
+	 * @param shardCount The number of shards.
+	 * @param dirty      The shards to collect, or null to collect them all.
+	 * @return The issues of each shard, or null for shards that are not dirty.
+	 */
+	private static List<List<Issue>> partition(List<Issue> issues, int shardCount, BitSet dirty) {
+		if (shardCount < 1) {
+			throw new IllegalArgumentException("Unable to save file");
+		}
+		List<List<Issue>> shards = new ArrayList<>(shardCount);
+		for (int shard = 0; shard < shardCount; shard++) {
+			shards.add(dirty == null || dirty.get(shard) ? new ArrayList<>() : null);
+		}
+		for (int i = 0; i < issues.size(); i++) {
+			Issue issue = issues.get(i);
+			List<Issue> shard = shards.get(shardOf(issue.getIssueId(), shardCount));
+			if (shard != null) {
+				shard.add(issue);
+			}
+		}
+		return shards;
+	}
+
+	/**
+	 * Writes the manifest and deletes the shard files of any earlier manifest
+	 * with more shards.
+	 *
+	 * @param manifestName The name of the manifest.
+	 * @param shardCount   The number of shards.
+	 * @throws IllegalArgumentException If the manifest cannot be written.
+	 */
+	private static void writeManifest(String manifestName, int shardCount) {
+		String manifest = MAGIC + "\n" + shardCount + "\n";
+		IssueWriter.writeEncodedIssues(manifestName,
+				ByteBuffer.wrap(manifest.getBytes(StandardCharsets.UTF_8)), null);
+		for (int shard = shardCount; new File(shardName(manifestName, shard)).delete(); shard++) {
+			// keep deleting until there are no more old shards
+		}
+	}
+
+	/**
+	 * Runs tasks on the common ForkJoinPool and waits for all of them.
+	 *
+	 * @param <T>   The result type of the tasks.
+	 * @param tasks The tasks to run.
+	 * @return The results of the tasks, in task order.
+	 * @throws IllegalArgumentException The exception thrown by a failed task.
+	 */
+	private static <T> List<T> run(List<Callable<T>> tasks) {
+		List<T> results = new ArrayList<>(tasks.size());
+		try {
+			for (Future<T> future : ForkJoinPool.commonPool().invokeAll(tasks)) {
+				results.add(future.get());
+			}
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IllegalArgumentException) {
+				throw (IllegalArgumentException) e.getCause();
+			}
+			throw new IllegalArgumentException("Unable to load file.");
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		return results;
+	}
+}
@@ -0,0 +1,467 @@
+package edu.ncsu.csc216.issue_manager.model.io;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import edu.ncsu.csc216.issue_manager.model.command.Command;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue.IssueType;
+
+/**
+ * The IssueStore class persists an issue list as a series of snapshots and an
+ * ordered log of the changes made since. A store named <code>base</code> keeps
+ * its files next to each other:
+ * <ul>
+ * <li><code>base.log.N</code>, log segment N, holding changes in the
+ * IssueJournal record format, and</li>
+ * <li><code>base.snapshot.N</code>, a binary issue file holding the list as it
+ * was after every log segment before N.</li>
+ * </ul>
+ *
+ * Changes are appended to the active log segment. Once it grows past the
+ * configured size it is closed and a new segment is started, and a background
+ * thread folds the closed segments into a new snapshot. The compactor replays
+ * the closed segments onto the previous snapshot read from disk, so it never
+ * touches the live list and appending never waits for it. When the new
+ * snapshot is safely on disk the files it replaces are deleted.
+ *
+ * Recovery loads the newest snapshot that can be read and replays only the log
+ * segments written after it. Segments that cannot be replayed in order are
+ * renamed with an ".unreplayed" suffix rather than deleted.
+ *
+ * @author Nirvan Reddy Anumandla
+ */
+public class IssueStore implements Closeable {
+	/** Infix of snapshot file names. */
+	private static final String SNAPSHOT = ".snapshot.";
+	/** Infix of log segment file names. */
+	private static final String LOG = ".log.";
+	/** Magic number at the start of every log segment. */
+	private static final byte[] LOG_MAGIC = { 0, 'I', 'S', 'L' };
+	/** Suffix of log segments that recovery could not replay. */
+	private static final String UNREPLAYED = ".unreplayed";
+
+	/** The name the store's files are named after. */
+	private final String baseName;
+	/** Segment size in bytes above which a new segment is started. */
+	private final long maxLogSize;
+	/** Thread the compaction runs on. */
+	private final ExecutorService compactor;
+	/** The active log segment. */
+	private IssueJournal log;
+	/** The number of the active log segment. */
+	private long logNumber;
+	/** The compaction in progress, if any. */
+	private Future<?> compaction;
+	/** The log segments recovery could not replay, as moved aside. */
+	private final List<String> skippedSegments;
+
+	/**
+	 * Constructs a store whose active log segment has the given number.
+	 *
+	 * @param baseName   The name the store's files are named after.
+	 * @param maxLogSize The segment size that starts a compaction.
+	 * @param logNumber  The number of the segment to append to.
+	 * @param skipped    The log segments recovery could not replay.
+	 */
+	private IssueStore(String baseName, long maxLogSize, long logNumber, List<String> skipped) {
+		this.baseName = baseName;
+		this.skippedSegments = Collections.unmodifiableList(skipped);
+		this.maxLogSize = Math.max(1, maxLogSize);
+		this.compactor = Executors.newSingleThreadExecutor(r -> {
+			Thread thread = new Thread(r, "issue-store-compactor");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.logNumber = logNumber;
+		this.log = openSegment(logNumber);
+	}
+
+	/**
+	 * Checks whether a store exists.
+	 *
+	 * @param baseName The name the store's files are named after.
+	 * @return true if there is a snapshot or log segment for the store.
+	 */
+	public static boolean exists(String baseName) {
+		return !list(baseName, SNAPSHOT).isEmpty() || !list(baseName, LOG).isEmpty();
+	}
+
+	/**
+	 * Creates a new store holding the given issues as its first snapshot.
+	 * Files of an existing store with the same name are replaced.
+	 *
+	 * @param baseName   The name the store's files are named after.
+	 * @param maxLogSize The log segment size in bytes that starts a compaction.
+	 * @param issues     The issues the store starts with.
+	 * @return The store, ready for appending.
+	 * @throws IllegalArgumentException If the store cannot be written.
+	 */
+	public static IssueStore create(String baseName, long maxLogSize, List<Issue> issues) {
+		long number = 0;
+		for (long n : list(baseName, SNAPSHOT)) {
+			number = Math.max(number, n + 1);
+		}
+		for (long n : list(baseName, LOG)) {
+			number = Math.max(number, n + 1);
+		}
+		IssueWriter.writeIssuesToBinaryFile(snapshotName(baseName, number), issues);
+		deleteBefore(baseName, number);
+		return new IssueStore(baseName, maxLogSize, number, new ArrayList<String>());
+	}
+
+	/**
+	 * Recovers the list held by a store onto <code>target</code> and opens the
+	 * store for appending. The newest snapshot that can be read is loaded and
+	 * the log segments written after it are replayed in order. If a segment is
+	 * missing, the segments after it are moved aside and listed by
+	 * {@link #getSkippedSegments()}.
+	 *
+	 * @param baseName   The name the store's files are named after.
+	 * @param maxLogSize The log segment size in bytes that starts a compaction.
+	 * @param target     The operations to recover the list with.
+	 * @return The store, ready for appending.
+	 * @throws IllegalArgumentException If the store cannot be read.
+	 */
+	public static IssueStore open(String baseName, long maxLogSize, IssueJournal.Operations target) {
+		long last = recover(baseName, Long.MAX_VALUE, target);
+		List<String> skipped = new ArrayList<>();
+		for (long n : list(baseName, LOG)) {
+			if (n > last) {
+				// segments after a missing one cannot be replayed in order
+				skipped.add(moveAside(logName(baseName, n)));
+			}
+		}
+		return new IssueStore(baseName, maxLogSize, last + 1, skipped);
+	}
+
+	/**
+	 * Appends the addition of a new issue.
+	 *
+	 * @param issueId   The id the new issue was given.
+	 * @param issueType The type of the issue.
+	 * @param summary   The summary of the issue.
+	 * @param note      The note associated with the issue.
+	 * @throws IllegalArgumentException If the log cannot be written.
+	 */
+	public synchronized void appendAdd(int issueId, IssueType issueType, String summary, String note) {
+		log.appendAdd(issueId, issueType, summary, note);
+		rollIfNeeded();
+	}
+
+	/**
+	 * Appends the execution of a command on an issue.
+	 *
+	 * @param issueId The id of the issue.
+	 * @param command The command that was executed.
+	 * @throws IllegalArgumentException If the log cannot be written.
+	 */
+	public synchronized void appendCommand(int issueId, Command command) {
+		log.appendCommand(issueId, command);
+		rollIfNeeded();
+	}
+
+	/**
+	 * Appends the deletion of an issue.
+	 *
+	 * @param issueId The id of the issue.
+	 * @throws IllegalArgumentException If the log cannot be written.
+	 */
+	public synchronized void appendDelete(int issueId) {
+		log.appendDelete(issueId);
+		rollIfNeeded();
+	}
+
+	/**
+	 * Forces the active log segment to disk.
+	 *
+	 * @throws IllegalArgumentException If the log cannot be written.
+	 */
+	public synchronized void sync() {
+		log.sync();
+	}
+
+	/**
+	 * Gets the name the store's files are named after.
+	 *
+	 * @return The base name of the store.
+	 */
+	public String getBaseName() {
+		return baseName;
+	}
+
+	/**
+	 * Gets the log segments that could not be replayed when the store was
+	 * opened, because a segment before them was missing.
+	 *
+	 * @return The names the segments were moved to, empty if every segment
+	 *         was replayed.
+	 */
+	public List<String> getSkippedSegments() {
+		return skippedSegments;
+	}
+
+	/**
+	 * Checks whether a compaction is running.
+	 *
+	 * @return true if closed log segments are being folded into a snapshot.
+	 */
+	public synchronized boolean isCompacting() {
+		return compaction != null && !compaction.isDone();
+	}
+
+	/**
+	 * Waits for a running compaction to finish.
+	 */
+	public void awaitCompaction() {
+		Future<?> running;
+		synchronized (this) {
+			running = compaction;
+		}
+		if (running != null) {
+			try {
+				running.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (ExecutionException e) {
+				// the closed segments stay on disk and are compacted next time
+			}
+		}
+	}
+
+	/**
+	 * Waits for a running compaction and closes the active log segment.
+	 */
+	@Override
+	public void close() {
+		awaitCompaction();
+		synchronized (this) {
+			log.close();
+			compactor.shutdown();
+		}
+	}
+
+	/**
+	 * Starts a new log segment once the active one has grown past the
+	 * configured size, and folds the closed segments into a new snapshot in the
+	 * background. If a compaction is still running the active segment keeps
+	 * growing until it is done.
+	 */
+	private void rollIfNeeded() {
+		if (log.size() <= maxLogSize || isCompacting()) {
+			return;
+		}
+		log.sync();
+		log.close();
+		long closed = logNumber;
+		logNumber++;
+		log = openSegment(logNumber);
+		compaction = compactor.submit(() -> compact(closed));
+	}
+
+	/**
+	 * Writes the snapshot that follows log segment <code>closed</code>, and
+	 * deletes the snapshots and segments it replaces.
+	 *
+	 * @param closed The number of the last closed log segment.
+	 */
+	private void compact(long closed) {
+		SnapshotBuilder builder = new SnapshotBuilder();
+		recover(baseName, closed, builder);
+		IssueWriter.writeIssuesToBinaryFile(snapshotName(baseName, closed + 1), builder.getIssues());
+		deleteBefore(baseName, closed + 1);
+	}
+
+	/**
+	 * Opens a new log segment for appending.
+	 *
+	 * @param number The number of the segment.
+	 * @return The segment.
+	 */
+	private IssueJournal openSegment(long number) {
+		return new IssueJournal(logName(baseName, number), 0, IssueJournal.header(LOG_MAGIC, number, 0));
+	}
+
+	/**
+	 * Loads the newest readable snapshot and replays the log segments after it,
+	 * up to and including segment <code>upTo</code>.
+	 *
+	 * @param baseName The name the store's files are named after.
+	 * @param upTo     The number of the last segment to replay.
+	 * @param target   The operations to recover the list with.
+	 * @return The number of the last segment replayed, or of the snapshot's
+	 *         first segment less one if none was.
+	 * @throws IllegalArgumentException If the store cannot be read.
+	 */
+	private static long recover(String baseName, long upTo, IssueJournal.Operations target) {
+		List<Long> snapshots = list(baseName, SNAPSHOT);
+		Collections.reverse(snapshots);
+		long first = 0;
+		for (long n : snapshots) {
+			if (n - 1 > upTo) {
+				continue;
+			}
+			try {
+				ArrayList<Issue> issues = IssueReader.readIssuesFromBinaryFile(snapshotName(baseName, n));
+				for (Issue issue : issues) {
+					target.addIssue(issue);
+				}
+				first = n;
+				break;
+			} catch (IllegalArgumentException e) {
+				// an unreadable snapshot is skipped in favor of an older one
+			}
+		}
+		long last = first - 1;
+		for (long n : list(baseName, LOG)) {
+			if (n < first || n > upTo) {
+				continue;
+			}
+			if (n != last + 1) {
+				break;
+			}
+			IssueJournal.replay(new File(logName(baseName, n)), IssueJournal.header(LOG_MAGIC, n, 0), target);
+			last = n;
+		}
+		return last;
+	}
+
+	/**
+	 * Deletes the snapshots and log segments numbered below <code>number</code>.
+	 *
+	 * @param baseName The name the store's files are named after.
+	 * @param number   The number of the newest snapshot.
+	 */
+	private static void deleteBefore(String baseName, long number) {
+		for (long n : list(baseName, SNAPSHOT)) {
+			if (n < number) {
+				new File(snapshotName(baseName, n)).delete();
+			}
+		}
+		for (long n : list(baseName, LOG)) {
+			if (n < number) {
+				new File(logName(baseName, n)).delete();
+			}
+		}
+	}
+
+	/**
+	 * Renames a log segment that cannot be replayed, so a new segment with the
+	 * same number does not overwrite it. A segment moved aside before is kept
+	 * as well.
+	 *
+	 * @param name The name of the segment file.
+	 * @return The name the segment was moved to.
+	 * @throws IllegalArgumentException If the segment cannot be moved.
+	 */
+	private static String moveAside(String name) {
+		for (int i = 0;; i++) {
+			String moved = name + UNREPLAYED + (i == 0 ? "" : "." + i);
+			try {
+				Files.move(Paths.get(name), Paths.get(moved));
+				return moved;
+			} catch (FileAlreadyExistsException e) {
+				// try the next name
+			} catch (IOException e) {
+				throw new IllegalArgumentException("Unable to load file.");
+			}
+		}
+	}
+
+	/**
+	 * Lists the numbers of the store's files of one kind, in ascending order.
+	 *
+	 * @param baseName The name the store's files are named after.
+	 * @param infix    The infix of the kind of file.
+	 * @return The numbers of the files.
+	 */
+	private static List<Long> list(String baseName, String infix) {
+		File base = new File(baseName).getAbsoluteFile();
+		String prefix = base.getName() + infix;
+		List<Long> numbers = new ArrayList<>();
+		String[] names = base.getParentFile().list();
+		if (names != null) {
+			for (String name : names) {
+				if (name.startsWith(prefix)) {
+					try {
+						numbers.add(Long.parseLong(name.substring(prefix.length())));
+					} catch (NumberFormatException e) {
+						// not one of the store's files
+					}
+				}
+			}
+		}
+		Collections.sort(numbers);
+		return numbers;
+	}
+
+	/**
+	 * Names a snapshot file.
+	 *
+	 * @param baseName The name the store's files are named after.
+	 * @param number   The number of the snapshot.
+	 * @return The name of the snapshot file.
+	 */
+	private static String snapshotName(String baseName, long number) {
+		return baseName + SNAPSHOT + number;
+	}
+
+	/**
+	 * Names a log segment file.
+	 *
+	 * @param baseName The name the store's files are named after.
+	 * @param number   The number of the segment.
+	 * @return The name of the segment file.
+	 */
+	private static String logName(String baseName, long number) {
+		return baseName + LOG + number;
+	}
+
+	/**
+	 * Builds the list of a new snapshot from the previous snapshot and the log,
+	 * the same way the live list was changed.
+	 */
+	private static class SnapshotBuilder implements IssueJournal.Operations {
+		/** The issues, by id, in list order. */
+		private final LinkedHashMap<Integer, Issue> issues = new LinkedHashMap<>();
+
+		@Override
+		public void addIssue(Issue issue) {
+			issues.putIfAbsent(issue.getIssueId(), issue);
+		}
+
+		@Override
+		public void executeCommand(int issueId, Command command) {
+			Issue issue = issues.get(issueId);
+			if (issue != null) {
+				issue.update(command);
+			}
+		}
+
+		@Override
+		public void deleteIssueById(int issueId) {
+			issues.remove(issueId);
+		}
+
+		/**
+		 * Gets the issues in list order.
+		 *
+		 * @return The issues.
+		 */
+		List<Issue> getIssues() {
+			return new ArrayList<>(issues.values());
+		}
+	}
+}
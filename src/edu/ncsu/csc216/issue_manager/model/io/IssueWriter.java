@@ -1,19 +1,46 @@
 package edu.ncsu.csc216.issue_manager.model.io;
 
-import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
-import java.io.File;
+import java.util.Map;
+import java.util.Set;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 
 import edu.ncsu.csc216.issue_manager.model.issue.Issue;
 
 /**
- * The IssueWriter class writes issues to a file.
+ * The IssueWriter class writes issues to a file, in the text format or in the
+ * binary format described by IssueBinaryFormat.
  * 
  * @author Nirvan Reddy Anumandla
  */
 public class IssueWriter {
+	/** Extension of the temporary file a save is written to. */
+	private static final String TEMP_EXTENSION = ".tmp";
+	/** Number of encoded bytes collected before they are written out. */
+	private static final int FLUSH_SIZE = 64 * 1024;
 
 	/**
 	 * Writes a list of issues to a file.
@@ -23,14 +50,594 @@ public class IssueWriter {
 	 * @throws IllegalArgumentException If there are any error while writting to a file.
 	 */
 	public static void writeIssuesToFile(String fileName, List<Issue> manager) {
-		try (PrintStream fileWriter = new PrintStream(new File(fileName))) {
+		writeIssuesToFile(fileName, manager, null);
+	}
 
-			for (int i = 0; i < manager.size(); i++) {
-				fileWriter.println(manager.get(i).toString());
+	/**
+	 * Writes a list of issues to a file and records where each issue's record is
+	 * stored, so later saves can rewrite single records with
+	 * {@link #writeChangedIssues(String, IssueFileLayout, Collection, Collection)}.
+	 * The records of a compressed file cannot be rewritten, so its layout is
+	 * marked unusable.
+	 *
+	 * @param fileName The name of the file to write issues.
+	 * @param manager  The list of issues to be written to the file.
+	 * @param layout   A new layout to record the issues' records in, or null.
+	 * @throws IllegalArgumentException If there are any error while writting to a file.
+	 */
+	public static void writeIssuesToFile(String fileName, List<Issue> manager, IssueFileLayout layout) {
+		Path temp = Paths.get(fileName + TEMP_EXTENSION);
+		IssueCompression compression = IssueCompression.forWriting(fileName);
+		if (layout != null && compression != IssueCompression.NONE) {
+			layout.invalidate();
+			layout = null;
+		}
+		try {
+			try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+					StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+					OutputStream codec = compression.wrap(Channels.newOutputStream(channel))) {
+				WritableByteChannel out = compression == IssueCompression.NONE ? channel : Channels.newChannel(codec);
+				IssueRecordEncoder encoder = new IssueRecordEncoder();
+				long offset = 0;
+				for (int i = 0; i < manager.size(); i++) {
+					Issue issue = manager.get(i);
+					int length = encoder.append(issue);
+					if (layout != null) {
+						layout.put(issue.getIssueId(), offset, length);
+					}
+					offset += length;
+					if (encoder.size() >= FLUSH_SIZE) {
+						encoder.writeTo(out);
+					}
+				}
+				encoder.writeTo(out);
+				IssueCompression.finish(codec);
+				channel.force(true);
+				if (layout != null) {
+					layout.setFileLength(offset);
+				}
+			}
+			replace(temp, Paths.get(fileName));
+		} catch (IOException e) {
+			discard(temp);
+			throw new IllegalArgumentException("Unable to save file");
+		}
+	}
+
+	/**
+	 * Writes a list of issues to a text file by encoding the records straight
+	 * into pooled direct buffers and draining them with gathering writes, as
+	 * described in IssueDirectEncoder. The file is the same as the one written
+	 * by {@link #writeIssuesToFile(String, List, IssueFileLayout)}, but no heap
+	 * buffer is filled or copied on the way, so large lists are saved with
+	 * less garbage and less copying. A file that is compressed goes through the
+	 * compressor as before.
+	 *
+	 * @param fileName The name of the file to write issues.
+	 * @param manager  The list of issues to be written to the file.
+	 * @param layout   A new layout to record the issues' records in, or null.
+	 * @throws IllegalArgumentException If there are any error while writting to a file.
+	 */
+	public static void writeIssuesToFileDirect(String fileName, List<Issue> manager, IssueFileLayout layout) {
+		if (IssueCompression.forWriting(fileName) != IssueCompression.NONE) {
+			writeIssuesToFile(fileName, manager, layout);
+			return;
+		}
+		Path temp = Paths.get(fileName + TEMP_EXTENSION);
+		try {
+			try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+					StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+					IssueDirectEncoder encoder = new IssueDirectEncoder(channel)) {
+				for (int i = 0; i < manager.size(); i++) {
+					Issue issue = manager.get(i);
+					long offset = encoder.position();
+					int length = encoder.append(issue);
+					if (layout != null) {
+						layout.put(issue.getIssueId(), offset, length);
+					}
+				}
+				encoder.flush();
+				channel.force(true);
+				if (layout != null) {
+					layout.setFileLength(encoder.position());
+				}
 			}
-			fileWriter.close();
+			replace(temp, Paths.get(fileName));
 		} catch (IOException e) {
+			discard(temp);
 			throw new IllegalArgumentException("Unable to save file");
 		}
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Updates a text file in place so that it holds the current state of the
+	 * changed issues and no longer holds the deleted ones. A changed record that
+	 * still fits in its slot is overwritten and padded with blank lines, and the
+	 * slot of a deleted record is blanked. If a changed record grew, the file is
+	 * rewritten from that record's slot to the end, so the records keep their
+	 * order; new issues are added at the end. The bytes of unchanged records
+	 * before the first grown record are left alone. The writes go through an
+	 * IssuePatch, so a crash leaves either the old or the new file.
+	 *
+	 * @param fileName   The name of the file to update.
+	 * @param layout     The layout of the file, which is updated to match.
+	 * @param changed    The issues added or changed since the file was written,
+	 *                   with the added issues in the order of the list.
+	 * @param deletedIds The ids of the issues deleted since the file was written.
+	 * @return true if the file was updated, or false if the file no longer
+	 *         matches the layout, or so much of it would move that it has to be
+	 *         written in full.
+	 * @throws IllegalArgumentException If there are any error while writting to a file.
+	 */
+	public static boolean writeChangedIssues(String fileName, IssueFileLayout layout, Collection<Issue> changed,
+			Collection<Integer> deletedIds) {
+		if (!layout.isUsable()) {
+			return false;
+		}
+		Path target = Paths.get(fileName);
+		try (FileChannel channel = FileChannel.open(target, StandardOpenOption.READ)) {
+			long length = layout.getFileLength();
+			if (channel.size() != length) {
+				return false;
+			}
+			IssueRecordEncoder encoder = new IssueRecordEncoder();
+			Map<Integer, int[]> records = new HashMap<>();
+			List<Integer> added = new ArrayList<>();
+			long tail = length;
+			for (Issue issue : changed) {
+				int offset = encoder.size();
+				int recordLength = encoder.append(issue);
+				records.put(issue.getIssueId(), new int[] { offset, recordLength });
+				long[] slot = layout.get(issue.getIssueId());
+				if (slot == null) {
+					added.add(issue.getIssueId());
+				} else if (recordLength > slot[1]) {
+					tail = Math.min(tail, slot[0]);
+				}
+			}
+			Set<Integer> deleted = new HashSet<>(deletedIds);
+			List<Map.Entry<Integer, long[]>> moved = new ArrayList<>();
+			long copied = 0;
+			for (Map.Entry<Integer, long[]> entry : layout.slots().entrySet()) {
+				if (entry.getValue()[0] >= tail && !deleted.contains(entry.getKey())) {
+					moved.add(entry);
+					if (!records.containsKey(entry.getKey())) {
+						copied += entry.getValue()[1];
+					}
+				}
+			}
+			if (copied > 0 && (layout.keepsOffsets() || copied > length / 2
+					|| copied > Integer.MAX_VALUE - encoder.size())) {
+				return false;
+			}
+			moved.sort((a, b) -> Long.compare(a.getValue()[0], b.getValue()[0]));
+
+			ByteBuffer encoded = encoder.buffer();
+			IssuePatch patch = new IssuePatch();
+			for (int issueId : deleted) {
+				long[] slot = layout.get(issueId);
+				if (slot != null && slot[0] < tail) {
+					patch.addBlank(slot[0], slot[1]);
+				}
+			}
+			for (Map.Entry<Integer, int[]> record : records.entrySet()) {
+				long[] slot = layout.get(record.getKey());
+				if (slot != null && slot[0] < tail) {
+					int[] range = record.getValue();
+					patch.add(slot[0], slice(encoded, range[0], range[1]));
+					patch.addBlank(slot[0] + range[1], slot[1] - range[1]);
+				}
+			}
+			ByteBuffer rest = ByteBuffer.allocate((int) copied + encoder.size());
+			long[][] slots = new long[moved.size() + added.size()][];
+			int[] ids = new int[slots.length];
+			int n = 0;
+			for (Map.Entry<Integer, long[]> entry : moved) {
+				ids[n] = entry.getKey();
+				slots[n++] = new long[] { tail + rest.position(), append(rest, channel, encoded,
+						records.get(entry.getKey()), entry.getValue()) };
+			}
+			for (int issueId : added) {
+				ids[n] = issueId;
+				slots[n++] = new long[] { tail + rest.position(), append(rest, channel, encoded,
+						records.get(issueId), null) };
+			}
+			rest.flip();
+			long end = tail + rest.remaining();
+			patch.add(tail, rest);
+			patch.apply(target, length, end);
+
+			for (int issueId : deleted) {
+				layout.remove(issueId);
+			}
+			for (int i = 0; i < n; i++) {
+				layout.put(ids[i], slots[i][0], slots[i][1]);
+			}
+			layout.setFileLength(end);
+			return true;
+		} catch (IOException e) {
+			layout.invalidate();
+			throw new IllegalArgumentException("Unable to save file");
+		}
+	}
+
+	/**
+	 * Writes a list of issues to a file in the compact binary format, compressed
+	 * if the file name or the existing file calls for it.
+	 *
+	 * @param fileName The name of the file to write issues.
+	 * @param manager  The list of issues to be written to the file.
+	 * @throws IllegalArgumentException If there are any error while writting to a file.
+	 */
+	public static void writeIssuesToBinaryFile(String fileName, List<Issue> manager) {
+		writeIssuesToBinaryFile(fileName, manager, false);
+	}
+
+	/**
+	 * Writes a list of issues to a file in the compact binary format, optionally
+	 * with a CRC32C per record and a footer, so damaged records can be found
+	 * with {@link IssueReader#verifyIssueFile(String)}.
+	 *
+	 * @param fileName  The name of the file to write issues.
+	 * @param manager   The list of issues to be written to the file.
+	 * @param checksums Whether to write a checksum per record and a footer.
+	 * @throws IllegalArgumentException If there are any error while writting to a file.
+	 */
+	public static void writeIssuesToBinaryFile(String fileName, List<Issue> manager, boolean checksums) {
+		Path temp = Paths.get(fileName + TEMP_EXTENSION);
+		try {
+			IssueCompression compression = IssueCompression.forWriting(fileName);
+			try (FileOutputStream file = new FileOutputStream(temp.toFile());
+					OutputStream codec = compression.wrap(file);
+					DataOutputStream out = new DataOutputStream(new BufferedOutputStream(codec, 64 * 1024))) {
+				IssueBinaryFormat.writeIssues(out, manager, checksums);
+				out.flush();
+				IssueCompression.finish(codec);
+				file.getFD().sync();
+			}
+			replace(temp, Paths.get(fileName));
+		} catch (IOException e) {
+			discard(temp);
+			throw new IllegalArgumentException("Unable to save file");
+		}
+	}
+
+	/**
+	 * Writes a list of issues to a file in the columnar format described in
+	 * IssueColumnFormat, for analytics tools that read a few fields of every
+	 * issue. The file is written through a temporary file like every other
+	 * save. It is never compressed, since readers seek to the columns they
+	 * need.
+	 *
+	 * @param fileName The name of the file to write issues.
+	 * @param manager  The list of issues to be written to the file.
+	 * @throws IllegalArgumentException If there are any error while writting to a file.
+	 */
+	public static void writeIssuesToColumnFile(String fileName, List<Issue> manager) {
+		Path temp = Paths.get(fileName + TEMP_EXTENSION);
+		try {
+			try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+					StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+				IssueColumnFormat.write(channel, manager);
+				channel.force(true);
+			}
+			replace(temp, Paths.get(fileName));
+		} catch (IOException e) {
+			discard(temp);
+			throw new IllegalArgumentException("Unable to save file");
+		} catch (IllegalArgumentException e) {
+			discard(temp);
+			throw e;
+		}
+	}
+
+	/**
+	 * Exports issues to a CSV or JSON lines file, picking the format from the
+	 * file's extension as described in IssueExchangeFormat. The issues are
+	 * encoded and written a block at a time as they are taken from the
+	 * iterator, so an export of any size runs in constant memory. The file is
+	 * written through a temporary file like every other save, and compressed if
+	 * its name calls for it.
+	 *
+	 * @param fileName The name of the file to export to.
+	 * @param issues   The issues to export.
+	 * @return The number of issues exported.
+	 * @throws IllegalArgumentException If the file name has no exchange format
+	 *                                  extension, or the file cannot be written.
+	 */
+	public static int exportIssues(String fileName, Iterator<Issue> issues) {
+		int format = IssueExchangeFormat.formatOf(fileName);
+		if (format < 0) {
+			throw new IllegalArgumentException("Unable to save file");
+		}
+		Path temp = Paths.get(fileName + TEMP_EXTENSION);
+		int count = 0;
+		try {
+			IssueCompression compression = IssueCompression.forWriting(fileName);
+			try (FileOutputStream file = new FileOutputStream(temp.toFile());
+					OutputStream out = compression.wrap(file)) {
+				StringBuilder text = new StringBuilder(FLUSH_SIZE + 4096);
+				if (format == IssueExchangeFormat.CSV) {
+					IssueExchangeFormat.appendCsvHeader(text);
+				}
+				while (issues.hasNext()) {
+					Issue issue = issues.next();
+					if (format == IssueExchangeFormat.CSV) {
+						IssueExchangeFormat.appendCsv(text, issue);
+					} else {
+						IssueExchangeFormat.appendJson(text, issue);
+					}
+					count++;
+					if (text.length() >= FLUSH_SIZE) {
+						out.write(text.toString().getBytes(StandardCharsets.UTF_8));
+						text.setLength(0);
+					}
+				}
+				out.write(text.toString().getBytes(StandardCharsets.UTF_8));
+				IssueCompression.finish(out);
+				file.getFD().sync();
+			}
+			replace(temp, Paths.get(fileName));
+		} catch (IOException e) {
+			discard(temp);
+			throw new IllegalArgumentException("Unable to save file");
+		}
+		return count;
+	}
+
+	/**
+	 * Merges several issue files into one text file in id order, in a single
+	 * pass that holds one issue per input file in memory, as described in
+	 * IssueMergeIterator. When several records hold the same id, the policy
+	 * chooses the one written. An input whose records turn out not to be in id
+	 * order is sorted in runs on disk, and the merge starts over. The
+	 * merged file is written through a temporary file like every other save,
+	 * so it may be one of the inputs.
+	 *
+	 * @param fileName   The name of the file to write the merged issues to.
+	 * @param inputNames The names of the files to merge.
+	 * @param policy     The policy for records with the same id.
+	 * @return The number of issues written.
+	 * @throws IllegalArgumentException If an input cannot be read or the merged
+	 *                                  file cannot be written.
+	 */
+	public static int mergeIssueFiles(String fileName, List<String> inputNames,
+			IssueMergeIterator.ConflictPolicy policy) {
+		BitSet unsorted = new BitSet();
+		while (true) {
+			try (IssueMergeIterator issues = new IssueMergeIterator(inputNames, policy, unsorted)) {
+				int count = writeIssues(fileName, issues);
+				if (issues.getUnsortedFile() < 0) {
+					return count;
+				}
+				unsorted.set(issues.getUnsortedFile());
+			}
+		}
+	}
+
+	/**
+	 * Writes issues taken from an iterator to a text file, through a temporary
+	 * file that is renamed over the target once the iterator has no more
+	 * issues. The target is left alone if the iterator stops because one of
+	 * its merge inputs is out of order.
+	 *
+	 * @param fileName The name of the file to write.
+	 * @param issues   The issues to write.
+	 * @return The number of issues written.
+	 * @throws IllegalArgumentException If the file cannot be written.
+	 */
+	private static int writeIssues(String fileName, IssueMergeIterator issues) {
+		Path temp = Paths.get(fileName + TEMP_EXTENSION);
+		IssueCompression compression = IssueCompression.forWriting(fileName);
+		int count = 0;
+		try {
+			try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+					StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+					OutputStream codec = compression.wrap(Channels.newOutputStream(channel))) {
+				WritableByteChannel out = compression == IssueCompression.NONE ? channel : Channels.newChannel(codec);
+				IssueRecordEncoder encoder = new IssueRecordEncoder();
+				while (issues.hasNext()) {
+					encoder.append(issues.next());
+					count++;
+					if (encoder.size() >= FLUSH_SIZE) {
+						encoder.writeTo(out);
+					}
+				}
+				if (issues.getUnsortedFile() < 0) {
+					encoder.writeTo(out);
+					IssueCompression.finish(codec);
+					channel.force(true);
+				}
+			}
+			if (issues.getUnsortedFile() < 0) {
+				replace(temp, Paths.get(fileName));
+			} else {
+				discard(temp);
+			}
+		} catch (IOException e) {
+			discard(temp);
+			throw new IllegalArgumentException("Unable to save file");
+		} catch (IllegalArgumentException e) {
+			discard(temp);
+			throw e;
+		}
+		return count;
+	}
+
+	/**
+	 * Encodes a list of issues in memory in the text format, so the list can be
+	 * written to a file later, for example on another thread, while the issues
+	 * go on changing.
+	 *
+	 * @param manager The list of issues to encode.
+	 * @param layout  A new layout to record the issues' records in, or null.
+	 * @return The bytes of the text file.
+	 */
+	public static ByteBuffer encodeIssues(List<Issue> manager, IssueFileLayout layout) {
+		IssueRecordEncoder encoder = new IssueRecordEncoder();
+		for (int i = 0; i < manager.size(); i++) {
+			Issue issue = manager.get(i);
+			int offset = encoder.size();
+			int length = encoder.append(issue);
+			if (layout != null) {
+				layout.put(issue.getIssueId(), offset, length);
+			}
+		}
+		if (layout != null) {
+			layout.setFileLength(encoder.size());
+		}
+		return encoder.buffer();
+	}
+
+	/**
+	 * Encodes a list of issues in memory in the compact binary format.
+	 *
+	 * @param manager   The list of issues to encode.
+	 * @param checksums Whether to add a checksum per record and a footer.
+	 * @return The bytes of the binary file.
+	 */
+	public static ByteBuffer encodeIssuesToBinary(List<Issue> manager, boolean checksums) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * 1024);
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			IssueBinaryFormat.writeIssues(out, manager, checksums);
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to save file");
+		}
+		return ByteBuffer.wrap(bytes.toByteArray());
+	}
+
+	/**
+	 * Writes issues encoded by {@link #encodeIssues(List, IssueFileLayout)} or
+	 * {@link #encodeIssuesToBinary(List, boolean)} to a file, through a temporary file
+	 * that is renamed over the target. The bytes are compressed if the file name
+	 * or the existing file calls for it, in which case the layout is marked
+	 * unusable.
+	 *
+	 * @param fileName The name of the file to write.
+	 * @param encoded  The encoded issues.
+	 * @param layout   The layout recorded while encoding, or null.
+	 * @throws IllegalArgumentException If there are any error while writting to a file.
+	 */
+	public static void writeEncodedIssues(String fileName, ByteBuffer encoded, IssueFileLayout layout) {
+		Path temp = Paths.get(fileName + TEMP_EXTENSION);
+		IssueCompression compression = IssueCompression.forWriting(fileName);
+		if (layout != null && compression != IssueCompression.NONE) {
+			layout.invalidate();
+		}
+		ByteBuffer bytes = encoded.duplicate();
+		try {
+			try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+					StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+					OutputStream codec = compression.wrap(Channels.newOutputStream(channel))) {
+				if (compression == IssueCompression.NONE) {
+					while (bytes.hasRemaining()) {
+						channel.write(bytes);
+					}
+				} else {
+					codec.write(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining());
+				}
+				IssueCompression.finish(codec);
+				channel.force(true);
+			}
+			replace(temp, Paths.get(fileName));
+		} catch (IOException e) {
+			discard(temp);
+			throw new IllegalArgumentException("Unable to save file");
+		}
+	}
+
+	/**
+	 * Renames a fully written temporary file over the target file, atomically
+	 * where the file system supports it, and forces the rename to disk. An
+	 * interrupted in-place update of the target is finished first, so it cannot
+	 * be applied to the new file later.
+	 *
+	 * @param temp   The temporary file.
+	 * @param target The file to replace.
+	 * @throws IOException If the file cannot be renamed.
+	 */
+	private static void replace(Path temp, Path target) throws IOException {
+		IssuePatch.recover(target);
+		try {
+			Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+		}
+		syncDirectory(target);
+	}
+
+	/**
+	 * Forces the directory entry of a file that was created, renamed or deleted
+	 * to disk.
+	 *
+	 * @param file The file.
+	 */
+	static void syncDirectory(Path file) {
+		Path directory = file.toAbsolutePath().getParent();
+		if (directory != null) {
+			try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+				dir.force(true);
+			} catch (IOException e) {
+				// not every platform can sync a directory; the change is still done
+			}
+		}
+	}
+
+	/**
+	 * Deletes the temporary file of a save that failed.
+	 *
+	 * @param temp The temporary file.
+	 */
+	private static void discard(Path temp) {
+		try {
+			Files.deleteIfExists(temp);
+		} catch (IOException e) {
+			// the target file is untouched either way
+		}
+	}
+
+	/**
+	 * Adds a record to the rewritten end of a file, either freshly encoded or
+	 * copied from its current slot.
+	 *
+	 * @param rest    The buffer holding the rewritten end of the file.
+	 * @param channel The file to copy unchanged records from.
+	 * @param encoded The encoded changed records.
+	 * @param range   The offset and length of the record in
+	 *                <code>encoded</code>, or null if the record did not change.
+	 * @param slot    The current slot of the record, or null if it is new.
+	 * @return The length of the record's new slot.
+	 * @throws IOException If the file cannot be read.
+	 */
+	private static long append(ByteBuffer rest, FileChannel channel, ByteBuffer encoded, int[] range, long[] slot)
+			throws IOException {
+		if (range != null) {
+			rest.put(slice(encoded, range[0], range[1]));
+			return range[1];
+		}
+		ByteBuffer copy = rest.slice();
+		copy.limit((int) slot[1]);
+		while (copy.hasRemaining()) {
+			if (channel.read(copy, slot[0] + copy.position()) < 0) {
+				throw new IOException("File is shorter than its layout");
+			}
+		}
+		rest.position(rest.position() + (int) slot[1]);
+		return slot[1];
+	}
+
+	/**
+	 * Gets a view of part of a buffer.
+	 *
+	 * @param buffer The buffer.
+	 * @param offset The offset of the part.
+	 * @param length The length of the part.
+	 * @return A buffer over the part.
+	 */
+	private static ByteBuffer slice(ByteBuffer buffer, int offset, int length) {
+		ByteBuffer part = buffer.duplicate();
+		part.position(offset);
+		part.limit(offset + length);
+		return part;
+	}
+}
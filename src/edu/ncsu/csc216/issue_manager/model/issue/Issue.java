@@ -22,6 +22,9 @@ public class Issue {
 	private IssueType issueType;
 	private ArrayList<String> notes = new ArrayList<String>();
 	private Resolution resolution;
+	private NotesLoader notesLoader;
+	private long notesOffset;
+	private int notesLength;
 	public static final String I_ENHANCEMENT = "Enhancement";
 	public static final String I_BUG = "Bug";
 	public static final String NEW_NAME = "New";
@@ -46,6 +49,91 @@ public class Issue {
 		ENHANCEMENT, BUG
 	}
 
+	/**
+	 * The Violation enumeration lists the rules the fields of an issue can
+	 * break, as reported by
+	 * {@link Issue#validate(int, String, String, String, String, boolean, String, int)}.
+	 */
+	public enum Violation {
+		/** The id is not positive or a required field is missing. */
+		MISSING_FIELD("missing or invalid field", "Issue cannot be created."),
+		/** The issue has no notes. */
+		NO_NOTES("no notes", "Notes list cannot be empty"),
+		/** A Working or Verifying issue has no owner. */
+		OWNER_REQUIRED("no owner in Working or Verifying state",
+				"Invalid owner information for state, cannot be empty here"),
+		/** A New or Confirmed issue has an owner. */
+		OWNER_NOT_ALLOWED("owner in New or Confirmed state",
+				"Invalid owner information for state, should be empty here"),
+		/** A Closed or Verifying issue has no resolution. */
+		RESOLUTION_REQUIRED("no resolution in Closed or Verifying state",
+				"Invalid resolution for state, cannot be empty here"),
+		/** An enhancement is in the Confirmed state. */
+		ENHANCEMENT_CONFIRMED_STATE("enhancement in Confirmed state", "Enhancement cannot be in confirmed state"),
+		/** A bug is being worked on without being confirmed. */
+		UNCONFIRMED_WORKING_BUG("unconfirmed bug in Working state", "Bug cannot be unconfirmed in working state"),
+		/** A Verifying issue is not resolved as fixed. */
+		VERIFYING_NOT_FIXED("verifying without FIXED", "Resolution must be fixed for verifying state"),
+		/** An enhancement is marked as confirmed. */
+		ENHANCEMENT_CONFIRMED("confirmed enhancement", "Enhancement cannot be confirmed"),
+		/** The state is not one of the known state names. */
+		UNKNOWN_STATE("unknown state", "Issue cannot be created."),
+		/** The type is not one of the known issue types. */
+		UNKNOWN_TYPE("unknown type", "Issue cannot be created."),
+		/** The resolution is not one of the known resolutions. */
+		UNKNOWN_RESOLUTION("unknown resolution", "Issue cannot be created.");
+
+		/** Short description of the rule. */
+		private final String rule;
+		/** Message of the exception thrown when an issue breaks the rule. */
+		private final String message;
+
+		/**
+		 * Constructs a violation.
+		 *
+		 * @param rule    Short description of the rule.
+		 * @param message Message of the exception thrown for the rule.
+		 */
+		Violation(String rule, String message) {
+			this.rule = rule;
+			this.message = message;
+		}
+
+		/**
+		 * Gets a short description of the rule that was broken.
+		 *
+		 * @return The description of the rule.
+		 */
+		public String getRule() {
+			return rule;
+		}
+
+		/**
+		 * Gets the message of the exception thrown when an issue breaks the rule.
+		 *
+		 * @return The exception message.
+		 */
+		public String getMessage() {
+			return message;
+		}
+	}
+
+	/**
+	 * The NotesLoader interface reads the notes of issues whose notes are left
+	 * in the file they were read from.
+	 */
+	public interface NotesLoader {
+		/**
+		 * Loads the notes stored in a range of the file.
+		 *
+		 * @param offset The offset of the notes in the file.
+		 * @param length The length in bytes of the notes.
+		 * @return The notes.
+		 * @throws IllegalArgumentException If the notes cannot be read.
+		 */
+		ArrayList<String> loadNotes(long offset, int length);
+	}
+
 	/**
 	 * Constructs an Issue object with values for all fields.
 	 *
@@ -60,34 +148,163 @@ public class Issue {
 	 */
 	public Issue(int issueId, String state, String issueType, String summary, String owner, boolean confirmed,
 			String resolution, ArrayList<String> notes) {
+		checkFields(issueId, state, issueType, summary, owner, confirmed, resolution, notes == null ? -1 : notes.size());
+		setFields(issueId, state, issueType, summary, owner, confirmed, resolution);
+		setNotes(notes);
+	}
+
+	/**
+	 * Constructs an Issue object whose notes are left in a file and only loaded
+	 * when they are first needed.
+	 *
+	 * @param issueId     The ID of the issue.
+	 * @param state       The state of the issue.
+	 * @param issueType   The type of the issue.
+	 * @param summary     The summary of the issue.
+	 * @param owner       The owner of the issue.
+	 * @param confirmed   The confirmation status of the issue.
+	 * @param resolution  The resolution of the issue.
+	 * @param notesLoader The loader that reads the notes from the file.
+	 * @param notesOffset The offset of the notes in the file.
+	 * @param notesLength The length in bytes of the notes in the file, which
+	 *                    must hold at least one note.
+	 */
+	public Issue(int issueId, String state, String issueType, String summary, String owner, boolean confirmed,
+			String resolution, NotesLoader notesLoader, long notesOffset, int notesLength) {
+		checkFields(issueId, state, issueType, summary, owner, confirmed, resolution,
+				notesLoader == null ? -1 : Math.min(notesLength, 1));
+		setFields(issueId, state, issueType, summary, owner, confirmed, resolution);
+		this.notes = null;
+		this.notesLoader = notesLoader;
+		this.notesOffset = notesOffset;
+		this.notesLength = notesLength;
+	}
+
+	/**
+	 * Constructs a copy of an issue. Notes still left in a file are not read;
+	 * the copy reads them from the same file.
+	 *
+	 * @param issue The issue to copy.
+	 */
+	private Issue(Issue issue) {
+		setIssueId(issue.issueId);
+		setState(issue.getStateName());
+		setIssueType(issue.issueType);
+		setSummary(issue.summary);
+		this.owner = issue.owner;
+		this.confirmed = issue.confirmed;
+		this.resolution = issue.resolution;
+		this.notes = issue.notes == null ? null : new ArrayList<String>(issue.notes);
+		this.notesLoader = issue.notesLoader;
+		this.notesOffset = issue.notesOffset;
+		this.notesLength = issue.notesLength;
+	}
+
+	/**
+	 * Creates a copy of the issue that later updates to the issue do not
+	 * change.
+	 *
+	 * @return The copy.
+	 */
+	public Issue snapshot() {
+		return new Issue(this);
+	}
+
+	/**
+	 * Checks that the fields of an issue describe a valid issue.
+	 *
+	 * @param issueId    The ID of the issue.
+	 * @param state      The state of the issue.
+	 * @param issueType  The type of the issue.
+	 * @param summary    The summary of the issue.
+	 * @param owner      The owner of the issue.
+	 * @param confirmed  The confirmation status of the issue.
+	 * @param resolution The resolution of the issue.
+	 * @param noteCount  The number of notes, or -1 if there are none.
+	 * @throws IllegalArgumentException If the fields do not describe a valid
+	 *                                  issue.
+	 */
+	private static void checkFields(int issueId, String state, String issueType, String summary, String owner,
+			boolean confirmed, String resolution, int noteCount) {
+		Violation violation = validate(issueId, state, issueType, summary, owner, confirmed, resolution, noteCount);
+		if (violation != null) {
+			throw new IllegalArgumentException(violation.getMessage());
+		}
+	}
+
+	/**
+	 * Checks the fields of an issue against the rules the constructors enforce,
+	 * without throwing an exception, so that invalid records can be counted and
+	 * reported cheaply.
+	 *
+	 * @param issueId    The ID of the issue.
+	 * @param state      The state of the issue.
+	 * @param issueType  The type of the issue.
+	 * @param summary    The summary of the issue.
+	 * @param owner      The owner of the issue, or "" if it has none.
+	 * @param confirmed  The confirmation status of the issue.
+	 * @param resolution The resolution of the issue, or "" if it has none.
+	 * @param noteCount  The number of notes, or -1 if there are none.
+	 * @return The first rule the fields break, or null if they describe a valid
+	 *         issue.
+	 */
+	public static Violation validate(int issueId, String state, String issueType, String summary, String owner,
+			boolean confirmed, String resolution, int noteCount) {
 		if (issueId < 1 || state == null || issueType == null || summary == null || resolution == null || owner == null
-				|| notes == null || "".equals(state) || "".equals(issueType) || "".equals(summary)) {
-			throw new IllegalArgumentException("Issue cannot be created.");
+				|| noteCount < 0 || "".equals(state) || "".equals(issueType) || "".equals(summary)) {
+			return Violation.MISSING_FIELD;
 		}
-		if (notes.size() == 0) {
-			throw new IllegalArgumentException("Notes list cannot be empty");
+		if (noteCount == 0) {
+			return Violation.NO_NOTES;
 		}
 		if ((state.equals(WORKING_NAME) || state.equals(VERIFYING_NAME)) && "".equals(owner)) {
-			throw new IllegalArgumentException("Invalid owner information for state, cannot be empty here");
+			return Violation.OWNER_REQUIRED;
 		}
 		if ((state.equals(NEW_NAME) || state.equals(CONFIRMED_NAME)) && !("".equals(owner))) {
-			throw new IllegalArgumentException("Invalid owner information for state, should be empty here");
+			return Violation.OWNER_NOT_ALLOWED;
 		}
 		if ((state.equals(CLOSED_NAME) || state.equals(VERIFYING_NAME)) && "".equals(resolution)) {
-			throw new IllegalArgumentException("Invalid resolution for state, cannot be empty here");
+			return Violation.RESOLUTION_REQUIRED;
 		}
 		if (issueType.equals(I_ENHANCEMENT) && state.equals(CONFIRMED_NAME)) {
-			throw new IllegalArgumentException("Enhancement cannot be in confirmed state");
+			return Violation.ENHANCEMENT_CONFIRMED_STATE;
 		}
 		if (issueType.equals(I_BUG) && state.equals(WORKING_NAME) && !confirmed) {
-			throw new IllegalArgumentException("Bug cannot be unconfirmed in working state");
+			return Violation.UNCONFIRMED_WORKING_BUG;
 		}
 		if (state.equals(VERIFYING_NAME) && !(resolution.equals(Command.R_FIXED))) {
-			throw new IllegalArgumentException("Resolution must be fixed for verifying state");
+			return Violation.VERIFYING_NOT_FIXED;
 		}
 		if (issueType.equals(I_ENHANCEMENT) && confirmed) {
-			throw new IllegalArgumentException("Enhancement cannot be confirmed");
+			return Violation.ENHANCEMENT_CONFIRMED;
+		}
+		if (!state.equals(NEW_NAME) && !state.equals(WORKING_NAME) && !state.equals(CONFIRMED_NAME)
+				&& !state.equals(VERIFYING_NAME) && !state.equals(CLOSED_NAME)) {
+			return Violation.UNKNOWN_STATE;
+		}
+		if (!issueType.equals(I_BUG) && !issueType.equals(I_ENHANCEMENT)) {
+			return Violation.UNKNOWN_TYPE;
+		}
+		if (!"".equals(resolution) && !resolution.equals(Command.R_FIXED) && !resolution.equals(Command.R_DUPLICATE)
+				&& !resolution.equals(Command.R_WONTFIX) && !resolution.equals(Command.R_WORKSFORME)) {
+			return Violation.UNKNOWN_RESOLUTION;
 		}
+		return null;
+	}
+
+	/**
+	 * Sets the fields of an issue other than its notes.
+	 *
+	 * @param issueId    The ID of the issue.
+	 * @param state      The state of the issue.
+	 * @param issueType  The type of the issue.
+	 * @param summary    The summary of the issue.
+	 * @param owner      The owner of the issue.
+	 * @param confirmed  The confirmation status of the issue.
+	 * @param resolution The resolution of the issue.
+	 */
+	private void setFields(int issueId, String state, String issueType, String summary, String owner,
+			boolean confirmed, String resolution) {
 		setIssueId(issueId);
 		setState(state);
 		setIssueTypeString(issueType);
@@ -95,7 +312,6 @@ public class Issue {
 		setOwner(owner);
 		setConfirmed(confirmed);
 		setResolution(resolution);
-		setNotes(notes);
 	}
 
 	/**
@@ -232,6 +448,7 @@ public class Issue {
 	 */
 	public void setNotes(ArrayList<String> notes) {
 		this.notes = notes;
+		this.notesLoader = null;
 	}
 
 	/**
@@ -324,11 +541,15 @@ public class Issue {
 	}
 
 	/**
-	 * Gets the notes associated with the issue.
+	 * Gets the notes associated with the issue. Notes left in a file are read
+	 * from it.
 	 *
 	 * @return The notes associated with the issue.
 	 */
 	public ArrayList<String> getNotes() {
+		if (notesLoader != null) {
+			return notesLoader.loadNotes(notesOffset, notesLength);
+		}
 		return notes;
 	}
 
@@ -363,6 +584,7 @@ public class Issue {
 	 * @return The notes associated with the issue as a string.
 	 */
 	public String getNotesString() {
+		ArrayList<String> notes = getNotes();
 		String notesString = "";
 		for (int i = 0; i < notes.size(); i++) {
 			String s = notes.get(i);
@@ -387,6 +609,10 @@ public class Issue {
 	 * @param state The updated state
 	 */
 	public void update(Command command) {
+		if (notesLoader != null) {
+			// the issue's record may be rewritten once it changes
+			setNotes(new ArrayList<String>(getNotes()));
+		}
 		state.updateState(command);
 	}
 
@@ -0,0 +1,440 @@
+package edu.ncsu.csc216.issue_manager.model.manager;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.ncsu.csc216.issue_manager.model.command.Command;
+import edu.ncsu.csc216.issue_manager.model.io.IssueFileLayout;
+import edu.ncsu.csc216.issue_manager.model.io.IssueIndex;
+import edu.ncsu.csc216.issue_manager.model.io.IssueJournal;
+import edu.ncsu.csc216.issue_manager.model.io.IssueNotesLoader;
+import edu.ncsu.csc216.issue_manager.model.io.IssueReader;
+import edu.ncsu.csc216.issue_manager.model.io.IssueWriter;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue.IssueType;
+
+/**
+ * The FileStorage class keeps a list of issues in a text or binary issue
+ * file, or in no file until the list is first saved. Saving the list under
+ * another name moves it to that file.
+ *
+ * @author Nirvan Reddy Anumandla
+ */
+final class FileStorage extends ListStorage {
+	/** Size in bytes above which text files are loaded through a memory mapping */
+	private static final long MAPPED_LOAD_THRESHOLD = 64L * 1024 * 1024;
+	/** The settings of the manager that apply to saves */
+	private final Settings settings;
+	/** Whether the list is saved in the binary issue format */
+	private final boolean binary;
+	/** Whether binary saves carry a checksum per record */
+	private final boolean checksums;
+	/** The file the list is kept in, or null if it was never saved */
+	private String fileName;
+	/** Where each issue's record is stored in the text file, or null if it is not known */
+	private IssueFileLayout layout;
+	/** The loader reading the notes of the list from the file, if they are loaded lazily */
+	private IssueNotesLoader notesLoader;
+	/** The journal of the file, in journal mode */
+	private IssueJournal journal;
+
+	/**
+	 * The settings of the IssueManager that decide how files are saved. They
+	 * can change while a list is kept in a file and apply from the next save.
+	 */
+	static final class Settings {
+		/** Whether full text saves encode records straight into pooled direct buffers */
+		private boolean directWrites;
+		/** Journal size in bytes above which it is compacted into a new snapshot, or 0 if journaling is off */
+		private long maxJournalSize;
+
+		/**
+		 * Turns direct writes on or off.
+		 *
+		 * @param directWrites Whether to use direct writes.
+		 */
+		void setDirectWrites(boolean directWrites) {
+			this.directWrites = directWrites;
+		}
+
+		/**
+		 * Sets the journal size that triggers compaction.
+		 *
+		 * @param maxJournalSize The size in bytes, or 0 to turn journaling off.
+		 */
+		void setMaxJournalSize(long maxJournalSize) {
+			this.maxJournalSize = Math.max(0, maxJournalSize);
+		}
+	}
+
+	/**
+	 * Constructs a storage for a list that is not kept in any file yet.
+	 *
+	 * @param list      The list of issues.
+	 * @param binary    Whether to save the list in the binary issue format.
+	 * @param checksums Whether binary saves carry a checksum per record.
+	 * @param settings  The settings of the manager.
+	 */
+	FileStorage(IssueList list, boolean binary, boolean checksums, Settings settings) {
+		super(list);
+		this.binary = binary;
+		this.checksums = checksums;
+		this.settings = settings;
+	}
+
+	/**
+	 * Loads a list from a text or binary issue file. With lazy note loading
+	 * on, text files are read without their notes; otherwise text files larger
+	 * than MAPPED_LOAD_THRESHOLD are read through a memory mapping and parsed
+	 * in parallel. The file's journal is not replayed yet, see
+	 * {@link #openJournal()}.
+	 *
+	 * @param fileName       The name of the file.
+	 * @param maxCachedNotes The largest number of note lists to keep, or 0 to
+	 *                       load all notes with the issues.
+	 * @param settings       The settings of the manager.
+	 * @return The storage holding the loaded list.
+	 */
+	static FileStorage load(String fileName, int maxCachedNotes, Settings settings) {
+		boolean binary = IssueReader.isBinaryIssueFile(fileName);
+		boolean checksums = false;
+		IssueFileLayout fileLayout = null;
+		IssueNotesLoader loader = null;
+		ArrayList<Issue> issues;
+		if (binary) {
+			checksums = IssueReader.isChecksummedIssueFile(fileName);
+			issues = IssueReader.readIssuesFromBinaryFile(fileName);
+		} else if (maxCachedNotes > 0) {
+			fileLayout = new IssueFileLayout();
+			loader = new IssueNotesLoader(fileName, maxCachedNotes);
+			try {
+				issues = IssueReader.readIssuesFromFile(fileName, fileLayout, loader);
+			} catch (IllegalArgumentException e) {
+				loader.close();
+				throw e;
+			}
+		} else if (new File(fileName).length() > MAPPED_LOAD_THRESHOLD) {
+			issues = IssueReader.readIssuesInParallel(fileName);
+		} else {
+			fileLayout = new IssueFileLayout();
+			issues = IssueReader.readIssuesFromFile(fileName, fileLayout);
+		}
+		IssueList list = new IssueList();
+		list.addIssues(issues);
+		list.clearChanges();
+		FileStorage loaded = new FileStorage(list, binary, checksums, settings);
+		loaded.fileName = fileName;
+		loaded.layout = fileLayout;
+		loaded.notesLoader = loader;
+		return loaded;
+	}
+
+	/**
+	 * Gets the loader reading the notes of the list, which the caller closes
+	 * once no issue needs it anymore.
+	 *
+	 * @return The loader, or null if the notes are in memory.
+	 */
+	IssueNotesLoader getNotesLoader() {
+		return notesLoader;
+	}
+
+	/**
+	 * In journal mode, replays the file's journal onto the list and keeps
+	 * appending the changes to it.
+	 */
+	void openJournal() {
+		closeJournal();
+		if (settings.maxJournalSize > 0) {
+			journal = new IssueJournal(fileName, IssueJournal.replay(fileName, list));
+		}
+	}
+
+	/**
+	 * Adds a new issue to the list and to the journal.
+	 *
+	 * @param issueType The type of the issue.
+	 * @param summary   The summary of the issue.
+	 * @param note      The first note of the issue.
+	 * @return The id of the new issue.
+	 */
+	@Override
+	public int addIssue(IssueType issueType, String summary, String note) {
+		int id = super.addIssue(issueType, summary, note);
+		IssueJournal open = journal();
+		if (open != null) {
+			open.appendAdd(id, issueType, summary, note);
+			compactJournalIfNeeded();
+		}
+		return id;
+	}
+
+	/**
+	 * Executes a command on an issue, recording it in the journal first.
+	 *
+	 * @param id      The id of the issue.
+	 * @param command The command.
+	 */
+	@Override
+	public void executeCommand(int id, Command command) {
+		IssueJournal open = journal();
+		if (open != null) {
+			open.appendCommand(id, command);
+		}
+		try {
+			super.executeCommand(id, command);
+		} finally {
+			compactJournalIfNeeded();
+		}
+	}
+
+	/**
+	 * Deletes an issue, recording it in the journal first.
+	 *
+	 * @param id The id of the issue.
+	 */
+	@Override
+	public void deleteIssueById(int id) {
+		IssueJournal open = journal();
+		if (open != null) {
+			open.appendDelete(id);
+		}
+		super.deleteIssueById(id);
+		compactJournalIfNeeded();
+	}
+
+	/**
+	 * Gets the name of the file the list is kept in.
+	 *
+	 * @return The file name, or null if the list was never saved.
+	 */
+	@Override
+	public String getFileName() {
+		return fileName;
+	}
+
+	/**
+	 * Saves the list. Saving a journaled list to its file only forces the
+	 * journal to disk, since every change is already recorded in it. Saving a
+	 * text list to its file only rewrites the records of the issues that
+	 * changed, if the layout of the file is known. Otherwise the whole list is
+	 * written and the list is kept in that file from then on, with a new
+	 * journal in journal mode.
+	 *
+	 * @param name The name of the file to save the list to.
+	 */
+	@Override
+	public void save(String name) {
+		if (name.equals(fileName)) {
+			IssueJournal open = journal();
+			if (open != null) {
+				open.sync();
+				return;
+			}
+			if (layout != null && !layout.needsCompaction()
+					&& IssueWriter.writeChangedIssues(name, layout, list.getChangedIssues(), list.getDeletedIds())) {
+				list.clearChanges();
+				writeIndex(name, layout);
+				return;
+			}
+		}
+		writeSnapshot(name);
+		startJournal();
+	}
+
+	/**
+	 * Takes a copy of the list to write to its file, unless the list was never
+	 * saved or is journaled. The copy is written whole, so the layout of the
+	 * file is dropped until the autosave is written.
+	 *
+	 * @return The autosave, or null.
+	 */
+	@Override
+	public Autosave prepareAutosave() {
+		if (fileName == null || journal() != null) {
+			return null;
+		}
+		List<Issue> snapshot = snapshotIssues();
+		layout = null;
+		list.clearChanges();
+		return new FileAutosave(fileName, snapshot);
+	}
+
+	/**
+	 * Checks whether the file can be watched: a text file whose notes are in
+	 * memory, without a journal.
+	 *
+	 * @return true if the file can be watched.
+	 */
+	@Override
+	public boolean isWatchable() {
+		return fileName != null && !binary && notesLoader == null && journal() == null;
+	}
+
+	/**
+	 * Drops the layout of the file, since another process changed it.
+	 */
+	@Override
+	public void fileChanged() {
+		layout = null;
+	}
+
+	/**
+	 * Closes the journal, if one is open.
+	 */
+	@Override
+	public void close() {
+		closeJournal();
+	}
+
+	/**
+	 * Writes the whole list to a file in the storage's format and keeps the
+	 * list in that file.
+	 *
+	 * @param name The name of the file to write the list to.
+	 */
+	private void writeSnapshot(String name) {
+		IssueFileLayout fileLayout = null;
+		if (binary) {
+			IssueWriter.writeIssuesToBinaryFile(name, list.getIssues(), checksums);
+		} else {
+			fileLayout = new IssueFileLayout();
+			if (settings.directWrites) {
+				IssueWriter.writeIssuesToFileDirect(name, list.getIssues(), fileLayout);
+			} else {
+				IssueWriter.writeIssuesToFile(name, list.getIssues(), fileLayout);
+			}
+			writeIndex(name, fileLayout);
+		}
+		fileName = name;
+		layout = fileLayout;
+		list.clearChanges();
+	}
+
+	/**
+	 * Writes the index of a text file, if its records can be located by
+	 * offset.
+	 *
+	 * @param name       The name of the text file.
+	 * @param fileLayout The layout of the file.
+	 */
+	private static void writeIndex(String name, IssueFileLayout fileLayout) {
+		if (fileLayout.isUsable()) {
+			IssueIndex.write(name, fileLayout);
+		}
+	}
+
+	/**
+	 * Gets the journal changes are appended to, closing it first if journal
+	 * mode was turned off since it was opened.
+	 *
+	 * @return The journal, or null if the list is not journaled.
+	 */
+	private IssueJournal journal() {
+		if (journal != null && settings.maxJournalSize == 0) {
+			closeJournal();
+		}
+		return journal;
+	}
+
+	/**
+	 * Starts a new, empty journal for the file in journal mode, after a
+	 * snapshot of the list was written to it.
+	 */
+	private void startJournal() {
+		closeJournal();
+		if (settings.maxJournalSize > 0) {
+			journal = new IssueJournal(fileName, 0);
+		}
+	}
+
+	/**
+	 * Closes the journal, if one is open.
+	 */
+	private void closeJournal() {
+		if (journal != null) {
+			journal.close();
+			journal = null;
+		}
+	}
+
+	/**
+	 * Folds the journal into a new snapshot once it has grown past the
+	 * configured size.
+	 */
+	private void compactJournalIfNeeded() {
+		IssueJournal open = journal();
+		if (open != null && open.size() > settings.maxJournalSize) {
+			writeSnapshot(fileName);
+			startJournal();
+		}
+	}
+
+	/**
+	 * A copy of the list written whole to the file it is kept in.
+	 */
+	private final class FileAutosave implements Autosave {
+		/** The file the copy is written to */
+		private final String name;
+		/** The copy of the issues */
+		private final List<Issue> issues;
+		/** The encoded file */
+		private ByteBuffer encoded;
+		/** The layout of the encoded text file, or null for a binary file */
+		private IssueFileLayout fileLayout;
+
+		/**
+		 * Constructs an autosave of a copy of the list.
+		 *
+		 * @param name   The file the copy is written to.
+		 * @param issues The copy of the issues.
+		 */
+		private FileAutosave(String name, List<Issue> issues) {
+			this.name = name;
+			this.issues = issues;
+		}
+
+		/**
+		 * Encodes the copy in the storage's format.
+		 */
+		@Override
+		public void encode() {
+			if (binary) {
+				encoded = IssueWriter.encodeIssuesToBinary(issues, checksums);
+			} else {
+				fileLayout = new IssueFileLayout();
+				encoded = IssueWriter.encodeIssues(issues, fileLayout);
+			}
+		}
+
+		/**
+		 * Writes the encoded file and, for a text file, its index.
+		 */
+		@Override
+		public void write() {
+			IssueWriter.writeEncodedIssues(name, encoded, fileLayout);
+			if (fileLayout != null) {
+				writeIndex(name, fileLayout);
+			}
+		}
+
+		/**
+		 * Does nothing, since the layout was dropped and the next save writes
+		 * the whole list.
+		 */
+		@Override
+		public void failed() {
+			// the next save writes the whole list
+		}
+
+		/**
+		 * Keeps the layout of the written file for the next incremental save.
+		 */
+		@Override
+		public void written() {
+			layout = fileLayout;
+		}
+	}
+}
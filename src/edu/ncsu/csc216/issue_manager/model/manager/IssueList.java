@@ -1,31 +1,64 @@
 package edu.ncsu.csc216.issue_manager.model.manager;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 import edu.ncsu.csc216.issue_manager.model.command.Command;
+import edu.ncsu.csc216.issue_manager.model.io.IssueJournal;
 import edu.ncsu.csc216.issue_manager.model.issue.Issue;
 import edu.ncsu.csc216.issue_manager.model.issue.Issue.IssueType;
 
 /**
  * The IssueList class represents a list of issues in the issue management
  * system. It provides methods to add, retrieve, execute commands on, and delete
- * issues.
+ * issues, and tracks which issues changed since the list was last saved.
  * 
  * @author Nirvan Reddy Anumandla
  */
-public class IssueList {
+public class IssueList implements IssueJournal.Operations {
 	/** counter. */
 	private int counter;
-	/** List to store issues. */
-	private List<Issue> issues;
+	/** Issues in the order they were added, with null for deleted issues. */
+	private Issue[] slots;
+	/** Number of slots used, including those of deleted issues. */
+	private int used;
+	/** Number of issues in the list. */
+	private int size;
+	/** Issue ids of the index table, 0 for a free entry. */
+	private int[] keys;
+	/** Position in slots of the issue of each index table entry. */
+	private int[] positions;
+	/** Positions of the issues in each state, by state name. */
+	private Map<String, BitSet> byState = new HashMap<>();
+	/** Positions of the issues of each type, by type name. */
+	private Map<String, BitSet> byType = new HashMap<>();
+	/** Positions of the issues of each owner, with "" for no owner. */
+	private Map<String, BitSet> byOwner = new HashMap<>();
+	/** Positions of the issues with each resolution, with "" for none. */
+	private Map<String, BitSet> byResolution = new HashMap<>();
+	/** Ids of the issues added or changed since the list was last saved. */
+	private Set<Integer> changedIds;
+	/** Ids of the issues deleted since the list was last saved. */
+	private Set<Integer> deletedIds;
 
 	/**
 	 * Constructs an IssueList object.
 	 */
 	public IssueList() {
 		counter = 1;
-		issues = new ArrayList<>();
+		slots = new Issue[16];
+		keys = new int[32];
+		positions = new int[32];
+		changedIds = new LinkedHashSet<>();
+		deletedIds = new HashSet<>();
 	}
 
 	/**
@@ -39,28 +72,49 @@ public class IssueList {
 	public int addIssue(IssueType issueType, String summary, String note) {
 		Issue newIssue = new Issue(counter, issueType, summary, note);
 		addIssue(newIssue);
-		return counter++;
+		return newIssue.getIssueId();
 	}
 
 	/**
-	 * Adds multiple issues to the list.
+	 * Adds multiple issues to the list, in one pass. The slots and the index
+	 * table are sized for all of the issues up front, so loading a large file
+	 * never copies or rehashes them. Issues whose id is already in the list,
+	 * or earlier in issueList, are skipped.
 	 *
 	 * @param issueList A list of issues to be added.
 	 */
 	public void addIssues(List<Issue> issueList) {
+		ensureCapacity(size + issueList.size());
+		if (changedIds.isEmpty() && issueList.size() > 16) {
+			changedIds = new LinkedHashSet<>(issueList.size() * 4 / 3 + 1);
+		}
+		int maxId = counter - 1;
 		for (Issue issue : issueList) {
-			addIssue(issue);
+			int issueId = issue.getIssueId();
+			int entry = entry(issueId);
+			if (keys[entry] == 0) {
+				keys[entry] = issueId;
+				positions[entry] = used;
+				index(issue, used, true);
+				slots[used++] = issue;
+				size++;
+				maxId = Math.max(maxId, issueId);
+				changedIds.add(issueId);
+			}
 		}
+		counter = maxId + 1;
 	}
 
 	/**
-	 * Adds a specific issue to the list.
+	 * Adds a specific issue to the list. Issues added later are given ids after
+	 * the largest id in the list.
 	 * 
 	 * @param issue The issue to be added.
 	 */
-	private void addIssue(Issue issue) {
-		if (!issues.contains(issue)) {
-			issues.add(issue);
+	public void addIssue(Issue issue) {
+		if (find(issue.getIssueId()) < 0) {
+			append(issue);
+			changedIds.add(issue.getIssueId());
 		}
 	}
 
@@ -70,7 +124,13 @@ public class IssueList {
 	 * @return A list of all issues.
 	 */
 	public List<Issue> getIssues() {
-		return new ArrayList<Issue>(issues);
+		List<Issue> issues = new ArrayList<>(size);
+		for (int i = 0; i < used; i++) {
+			if (slots[i] != null) {
+				issues.add(slots[i]);
+			}
+		}
+		return issues;
 	}
 
 	/**
@@ -80,13 +140,38 @@ public class IssueList {
 	 * @return A list of issues filtered by type.
 	 */
 	public List<Issue> getIssuesByType(String type) {
-		List<Issue> issueByType = new ArrayList<>();
-		for (Issue issue : issues) {
-			if (issue.getIssueType().toString().equals(type)) {
-				issueByType.add(issue);
+		return collect(byType.get(type));
+	}
+
+	/**
+	 * Gets the issues that match all of the given field values, in list order.
+	 * A null value matches any issue; an empty owner or resolution matches the
+	 * issues that have none.
+	 *
+	 * @param state      The state name, or null.
+	 * @param type       The issue type, or null.
+	 * @param owner      The owner, or null.
+	 * @param resolution The resolution, or null.
+	 * @return The matching issues.
+	 */
+	public List<Issue> getIssuesMatching(String state, String type, String owner, String resolution) {
+		BitSet matches = null;
+		String[] values = { state, type, owner, resolution };
+		List<Map<String, BitSet>> indexes = Arrays.asList(byState, byType, byOwner, byResolution);
+		for (int i = 0; i < values.length; i++) {
+			if (values[i] != null) {
+				BitSet bits = indexes.get(i).get(values[i]);
+				if (bits == null) {
+					return new ArrayList<>();
+				}
+				if (matches == null) {
+					matches = (BitSet) bits.clone();
+				} else {
+					matches.and(bits);
+				}
 			}
 		}
-		return issueByType;
+		return matches == null ? getIssues() : collect(matches);
 	}
 
 	/**
@@ -96,12 +181,8 @@ public class IssueList {
 	 * @return The issue with the specified ID.
 	 */
 	public Issue getIssueById(int issueId) {
-		for (Issue issue : issues) {
-			if (issue.getIssueId() == issueId) {
-				return issue;
-			}
-		}
-		return null;
+		int position = find(issueId);
+		return position < 0 ? null : slots[position];
 	}
 
 	/**
@@ -111,10 +192,21 @@ public class IssueList {
 	 * @param command The command to be executed.
 	 */
 	public void executeCommand(int issueId, Command command) {
-		Issue issue = getIssueById(issueId);
-        if (issue != null) {
-            issue.update(command);
-        }
+		int position = find(issueId);
+		if (position >= 0) {
+			Issue issue = slots[position];
+			changedIds.add(issueId);
+			String state = issue.getStateName();
+			String owner = issue.getOwner();
+			String resolution = issue.getResolution();
+			try {
+				issue.update(command);
+			} finally {
+				move(byState, state, issue.getStateName(), position);
+				move(byOwner, owner, issue.getOwner(), position);
+				move(byResolution, resolution, issue.getResolution(), position);
+			}
+		}
 	}
 
 	/**
@@ -123,16 +215,307 @@ public class IssueList {
 	 * @param counter The ID of the issue to be deleted.
 	 */
 	public void deleteIssueById(int issueId) {
-		int index = -1;
-	    for (int i = 0; i < issues.size(); i++) {
-	        if (issues.get(i).getIssueId() == issueId) {
-	            index = i;
-	            break;
-	        }
-	    }
-	    
-	    if (index != -1) {
-	        issues.remove(index);
-	    }
+		if (removeIssue(issueId)) {
+			changedIds.remove(issueId);
+			deletedIds.add(issueId);
+		}
+	}
+
+	/**
+	 * Puts an issue read from the file the list is saved to into the list,
+	 * replacing the issue with the same id in place, or adding it at the end
+	 * if there is none. The issue is not marked as changed, since the file
+	 * already holds it.
+	 *
+	 * @param issue The issue to put in the list.
+	 */
+	public void replaceIssue(Issue issue) {
+		int position = find(issue.getIssueId());
+		if (position < 0) {
+			append(issue);
+		} else {
+			index(slots[position], position, false);
+			slots[position] = issue;
+			index(issue, position, true);
+		}
+	}
+
+	/**
+	 * Removes an issue that is no longer in the file the list is saved to. The
+	 * issue is not marked as deleted, since the file no longer holds it.
+	 *
+	 * @param issueId The id of the issue to remove.
+	 * @return true if the list held the issue.
+	 */
+	public boolean removeIssue(int issueId) {
+		int entry = entry(issueId);
+		if (keys[entry] == 0) {
+			return false;
+		}
+		index(slots[positions[entry]], positions[entry], false);
+		slots[positions[entry]] = null;
+		size--;
+		unlink(entry);
+		if (used > 16 && size < used / 2) {
+			compact();
+		}
+		return true;
+	}
+
+	/**
+	 * Checks whether an issue was added, changed or deleted since the list was
+	 * last saved.
+	 *
+	 * @param issueId The id of the issue.
+	 * @return true if the issue has changes that are not saved.
+	 */
+	public boolean isChanged(int issueId) {
+		return changedIds.contains(issueId) || deletedIds.contains(issueId);
+	}
+
+	/**
+	 * Gets the issues added or changed since the list was last saved.
+	 *
+	 * @return The changed issues.
+	 */
+	public List<Issue> getChangedIssues() {
+		List<Issue> changed = new ArrayList<>();
+		for (int issueId : changedIds) {
+			Issue issue = getIssueById(issueId);
+			if (issue != null) {
+				changed.add(issue);
+			}
+		}
+		return changed;
+	}
+
+	/**
+	 * Gets the ids of the issues deleted since the list was last saved.
+	 *
+	 * @return The ids of the deleted issues.
+	 */
+	public Set<Integer> getDeletedIds() {
+		return new HashSet<Integer>(deletedIds);
+	}
+
+	/**
+	 * Marks the list as saved, so no issue counts as changed or deleted.
+	 */
+	public void clearChanges() {
+		changedIds.clear();
+		deletedIds.clear();
+	}
+
+	/**
+	 * Adds an issue whose id is not in the list at the end of the list.
+	 *
+	 * @param issue The issue to add.
+	 */
+	private void append(Issue issue) {
+		if (used == slots.length) {
+			if (size < used * 3 / 4) {
+				compact();
+			} else {
+				slots = Arrays.copyOf(slots, used * 2);
+			}
+		}
+		if ((size + 1) * 2 > keys.length) {
+			rehash(keys.length * 2);
+		}
+		int entry = entry(issue.getIssueId());
+		keys[entry] = issue.getIssueId();
+		positions[entry] = used;
+		index(issue, used, true);
+		slots[used++] = issue;
+		size++;
+		counter = Math.max(counter, issue.getIssueId() + 1);
+	}
+
+	/**
+	 * Makes room for a number of issues without growing the slots or the index
+	 * table again.
+	 *
+	 * @param capacity The number of issues to make room for.
+	 */
+	private void ensureCapacity(int capacity) {
+		if (used + capacity - size > slots.length) {
+			if (capacity > slots.length) {
+				slots = Arrays.copyOf(slots, capacity);
+			}
+			compact();
+		}
+		if (capacity * 2 > keys.length) {
+			rehash(Integer.highestOneBit(capacity * 2 - 1) << 1);
+		}
+	}
+
+	/**
+	 * Finds the position of an issue in the slots.
+	 *
+	 * @param issueId The id of the issue.
+	 * @return The position of the issue, or -1 if it is not in the list.
+	 */
+	private int find(int issueId) {
+		int entry = entry(issueId);
+		return keys[entry] == 0 ? -1 : positions[entry];
+	}
+
+	/**
+	 * Finds the index table entry of an issue id, or the free entry where it
+	 * would go.
+	 *
+	 * @param issueId The id of the issue.
+	 * @return The index of the entry.
+	 */
+	private int entry(int issueId) {
+		int mask = keys.length - 1;
+		int entry = hash(issueId) & mask;
+		while (keys[entry] != 0 && keys[entry] != issueId) {
+			entry = (entry + 1) & mask;
+		}
+		return entry;
+	}
+
+	/**
+	 * Spreads the bits of an issue id, so that runs of ids fill the index
+	 * table evenly.
+	 *
+	 * @param issueId The id of the issue.
+	 * @return The hash of the id.
+	 */
+	private static int hash(int issueId) {
+		int h = issueId * 0x9E3779B9;
+		return h ^ h >>> 16;
+	}
+
+	/**
+	 * Frees an index table entry, moving back the entries after it that could
+	 * not be placed where they belong while it was taken.
+	 *
+	 * @param entry The index of the entry to free.
+	 */
+	private void unlink(int entry) {
+		int mask = keys.length - 1;
+		int free = entry;
+		int next = (free + 1) & mask;
+		while (keys[next] != 0) {
+			int home = hash(keys[next]) & mask;
+			if (((next - home) & mask) >= ((next - free) & mask)) {
+				keys[free] = keys[next];
+				positions[free] = positions[next];
+				free = next;
+			}
+			next = (next + 1) & mask;
+		}
+		keys[free] = 0;
+	}
+
+	/**
+	 * Rebuilds the index table with a new capacity.
+	 *
+	 * @param capacity The number of entries, a power of two.
+	 */
+	private void rehash(int capacity) {
+		keys = new int[capacity];
+		positions = new int[capacity];
+		for (int i = 0; i < used; i++) {
+			if (slots[i] != null) {
+				int entry = entry(slots[i].getIssueId());
+				keys[entry] = slots[i].getIssueId();
+				positions[entry] = i;
+			}
+		}
+	}
+
+	/**
+	 * Moves the issues to the front of the slots, dropping the slots of deleted
+	 * issues, and rebuilds the index table and the field indexes.
+	 */
+	private void compact() {
+		byState.clear();
+		byType.clear();
+		byOwner.clear();
+		byResolution.clear();
+		int to = 0;
+		for (int i = 0; i < used; i++) {
+			if (slots[i] != null) {
+				index(slots[i], to, true);
+				slots[to++] = slots[i];
+			}
+		}
+		Arrays.fill(slots, to, used, null);
+		used = to;
+		rehash(keys.length);
+	}
+
+	/**
+	 * Adds an issue to the field indexes, or removes it from them.
+	 *
+	 * @param issue    The issue.
+	 * @param position The position of the issue in the slots.
+	 * @param present  true to add the issue, false to remove it.
+	 */
+	private void index(Issue issue, int position, boolean present) {
+		mark(byState, issue.getStateName(), position, present);
+		mark(byType, issue.getIssueType(), position, present);
+		mark(byOwner, issue.getOwner(), position, present);
+		mark(byResolution, issue.getResolution(), position, present);
+	}
+
+	/**
+	 * Moves an issue between two values of a field index, if the value changed.
+	 *
+	 * @param index    The field index.
+	 * @param before   The value before.
+	 * @param after    The value after.
+	 * @param position The position of the issue in the slots.
+	 */
+	private static void move(Map<String, BitSet> index, String before, String after, int position) {
+		if (!Objects.equals(before, after)) {
+			mark(index, before, position, false);
+			mark(index, after, position, true);
+		}
+	}
+
+	/**
+	 * Sets or clears the bit of an issue for a value of a field index. Values
+	 * without issues are dropped from the index.
+	 *
+	 * @param index    The field index.
+	 * @param value    The value of the field, null for none.
+	 * @param position The position of the issue in the slots.
+	 * @param present  Whether to set the bit.
+	 */
+	private static void mark(Map<String, BitSet> index, String value, int position, boolean present) {
+		String key = value == null ? "" : value;
+		BitSet bits = index.get(key);
+		if (present) {
+			if (bits == null) {
+				bits = new BitSet();
+				index.put(key, bits);
+			}
+			bits.set(position);
+		} else if (bits != null) {
+			bits.clear(position);
+			if (bits.isEmpty()) {
+				index.remove(key);
+			}
+		}
+	}
+
+	/**
+	 * Gets the issues at the positions set in a BitSet, in list order.
+	 *
+	 * @param bits The positions, or null for none.
+	 * @return The issues.
+	 */
+	private List<Issue> collect(BitSet bits) {
+		List<Issue> issues = new ArrayList<>(bits == null ? 0 : bits.cardinality());
+		if (bits != null) {
+			for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+				issues.add(slots[i]);
+			}
+		}
+		return issues;
 	}
 }
\ No newline at end of file
@@ -1,11 +1,30 @@
 package edu.ncsu.csc216.issue_manager.model.manager;
 
-import java.io.FileNotFoundException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import edu.ncsu.csc216.issue_manager.model.command.Command;
+import edu.ncsu.csc216.issue_manager.model.io.IssueFileDiff;
+import edu.ncsu.csc216.issue_manager.model.io.IssueLoadReport;
+import edu.ncsu.csc216.issue_manager.model.io.IssueNotesLoader;
+import edu.ncsu.csc216.issue_manager.model.io.IssuePageStore;
 import edu.ncsu.csc216.issue_manager.model.io.IssueReader;
+import edu.ncsu.csc216.issue_manager.model.io.IssueShards;
+import edu.ncsu.csc216.issue_manager.model.io.IssueStore;
 import edu.ncsu.csc216.issue_manager.model.io.IssueWriter;
 import edu.ncsu.csc216.issue_manager.model.issue.Issue;
 import edu.ncsu.csc216.issue_manager.model.issue.Issue.IssueType;
@@ -14,14 +33,69 @@ import edu.ncsu.csc216.issue_manager.model.issue.Issue.IssueType;
  * The IssueManager class manages the overall functionality of the issue management system.
  * It handles user interactions and activities such as managing issues, saving and loading issues from files,
  * creating a new issue list, and retrieving issues in various formats.
+ *
+ * The public methods are synchronized, so the list can be saved in the
+ * background by the autosave thread while it is being changed.
  * 
  * @author Nirvan Reddy Anumandla
  */
 public class IssueManager {
     /** The single instance of the IssueManager class */
     private static final IssueManager instance = new IssueManager();
-    /** The current list of issues */
-    private IssueList issueList;
+    /** Number of pages kept in memory for a page store opened by loading its file */
+    private static final int PAGE_STORE_CACHED_PAGES = 4096;
+    /** Milliseconds a watched file is left to settle after a change before it is read */
+    private static final long WATCH_SETTLE_MILLIS = 50;
+    /** Where the current list of issues is kept and how it is saved */
+    private IssueStorage storage;
+    /** The settings that apply to saves of text and binary files */
+    private final FileStorage.Settings settings = new FileStorage.Settings();
+    /** Number of note lists kept in memory when notes are loaded lazily, or 0 to load notes eagerly */
+    private int maxCachedNotes;
+    /** The loader reading the notes of the current list, if they are loaded lazily */
+    private IssueNotesLoader notesLoader;
+    /** Held while a file is read or written, so autosaves and manual saves reach the disk in order */
+    final Object fileLock = new Object();
+    /** Runs autosaves in the background, if autosave is on */
+    private ScheduledExecutorService autosaver;
+    /** Writes the last changes when the JVM shuts down, if autosave is on */
+    private Thread autosaveHook;
+    /** Number of changes that starts an autosave before the interval is up, or 0 to only save on the interval */
+    private int autosaveChanges;
+    /** Whether an autosave was started by the number of changes and has not run yet */
+    private boolean autosavePending;
+    /** Whether the list changed since it was last written to the file it is kept in */
+    private boolean dirty;
+    /** Number of changes since the list was last written to the file it is kept in */
+    private int changeCount;
+    /** Counts the changes to the list, so an autosave can tell whether the list changed while it was written */
+    private long version;
+    /** Counts loads, manual saves and storage changes, so an autosave captured before one of them is dropped */
+    private volatile long generation;
+    /** Watches the directory of the watched file, if watch mode is on */
+    private WatchService watchService;
+    /** The file watched for changes made by other processes */
+    private String watchedFile;
+    /** The checksums of the records of the watched file when it was last read */
+    private IssueFileDiff watchDiff;
+    /** Told about the issues changed by other processes in the watched file */
+    private ChangeListener changeListener;
+
+    /**
+     * Listens for the issues changed by other processes in the file the list
+     * is watched in, see {@link IssueManager#startWatching(ChangeListener)}.
+     */
+    public interface ChangeListener {
+        /**
+         * Called on the watch thread after changes made to the watched file by
+         * another process were applied to the list.
+         *
+         * @param addedIds   The ids of the issues added to the list.
+         * @param updatedIds The ids of the issues replaced in the list.
+         * @param deletedIds The ids of the issues removed from the list.
+         */
+        void issuesChanged(Set<Integer> addedIds, Set<Integer> updatedIds, Set<Integer> deletedIds);
+    }
 
     /**
      * Constructs an instance of the IssueManager class.
@@ -40,30 +114,384 @@ public class IssueManager {
     }
 
     /**
-     * Saves the current list of issues to a file.
+     * Saves the current list of issues to a file. Saving under the name of the
+     * file the list is kept in only writes what changed since it was last
+     * saved. Saving under another name moves a text or binary list to that
+     * file, and exports a list kept in an IssueStore, a page store or shards
+     * to it as a text file, see {@link IssueStorage#save(String)}.
      *
      * @param fileName The name of the file to save issues to.
      */
-    public void saveIssuesToFile(String fileName) {
-        IssueWriter.writeIssuesToFile(fileName, issueList.getIssues());
+    public synchronized void saveIssuesToFile(String fileName) {
+        synchronized (fileLock) {
+            generation++;
+            storage.save(fileName);
+        }
+        if (fileName.equals(storage.getFileName())) {
+            markSaved();
+        }
+    }
+
+    /**
+     * Turns journal mode on or off. In journal mode every change to a list kept
+     * in a text or binary file is appended to the file's journal, instead of
+     * rewriting the whole file on each save. Once the journal grows past
+     * <code>maxJournalSize</code> bytes it is compacted into a new snapshot of
+     * the list. A file's journal is only replayed when the file is loaded in
+     * journal mode.
+     *
+     * @param maxJournalSize The journal size in bytes that triggers compaction,
+     *                       or 0 to turn journal mode off.
+     */
+    public synchronized void setJournalMode(long maxJournalSize) {
+        settings.setMaxJournalSize(maxJournalSize);
+    }
+
+    /**
+     * Keeps the current list in an IssueStore from now on, see LogStorage. If
+     * the store already exists its list is recovered and replaces the current
+     * list; otherwise the store is created with the current list.
+     *
+     * @param baseName   The name the store's files are named after.
+     * @param maxLogSize The log segment size in bytes that starts a compaction.
+     * @return The log segments recovery could not replay, see
+     *         {@link IssueStore#getSkippedSegments()}.
+     */
+    public synchronized List<String> openIssueStore(String baseName, long maxLogSize) {
+        LogStorage opened;
+        synchronized (fileLock) {
+            generation++;
+            // the store may be the one the list is kept in, so it is closed before it is opened again
+            IssueList list = storage.getIssueList();
+            storage.close();
+            storage = new FileStorage(list, false, false, settings);
+            if (IssueStore.exists(baseName)) {
+                opened = LogStorage.open(baseName, maxLogSize);
+                setNotesLoader(null);
+            } else {
+                opened = LogStorage.create(baseName, maxLogSize, list);
+            }
+            storage = opened;
+        }
+        version++;
+        markSaved();
+        return opened.getSkippedSegments();
+    }
+
+    /**
+     * Saves the current list of issues as a manifest and
+     * <code>shardCount</code> shard files, written in parallel, and keeps the
+     * list sharded from then on, see ShardStorage.
+     *
+     * @param manifestName The name of the manifest to save.
+     * @param shardCount   The number of shards to split the list into.
+     */
+    public synchronized void saveIssuesToShards(String manifestName, int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Unable to save file");
+        }
+        synchronized (fileLock) {
+            generation++;
+            ShardStorage sharded = ShardStorage.create(manifestName, storage.getIssueList(), shardCount);
+            storage.close();
+            storage = sharded;
+        }
+        markSaved();
+    }
+
+    /**
+     * Keeps the current list in an IssuePageStore from now on, so it no longer
+     * has to fit in memory, with at most <code>maxCachedPages</code> pages of
+     * the store in memory. If the file exists it is opened as a page store and
+     * its issues replace the current list; otherwise the store is created with
+     * the current list. Saving the list in another format brings it back into
+     * memory.
+     *
+     * @param fileName       The name of the page store file.
+     * @param maxCachedPages The largest number of pages to keep in memory.
+     */
+    public synchronized void openPageStore(String fileName, int maxCachedPages) {
+        synchronized (fileLock) {
+            generation++;
+            IssuePageStore opened = new File(fileName).exists() ? IssuePageStore.open(fileName, maxCachedPages)
+                    : IssuePageStore.create(fileName, maxCachedPages, storage.getIssues());
+            storage.close();
+            storage = new PageStorage(opened);
+        }
+        setNotesLoader(null);
+        version++;
+        markSaved();
+    }
+
+    /**
+     * Turns lazy note loading on or off. When it is on, loading a text file
+     * only keeps the header fields of each issue in memory. An issue's notes
+     * are read from the file the first time they are needed, and at most
+     * <code>maxCachedNotes</code> note lists are kept. Notes of issues that
+     * change are kept in memory from then on. The setting applies to the next
+     * file loaded.
+     *
+     * @param maxCachedNotes The largest number of note lists to keep, or 0 to
+     *                       load all notes with the issues.
+     */
+    public synchronized void setLazyNotes(int maxCachedNotes) {
+        this.maxCachedNotes = Math.max(0, maxCachedNotes);
+    }
+
+    /**
+     * Turns direct writes on or off. When they are on, saves that write the
+     * whole list as a text file encode the records straight into pooled direct
+     * buffers and write them with gathering writes, which saves large lists
+     * with less garbage and copying. The file written is the same either way.
+     *
+     * @param directWrites Whether to use direct writes.
+     */
+    public synchronized void setDirectWrites(boolean directWrites) {
+        settings.setDirectWrites(directWrites);
+    }
+
+    /**
+     * Saves the current list of issues to a file in the binary issue format.
+     * Later saves of the list also use the binary format.
+     *
+     * @param fileName The name of the file to save issues to.
+     */
+    public synchronized void saveIssuesToBinaryFile(String fileName) {
+        saveIssuesToBinaryFile(fileName, false);
+    }
+
+    /**
+     * Saves the current list of issues to a file in the binary issue format,
+     * optionally with a checksum per record and a footer, so that damaged
+     * records are detected when the file is read or verified. The list is kept
+     * in that file from then on, so later saves use the same format.
+     *
+     * @param fileName  The name of the file to save issues to.
+     * @param checksums Whether to write a checksum per record.
+     */
+    public synchronized void saveIssuesToBinaryFile(String fileName, boolean checksums) {
+        synchronized (fileLock) {
+            generation++;
+            IssueList list = storage.getIssueList();
+            storage.close();
+            storage = new FileStorage(list, true, checksums, settings);
+            storage.save(fileName);
+        }
+        markSaved();
+    }
+
+    /**
+     * Turns autosave on. Changes to the list only mark it as changed; the list
+     * is written to the file it is kept in by a background thread, every
+     * <code>intervalMillis</code> milliseconds and as soon as
+     * <code>maxChanges</code> changes have been made, so a burst of changes is
+     * written once and no change waits for the disk. The last changes are
+     * written when autosave is turned off and when the JVM shuts down. What an
+     * autosave writes depends on the storage, see
+     * {@link IssueStorage#prepareAutosave()}.
+     *
+     * @param intervalMillis The time in milliseconds between autosaves, or 0 to
+     *                       only save on the number of changes.
+     * @param maxChanges     The number of changes that starts an autosave, or 0
+     *                       to only save on the interval.
+     */
+    public void startAutosave(long intervalMillis, int maxChanges) {
+        stopAutosave();
+        synchronized (this) {
+            autosaveChanges = Math.max(0, maxChanges);
+            autosaver = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "IssueManager autosave");
+                thread.setDaemon(true);
+                return thread;
+            });
+            if (intervalMillis > 0) {
+                autosaver.scheduleWithFixedDelay(this::autosave, intervalMillis, intervalMillis,
+                        TimeUnit.MILLISECONDS);
+            }
+            autosaveHook = new Thread(this::autosave, "IssueManager autosave on exit");
+            Runtime.getRuntime().addShutdownHook(autosaveHook);
+        }
+    }
+
+    /**
+     * Turns autosave off, after writing the changes made since the last save.
+     * Does nothing if autosave is off.
+     */
+    public void stopAutosave() {
+        ScheduledExecutorService executor;
+        synchronized (this) {
+            executor = autosaver;
+            if (executor == null) {
+                return;
+            }
+            autosaver = null;
+            autosavePending = false;
+            try {
+                Runtime.getRuntime().removeShutdownHook(autosaveHook);
+            } catch (IllegalStateException e) {
+                // the JVM is already shutting down and the hook will run
+            }
+            autosaveHook = null;
+        }
+        executor.shutdown();
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        autosave();
     }
     
     /**
-     * Loads the current list of issues from a file.
+     * Turns watch mode on for the text file the list is kept in. A background
+     * thread is told by a WatchService when the file changes, and applies the
+     * changes made by other processes to the list without reloading it: only
+     * the records whose checksum changed are parsed, see IssueFileDiff.
+     * Changed issues replace the issue with the same id in place, new ones are
+     * added and removed ones are deleted, and the listener is told exactly
+     * which ids changed. Issues changed in the list since it was last saved
+     * keep their local changes. Saves of the list itself change nothing in it.
+     *
+     * Watching stops when another file is loaded, a new list is created or the
+     * list is saved to another file.
+     *
+     * @param listener The listener told about the changes, or null.
+     * @throws IllegalArgumentException If the list is not kept in a plain text
+     *                                  file with its notes in memory, or the
+     *                                  file cannot be watched.
+     */
+    public void startWatching(ChangeListener listener) {
+        stopWatching();
+        synchronized (this) {
+            if (!storage.isWatchable()) {
+                throw new IllegalArgumentException("Unable to load file.");
+            }
+            String fileName = storage.getFileName();
+            Path file = Paths.get(fileName).toAbsolutePath();
+            WatchService service = null;
+            try {
+                service = file.getFileSystem().newWatchService();
+                file.getParent().register(service, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY);
+                synchronized (fileLock) {
+                    watchDiff = new IssueFileDiff(fileName);
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                closeWatchService(service);
+                throw new IllegalArgumentException("Unable to load file.");
+            }
+            watchService = service;
+            watchedFile = fileName;
+            changeListener = listener;
+            WatchService watching = service;
+            Thread thread = new Thread(() -> watch(watching, file), "IssueManager watch");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Turns watch mode off. Does nothing if watch mode is off.
+     */
+    public synchronized void stopWatching() {
+        closeWatchService(watchService);
+        watchService = null;
+        watchedFile = null;
+        watchDiff = null;
+        changeListener = null;
+    }
+
+    /**
+     * Loads the current list of issues from a file. The storage the list is
+     * kept in is picked from the file: a page store is opened in place, a
+     * shard manifest loads the issues of all its shards, and any other file is
+     * read as a text or binary issue file, see
+     * {@link FileStorage#load(String, int, FileStorage.Settings)}.
      *
      * @param fileName The name of the file to load the issues from.
      */
-    public void loadIssuesFromFile(String fileName) {
-            ArrayList<Issue> issuesFromFile = IssueReader.readIssuesFromFile(fileName);
-            issueList = new IssueList();
-            issueList.addIssues(issuesFromFile);
+    public synchronized void loadIssuesFromFile(String fileName) {
+            IssueStorage loaded;
+            FileStorage file = null;
+            synchronized (fileLock) {
+                generation++;
+                if (IssuePageStore.isPageStore(fileName)) {
+                    loaded = new PageStorage(IssuePageStore.open(fileName, PAGE_STORE_CACHED_PAGES));
+                } else if (!IssueReader.isBinaryIssueFile(fileName) && IssueShards.isManifest(fileName)) {
+                    loaded = ShardStorage.load(fileName);
+                } else {
+                    file = FileStorage.load(fileName, maxCachedNotes, settings);
+                    loaded = file;
+                }
+                storage.close();
+                storage = loaded;
+            }
+            setNotesLoader(file == null ? null : file.getNotesLoader());
+            if (file != null) {
+                file.openJournal();
+            }
+            version++;
+            markSaved();
+    }
+
+    /**
+     * Replaces the current list with the issues imported from a CSV or JSON
+     * lines file, see {@link IssueReader#openImportIterator(String, IssueLoadReport)}.
+     * Records that do not describe a valid issue are skipped. The imported list
+     * is new and not yet saved to any issue file.
+     *
+     * @param fileName The name of the file to import.
+     * @return The report of the skipped records.
+     */
+    public synchronized IssueLoadReport importIssuesFromFile(String fileName) {
+        IssueLoadReport report = new IssueLoadReport();
+        ArrayList<Issue> imported = IssueReader.importIssues(fileName, report);
+        createNewIssueList();
+        storage.getIssueList().addIssues(imported);
+        return report;
+    }
+
+    /**
+     * Exports the current list to a CSV or JSON lines file, picking the format
+     * from the file's extension. The issues are streamed to the file, so a list
+     * kept in a page store is exported without being loaded into memory. The
+     * file the list is saved to is not changed.
+     *
+     * @param fileName The name of the file to export to.
+     */
+    public synchronized void exportIssuesToFile(String fileName) {
+        synchronized (fileLock) {
+            IssueWriter.exportIssues(fileName, storage.iterator());
+        }
+    }
+
+    /**
+     * Exports the current list to a columnar file for analytics, with each
+     * field stored as one block so a reader loads only the fields it needs.
+     * The file the list is saved to is not changed.
+     *
+     * @param fileName The name of the file to export to.
+     */
+    public synchronized void exportIssuesToColumnFile(String fileName) {
+        synchronized (fileLock) {
+            IssueWriter.writeIssuesToColumnFile(fileName, storage.getIssues());
+        }
     }
 
     /**
      * Creates a new issue list.
      */
-    public void createNewIssueList() {
-        issueList = new IssueList();
+    public synchronized void createNewIssueList() {
+        synchronized (fileLock) {
+            generation++;
+            if (storage != null) {
+                storage.close();
+            }
+            storage = new FileStorage(new IssueList(), false, false, settings);
+        }
+        setNotesLoader(null);
+        version++;
+        markSaved();
     }
 
     /**
@@ -71,8 +499,8 @@ public class IssueManager {
      *
      * @return The list of issues as a two-dimensional array.
      */
-    public Object[][] getIssueListAsArray() {
-        List<Issue> issues = issueList.getIssues();
+    public synchronized Object[][] getIssueListAsArray() {
+        List<Issue> issues = storage.getIssues();
         Object[][] issueArray = new Object[issues.size()][4];
 
         for (int i = 0; i < issues.size(); i++) {
@@ -91,12 +519,12 @@ public class IssueManager {
      * @param issueType The issue type to filter by.
      * @return The list of issues filtered by issue type as a two-dimensional array.
      */
-    public Object[][] getIssueListAsArrayByIssueType(String issueType) {
+    public synchronized Object[][] getIssueListAsArrayByIssueType(String issueType) {
         if (issueType == null) {
             throw new IllegalArgumentException("Issue type cannot be null.");
         }
 
-        List<Issue> issueByType = issueList.getIssuesByType(issueType);
+        List<Issue> issueByType = storage.getIssuesByType(issueType);
         Object[][] issueArray = new Object[issueByType.size()][4];
 
         for (int i = 0; i < issueByType.size(); i++) {
@@ -110,13 +538,28 @@ public class IssueManager {
         return issueArray;
     }
 
+    /**
+     * Gets the issues that match all of the given field values, for views such
+     * as the Working issues of one owner. A null value matches any issue; an
+     * empty owner or resolution matches the issues that have none.
+     * @param state The state name, or null.
+     * @param type The issue type, or null.
+     * @param owner The owner, or null.
+     * @param resolution The resolution, or null.
+     * @return The matching issues, in list order.
+     */
+    public synchronized List<Issue> getIssuesMatching(String state, String type, String owner,
+            String resolution) {
+        return storage.getIssuesMatching(state, type, owner, resolution);
+    }
+
     /**
      * Gets an issue by its ID.
      * @param id The ID of the issue
      * @return The issue with the specified ID.
      */
-    public Issue getIssueById(int id) {
-        return issueList.getIssueById(id);
+    public synchronized Issue getIssueById(int id) {
+        return storage.getIssueById(id);
     }
 
     /**
@@ -125,8 +568,9 @@ public class IssueManager {
      * @param id      The ID of the issue on which the command is to be executed.
      * @param command The command to be executed.
      */
-    public void executeCommand(int id, Command command) {
-        issueList.executeCommand(id, command);
+    public synchronized void executeCommand(int id, Command command) {
+        storage.executeCommand(id, command);
+        markChanged();
     }
 
     /**
@@ -134,8 +578,9 @@ public class IssueManager {
      *
      * @param id The ID of the issue to be deleted.
      */
-    public void deleteIssueById(int id) {
-        issueList.deleteIssueById(id);
+    public synchronized void deleteIssueById(int id) {
+        storage.deleteIssueById(id);
+        markChanged();
     }
 
     /**
@@ -145,7 +590,207 @@ public class IssueManager {
      * @param summary The summary of the issue.
      * @param note    The note associated with the issue.
      */
-    public void addIssueToList(IssueType issuetype, String summary, String note) {
-        issueList.addIssue(issuetype, summary, note);
+    public synchronized void addIssueToList(IssueType issuetype, String summary, String note) {
+        storage.addIssue(issuetype, summary, note);
+        markChanged();
+    }
+
+    /**
+     * Records a change to the list and, once enough changes have been made,
+     * starts an autosave on the autosave thread. Changes made before that
+     * autosave runs are written with it.
+     */
+    private void markChanged() {
+        dirty = true;
+        version++;
+        changeCount++;
+        if (autosaver != null && autosaveChanges > 0 && changeCount >= autosaveChanges && !autosavePending) {
+            autosavePending = true;
+            autosaver.execute(this::autosave);
+        }
+    }
+
+    /**
+     * Records that the list is now the content of the file it is kept in.
+     */
+    private void markSaved() {
+        if (watchedFile != null && !watchedFile.equals(storage.getFileName())) {
+            stopWatching();
+        }
+        dirty = false;
+        changeCount = 0;
+    }
+
+    /**
+     * Writes the list to the file it is kept in if it changed since it was
+     * last written. Only a copy is taken while the lock is held; it is encoded
+     * and written after the lock is released, unless a load or a manual save
+     * happened in the meantime. If the write fails, the list stays marked as
+     * changed.
+     */
+    private void autosave() {
+        IssueStorage.Autosave task;
+        long savedVersion;
+        long savedGeneration;
+        synchronized (this) {
+            autosavePending = false;
+            if (!dirty) {
+                return;
+            }
+            task = storage.prepareAutosave();
+            if (task == null) {
+                return;
+            }
+            dirty = false;
+            changeCount = 0;
+            savedVersion = version;
+            savedGeneration = generation;
+        }
+        try {
+            task.encode();
+            synchronized (fileLock) {
+                if (generation != savedGeneration) {
+                    return;
+                }
+                task.write();
+            }
+        } catch (IllegalArgumentException e) {
+            synchronized (this) {
+                if (generation == savedGeneration) {
+                    dirty = true;
+                    task.failed();
+                }
+            }
+            return;
+        }
+        synchronized (this) {
+            if (generation == savedGeneration && version == savedVersion) {
+                task.written();
+            }
+        }
+    }
+
+    /**
+     * Waits for changes to the watched file and applies them, until the watch
+     * service is closed. Changes that arrive while the file settles are
+     * applied together.
+     *
+     * @param service The watch service the file's directory is registered with.
+     * @param file    The watched file.
+     */
+    private void watch(WatchService service, Path file) {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                boolean changed = false;
+                while (key != null) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        changed |= event.kind() == StandardWatchEventKinds.OVERFLOW
+                                || file.getFileName().equals(event.context());
+                    }
+                    key.reset();
+                    if (changed) {
+                        Thread.sleep(WATCH_SETTLE_MILLIS);
+                    }
+                    key = service.poll();
+                }
+                if (changed) {
+                    applyFileChanges(service);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // watching stopped
+        }
     }
+
+    /**
+     * Applies the changes made to the watched file since it was last read to
+     * the list, and tells the listener which issues changed. Changes to issues
+     * with unsaved local changes are left out, and so are records that match
+     * the list, such as the ones written by saves of the list itself.
+     *
+     * @param service The watch service the changes were reported by.
+     */
+    private void applyFileChanges(WatchService service) {
+        Set<Integer> added = new TreeSet<>();
+        Set<Integer> updated = new TreeSet<>();
+        Set<Integer> deleted = new TreeSet<>();
+        ChangeListener listener;
+        synchronized (this) {
+            if (service != watchService || !storage.isWatchable()) {
+                return;
+            }
+            IssueList issueList = storage.getIssueList();
+            IssueFileDiff.Changes changes;
+            synchronized (fileLock) {
+                try {
+                    changes = watchDiff.update();
+                } catch (IllegalArgumentException e) {
+                    // the file is being replaced; the next change reads it again
+                    return;
+                }
+            }
+            boolean external = false;
+            for (Issue issue : changes.getChangedIssues()) {
+                int id = issue.getIssueId();
+                Issue current = issueList.getIssueById(id);
+                if (current != null && current.toString().equals(issue.toString())) {
+                    continue;
+                }
+                external = true;
+                if (!issueList.isChanged(id)) {
+                    issueList.replaceIssue(issue);
+                    (current == null ? added : updated).add(id);
+                }
+            }
+            for (int id : changes.getDeletedIds()) {
+                if (issueList.getIssueById(id) != null) {
+                    external = true;
+                    if (!issueList.isChanged(id) && issueList.removeIssue(id)) {
+                        deleted.add(id);
+                    }
+                }
+            }
+            if (external) {
+                storage.fileChanged();
+            }
+            if (added.isEmpty() && updated.isEmpty() && deleted.isEmpty()) {
+                return;
+            }
+            version++;
+            listener = changeListener;
+        }
+        if (listener != null) {
+            listener.issuesChanged(added, updated, deleted);
+        }
+    }
+
+    /**
+     * Closes a watch service, which ends the thread waiting on it.
+     *
+     * @param service The watch service, or null.
+     */
+    private static void closeWatchService(WatchService service) {
+        if (service != null) {
+            try {
+                service.close();
+            } catch (IOException e) {
+                // the service is closed either way
+            }
+        }
+    }
+
+    /**
+     * Replaces the loader reading the notes of the current list, closing the
+     * previous one.
+     *
+     * @param loader The new loader, or null if the notes are in memory.
+     */
+    private void setNotesLoader(IssueNotesLoader loader) {
+        if (notesLoader != null) {
+            notesLoader.close();
+        }
+        notesLoader = loader;
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,170 @@
+package edu.ncsu.csc216.issue_manager.model.manager;
+
+import java.util.Iterator;
+import java.util.List;
+
+import edu.ncsu.csc216.issue_manager.model.command.Command;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue.IssueType;
+
+/**
+ * The IssueStorage interface is where the IssueManager keeps its list of
+ * issues and how it saves them. The manager holds one storage at a time and
+ * picks it when a list is created, loaded or moved to another kind of file.
+ *
+ * @author Nirvan Reddy Anumandla
+ */
+interface IssueStorage {
+
+	/**
+	 * Gets all issues of the list.
+	 *
+	 * @return The issues, in list order.
+	 */
+	List<Issue> getIssues();
+
+	/**
+	 * Gets the issues of one type.
+	 *
+	 * @param issueType The issue type.
+	 * @return The issues of that type, in list order.
+	 */
+	List<Issue> getIssuesByType(String issueType);
+
+	/**
+	 * Gets the issues that match all of the given field values. A null value
+	 * matches any issue; an empty owner or resolution matches the issues that
+	 * have none.
+	 *
+	 * @param state      The state name, or null.
+	 * @param type       The issue type, or null.
+	 * @param owner      The owner, or null.
+	 * @param resolution The resolution, or null.
+	 * @return The matching issues, in list order.
+	 */
+	List<Issue> getIssuesMatching(String state, String type, String owner, String resolution);
+
+	/**
+	 * Iterates over the issues of the list without copying them all.
+	 *
+	 * @return An iterator over the issues, in list order.
+	 */
+	Iterator<Issue> iterator();
+
+	/**
+	 * Gets an issue by its id.
+	 *
+	 * @param id The id of the issue.
+	 * @return The issue, or null if there is none.
+	 */
+	Issue getIssueById(int id);
+
+	/**
+	 * Adds a new issue to the list.
+	 *
+	 * @param issueType The type of the issue.
+	 * @param summary   The summary of the issue.
+	 * @param note      The first note of the issue.
+	 * @return The id of the new issue.
+	 */
+	int addIssue(IssueType issueType, String summary, String note);
+
+	/**
+	 * Executes a command on an issue.
+	 *
+	 * @param id      The id of the issue.
+	 * @param command The command.
+	 */
+	void executeCommand(int id, Command command);
+
+	/**
+	 * Deletes an issue.
+	 *
+	 * @param id The id of the issue.
+	 */
+	void deleteIssueById(int id);
+
+	/**
+	 * Gets the list in memory. A storage that holds its list in memory
+	 * returns that list; one that keeps it on disk reads it into a new list.
+	 *
+	 * @return The list of issues.
+	 */
+	IssueList getIssueList();
+
+	/**
+	 * Gets the name of the file the list is kept in.
+	 *
+	 * @return The file name, or null if the list is not kept in a file yet.
+	 */
+	String getFileName();
+
+	/**
+	 * Saves the list. Saving under the name of the file the list is kept in
+	 * writes the changes made since the last save. Saving under another name
+	 * either moves the list to that file or exports it there, depending on
+	 * the storage; {@link #getFileName()} tells which.
+	 *
+	 * @param fileName The name of the file to save the list to.
+	 */
+	void save(String fileName);
+
+	/**
+	 * Takes what an autosave of the list writes. It is called while the
+	 * manager's lock is held, so it only copies the list.
+	 *
+	 * @return The autosave, or null if the storage records every change on
+	 *         disk already or has no file to write to.
+	 */
+	Autosave prepareAutosave();
+
+	/**
+	 * Checks whether the file the list is kept in can be watched for changes
+	 * made by other processes: a text file, with the list in memory and not
+	 * journaled.
+	 *
+	 * @return true if the file can be watched.
+	 */
+	boolean isWatchable();
+
+	/**
+	 * Tells the storage that another process changed its file, so records
+	 * can no longer be found where they were written.
+	 */
+	void fileChanged();
+
+	/**
+	 * Closes the files the storage holds open. The list itself is kept.
+	 */
+	void close();
+
+	/**
+	 * An autosave taken by {@link IssueStorage#prepareAutosave()}, written
+	 * after the manager's lock is released.
+	 */
+	interface Autosave {
+
+		/**
+		 * Encodes the copy of the list, without any lock held.
+		 */
+		void encode();
+
+		/**
+		 * Writes the encoded list, while the file lock is held.
+		 */
+		void write();
+
+		/**
+		 * Marks the changes the autosave was to write as unsaved again, after
+		 * it failed. Called while the manager's lock is held.
+		 */
+		void failed();
+
+		/**
+		 * Keeps what the autosave learned about the file it wrote, if the list
+		 * did not change while it was written. Called while the manager's lock
+		 * is held.
+		 */
+		void written();
+	}
+}
@@ -0,0 +1,172 @@
+package edu.ncsu.csc216.issue_manager.model.manager;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import edu.ncsu.csc216.issue_manager.model.command.Command;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue.IssueType;
+
+/**
+ * The ListStorage class is the base of the storages that hold their list of
+ * issues in memory, in an IssueList.
+ *
+ * @author Nirvan Reddy Anumandla
+ */
+abstract class ListStorage implements IssueStorage {
+	/** The list of issues */
+	protected final IssueList list;
+
+	/**
+	 * Constructs a storage holding a list.
+	 *
+	 * @param list The list of issues.
+	 */
+	protected ListStorage(IssueList list) {
+		this.list = list;
+	}
+
+	/**
+	 * Gets all issues of the list.
+	 *
+	 * @return The issues, in list order.
+	 */
+	@Override
+	public List<Issue> getIssues() {
+		return list.getIssues();
+	}
+
+	/**
+	 * Gets the issues of one type.
+	 *
+	 * @param issueType The issue type.
+	 * @return The issues of that type, in list order.
+	 */
+	@Override
+	public List<Issue> getIssuesByType(String issueType) {
+		return list.getIssuesByType(issueType);
+	}
+
+	/**
+	 * Gets the issues that match all of the given field values, from the
+	 * list's field indexes.
+	 *
+	 * @param state      The state name, or null.
+	 * @param type       The issue type, or null.
+	 * @param owner      The owner, or null.
+	 * @param resolution The resolution, or null.
+	 * @return The matching issues, in list order.
+	 */
+	@Override
+	public List<Issue> getIssuesMatching(String state, String type, String owner, String resolution) {
+		return list.getIssuesMatching(state, type, owner, resolution);
+	}
+
+	/**
+	 * Iterates over the issues of the list.
+	 *
+	 * @return An iterator over the issues, in list order.
+	 */
+	@Override
+	public Iterator<Issue> iterator() {
+		return list.getIssues().iterator();
+	}
+
+	/**
+	 * Gets an issue by its id.
+	 *
+	 * @param id The id of the issue.
+	 * @return The issue, or null if there is none.
+	 */
+	@Override
+	public Issue getIssueById(int id) {
+		return list.getIssueById(id);
+	}
+
+	/**
+	 * Adds a new issue to the list.
+	 *
+	 * @param issueType The type of the issue.
+	 * @param summary   The summary of the issue.
+	 * @param note      The first note of the issue.
+	 * @return The id of the new issue.
+	 */
+	@Override
+	public int addIssue(IssueType issueType, String summary, String note) {
+		return list.addIssue(issueType, summary, note);
+	}
+
+	/**
+	 * Executes a command on an issue.
+	 *
+	 * @param id      The id of the issue.
+	 * @param command The command.
+	 */
+	@Override
+	public void executeCommand(int id, Command command) {
+		list.executeCommand(id, command);
+	}
+
+	/**
+	 * Deletes an issue.
+	 *
+	 * @param id The id of the issue.
+	 */
+	@Override
+	public void deleteIssueById(int id) {
+		list.deleteIssueById(id);
+	}
+
+	/**
+	 * Gets the list the storage holds.
+	 *
+	 * @return The list of issues.
+	 */
+	@Override
+	public IssueList getIssueList() {
+		return list;
+	}
+
+	/**
+	 * Checks whether the file the list is kept in can be watched.
+	 *
+	 * @return false, unless a storage says otherwise.
+	 */
+	@Override
+	public boolean isWatchable() {
+		return false;
+	}
+
+	/**
+	 * Does nothing, since nothing is known about the file's records.
+	 */
+	@Override
+	public void fileChanged() {
+		// nothing to forget
+	}
+
+	/**
+	 * Does nothing, since no file is held open.
+	 */
+	@Override
+	public void close() {
+		// nothing to close
+	}
+
+	/**
+	 * Copies the issues of the list, so an autosave can encode them after the
+	 * manager's lock is released. Notes still left in the file are shared
+	 * with the copy rather than read.
+	 *
+	 * @return The copies, in list order.
+	 */
+	protected List<Issue> snapshotIssues() {
+		List<Issue> issues = list.getIssues();
+		List<Issue> snapshot = new ArrayList<>(issues.size());
+		for (Issue issue : issues) {
+			snapshot.add(issue.snapshot());
+		}
+		return snapshot;
+	}
+}
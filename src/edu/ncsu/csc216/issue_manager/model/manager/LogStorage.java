@@ -0,0 +1,149 @@
+package edu.ncsu.csc216.issue_manager.model.manager;
+
+import java.util.List;
+
+import edu.ncsu.csc216.issue_manager.model.command.Command;
+import edu.ncsu.csc216.issue_manager.model.io.IssueStore;
+import edu.ncsu.csc216.issue_manager.model.io.IssueWriter;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue.IssueType;
+
+/**
+ * The LogStorage class keeps a list of issues in an IssueStore. Every change
+ * is appended to the store's log, so the list is never rewritten in full
+ * while it is being changed.
+ *
+ * @author Nirvan Reddy Anumandla
+ */
+final class LogStorage extends ListStorage {
+	/** The store the list is persisted to */
+	private final IssueStore store;
+
+	/**
+	 * Constructs a storage for a list kept in a store.
+	 *
+	 * @param list  The list of issues.
+	 * @param store The store.
+	 */
+	private LogStorage(IssueList list, IssueStore store) {
+		super(list);
+		this.store = store;
+	}
+
+	/**
+	 * Opens an existing store and recovers its list.
+	 *
+	 * @param baseName   The name the store's files are named after.
+	 * @param maxLogSize The log segment size in bytes that starts a compaction.
+	 * @return The storage holding the recovered list.
+	 */
+	static LogStorage open(String baseName, long maxLogSize) {
+		IssueList recovered = new IssueList();
+		IssueStore store = IssueStore.open(baseName, maxLogSize, recovered);
+		recovered.clearChanges();
+		return new LogStorage(recovered, store);
+	}
+
+	/**
+	 * Creates a store holding a list.
+	 *
+	 * @param baseName   The name the store's files are named after.
+	 * @param maxLogSize The log segment size in bytes that starts a compaction.
+	 * @param list       The list of issues.
+	 * @return The storage holding the list.
+	 */
+	static LogStorage create(String baseName, long maxLogSize, IssueList list) {
+		IssueStore store = IssueStore.create(baseName, maxLogSize, list.getIssues());
+		list.clearChanges();
+		return new LogStorage(list, store);
+	}
+
+	/**
+	 * Gets the log segments recovery could not replay.
+	 *
+	 * @return The names the segments were moved to.
+	 */
+	List<String> getSkippedSegments() {
+		return store.getSkippedSegments();
+	}
+
+	/**
+	 * Adds a new issue to the list and to the log.
+	 *
+	 * @param issueType The type of the issue.
+	 * @param summary   The summary of the issue.
+	 * @param note      The first note of the issue.
+	 * @return The id of the new issue.
+	 */
+	@Override
+	public int addIssue(IssueType issueType, String summary, String note) {
+		int id = super.addIssue(issueType, summary, note);
+		store.appendAdd(id, issueType, summary, note);
+		return id;
+	}
+
+	/**
+	 * Executes a command on an issue, recording it in the log first.
+	 *
+	 * @param id      The id of the issue.
+	 * @param command The command.
+	 */
+	@Override
+	public void executeCommand(int id, Command command) {
+		store.appendCommand(id, command);
+		super.executeCommand(id, command);
+	}
+
+	/**
+	 * Deletes an issue, recording it in the log first.
+	 *
+	 * @param id The id of the issue.
+	 */
+	@Override
+	public void deleteIssueById(int id) {
+		store.appendDelete(id);
+		super.deleteIssueById(id);
+	}
+
+	/**
+	 * Gets the name the store's files are named after.
+	 *
+	 * @return The store's base name.
+	 */
+	@Override
+	public String getFileName() {
+		return store.getBaseName();
+	}
+
+	/**
+	 * Saves the list. Saving under the store's name only forces its log to
+	 * disk; saving under any other name exports the list as a text file.
+	 *
+	 * @param fileName The name of the file to save the list to.
+	 */
+	@Override
+	public void save(String fileName) {
+		if (fileName.equals(store.getBaseName())) {
+			store.sync();
+		} else {
+			IssueWriter.writeIssuesToFile(fileName, list.getIssues());
+		}
+	}
+
+	/**
+	 * Returns null, since the log records every change already.
+	 *
+	 * @return null.
+	 */
+	@Override
+	public Autosave prepareAutosave() {
+		return null;
+	}
+
+	/**
+	 * Closes the store after its running compaction finishes.
+	 */
+	@Override
+	public void close() {
+		store.close();
+	}
+}
@@ -0,0 +1,256 @@
+package edu.ncsu.csc216.issue_manager.model.manager;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import edu.ncsu.csc216.issue_manager.model.command.Command;
+import edu.ncsu.csc216.issue_manager.model.io.IssuePageStore;
+import edu.ncsu.csc216.issue_manager.model.io.IssueWriter;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue.IssueType;
+
+/**
+ * The PageStorage class keeps a list of issues in an IssuePageStore, so the
+ * list does not have to fit in memory. Every change is made in the store's
+ * B+tree on disk.
+ *
+ * @author Nirvan Reddy Anumandla
+ */
+final class PageStorage implements IssueStorage {
+	/** The page store the list is kept in */
+	private final IssuePageStore pageStore;
+
+	/**
+	 * Constructs a storage for a list kept in a page store.
+	 *
+	 * @param pageStore The page store.
+	 */
+	PageStorage(IssuePageStore pageStore) {
+		this.pageStore = pageStore;
+	}
+
+	/**
+	 * Gets all issues of the store.
+	 *
+	 * @return The issues, in id order.
+	 */
+	@Override
+	public List<Issue> getIssues() {
+		return pageStore.getIssues();
+	}
+
+	/**
+	 * Gets the issues of one type.
+	 *
+	 * @param issueType The issue type.
+	 * @return The issues of that type, in id order.
+	 */
+	@Override
+	public List<Issue> getIssuesByType(String issueType) {
+		return pageStore.getIssuesByType(issueType);
+	}
+
+	/**
+	 * Gets the issues that match all of the given field values, by scanning
+	 * the issues of the type asked for.
+	 *
+	 * @param state      The state name, or null.
+	 * @param type       The issue type, or null.
+	 * @param owner      The owner, or null.
+	 * @param resolution The resolution, or null.
+	 * @return The matching issues, in id order.
+	 */
+	@Override
+	public List<Issue> getIssuesMatching(String state, String type, String owner, String resolution) {
+		List<Issue> matches = new ArrayList<>();
+		for (Iterator<Issue> it = pageStore.iterator(type); it.hasNext();) {
+			Issue issue = it.next();
+			if (matches(state, issue.getStateName()) && matches(owner, issue.getOwner())
+					&& matches(resolution, issue.getResolution())) {
+				matches.add(issue);
+			}
+		}
+		return matches;
+	}
+
+	/**
+	 * Checks a field value against a filter of getIssuesMatching.
+	 *
+	 * @param filter The value asked for, or null for any.
+	 * @param value  The value of the issue, or null for none.
+	 * @return true if the value matches.
+	 */
+	private static boolean matches(String filter, String value) {
+		return filter == null || filter.equals(value == null ? "" : value);
+	}
+
+	/**
+	 * Iterates over the issues of the store, reading them page by page.
+	 *
+	 * @return An iterator over the issues, in id order.
+	 */
+	@Override
+	public Iterator<Issue> iterator() {
+		return pageStore.iterator(null);
+	}
+
+	/**
+	 * Gets an issue by its id.
+	 *
+	 * @param id The id of the issue.
+	 * @return The issue, or null if there is none.
+	 */
+	@Override
+	public Issue getIssueById(int id) {
+		return pageStore.getIssueById(id);
+	}
+
+	/**
+	 * Adds a new issue to the store.
+	 *
+	 * @param issueType The type of the issue.
+	 * @param summary   The summary of the issue.
+	 * @param note      The first note of the issue.
+	 * @return The id of the new issue.
+	 */
+	@Override
+	public int addIssue(IssueType issueType, String summary, String note) {
+		int id = pageStore.nextIssueId();
+		pageStore.addIssue(new Issue(id, issueType, summary, note));
+		return id;
+	}
+
+	/**
+	 * Executes a command on an issue in the store.
+	 *
+	 * @param id      The id of the issue.
+	 * @param command The command.
+	 */
+	@Override
+	public void executeCommand(int id, Command command) {
+		pageStore.executeCommand(id, command);
+	}
+
+	/**
+	 * Deletes an issue from the store.
+	 *
+	 * @param id The id of the issue.
+	 */
+	@Override
+	public void deleteIssueById(int id) {
+		pageStore.deleteIssueById(id);
+	}
+
+	/**
+	 * Reads the issues of the store into a new list.
+	 *
+	 * @return The list of issues.
+	 */
+	@Override
+	public IssueList getIssueList() {
+		IssueList list = new IssueList();
+		list.addIssues(pageStore.getIssues());
+		list.clearChanges();
+		return list;
+	}
+
+	/**
+	 * Gets the name of the page store file.
+	 *
+	 * @return The file name.
+	 */
+	@Override
+	public String getFileName() {
+		return pageStore.getFileName();
+	}
+
+	/**
+	 * Saves the list. Saving under the store's name syncs the store; saving
+	 * under any other name exports the list as a text file.
+	 *
+	 * @param fileName The name of the file to save the list to.
+	 */
+	@Override
+	public void save(String fileName) {
+		if (fileName.equals(pageStore.getFileName())) {
+			pageStore.sync();
+		} else {
+			IssueWriter.writeIssuesToFile(fileName, pageStore.getIssues());
+		}
+	}
+
+	/**
+	 * Takes an autosave that syncs the store.
+	 *
+	 * @return The autosave.
+	 */
+	@Override
+	public Autosave prepareAutosave() {
+		return new SyncAutosave();
+	}
+
+	/**
+	 * Returns false, since a page store is not a text file.
+	 *
+	 * @return false.
+	 */
+	@Override
+	public boolean isWatchable() {
+		return false;
+	}
+
+	/**
+	 * Does nothing, since a page store is never watched.
+	 */
+	@Override
+	public void fileChanged() {
+		// page stores are not watched
+	}
+
+	/**
+	 * Closes the page store.
+	 */
+	@Override
+	public void close() {
+		pageStore.close();
+	}
+
+	/**
+	 * An autosave that syncs the store, which writes its dirty pages.
+	 */
+	private final class SyncAutosave implements Autosave {
+
+		/**
+		 * Does nothing, since the pages are already encoded.
+		 */
+		@Override
+		public void encode() {
+			// the pages are already encoded
+		}
+
+		/**
+		 * Syncs the store.
+		 */
+		@Override
+		public void write() {
+			pageStore.sync();
+		}
+
+		/**
+		 * Does nothing, since the dirty pages stay dirty.
+		 */
+		@Override
+		public void failed() {
+			// the dirty pages stay dirty
+		}
+
+		/**
+		 * Does nothing, since the store needs nothing more.
+		 */
+		@Override
+		public void written() {
+			// the store is up to date
+		}
+	}
+}
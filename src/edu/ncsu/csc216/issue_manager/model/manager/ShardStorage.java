@@ -0,0 +1,203 @@
+package edu.ncsu.csc216.issue_manager.model.manager;
+
+import java.nio.ByteBuffer;
+import java.util.BitSet;
+import java.util.List;
+
+import edu.ncsu.csc216.issue_manager.model.command.Command;
+import edu.ncsu.csc216.issue_manager.model.io.IssueShards;
+import edu.ncsu.csc216.issue_manager.model.io.IssueWriter;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue.IssueType;
+
+/**
+ * The ShardStorage class keeps a list of issues in a manifest and shard files,
+ * see IssueShards. Each change marks the shard of the changed issue, so a save
+ * only rewrites the shards that changed.
+ *
+ * @author Nirvan Reddy Anumandla
+ */
+final class ShardStorage extends ListStorage {
+	/** The name of the manifest */
+	private final String manifestName;
+	/** Number of shard files the list is split into */
+	private final int shardCount;
+	/** The shards holding issues that changed since the shards were last written */
+	private final BitSet dirtyShards = new BitSet();
+
+	/**
+	 * Constructs a storage for a list kept in shards.
+	 *
+	 * @param list         The list of issues.
+	 * @param manifestName The name of the manifest.
+	 * @param shardCount   The number of shards.
+	 */
+	private ShardStorage(IssueList list, String manifestName, int shardCount) {
+		super(list);
+		this.manifestName = manifestName;
+		this.shardCount = shardCount;
+	}
+
+	/**
+	 * Writes a list as a manifest and its shard files, in parallel.
+	 *
+	 * @param manifestName The name of the manifest.
+	 * @param list         The list of issues.
+	 * @param shardCount   The number of shards to split the list into.
+	 * @return The storage holding the list.
+	 */
+	static ShardStorage create(String manifestName, IssueList list, int shardCount) {
+		IssueShards.write(manifestName, list.getIssues(), shardCount, null);
+		list.clearChanges();
+		return new ShardStorage(list, manifestName, shardCount);
+	}
+
+	/**
+	 * Loads the issues of all shards of a manifest, in parallel.
+	 *
+	 * @param manifestName The name of the manifest.
+	 * @return The storage holding the loaded list.
+	 */
+	static ShardStorage load(String manifestName) {
+		int count = IssueShards.readShardCount(manifestName);
+		IssueList list = new IssueList();
+		list.addIssues(IssueShards.read(manifestName));
+		list.clearChanges();
+		return new ShardStorage(list, manifestName, count);
+	}
+
+	/**
+	 * Adds a new issue to the list and marks its shard.
+	 *
+	 * @param issueType The type of the issue.
+	 * @param summary   The summary of the issue.
+	 * @param note      The first note of the issue.
+	 * @return The id of the new issue.
+	 */
+	@Override
+	public int addIssue(IssueType issueType, String summary, String note) {
+		int id = super.addIssue(issueType, summary, note);
+		dirtyShards.set(IssueShards.shardOf(id, shardCount));
+		return id;
+	}
+
+	/**
+	 * Executes a command on an issue and marks its shard.
+	 *
+	 * @param id      The id of the issue.
+	 * @param command The command.
+	 */
+	@Override
+	public void executeCommand(int id, Command command) {
+		super.executeCommand(id, command);
+		dirtyShards.set(IssueShards.shardOf(id, shardCount));
+	}
+
+	/**
+	 * Deletes an issue and marks its shard.
+	 *
+	 * @param id The id of the issue.
+	 */
+	@Override
+	public void deleteIssueById(int id) {
+		super.deleteIssueById(id);
+		dirtyShards.set(IssueShards.shardOf(id, shardCount));
+	}
+
+	/**
+	 * Gets the name of the manifest.
+	 *
+	 * @return The manifest's name.
+	 */
+	@Override
+	public String getFileName() {
+		return manifestName;
+	}
+
+	/**
+	 * Saves the list. Saving under the manifest's name rewrites the shards
+	 * that changed; saving under any other name exports the list as a text
+	 * file.
+	 *
+	 * @param fileName The name of the file to save the list to.
+	 */
+	@Override
+	public void save(String fileName) {
+		if (!fileName.equals(manifestName)) {
+			IssueWriter.writeIssuesToFile(fileName, list.getIssues());
+			return;
+		}
+		IssueShards.write(manifestName, list.getIssues(), shardCount, dirtyShards);
+		dirtyShards.clear();
+		list.clearChanges();
+	}
+
+	/**
+	 * Takes a copy of the list and of the shards that changed.
+	 *
+	 * @return The autosave.
+	 */
+	@Override
+	public Autosave prepareAutosave() {
+		BitSet written = (BitSet) dirtyShards.clone();
+		dirtyShards.clear();
+		List<Issue> snapshot = snapshotIssues();
+		list.clearChanges();
+		return new ShardAutosave(snapshot, written);
+	}
+
+	/**
+	 * A copy of the list whose changed shards are rewritten.
+	 */
+	private final class ShardAutosave implements Autosave {
+		/** The copy of the issues */
+		private final List<Issue> issues;
+		/** The shards to rewrite */
+		private final BitSet written;
+		/** The encoded shards, with null for the ones left as they are */
+		private ByteBuffer[] encoded;
+
+		/**
+		 * Constructs an autosave of a copy of the list.
+		 *
+		 * @param issues  The copy of the issues.
+		 * @param written The shards to rewrite.
+		 */
+		private ShardAutosave(List<Issue> issues, BitSet written) {
+			this.issues = issues;
+			this.written = written;
+		}
+
+		/**
+		 * Encodes the shards to rewrite.
+		 */
+		@Override
+		public void encode() {
+			encoded = IssueShards.encode(issues, shardCount, written);
+		}
+
+		/**
+		 * Writes the encoded shards and the manifest.
+		 */
+		@Override
+		public void write() {
+			IssueShards.writeEncoded(manifestName, encoded);
+		}
+
+		/**
+		 * Marks the shards that were to be rewritten as changed again.
+		 */
+		@Override
+		public void failed() {
+			dirtyShards.or(written);
+		}
+
+		/**
+		 * Does nothing, since the shards need nothing more.
+		 */
+		@Override
+		public void written() {
+			// the shards are up to date
+		}
+	}
+}
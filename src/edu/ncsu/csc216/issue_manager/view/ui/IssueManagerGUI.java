@@ -10,6 +10,7 @@ import java.awt.GridLayout;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.io.File;
+import java.util.concurrent.ExecutionException;
 
 import javax.swing.BorderFactory;
 import javax.swing.JButton;
@@ -27,6 +28,8 @@ import javax.swing.JTable;
 import javax.swing.JTextArea;
 import javax.swing.JTextField;
 import javax.swing.ListSelectionModel;
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
 import javax.swing.border.Border;
 import javax.swing.border.EtchedBorder;
 import javax.swing.border.TitledBorder;
@@ -62,6 +65,10 @@ public class IssueManagerGUI extends JFrame implements ActionListener {
 	private static final String SAVE_TITLE = "Save";
 	/** Text for the Quit menu item. */
 	private static final String QUIT_TITLE = "Quit";
+	/** Milliseconds between background saves of the issue list. */
+	private static final long AUTOSAVE_INTERVAL = 30000;
+	/** Number of changes that starts a background save of the issue list. */
+	private static final int AUTOSAVE_CHANGES = 100;
 	/** Menu bar for the GUI that contains Menus. */
 	private JMenuBar menuBar;
 	/** Menu for the GUI. */
@@ -122,6 +129,7 @@ public class IssueManagerGUI extends JFrame implements ActionListener {
 		setTitle(APP_TITLE);
 		setDefaultCloseOperation(EXIT_ON_CLOSE);
 		setUpMenuBar();
+		IssueManager.getInstance().startAutosave(AUTOSAVE_INTERVAL, AUTOSAVE_CHANGES);
 		
 		//Create JPanel that will hold rest of GUI information.
 		//The JPanel utilizes a CardLayout, which stack several different
@@ -194,6 +202,13 @@ public class IssueManagerGUI extends JFrame implements ActionListener {
 			//Load an existing issue list
 			try {
 				model.loadIssuesFromFile(getFileName(true));
+				try {
+					//Pick up changes other processes make to the file
+					model.startWatching((added, updated, deleted) ->
+							SwingUtilities.invokeLater(pnlIssueList::refreshTable));
+				} catch (IllegalArgumentException exp) {
+					//Only plain text issue files can be watched
+				}
 				itemSaveIssueList.setEnabled(true);
 				pnlIssueList.updateTable(null);
 				cardLayout.show(panel, ISSUE_LIST_PANEL);
@@ -207,24 +222,54 @@ public class IssueManagerGUI extends JFrame implements ActionListener {
 		} else if (e.getSource() == itemSaveIssueList) {
 			//Save current issue list
 			try {
-				model.saveIssuesToFile(getFileName(false));
-			} catch (IllegalArgumentException exp) {
-				JOptionPane.showMessageDialog(this, exp.getMessage());
+				saveInBackground(getFileName(false), false);
 			} catch (IllegalStateException exp) {
 				//Don't do anything - user canceled (or error)
 			}
 		} else if (e.getSource() == itemQuit) {
 			//Quit the program
 			try {
-				model.saveIssuesToFile(getFileName(false));
-				System.exit(0);  //Ignore SpotBugs warning here - this is the only place to quit the program!
-			} catch (IllegalArgumentException exp) {
-				JOptionPane.showMessageDialog(this, exp.getMessage());
+				saveInBackground(getFileName(false), true);
 			} catch (IllegalStateException exp) {
 				//Don't do anything - user canceled (or error)
 			}
 		}
 	}
+
+	/**
+	 * Saves the issue list on a background thread, so the window stays
+	 * responsive while the file is written. Saving is disabled until the save
+	 * finishes, and any error is shown once it has.
+	 * @param fileName the file to save the issue list to
+	 * @param quit true to quit the program once the list is saved
+	 */
+	private void saveInBackground(String fileName, boolean quit) {
+		itemSaveIssueList.setEnabled(false);
+		itemQuit.setEnabled(false);
+		new SwingWorker<Void, Void>() {
+			@Override
+			protected Void doInBackground() {
+				IssueManager.getInstance().saveIssuesToFile(fileName);
+				return null;
+			}
+
+			@Override
+			protected void done() {
+				itemSaveIssueList.setEnabled(true);
+				itemQuit.setEnabled(true);
+				try {
+					get();
+					if (quit) {
+						System.exit(0);  //Ignore SpotBugs warning here - this is the only place to quit the program!
+					}
+				} catch (ExecutionException exp) {
+					JOptionPane.showMessageDialog(IssueManagerGUI.this, exp.getCause().getMessage());
+				} catch (InterruptedException exp) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}.execute();
+	}
 	
 	/**
 	 * Returns a file name generated through interactions with a JFileChooser
@@ -282,6 +327,8 @@ public class IssueManagerGUI extends JFrame implements ActionListener {
 		private JTable issuesTable;
 		/** TableModel for Issues */
 		private IssueTableModel issueTableModel;
+		/** Issue type the table is filtered by, or null if all issues are listed */
+		private IssueType filter;
 		
 		/**
 		 * Creates the issue list.
@@ -397,6 +444,7 @@ public class IssueManagerGUI extends JFrame implements ActionListener {
 		}
 		
 		public void updateTable(IssueType issueType) {
+			filter = issueType;
 			if (issueType == null) {
 				issueTableModel.updateIssueData();
 			} else {
@@ -404,6 +452,22 @@ public class IssueManagerGUI extends JFrame implements ActionListener {
 			}
 		}
 		
+		/**
+		 * Updates the table with the current issues, keeping its filter and
+		 * the selected issue, if it is still listed.
+		 */
+		public void refreshTable() {
+			int row = issuesTable.getSelectedRow();
+			Object selected = row >= 0 && row < issueTableModel.getRowCount() ? issueTableModel.getValueAt(row, 0) : null;
+			updateTable(filter);
+			issueTableModel.fireTableDataChanged();
+			for (int i = 0; selected != null && i < issueTableModel.getRowCount(); i++) {
+				if (selected.equals(issueTableModel.getValueAt(i, 0))) {
+					issuesTable.setRowSelectionInterval(i, i);
+				}
+			}
+		}
+		
 		/**
 		 * IssueTableModel is the object underlying the JTable object that displays
 		 * the list of Issues to the user.
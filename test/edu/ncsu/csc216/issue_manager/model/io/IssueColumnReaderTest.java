@@ -0,0 +1,102 @@
+package edu.ncsu.csc216.issue_manager.model.io;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import edu.ncsu.csc216.issue_manager.model.command.Command;
+import edu.ncsu.csc216.issue_manager.model.command.Command.CommandValue;
+import edu.ncsu.csc216.issue_manager.model.io.IssueColumnReader.Column;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue.IssueType;
+
+/**
+ * Tests IssueColumnReader
+ *
+ * @author Nirvan Reddy Anumandla
+ */
+public class IssueColumnReaderTest {
+	/** Name of the file used by the tests. */
+	private static final String FILE = "test-files/actual_column_issues.isc";
+
+	/**
+	 * Removes the file written by a test.
+	 */
+	@AfterEach
+	public void tearDown() {
+		new File(FILE).delete();
+	}
+
+	/**
+	 * Tests that issues written to a columnar file are read back unchanged.
+	 */
+	@Test
+	public void testReadIssues() {
+		List<Issue> issues = issues();
+		IssueWriter.writeIssuesToColumnFile(FILE, issues);
+		try (IssueColumnReader reader = IssueReader.openColumnFile(FILE)) {
+			assertEquals(issues.size(), reader.size());
+			List<Issue> read = reader.readIssues();
+			assertEquals(issues.size(), read.size());
+			for (int i = 0; i < issues.size(); i++) {
+				assertEquals(issues.get(i).toString(), read.get(i).toString());
+				assertEquals(issues.get(i).getOwner(), read.get(i).getOwner());
+				assertEquals(issues.get(i).getResolution(), read.get(i).getResolution());
+			}
+		}
+	}
+
+	/**
+	 * Tests that reading a column reads only its bytes, and that dictionary
+	 * columns can be read as codes.
+	 */
+	@Test
+	public void testReadColumns() {
+		List<Issue> issues = issues();
+		IssueWriter.writeIssuesToColumnFile(FILE, issues);
+		long fileLength = new File(FILE).length();
+		try (IssueColumnReader reader = IssueReader.openColumnFile(FILE)) {
+			String[] states = reader.readStrings(Column.STATE);
+			assertEquals(Issue.NEW_NAME, states[0]);
+			assertEquals(Issue.WORKING_NAME, states[1]);
+			assertTrue(reader.getBytesRead() < fileLength / 10);
+
+			String[] dictionary = reader.readDictionary(Column.OWNER);
+			int[] codes = reader.readCodes(Column.OWNER);
+			assertEquals(2, dictionary.length);
+			assertEquals("", dictionary[codes[0]]);
+			assertEquals("owner", dictionary[codes[1]]);
+			assertEquals(issues.get(2).getNotes(), reader.readNotes().get(2));
+			assertThrows(IllegalArgumentException.class, () -> reader.readCodes(Column.SUMMARY));
+		}
+		assertThrows(IllegalArgumentException.class,
+				() -> IssueReader.openColumnFile("test-files/issue1.txt"));
+	}
+
+	/**
+	 * Creates issues with long notes, every other one being worked on.
+	 *
+	 * @return The issues.
+	 */
+	private static List<Issue> issues() {
+		List<Issue> issues = new ArrayList<>();
+		StringBuilder note = new StringBuilder();
+		for (int i = 0; i < 20; i++) {
+			note.append("A long note about the issue. ");
+		}
+		for (int id = 1; id <= 200; id++) {
+			Issue issue = new Issue(id, id % 3 == 0 ? IssueType.BUG : IssueType.ENHANCEMENT, "Summary " + id,
+					note + "" + id);
+			if (id % 2 == 0) {
+				issue.update(new Command(CommandValue.ASSIGN, "owner", null, "Assigned"));
+			}
+			issues.add(issue);
+		}
+		return issues;
+	}
+}
@@ -0,0 +1,68 @@
+package edu.ncsu.csc216.issue_manager.model.io;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import edu.ncsu.csc216.issue_manager.model.command.Command;
+import edu.ncsu.csc216.issue_manager.model.command.Command.CommandValue;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue.IssueType;
+
+/**
+ * Tests IssueFileDiff
+ *
+ * @author Nirvan Reddy Anumandla
+ */
+public class IssueFileDiffTest {
+	/** Name of the file used by the tests. */
+	private static final String FILE = "test-files/actual_diff_issues.txt";
+
+	/**
+	 * Removes the file written by a test.
+	 */
+	@AfterEach
+	public void tearDown() {
+		new File(FILE).delete();
+	}
+
+	/**
+	 * Tests that an update reports exactly the added, changed and removed
+	 * issues, and nothing once the file is unchanged.
+	 */
+	@Test
+	public void testUpdate() {
+		List<Issue> issues = new ArrayList<>();
+		for (int id = 1; id <= 100; id++) {
+			issues.add(new Issue(id, IssueType.ENHANCEMENT, "Summary " + id, "Note " + id));
+		}
+		IssueWriter.writeIssuesToFile(FILE, issues);
+		IssueFileDiff diff = new IssueFileDiff(FILE);
+		assertEquals(100, diff.getRecordCount());
+		assertTrue(diff.update().isEmpty());
+
+		issues.get(41).update(new Command(CommandValue.ASSIGN, "owner", null, "Assigned"));
+		issues.remove(9);
+		issues.add(new Issue(101, IssueType.BUG, "Summary 101", "Note 101"));
+		IssueWriter.writeIssuesToFile(FILE, issues);
+
+		IssueFileDiff.Changes changes = diff.update();
+		assertEquals(2, changes.getChangedIssues().size());
+		for (Issue issue : changes.getChangedIssues()) {
+			if (issue.getIssueId() == 42) {
+				assertEquals("owner", issue.getOwner());
+			} else {
+				assertEquals(101, issue.getIssueId());
+			}
+		}
+		assertEquals(1, changes.getDeletedIds().size());
+		assertTrue(changes.getDeletedIds().contains(10));
+		assertEquals(100, diff.getRecordCount());
+		assertTrue(diff.update().isEmpty());
+	}
+}
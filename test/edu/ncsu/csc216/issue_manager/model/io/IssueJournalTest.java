@@ -0,0 +1,105 @@
+package edu.ncsu.csc216.issue_manager.model.io;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import edu.ncsu.csc216.issue_manager.model.command.Command;
+import edu.ncsu.csc216.issue_manager.model.command.Command.CommandValue;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue.IssueType;
+import edu.ncsu.csc216.issue_manager.model.manager.IssueList;
+
+/**
+ * Tests IssueJournal
+ * 
+ * @author Nirvan Reddy Anumandla
+ */
+public class IssueJournalTest {
+	/** Snapshot file used by the tests. */
+	private static final String SNAPSHOT = "test-files/journal_issues.txt";
+
+	/**
+	 * Removes the files written by a test.
+	 */
+	@AfterEach
+	public void tearDown() {
+		new File(SNAPSHOT).delete();
+		new File(SNAPSHOT + IssueJournal.EXTENSION).delete();
+	}
+
+	/**
+	 * Tests appending to a journal and replaying it onto the snapshot.
+	 */
+	@Test
+	public void testReplay() throws Exception {
+		IssueWriter.writeIssuesToFile(SNAPSHOT, new ArrayList<Issue>());
+		try (IssueJournal journal = new IssueJournal(SNAPSHOT, 0)) {
+			journal.appendAdd(1, IssueType.BUG, "Bug 1", "Note 1");
+			journal.appendAdd(2, IssueType.ENHANCEMENT, "Enhancement 1", "Note 2");
+			journal.appendCommand(1, new Command(CommandValue.CONFIRM, null, null, "Confirmed"));
+			journal.appendDelete(2);
+		}
+
+		IssueList list = new IssueList();
+		long length = IssueJournal.replay(SNAPSHOT, list);
+		assertEquals(new File(SNAPSHOT + IssueJournal.EXTENSION).length(), length);
+		assertEquals(1, list.getIssues().size());
+		assertEquals("Confirmed", list.getIssueById(1).getStateName());
+
+		// a torn record at the end is discarded
+		try (RandomAccessFile raf = new RandomAccessFile(SNAPSHOT + IssueJournal.EXTENSION, "rw")) {
+			raf.setLength(length - 1);
+		}
+		list = new IssueList();
+		assertTrue(IssueJournal.replay(SNAPSHOT, list) < length);
+		assertEquals(2, list.getIssues().size());
+		assertEquals("Confirmed", list.getIssueById(1).getStateName());
+	}
+
+	/**
+	 * Tests that a journal is ignored once its snapshot has been rewritten.
+	 */
+	@Test
+	public void testStaleJournal() throws Exception {
+		IssueWriter.writeIssuesToFile(SNAPSHOT, new ArrayList<Issue>());
+		try (IssueJournal journal = new IssueJournal(SNAPSHOT, 0)) {
+			journal.appendAdd(1, IssueType.BUG, "Bug 1", "Note 1");
+		}
+		ArrayList<Issue> issues = new ArrayList<>();
+		issues.add(new Issue(1, IssueType.BUG, "Bug 1", "Note 1"));
+		IssueWriter.writeIssuesToFile(SNAPSHOT, issues);
+
+		IssueList list = new IssueList();
+		assertEquals(0, IssueJournal.replay(SNAPSHOT, list));
+		assertEquals(0, list.getIssues().size());
+	}
+
+	/**
+	 * Tests that a journal is ignored once its snapshot is replaced by another
+	 * of the same length and modification time.
+	 */
+	@Test
+	public void testJournalOfReplacedSnapshot() throws Exception {
+		ArrayList<Issue> issues = new ArrayList<>();
+		issues.add(new Issue(1, IssueType.BUG, "Bug 1", "Note 1"));
+		IssueWriter.writeIssuesToFile(SNAPSHOT, issues);
+		long modified = new File(SNAPSHOT).lastModified();
+		try (IssueJournal journal = new IssueJournal(SNAPSHOT, 0)) {
+			journal.appendDelete(1);
+		}
+		issues.set(0, new Issue(1, IssueType.BUG, "Bug 2", "Note 2"));
+		IssueWriter.writeIssuesToFile(SNAPSHOT, issues);
+		assertTrue(new File(SNAPSHOT).setLastModified(modified));
+
+		IssueList list = new IssueList();
+		list.addIssues(IssueReader.readIssuesFromFile(SNAPSHOT));
+		assertEquals(0, IssueJournal.replay(SNAPSHOT, list));
+		assertEquals("Bug 2", list.getIssueById(1).getSummary());
+	}
+}
@@ -0,0 +1,178 @@
+package edu.ncsu.csc216.issue_manager.model.io;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import edu.ncsu.csc216.issue_manager.model.command.Command;
+import edu.ncsu.csc216.issue_manager.model.command.Command.CommandValue;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue.IssueType;
+
+/**
+ * Tests IssuePageStore
+ *
+ * @author Nirvan Reddy Anumandla
+ */
+public class IssuePageStoreTest {
+	/** Name of the page store used by the tests. */
+	private static final String STORE = "test-files/page_store_issues";
+	/** Name of the copy of the page store taken as if the process crashed. */
+	private static final String CRASHED = "test-files/page_store_crashed";
+
+	/**
+	 * Removes the files written by a test.
+	 */
+	@AfterEach
+	public void tearDown() {
+		new File(STORE).delete();
+		new File(STORE + IssuePageStore.LOG_EXTENSION).delete();
+		new File(CRASHED).delete();
+		new File(CRASHED + IssuePageStore.LOG_EXTENSION).delete();
+	}
+
+	/**
+	 * Tests adding, finding, changing and deleting issues in a store that is
+	 * much larger than its page cache.
+	 */
+	@Test
+	public void testOperations() {
+		List<Issue> issues = new ArrayList<>();
+		for (int id = 1; id <= 20000; id++) {
+			issues.add(new Issue(id, id % 3 == 0 ? IssueType.ENHANCEMENT : IssueType.BUG, "Summary " + id,
+					"Note " + id));
+		}
+		try (IssuePageStore store = IssuePageStore.create(STORE, 16, issues)) {
+			assertEquals(20000, store.size());
+			assertEquals(20001, store.nextIssueId());
+			assertTrue(store.getCachedPageCount() <= 16);
+		}
+		assertTrue(IssuePageStore.isPageStore(STORE));
+
+		try (IssuePageStore store = IssuePageStore.open(STORE, 16)) {
+			assertEquals("Summary 12345", store.getIssueById(12345).getSummary());
+			assertNull(store.getIssueById(20001));
+			store.executeCommand(12345, new Command(CommandValue.ASSIGN, "owner", null, "Assigned"));
+			store.deleteIssueById(2);
+			store.addIssue(new Issue(1, IssueType.BUG, "Duplicate", "Note"));
+			assertEquals(19999, store.size());
+			assertTrue(store.getCachedPageCount() <= 16);
+		}
+
+		try (IssuePageStore store = IssuePageStore.open(STORE, 16)) {
+			assertEquals("owner", store.getIssueById(12345).getOwner());
+			assertNull(store.getIssueById(2));
+			assertEquals("Summary 1", store.getIssueById(1).getSummary());
+			int count = 0;
+			int last = 0;
+			for (Iterator<Issue> it = store.iterator(Issue.I_ENHANCEMENT); it.hasNext();) {
+				Issue issue = it.next();
+				assertEquals(Issue.I_ENHANCEMENT, issue.getIssueType());
+				assertTrue(issue.getIssueId() > last);
+				last = issue.getIssueId();
+				count++;
+			}
+			assertEquals(6666, count);
+			assertEquals(19999, store.getIssues().size());
+		}
+	}
+
+	/**
+	 * Tests that records too long for a leaf are kept in overflow pages, and
+	 * that the pages of a deleted record are reused.
+	 */
+	@Test
+	public void testOverflow() {
+		StringBuilder note = new StringBuilder();
+		while (note.length() < 3 * IssuePageStore.PAGE_SIZE) {
+			note.append("A long note. ");
+		}
+		try (IssuePageStore store = IssuePageStore.create(STORE, 16, new ArrayList<Issue>())) {
+			store.addIssue(new Issue(1, IssueType.BUG, "Long", note.toString()));
+			store.addIssue(new Issue(2, IssueType.BUG, "Short", "Note"));
+		}
+		long length = new File(STORE).length();
+		try (IssuePageStore store = IssuePageStore.open(STORE, 16)) {
+			assertTrue(store.getIssueById(1).getNotes().get(0).contains(note.toString().trim()));
+			store.deleteIssueById(1);
+			store.addIssue(new Issue(3, IssueType.BUG, "Long", note.toString()));
+		}
+		assertEquals(length, new File(STORE).length());
+		try (IssuePageStore store = IssuePageStore.open(STORE, 16)) {
+			assertEquals(2, store.size());
+			assertEquals("Long", store.getIssueById(3).getSummary());
+		}
+	}
+
+	/**
+	 * Tests that a command that leaves an issue invalid is rejected and the
+	 * stored issue is kept as it was.
+	 */
+	@Test
+	public void testInvalidCommand() {
+		List<Issue> issues = new ArrayList<>();
+		issues.add(new Issue(1, IssueType.ENHANCEMENT, "Enhancement", "Note"));
+		try (IssuePageStore store = IssuePageStore.create(STORE, 16, issues)) {
+			Command confirm = new Command(CommandValue.CONFIRM, null, null, "Confirmed");
+			assertThrows(UnsupportedOperationException.class, () -> store.executeCommand(1, confirm));
+			assertEquals(Issue.NEW_NAME, store.getIssueById(1).getStateName());
+			assertEquals(1, store.getIssues().size());
+		}
+	}
+
+	/**
+	 * Tests that a store copied in the middle of a session, as a crash would
+	 * leave it, opens with the issues of its last sync, even though changed
+	 * pages were evicted from the cache after that sync.
+	 *
+	 * @throws IOException If the store cannot be copied.
+	 */
+	@Test
+	public void testCrashAfterSync() throws IOException {
+		List<Issue> issues = new ArrayList<>();
+		for (int id = 1; id <= 5000; id++) {
+			issues.add(new Issue(id, IssueType.BUG, "Summary " + id, "Note " + id));
+		}
+		IssuePageStore.create(STORE, 16, issues).close();
+		assertFalse(new File(STORE + IssuePageStore.LOG_EXTENSION).exists());
+
+		try (IssuePageStore store = IssuePageStore.open(STORE, 16)) {
+			store.deleteIssueById(1);
+			store.executeCommand(2500, new Command(CommandValue.CONFIRM, null, null, "Confirmed"));
+			store.sync();
+			for (int id = 2; id <= 5000; id += 2) {
+				store.deleteIssueById(id);
+			}
+			store.addIssue(new Issue(5001, IssueType.BUG, "Unsynced", "Note"));
+			assertTrue(new File(STORE + IssuePageStore.LOG_EXTENSION).length() > 0);
+			Files.copy(Paths.get(STORE), Paths.get(CRASHED), StandardCopyOption.REPLACE_EXISTING);
+			Files.copy(Paths.get(STORE + IssuePageStore.LOG_EXTENSION), Paths.get(CRASHED + IssuePageStore.LOG_EXTENSION),
+					StandardCopyOption.REPLACE_EXISTING);
+		}
+
+		try (IssuePageStore store = IssuePageStore.open(CRASHED, 16)) {
+			assertEquals(4999, store.size());
+			assertNull(store.getIssueById(1));
+			assertEquals(Issue.CONFIRMED_NAME, store.getIssueById(2500).getStateName());
+			assertEquals("Summary 4000", store.getIssueById(4000).getSummary());
+			assertNull(store.getIssueById(5001));
+			assertEquals(4999, store.getIssues().size());
+		}
+		assertFalse(new File(CRASHED + IssuePageStore.LOG_EXTENSION).exists());
+
+		try (IssuePageStore store = IssuePageStore.open(STORE, 16)) {
+			assertEquals(2500, store.size());
+			assertEquals("Unsynced", store.getIssueById(5001).getSummary());
+		}
+	}
+}
@@ -0,0 +1,128 @@
+package edu.ncsu.csc216.issue_manager.model.io;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import edu.ncsu.csc216.issue_manager.model.issue.Issue;
+
+/**
+ * Tests IssuePatch
+ *
+ * @author Nirvan Reddy Anumandla
+ */
+public class IssuePatchTest {
+	/** File patched by the tests. */
+	private static final String FILE = "test-files/patch_issues.txt";
+	/** Records of the file before it is patched. */
+	private static final String BEFORE = "*1,New,Bug,Bug 1,,false,\n-Note 1\n*2,New,Bug,Bug 2,,false,\n-Note 2\n";
+	/** Records of the file after it is patched. */
+	private static final String AFTER = "*1,New,Bug,Bug 1,,false,\n-Note 1\n*2,Confirmed,Bug,Bug 2,,true,\n"
+			+ "-Note 2\n-Confirmed\n";
+
+	/**
+	 * Removes the files written by a test.
+	 */
+	@AfterEach
+	public void tearDown() {
+		new File(FILE).delete();
+		new File(FILE + IssuePatch.EXTENSION).delete();
+	}
+
+	/**
+	 * Tests that applying a patch updates the file and removes the patch file.
+	 */
+	@Test
+	public void testApply() throws Exception {
+		Path target = write(BEFORE);
+		patch().apply(target, BEFORE.length(), AFTER.length());
+		assertEquals(AFTER, read());
+		assertFalse(new File(FILE + IssuePatch.EXTENSION).exists());
+	}
+
+	/**
+	 * Tests that a patch interrupted after it was saved is finished the next
+	 * time the file is read, even if the file was already partly written.
+	 */
+	@Test
+	public void testRecover() throws Exception {
+		Path target = write(BEFORE);
+		patch().save(target, BEFORE.length(), AFTER.length());
+		try (RandomAccessFile raf = new RandomAccessFile(FILE, "rw")) {
+			raf.seek(BEFORE.indexOf("*2") + 3);
+			raf.write("Conf".getBytes(StandardCharsets.US_ASCII));
+		}
+
+		ArrayList<Issue> issues = IssueReader.readIssuesFromFile(FILE);
+		assertEquals(2, issues.size());
+		assertEquals(Issue.CONFIRMED_NAME, issues.get(1).getStateName());
+		assertEquals(AFTER, read());
+		assertFalse(new File(FILE + IssuePatch.EXTENSION).exists());
+	}
+
+	/**
+	 * Tests that a patch file that was only partly written, or that belongs to
+	 * another version of the file, is discarded without touching the file.
+	 */
+	@Test
+	public void testRecoverDiscardsPatch() throws Exception {
+		Path target = write(BEFORE);
+		Path patchFile = patch().save(target, BEFORE.length(), AFTER.length());
+		try (RandomAccessFile raf = new RandomAccessFile(patchFile.toFile(), "rw")) {
+			raf.setLength(raf.length() - 1);
+		}
+		IssuePatch.recover(target);
+		assertEquals(BEFORE, read());
+		assertFalse(Files.exists(patchFile));
+
+		patch().save(target, BEFORE.length(), AFTER.length());
+		String other = BEFORE + "\n";
+		write(other);
+		IssuePatch.recover(target);
+		assertEquals(other, read());
+		assertFalse(Files.exists(patchFile));
+	}
+
+	/**
+	 * Creates the patch that turns BEFORE into AFTER.
+	 *
+	 * @return The patch.
+	 */
+	private static IssuePatch patch() {
+		IssuePatch patch = new IssuePatch();
+		int offset = BEFORE.indexOf("*2");
+		patch.add(offset, ByteBuffer.wrap(AFTER.substring(offset).getBytes(StandardCharsets.US_ASCII)));
+		return patch;
+	}
+
+	/**
+	 * Writes the file patched by the tests.
+	 *
+	 * @param contents The contents of the file.
+	 * @return The file.
+	 * @throws Exception If the file cannot be written.
+	 */
+	private static Path write(String contents) throws Exception {
+		return Files.write(Paths.get(FILE), contents.getBytes(StandardCharsets.US_ASCII));
+	}
+
+	/**
+	 * Reads the file patched by the tests.
+	 *
+	 * @return The contents of the file.
+	 * @throws Exception If the file cannot be read.
+	 */
+	private static String read() throws Exception {
+		return new String(Files.readAllBytes(Paths.get(FILE)), StandardCharsets.US_ASCII);
+	}
+}
@@ -1,14 +1,29 @@
 package edu.ncsu.csc216.issue_manager.model.io;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import edu.ncsu.csc216.issue_manager.model.issue.Issue;
 
 public class IssueReaderTest {
 
+    @AfterEach
+    void tearDown() {
+        File[] files = new File("test-files").listFiles((dir, name) -> name.startsWith("reader_"));
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+    }
+
     @Test
     void testReadIssuesFromFile() {
             ArrayList<Issue> issues = IssueReader.readIssuesFromFile("test-files/issue1.txt");
@@ -89,6 +104,231 @@ public class IssueReaderTest {
             assertEquals(notes5, issue5.getNotes());
     }
 
+    @Test
+    void testReadIssuesFromMappedFile() {
+            ArrayList<Issue> expected = IssueReader.readIssuesFromFile("test-files/issue2.txt");
+            ArrayList<Issue> issues = IssueReader.readIssuesFromMappedFile("test-files/issue2.txt");
+            assertEquals(expected.size(), issues.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).toString(), issues.get(i).toString());
+            }
+
+            assertThrows(IllegalArgumentException.class, () -> {
+                IssueReader.readIssuesFromMappedFile("test-files/issue7.txt");
+            });
+    }
+
+    @Test
+    void testReadIssuesInParallel() {
+            ArrayList<Issue> expected = IssueReader.readIssuesFromFile("test-files/issue2.txt");
+            ArrayList<Issue> issues = IssueReader.readIssuesInParallel("test-files/issue2.txt");
+            assertEquals(expected.size(), issues.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).getIssueId(), issues.get(i).getIssueId());
+            }
+    }
+
+    @Test
+    void testStreamIssuesFromFile() {
+            try (Stream<Issue> issues = IssueReader.streamIssuesFromFile("test-files/issue2.txt")) {
+                List<Integer> ids = issues.filter(i -> "Working".equals(i.getStateName()))
+                        .map(Issue::getIssueId).collect(Collectors.toList());
+                assertEquals(List.of(7, 15), ids);
+            }
+
+            try (IssueIterator iterator = IssueReader.openIssueIterator("test-files/issue2.txt")) {
+                assertTrue(iterator.hasNext());
+                assertEquals(7, iterator.next().getIssueId());
+            }
+
+            assertThrows(IllegalArgumentException.class, () -> {
+                IssueReader.streamIssuesFromFile("test-files/issue7.txt");
+            });
+    }
+
+    @Test
+    void testReadCompressedIssueFiles() {
+            ArrayList<Issue> expected = IssueReader.readIssuesFromFile("test-files/issue2.txt");
+            for (String name : new String[] {"test-files/reader_issues.txt.gz", "test-files/reader_issues.txt.zz"}) {
+                IssueFileLayout layout = new IssueFileLayout();
+                IssueWriter.writeIssuesToFile(name, expected, layout);
+                assertFalse(layout.isUsable());
+                assertTrue(IssueReader.isCompressedIssueFile(name));
+
+                ArrayList<Issue> issues = IssueReader.readIssuesFromFile(name);
+                ArrayList<Issue> mapped = IssueReader.readIssuesInParallel(name);
+                assertEquals(expected.size(), issues.size());
+                assertEquals(expected.size(), mapped.size());
+                for (int i = 0; i < expected.size(); i++) {
+                    assertEquals(expected.get(i).toString(), issues.get(i).toString());
+                    assertEquals(expected.get(i).toString(), mapped.get(i).toString());
+                }
+            }
+            assertFalse(IssueReader.isCompressedIssueFile("test-files/issue2.txt"));
+
+            IssueWriter.writeIssuesToBinaryFile("test-files/reader_issues.bin.gz", expected);
+            assertTrue(IssueReader.isCompressedIssueFile("test-files/reader_issues.bin.gz"));
+            assertTrue(IssueReader.isBinaryIssueFile("test-files/reader_issues.bin.gz"));
+            assertEquals(expected.size(), IssueReader.readIssuesFromBinaryFile("test-files/reader_issues.bin.gz").size());
+    }
+
+    @Test
+    void testReadIssueById() {
+            ArrayList<Issue> issues = IssueReader.readIssuesFromFile("test-files/issue2.txt");
+            IssueFileLayout layout = new IssueFileLayout();
+            IssueWriter.writeIssuesToFile("test-files/reader_indexed_issues.txt", issues, layout);
+            IssueIndex.write("test-files/reader_indexed_issues.txt", layout);
+            try (IssueIndex index = IssueIndex.open("test-files/reader_indexed_issues.txt")) {
+                assertNotNull(index);
+                assertEquals(issues.size(), index.size());
+            }
+
+            for (Issue expected : issues) {
+                Issue issue = IssueReader.readIssueById("test-files/reader_indexed_issues.txt", expected.getIssueId());
+                assertEquals(expected.toString(), issue.toString());
+            }
+            assertNull(IssueReader.readIssueById("test-files/reader_indexed_issues.txt", 999));
+
+            // a stale index is not used and the file is scanned instead
+            ArrayList<Issue> reversed = new ArrayList<>(issues);
+            java.util.Collections.reverse(reversed);
+            IssueWriter.writeIssuesToFile("test-files/reader_indexed_issues.txt", reversed.subList(0, 2));
+            assertNull(IssueIndex.open("test-files/reader_indexed_issues.txt"));
+            Issue last = reversed.get(1);
+            assertEquals(last.toString(),
+                    IssueReader.readIssueById("test-files/reader_indexed_issues.txt", last.getIssueId()).toString());
+            assertNull(IssueReader.readIssueById("test-files/reader_indexed_issues.txt", issues.get(0).getIssueId()));
+    }
+
+    @Test
+    void testReadIssuesWithLazyNotes() {
+            ArrayList<Issue> expected = IssueReader.readIssuesFromFile("test-files/issue2.txt");
+            try (IssueNotesLoader loader = new IssueNotesLoader("test-files/issue2.txt", 2)) {
+                ArrayList<Issue> issues = IssueReader.readIssuesFromFile("test-files/issue2.txt", null, loader);
+                assertEquals(expected.size(), issues.size());
+                assertEquals(0, loader.getCachedCount());
+                for (int i = 0; i < expected.size(); i++) {
+                    assertEquals(expected.get(i).getNotes(), issues.get(i).getNotes());
+                    assertEquals(expected.get(i).toString(), issues.get(i).toString());
+                }
+                assertEquals(2, loader.getCachedCount());
+            }
+    }
+
+    @Test
+    void testReadIssuesWithReport() throws java.io.IOException {
+            String records = "*1,New,Bug,Bug 1,null,false,\n-[New] Note 1\n"
+                    + "*2,Confirmed,Enhancement,Enhancement 2,null,false,\n-[New] Note 2\n"
+                    + "*x,New,Bug,Bug 3,null,false,\n-[New] Note 3\n"
+                    + "*4,Verifying,Bug,Bug 4,owner,true,WontFix\n-[Verifying] Note 4\n"
+                    + "*5,New,Bug\n-[New] Note 5\n"
+                    + "*6,New,Bug,Bug 6,null,false,\n-[New] Note 6\n";
+            java.nio.file.Files.write(java.nio.file.Paths.get("test-files/reader_invalid_issues.txt"),
+                    records.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+            IssueLoadReport report = new IssueLoadReport();
+            ArrayList<Issue> issues = IssueReader.readIssuesWithReport("test-files/reader_invalid_issues.txt", report);
+            assertEquals(2, issues.size());
+            assertEquals(2, report.getAcceptedCount());
+            assertEquals(4, report.getRejectedCount());
+
+            List<IssueLoadReport.Rejection> rejections = report.getRejections();
+            assertEquals(1, rejections.get(0).getRecordIndex());
+            assertEquals(records.indexOf("*2"), rejections.get(0).getOffset());
+            assertEquals(Issue.Violation.ENHANCEMENT_CONFIRMED_STATE.getRule(), rejections.get(0).getRule());
+            assertEquals(IssueLoadReport.MALFORMED_ID, rejections.get(1).getRule());
+            assertEquals(Issue.Violation.VERIFYING_NOT_FIXED.getRule(), rejections.get(2).getRule());
+            assertEquals(records.indexOf("*5"), rejections.get(3).getOffset());
+            assertEquals(IssueLoadReport.MALFORMED_HEADER, rejections.get(3).getRule());
+    }
+
+    @Test
+    void testVerifyChecksummedFile() throws java.io.IOException {
+            ArrayList<Issue> expected = new ArrayList<>();
+            for (int id = 1; id <= 5; id++) {
+                expected.add(new Issue(id, Issue.IssueType.BUG, "Summary of bug " + id, "Note " + id));
+            }
+            String name = "test-files/reader_checksummed_issues.bin";
+            IssueWriter.writeIssuesToBinaryFile(name, expected, true);
+            assertTrue(IssueReader.isChecksummedIssueFile(name));
+            IssueLoadReport report = IssueReader.verifyIssueFile(name);
+            assertEquals(expected.size(), report.getAcceptedCount());
+            assertEquals(0, report.getRejectedCount());
+            ArrayList<Issue> issues = IssueReader.readIssuesFromBinaryFile(name);
+            assertEquals(expected.size(), issues.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).toString(), issues.get(i).toString());
+            }
+
+            // damage the summary of the second record
+            java.nio.file.Path path = java.nio.file.Paths.get(name);
+            byte[] bytes = java.nio.file.Files.readAllBytes(path);
+            String summary = expected.get(1).getSummary();
+            int at = new String(bytes, java.nio.charset.StandardCharsets.ISO_8859_1).indexOf(summary);
+            bytes[at] ^= 0x20;
+            java.nio.file.Files.write(path, bytes);
+            report = IssueReader.verifyIssueFile(name);
+            assertEquals(1, report.getRejectedCount());
+            assertEquals(1, report.getRejections().get(0).getRecordIndex());
+            assertEquals(IssueLoadReport.CHECKSUM_MISMATCH, report.getRejections().get(0).getRule());
+            long offset = report.getRejections().get(0).getOffset();
+            assertTrue(offset < at && at - offset < 16 + summary.length());
+            issues = IssueReader.readIssuesFromBinaryFile(name);
+            assertEquals(expected.size() - 1, issues.size());
+            assertEquals(expected.get(2).toString(), issues.get(1).toString());
+
+            // a damaged footer is reported and the records are still checked one by one
+            bytes[bytes.length - 1] ^= 0x01;
+            java.nio.file.Files.write(path, bytes);
+            report = IssueReader.verifyIssueFile(name);
+            assertEquals(2, report.getRejectedCount());
+            assertEquals(IssueLoadReport.FOOTER_DAMAGED, report.getRejections().get(0).getRule());
+            assertEquals(offset, report.getRejections().get(1).getOffset());
+    }
+
+    @Test
+    void testExportAndImportIssues() throws java.io.IOException {
+            ArrayList<Issue> expected = IssueReader.readIssuesFromFile("test-files/issue2.txt");
+            expected.add(new Issue(99, Issue.IssueType.BUG, "Summary, with \"quotes\"", "Note\twith a tab"));
+            for (String name : new String[] {"test-files/reader_issues.csv", "test-files/reader_issues.ndjson.gz"}) {
+                assertEquals(expected.size(), IssueWriter.exportIssues(name, expected.iterator()));
+                IssueLoadReport report = new IssueLoadReport();
+                ArrayList<Issue> issues = IssueReader.importIssues(name, report);
+                assertEquals(0, report.getRejectedCount());
+                assertEquals(expected.size(), issues.size());
+                for (int i = 0; i < expected.size(); i++) {
+                    assertEquals(expected.get(i).toString(), issues.get(i).toString());
+                }
+            }
+
+            String rows = "summary,id,type,state,confirmed,owner,resolution,notes\n"
+                    + "\"Bug, one\",1,Bug,New,false,,,\"-[New] Note 1\n-[New] Note 2\"\n"
+                    + "Enhancement 2,2,Enhancement,Confirmed,false,,,-[New] Note\n"
+                    + "\"Broken,3,Bug,New,false,,,[New] Note\n";
+            java.nio.file.Files.write(java.nio.file.Paths.get("test-files/reader_import.csv"),
+                    rows.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+            IssueLoadReport report = new IssueLoadReport();
+            ArrayList<Issue> issues = IssueReader.importIssues("test-files/reader_import.csv", report);
+            assertEquals(1, issues.size());
+            assertEquals("Bug, one", issues.get(0).getSummary());
+            assertEquals(2, issues.get(0).getNotes().size());
+            assertEquals(2, report.getRejectedCount());
+            assertEquals(1, report.getRejections().get(0).getRecordIndex());
+            assertEquals(Issue.Violation.ENHANCEMENT_CONFIRMED_STATE.getRule(), report.getRejections().get(0).getRule());
+            assertEquals(rows.indexOf("\"Broken"), report.getRejections().get(1).getOffset());
+            assertEquals(IssueLoadReport.MALFORMED_RECORD, report.getRejections().get(1).getRule());
+
+            String lines = "{\"id\":7,\"state\":\"New\",\"type\":\"Bug\",\"summary\":\"A \\u00e9\\\"b\\\"\",\"extra\":{\"a\":[1,2]},"
+                    + "\"notes\":[\"[New] Note\"]}\n"
+                    + "{\"id\":8,\"state\":\"New\",\"type\":\"Bug\"\n";
+            java.nio.file.Files.write(java.nio.file.Paths.get("test-files/reader_import.jsonl"),
+                    lines.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+            report = new IssueLoadReport();
+            issues = IssueReader.importIssues("test-files/reader_import.jsonl", report);
+            assertEquals(1, issues.size());
+            assertEquals("A \u00e9\"b\"", issues.get(0).getSummary());
+            assertEquals(IssueLoadReport.MALFORMED_RECORD, report.getRejections().get(0).getRule());
+    }
+
 //    @Test
 //    void testReadIssuesFromFileInvalidIssueData() {
 //        assertThrows(IllegalArgumentException.class, () -> {
@@ -0,0 +1,143 @@
+package edu.ncsu.csc216.issue_manager.model.io;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Scanner;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ncsu.csc216.issue_manager.model.issue.Issue;
+
+/**
+ * Tests IssueRecordParser against the Scanner based reader it replaced
+ *
+ * @author Nirvan Reddy Anumandla
+ */
+public class IssueRecordParserTest {
+	/** Header fields of a valid record. */
+	private static final String[] HEADER = { "1", "New", "Enhancement", "Sum", "", "false", "" };
+	/** Other values tried for each header field. */
+	private static final String[][] VALUES = { { "+1", " 1 ", "01", "0", "-1", "\u0663", "1a", "2147483648", "" },
+			{ "Working", "Confirmed", "Verifying", "Closed", "new", " New", "" }, { "Bug", "bug", "" },
+			{ " Sum ", "" }, { "owner", "null", " owner ", "  " }, { "true", "TRUE", "yes", " true", "" },
+			{ "Fixed", "FIXED", "WontFix", "Duplicate", "WorksForMe", " FIXED", "FIXED ", "fixed" } };
+	/** Note lines tried after the header. */
+	private static final String[] NOTES = { "-n1\n", "-n1\n-n2\n", "", "n1\n", "-n1\ncont\n", "\n-n1\n",
+			"-n1, with comma\n", "-\n", "-n1\n\n-n2\n", "   \n", "-n1,x,y\n" };
+
+	/**
+	 * Tests that generated records are accepted exactly when the old reader
+	 * accepted them, apart from the documented differences: CRLF line breaks
+	 * read like LF, an owner of "null" on a New or Confirmed issue reads as no
+	 * owner, and notes with no text are rejected.
+	 */
+	@Test
+	public void testSameRecordsAccepted() {
+		Random random = new Random(216);
+		for (int i = 0; i < 5000; i++) {
+			String[] header = HEADER.clone();
+			for (int f = 0; f < header.length; f++) {
+				if (random.nextInt(3) == 0) {
+					header[f] = VALUES[f][random.nextInt(VALUES[f].length)];
+				}
+			}
+			String notes = NOTES[random.nextInt(NOTES.length)];
+			String record = "*" + String.join(",", header) + "\n" + notes;
+			boolean crlf = random.nextBoolean();
+
+			String expected = record;
+			String state = header[1].trim();
+			if ("null".equals(header[4].trim())
+					&& (state.equals(Issue.NEW_NAME) || state.equals(Issue.CONFIRMED_NAME))) {
+				header[4] = "";
+				expected = "*" + String.join(",", header) + "\n" + notes;
+			}
+			boolean accepted = !notes.trim().isEmpty() && acceptedByBaseline(expected);
+			assertEquals(accepted, accepted(crlf ? record.replace("\n", "\r\n") : record), record);
+		}
+	}
+
+	/**
+	 * Tests the records the old reader accepted or rejected only because of how
+	 * it split a record at commas and line breaks.
+	 */
+	@Test
+	public void testDocumentedDifferences() {
+		String notesOnly = "*1,New,Enhancement,Sum,,false,\n   \n";
+		assertTrue(acceptedByBaseline(notesOnly));
+		assertFalse(accepted(notesOnly));
+
+		String shortHeader = "*1,New,Enhancement,Sum,,false\n-n1,\n-n2\n";
+		assertTrue(acceptedByBaseline(shortHeader));
+		assertFalse(accepted(shortHeader));
+
+		String commaNote = "*1,New,Enhancement,Sum,,false,\n,n1\n";
+		assertFalse(acceptedByBaseline(commaNote));
+		assertTrue(accepted(commaNote));
+
+		String crlf = "*1,New,Enhancement,Sum,,false,\r\n-n1\r\n";
+		assertFalse(acceptedByBaseline(crlf));
+		assertTrue(accepted(crlf));
+
+		String nullOwner = "*1,New,Enhancement,Sum,null,false,\n-n1\n";
+		assertFalse(acceptedByBaseline(nullOwner));
+		assertTrue(accepted(nullOwner));
+
+		String nullWorkingOwner = "*1,Working,Enhancement,Sum,null,false,\n-n1\n";
+		assertTrue(acceptedByBaseline(nullWorkingOwner));
+		assertTrue(accepted(nullWorkingOwner));
+	}
+
+	/**
+	 * Checks whether IssueRecordParser accepts a single record.
+	 *
+	 * @param record The record, starting with '*'.
+	 * @return true if the record describes a valid issue.
+	 */
+	private static boolean accepted(String record) {
+		byte[] bytes = record.getBytes(StandardCharsets.UTF_8);
+		List<Issue> issues = new ArrayList<>();
+		new IssueRecordParser().parseRecords(ByteBuffer.wrap(bytes), 0, bytes.length, issues);
+		return !issues.isEmpty();
+	}
+
+	/**
+	 * Checks whether the Scanner based reader IssueRecordParser replaced
+	 * accepted a single record. This is the old reader's code.
+	 *
+	 * @param record The record, starting with '*'.
+	 * @return true if the record describes a valid issue.
+	 */
+	private static boolean acceptedByBaseline(String record) {
+		try (Scanner file = new Scanner(record)) {
+			file.useDelimiter("\\r?\\n?[*]");
+			while (file.hasNext()) {
+				try (Scanner scan = new Scanner(file.next())) {
+					scan.useDelimiter(",");
+					int issueId = Integer.parseInt(scan.next().trim());
+					String state = scan.next().trim();
+					String issueType = scan.next().trim();
+					String summary = scan.next().trim();
+					String owner = scan.next().trim();
+					boolean confirmed = Boolean.parseBoolean(scan.next().trim());
+					String[] temp = scan.next().split("\n");
+					ArrayList<String> notes = new ArrayList<>();
+					for (int i = 1; i < temp.length; i++) {
+						notes.add(temp[i].trim());
+					}
+					new Issue(issueId, state, issueType, summary, owner, confirmed, temp[0], notes);
+					return true;
+				} catch (NoSuchElementException | IllegalArgumentException | IndexOutOfBoundsException e) {
+					// the old reader skipped the record
+				}
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,85 @@
+package edu.ncsu.csc216.issue_manager.model.io;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.BitSet;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import edu.ncsu.csc216.issue_manager.model.issue.Issue;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue.IssueType;
+
+/**
+ * Tests IssueShards
+ *
+ * @author Nirvan Reddy Anumandla
+ */
+public class IssueShardsTest {
+	/** Name of the manifest used by the tests. */
+	private static final String MANIFEST = "test-files/sharded_issues";
+
+	/**
+	 * Removes the files written by a test.
+	 */
+	@AfterEach
+	public void tearDown() {
+		File[] files = new File("test-files").listFiles((dir, name) -> name.startsWith("sharded_issues"));
+		if (files != null) {
+			for (File file : files) {
+				file.delete();
+			}
+		}
+	}
+
+	/**
+	 * Tests writing a list as shards and reading it back in id order.
+	 */
+	@Test
+	public void testWriteAndRead() {
+		ArrayList<Issue> issues = new ArrayList<>();
+		for (int id = 1; id <= 10; id++) {
+			issues.add(new Issue(id, IssueType.BUG, "Bug " + id, "Note " + id));
+		}
+		IssueShards.write(MANIFEST, issues, 3, null);
+		assertTrue(IssueShards.isManifest(MANIFEST));
+		assertFalse(IssueShards.isManifest(IssueShards.shardName(MANIFEST, 0)));
+		assertEquals(3, IssueShards.readShardCount(MANIFEST));
+		assertEquals(4, IssueReader.readIssuesFromFile(IssueShards.shardName(MANIFEST, 1)).size());
+
+		ArrayList<Issue> read = IssueShards.read(MANIFEST);
+		assertEquals(10, read.size());
+		for (int i = 0; i < read.size(); i++) {
+			assertEquals(i + 1, read.get(i).getIssueId());
+		}
+
+		IssueShards.write(MANIFEST, issues, 2, null);
+		assertFalse(new File(IssueShards.shardName(MANIFEST, 2)).exists());
+		assertEquals(10, IssueShards.read(MANIFEST).size());
+	}
+
+	/**
+	 * Tests that only the dirty shards are rewritten.
+	 */
+	@Test
+	public void testWriteDirtyShards() {
+		ArrayList<Issue> issues = new ArrayList<>();
+		for (int id = 1; id <= 6; id++) {
+			issues.add(new Issue(id, IssueType.BUG, "Bug " + id, "Note " + id));
+		}
+		IssueShards.write(MANIFEST, issues, 2, null);
+
+		issues.add(new Issue(7, IssueType.BUG, "Bug 7", "Note 7"));
+		issues.add(new Issue(8, IssueType.BUG, "Bug 8", "Note 8"));
+		BitSet dirty = new BitSet();
+		dirty.set(IssueShards.shardOf(7, 2));
+		IssueShards.write(MANIFEST, issues, 2, dirty);
+
+		ArrayList<Issue> read = IssueShards.read(MANIFEST);
+		assertEquals(7, read.size());
+		assertEquals(7, read.get(6).getIssueId());
+		assertEquals(3, IssueReader.readIssuesFromFile(IssueShards.shardName(MANIFEST, 0)).size());
+	}
+}
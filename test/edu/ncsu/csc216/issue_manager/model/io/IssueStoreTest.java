@@ -0,0 +1,115 @@
+package edu.ncsu.csc216.issue_manager.model.io;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import edu.ncsu.csc216.issue_manager.model.command.Command;
+import edu.ncsu.csc216.issue_manager.model.command.Command.CommandValue;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue.IssueType;
+import edu.ncsu.csc216.issue_manager.model.manager.IssueList;
+
+/**
+ * Tests IssueStore
+ *
+ * @author Nirvan Reddy Anumandla
+ */
+public class IssueStoreTest {
+	/** Base name of the store used by the tests. */
+	private static final String STORE = "test-files/store_issues";
+
+	/**
+	 * Removes the files written by a test.
+	 */
+	@AfterEach
+	public void tearDown() {
+		File[] files = new File("test-files").listFiles((dir, name) -> name.startsWith("store_issues."));
+		if (files != null) {
+			for (File file : files) {
+				file.delete();
+			}
+		}
+	}
+
+	/**
+	 * Tests recovering a store from its snapshot and log.
+	 */
+	@Test
+	public void testRecover() {
+		ArrayList<Issue> issues = new ArrayList<>();
+		issues.add(new Issue(1, IssueType.BUG, "Bug 1", "Note 1"));
+		assertFalse(IssueStore.exists(STORE));
+		try (IssueStore store = IssueStore.create(STORE, 1024 * 1024, issues)) {
+			assertTrue(IssueStore.exists(STORE));
+			store.appendAdd(2, IssueType.ENHANCEMENT, "Enhancement 2", "Note 2");
+			store.appendCommand(1, new Command(CommandValue.CONFIRM, null, null, "Confirmed"));
+			store.appendDelete(2);
+			store.appendAdd(3, IssueType.BUG, "Bug 3", "Note 3");
+		}
+
+		IssueList list = new IssueList();
+		try (IssueStore store = IssueStore.open(STORE, 1024 * 1024, list)) {
+			assertTrue(store.getSkippedSegments().isEmpty());
+			assertEquals(2, list.getIssues().size());
+			assertEquals("Confirmed", list.getIssueById(1).getStateName());
+			assertNull(list.getIssueById(2));
+			assertEquals("Bug 3", list.getIssueById(3).getSummary());
+		}
+	}
+
+	/**
+	 * Tests that closed log segments are folded into a new snapshot in the
+	 * background and the files it replaces are removed.
+	 */
+	@Test
+	public void testCompaction() {
+		try (IssueStore store = IssueStore.create(STORE, 256, new ArrayList<Issue>())) {
+			for (int id = 1; id <= 50; id++) {
+				store.appendAdd(id, IssueType.BUG, "Bug " + id, "Note " + id);
+				store.appendCommand(id, new Command(CommandValue.CONFIRM, null, null, "Confirmed"));
+				store.awaitCompaction();
+			}
+			store.appendDelete(10);
+		}
+		File[] snapshots = new File("test-files").listFiles((dir, name) -> name.startsWith("store_issues.snapshot."));
+		assertEquals(1, snapshots.length);
+		assertFalse(new File(STORE + ".snapshot.0").exists());
+
+		IssueList list = new IssueList();
+		try (IssueStore store = IssueStore.open(STORE, 256, list)) {
+			assertTrue(store.getSkippedSegments().isEmpty());
+			assertEquals(49, list.getIssues().size());
+			assertNull(list.getIssueById(10));
+			assertEquals("Confirmed", list.getIssueById(50).getStateName());
+		}
+	}
+
+	/**
+	 * Tests that log segments after a missing one are moved aside, not deleted,
+	 * when the store is recovered.
+	 */
+	@Test
+	public void testRecoverKeepsUnreplayedSegments() {
+		try (IssueStore store = IssueStore.create(STORE, 1024 * 1024, new ArrayList<Issue>())) {
+			store.appendAdd(1, IssueType.BUG, "Bug 1", "Note 1");
+		}
+		File segment = new File(STORE + ".log.0");
+		long length = segment.length();
+		assertTrue(segment.renameTo(new File(STORE + ".log.1")));
+
+		IssueList list = new IssueList();
+		try (IssueStore store = IssueStore.open(STORE, 1024 * 1024, list)) {
+			assertEquals(1, store.getSkippedSegments().size());
+			assertEquals(STORE + ".log.1.unreplayed", store.getSkippedSegments().get(0));
+			assertEquals(0, list.getIssues().size());
+			store.appendAdd(2, IssueType.BUG, "Bug 2", "Note 2");
+		}
+		assertEquals(length, new File(STORE + ".log.1.unreplayed").length());
+		assertFalse(new File(STORE + ".log.1").exists());
+	}
+}
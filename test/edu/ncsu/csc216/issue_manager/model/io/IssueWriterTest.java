@@ -1,13 +1,24 @@
 package edu.ncsu.csc216.issue_manager.model.io;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Scanner;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
+import edu.ncsu.csc216.issue_manager.model.command.Command;
 import edu.ncsu.csc216.issue_manager.model.issue.Issue;
 
 /**
@@ -16,6 +27,19 @@ import edu.ncsu.csc216.issue_manager.model.issue.Issue;
  * @author Nirvan Reddy Anumandla
  */
 public class IssueWriterTest {
+	/**
+	 * Removes the files written by a test.
+	 */
+	@AfterEach
+	public void tearDown() {
+		File[] files = new File("test-files").listFiles((dir, name) -> name.startsWith("writer_"));
+		if (files != null) {
+			for (File file : files) {
+				file.delete();
+			}
+		}
+	}
+
 	/**
 	 * Tests writeActivityRecords()
 	 */
@@ -43,6 +67,268 @@ public class IssueWriterTest {
 	    }
 	}
 
-}
+	/**
+	 * Tests writeIssuesToBinaryFile()
+	 */
+	@Test
+	public void testWriteIssuesToBinaryFile() {
+		ArrayList<Issue> issues = IssueReader.readIssuesFromFile("test-files/issue2.txt");
+		IssueWriter.writeIssuesToBinaryFile("test-files/writer_issues.bin", issues);
+
+		assertTrue(IssueReader.isBinaryIssueFile("test-files/writer_issues.bin"));
+		assertFalse(IssueReader.isBinaryIssueFile("test-files/issue2.txt"));
+		ArrayList<Issue> read = IssueReader.readIssuesFromBinaryFile("test-files/writer_issues.bin");
+		assertEquals(issues.size(), read.size());
+		for (int i = 0; i < issues.size(); i++) {
+			assertEquals(issues.get(i).toString(), read.get(i).toString());
+		}
+	}
+
+	/**
+	 * Tests writeChangedIssues()
+	 */
+	@Test
+	public void testWriteChangedIssues() {
+		ArrayList<Issue> issues = new ArrayList<>();
+		issues.add(new Issue(1, Issue.IssueType.BUG, "Bug 1", "Note 1"));
+		issues.add(new Issue(2, Issue.IssueType.ENHANCEMENT, "Enhancement 2", "Note 2"));
+		issues.add(new Issue(3, Issue.IssueType.BUG, "Bug 3", "Note 3"));
+		IssueFileLayout layout = new IssueFileLayout();
+		IssueWriter.writeIssuesToFile("test-files/writer_changed_issues.txt", issues, layout);
+		assertEquals(3, layout.getRecordCount());
+
+		issues.get(0).update(new Command(Command.CommandValue.CONFIRM, null, null, "Confirmed"));
+		Issue added = new Issue(4, Issue.IssueType.BUG, "Bug 4", "Note 4");
+		ArrayList<Issue> changed = new ArrayList<>();
+		changed.add(issues.get(0));
+		changed.add(added);
+		assertTrue(IssueWriter.writeChangedIssues("test-files/writer_changed_issues.txt", layout, changed,
+				Collections.singleton(2)));
+
+		ArrayList<Issue> read = IssueReader.readIssuesFromFile("test-files/writer_changed_issues.txt");
+		assertEquals(3, read.size());
+		assertEquals(1, read.get(0).getIssueId());
+		assertEquals("Confirmed", read.get(0).getStateName());
+		assertEquals(3, read.get(1).getIssueId());
+		assertEquals(4, read.get(2).getIssueId());
+
+		// a layout that does not match the file is rejected
+		IssueWriter.writeIssuesToFile("test-files/writer_changed_issues.txt", issues);
+		assertFalse(IssueWriter.writeChangedIssues("test-files/writer_changed_issues.txt", layout, changed,
+				Collections.emptySet()));
+	}
+
+	/**
+	 * Tests that writeChangedIssues() keeps the records in the order of the list
+	 * when records grow, so the file reads back in the same order
+	 */
+	@Test
+	public void testWriteChangedIssuesKeepsOrder() {
+		String file = "test-files/writer_ordered_issues.txt";
+		ArrayList<Issue> issues = new ArrayList<>();
+		for (int id = 1; id <= 10; id++) {
+			issues.add(new Issue(id, Issue.IssueType.BUG, "Bug " + id, "Note " + id));
+		}
+		IssueFileLayout layout = new IssueFileLayout();
+		IssueWriter.writeIssuesToFile(file, issues, layout);
+
+		issues.get(6).update(new Command(Command.CommandValue.CONFIRM, null, null, "A much longer note"));
+		issues.get(8).update(new Command(Command.CommandValue.CONFIRM, null, null, "x"));
+		issues.remove(4);
+		issues.add(new Issue(11, Issue.IssueType.ENHANCEMENT, "Enhancement 11", "Note 11"));
+		List<Issue> changed = Arrays.asList(issues.get(5), issues.get(7), issues.get(9));
+		assertTrue(IssueWriter.writeChangedIssues(file, layout, changed, Collections.singleton(5)));
+		assertEquals(new File(file).length(), layout.getFileLength());
+
+		IssueFileLayout reread = new IssueFileLayout();
+		ArrayList<Issue> read = IssueReader.readIssuesFromFile(file, reread);
+		assertEquals(issues.size(), read.size());
+		for (int i = 0; i < issues.size(); i++) {
+			assertEquals(issues.get(i).toString(), read.get(i).toString());
+		}
+		assertTrue(reread.isUsable());
+
+		// the layout still matches the file, so the next save is incremental too
+		issues.get(8).update(new Command(Command.CommandValue.CONFIRM, null, null, "Another long note"));
+		assertTrue(IssueWriter.writeChangedIssues(file, layout, Collections.singleton(issues.get(8)),
+				Collections.emptySet()));
+		read = IssueReader.readIssuesFromFile(file);
+		for (int i = 0; i < issues.size(); i++) {
+			assertEquals(issues.get(i).toString(), read.get(i).toString());
+		}
+
+		// moving most of the file is left to a full write
+		issues.get(1).update(new Command(Command.CommandValue.CONFIRM, null, null, "Another long note"));
+		assertFalse(IssueWriter.writeChangedIssues(file, layout, Collections.singleton(issues.get(1)),
+				Collections.emptySet()));
+
+		// records read in place by a notes loader are never moved
+		IssueFileLayout pinned = new IssueFileLayout();
+		IssueNotesLoader loader = new IssueNotesLoader(file, 4);
+		try {
+			IssueReader.readIssuesFromFile(file, pinned, loader);
+			issues.get(6).update(new Command(Command.CommandValue.CONFIRM, null, null, "x"));
+			assertFalse(IssueWriter.writeChangedIssues(file, pinned, Collections.singleton(issues.get(6)),
+					Collections.emptySet()));
+		} finally {
+			loader.close();
+		}
+	}
+
+	/**
+	 * Tests that writeIssuesToFile() writes each issue exactly as its toString()
+	 * and leaves no temporary file behind
+	 */
+	@Test
+	public void testWriteIssuesToFileContent() {
+		ArrayList<Issue> issues = new ArrayList<>();
+		issues.add(new Issue(7, Issue.IssueType.BUG, "R\u00e9sum\u00e9 \u2603 \ud83d\udc1b", "Note \u00fc"));
+		issues.add(new Issue(12, Issue.IssueType.ENHANCEMENT, "Enhancement 12", "Note 12"));
+		issues.get(1).update(new Command(Command.CommandValue.ASSIGN, "owner", null, "Assigned"));
+		IssueWriter.writeIssuesToFile("test-files/writer_content_issues.txt", issues);
+
+		StringBuilder expected = new StringBuilder();
+		for (Issue issue : issues) {
+			expected.append(issue.toString()).append(System.lineSeparator());
+		}
+		try {
+			String actual = new String(Files.readAllBytes(Paths.get("test-files/writer_content_issues.txt")),
+					StandardCharsets.UTF_8);
+			assertEquals(expected.toString(), actual);
+		} catch (IOException e) {
+			fail("Unable to read file.");
+		}
+		assertFalse(new File("test-files/writer_content_issues.txt.tmp").exists());
+	}
+
+	/**
+	 * Tests that issues encoded in memory and written later produce the same
+	 * file as writeIssuesToFile(), with a layout of their records
+	 */
+	@Test
+	public void testWriteEncodedIssues() {
+		ArrayList<Issue> issues = new ArrayList<>();
+		issues.add(new Issue(3, Issue.IssueType.BUG, "Bug 3", "Note 3"));
+		issues.add(new Issue(4, Issue.IssueType.ENHANCEMENT, "Enhancement 4", "Note 4"));
+		IssueFileLayout layout = new IssueFileLayout();
+		ByteBuffer encoded = IssueWriter.encodeIssues(issues, layout);
+		issues.get(0).update(new Command(Command.CommandValue.ASSIGN, "owner", null, "Assigned"));
+		IssueWriter.writeEncodedIssues("test-files/writer_encoded_issues.txt", encoded, layout);
+
+		String record = new Issue(3, Issue.IssueType.BUG, "Bug 3", "Note 3").toString() + System.lineSeparator();
+		try {
+			String actual = new String(Files.readAllBytes(Paths.get("test-files/writer_encoded_issues.txt")),
+					StandardCharsets.UTF_8);
+			assertTrue(actual.startsWith(record));
+			assertEquals(actual.length(), layout.getFileLength());
+		} catch (IOException e) {
+			fail("Unable to read file.");
+		}
+		assertEquals(2, IssueReader.readIssuesFromFile("test-files/writer_encoded_issues.txt").size());
+		assertFalse(new File("test-files/writer_encoded_issues.txt.tmp").exists());
+	}
+
+	/**
+	 * Tests that writeIssuesToFileDirect() writes the same file and layout as
+	 * writeIssuesToFile(), including for a note longer than all of its buffers
+	 */
+	@Test
+	public void testWriteIssuesToFileDirect() {
+		StringBuilder note = new StringBuilder();
+		while (note.length() < 2 * 1024 * 1024) {
+			note.append("A long note \u00e9\u2603\ud83d\udc1b. ");
+		}
+		ArrayList<Issue> issues = new ArrayList<>();
+		for (int id = 1; id <= 5000; id++) {
+			issues.add(new Issue(id, Issue.IssueType.BUG, "Bug \u00e9 " + id, "Note " + id));
+		}
+		issues.add(2500, new Issue(Integer.MAX_VALUE, Issue.IssueType.ENHANCEMENT, "Long", note.toString()));
+		IssueFileLayout layout = new IssueFileLayout();
+		IssueFileLayout directLayout = new IssueFileLayout();
+		IssueWriter.writeIssuesToFile("test-files/writer_stream_issues.txt", issues, layout);
+		IssueWriter.writeIssuesToFileDirect("test-files/writer_direct_issues.txt", issues, directLayout);
 
-	
+		try {
+			assertTrue(Arrays.equals(Files.readAllBytes(Paths.get("test-files/writer_stream_issues.txt")),
+					Files.readAllBytes(Paths.get("test-files/writer_direct_issues.txt"))));
+		} catch (IOException e) {
+			fail("Unable to read file.");
+		}
+		assertEquals(layout.getFileLength(), directLayout.getFileLength());
+		for (Issue issue : issues) {
+			assertTrue(Arrays.equals(layout.get(issue.getIssueId()), directLayout.get(issue.getIssueId())));
+		}
+		assertFalse(new File("test-files/writer_direct_issues.txt.tmp").exists());
+	}
+
+	/**
+	 * Tests mergeIssueFiles() with each conflict policy, including an input
+	 * that is not in id order
+	 */
+	@Test
+	public void testMergeIssueFiles() {
+		ArrayList<Issue> first = new ArrayList<>();
+		first.add(new Issue(1, Issue.IssueType.BUG, "a1", "Note"));
+		first.add(new Issue(3, Issue.IssueType.ENHANCEMENT, "a3", "Note"));
+		first.add(new Issue(5, Issue.IssueType.BUG, "a5", "Note"));
+		ArrayList<Issue> second = new ArrayList<>();
+		second.add(new Issue(2, Issue.IssueType.BUG, "b2", "Note"));
+		second.add(new Issue(3, Issue.IssueType.ENHANCEMENT, "b3", "Note"));
+		second.get(1).update(new Command(Command.CommandValue.ASSIGN, "owner", null, "Assigned"));
+		second.add(new Issue(6, Issue.IssueType.BUG, "b6", "Note"));
+		ArrayList<Issue> third = new ArrayList<>();
+		third.add(new Issue(7, Issue.IssueType.BUG, "c7", "Note"));
+		third.add(new Issue(3, Issue.IssueType.ENHANCEMENT, "c3", "Note"));
+		third.add(new Issue(4, Issue.IssueType.BUG, "c4", "Note"));
+		IssueWriter.writeIssuesToFile("test-files/writer_merge_a.txt", first);
+		IssueWriter.writeIssuesToFile("test-files/writer_merge_b.txt", second);
+		IssueWriter.writeIssuesToFile("test-files/writer_merge_c.txt", third);
+		List<String> inputs = Arrays.asList("test-files/writer_merge_a.txt",
+				"test-files/writer_merge_b.txt", "test-files/writer_merge_c.txt");
+
+		String[] expected = { "a3", "c3", "b3" };
+		IssueMergeIterator.ConflictPolicy[] policies = IssueMergeIterator.ConflictPolicy.values();
+		for (int p = 0; p < policies.length; p++) {
+			assertEquals(7, IssueWriter.mergeIssueFiles("test-files/writer_merged.txt", inputs, policies[p]));
+			ArrayList<Issue> merged = IssueReader.readIssuesFromFile("test-files/writer_merged.txt");
+			assertEquals(7, merged.size());
+			for (int i = 0; i < merged.size(); i++) {
+				assertEquals(i + 1, merged.get(i).getIssueId());
+			}
+			assertEquals(expected[p], merged.get(2).getSummary());
+			assertEquals("a5", merged.get(4).getSummary());
+			assertFalse(new File("test-files/writer_merged.txt.tmp").exists());
+		}
+	}
+
+	/**
+	 * Tests that an input too large to sort in one run is sorted in runs on
+	 * disk, keeping records with the same id in file order, and that the runs
+	 * are removed
+	 */
+	@Test
+	public void testMergeUnsortedFileInRuns() {
+		int count = 2 * IssueMergeIterator.RUN_SIZE + 5;
+		ArrayList<Issue> unsorted = new ArrayList<>();
+		for (int id = count; id >= 1; id--) {
+			unsorted.add(new Issue(id, Issue.IssueType.BUG, "u" + id, "Note"));
+		}
+		unsorted.add(new Issue(count, Issue.IssueType.BUG, "again", "Note"));
+		IssueWriter.writeIssuesToFile("test-files/writer_unsorted.txt", unsorted);
+		File temp = new File(System.getProperty("java.io.tmpdir"));
+		int runs = temp.list((dir, name) -> name.endsWith(".run")).length;
+
+		List<String> inputs = Collections.singletonList("test-files/writer_unsorted.txt");
+		assertEquals(count, IssueWriter.mergeIssueFiles("test-files/writer_sorted.txt", inputs,
+				IssueMergeIterator.ConflictPolicy.KEEP_LAST));
+		try (IssueIterator merged = IssueReader.openIssueIterator("test-files/writer_sorted.txt")) {
+			for (int id = 1; id <= count; id++) {
+				Issue issue = merged.next();
+				assertEquals(id, issue.getIssueId());
+				assertEquals(id == count ? "again" : "u" + id, issue.getSummary());
+			}
+			assertFalse(merged.hasNext());
+		}
+		assertEquals(runs, temp.list((dir, name) -> name.endsWith(".run")).length);
+	}
+}
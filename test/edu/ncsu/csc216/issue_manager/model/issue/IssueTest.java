@@ -251,5 +251,17 @@ class IssueTest {
 		issueNew.update(test1);
 		assertEquals("Closed", issueNew.getStateName());
 	}
-}
 
+	@Test
+	public void testSnapshot() {
+		Issue issue = new Issue(1, IssueType.BUG, "Summary", "Note");
+		Issue copy = issue.snapshot();
+		issue.update(new Command(CommandValue.CONFIRM, null, null, "Confirmed"));
+		assertEquals("Confirmed", issue.getStateName());
+		assertEquals(2, issue.getNotes().size());
+		assertEquals("New", copy.getStateName());
+		assertFalse(copy.isConfirmed());
+		assertEquals(1, copy.getNotes().size());
+		assertEquals("*1,New,Bug,Summary,null,false,\n-[New] Note\n", copy.toString());
+	}
+}
@@ -76,4 +76,81 @@ public class IssueListTest {
         Issue nonExistingIssue = issueList.getIssueById(3);
         assertNull(nonExistingIssue);
     }
+
+    @Test
+    public void testDeleteIssueById() {
+        for (int i = 1; i <= 1000; i++) {
+            issueList.addIssue(IssueType.BUG, "Bug " + i, "Note " + i);
+        }
+        for (int i = 1; i <= 1000; i += 2) {
+            issueList.deleteIssueById(i);
+        }
+        issueList.deleteIssueById(5000);
+        issueList.addIssue(new Issue(2, IssueType.BUG, "Duplicate", "Note"));
+        assertEquals(1001, issueList.addIssue(IssueType.BUG, "Bug 1001", "Note 1001"));
+
+        List<Issue> issues = issueList.getIssues();
+        assertEquals(501, issues.size());
+        for (int i = 0; i < 500; i++) {
+            assertEquals(2 * i + 2, issues.get(i).getIssueId());
+        }
+        assertEquals(1001, issues.get(500).getIssueId());
+        assertEquals("Bug 2", issueList.getIssueById(2).getSummary());
+        assertNull(issueList.getIssueById(999));
+        assertTrue(issueList.getDeletedIds().contains(999));
+        for (int i = 2; i <= 1000; i += 2) {
+            assertEquals(i, issueList.getIssueById(i).getIssueId());
+        }
+    }
+
+    @Test
+    public void testAddIssuesSkipsDuplicateIds() {
+        issueList.addIssue(IssueType.BUG, "Bug 1", "Note 1");
+        List<Issue> issueListToAdd = new ArrayList<>();
+        for (int i = 100; i >= 1; i--) {
+            issueListToAdd.add(new Issue(i, IssueType.ENHANCEMENT, "Summary " + i, "Note " + i));
+        }
+        issueListToAdd.add(new Issue(50, IssueType.BUG, "Duplicate", "Note"));
+
+        issueList.addIssues(issueListToAdd);
+
+        List<Issue> issues = issueList.getIssues();
+        assertEquals(100, issues.size());
+        assertEquals("Bug 1", issues.get(0).getSummary());
+        assertEquals(100, issues.get(1).getIssueId());
+        assertEquals("Summary 50", issueList.getIssueById(50).getSummary());
+        assertEquals(100, issueList.getChangedIssues().size());
+        assertEquals(101, issueList.addIssue(IssueType.BUG, "Bug 101", "Note 101"));
+    }
+
+    @Test
+    public void testGetIssuesMatching() {
+        for (int i = 1; i <= 100; i++) {
+            issueList.addIssue(i % 2 == 0 ? IssueType.BUG : IssueType.ENHANCEMENT, "Summary " + i, "Note " + i);
+        }
+        for (int i = 1; i <= 100; i += 2) {
+            issueList.executeCommand(i, new Command(Command.CommandValue.ASSIGN, i % 4 == 1 ? "alice" : "bob",
+                    null, "Assigned"));
+        }
+        issueList.deleteIssueById(5);
+        assertThrows(UnsupportedOperationException.class, () -> issueList.executeCommand(9,
+                new Command(Command.CommandValue.ASSIGN, "bob", null, "Again")));
+
+        List<Issue> working = issueList.getIssuesMatching(Issue.WORKING_NAME, null, "alice", null);
+        assertEquals(24, working.size());
+        assertEquals(1, working.get(0).getIssueId());
+        assertEquals(13, working.get(2).getIssueId());
+        assertEquals(50, issueList.getIssuesMatching(Issue.NEW_NAME, null, "", null).size());
+        assertEquals(50, issueList.getIssuesByType("Bug").size());
+        assertEquals(0, issueList.getIssuesMatching(null, "Bug", "alice", null).size());
+        assertEquals(0, issueList.getIssuesMatching("NoSuchState", null, null, null).size());
+
+        for (int i = 2; i <= 100; i += 2) {
+            issueList.deleteIssueById(i);
+        }
+        working = issueList.getIssuesMatching(Issue.WORKING_NAME, "Enhancement", "bob", null);
+        assertEquals(25, working.size());
+        assertEquals(3, working.get(0).getIssueId());
+        assertEquals(11, working.get(2).getIssueId());
+    }
 }
\ No newline at end of file
@@ -3,19 +3,52 @@ package edu.ncsu.csc216.issue_manager.model.manager;
 import static org.junit.Assert.*;
 
 
+import java.io.File;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.Test;
 
+import edu.ncsu.csc216.issue_manager.model.command.Command;
+import edu.ncsu.csc216.issue_manager.model.command.Command.CommandValue;
+import edu.ncsu.csc216.issue_manager.model.io.IssueReader;
+import edu.ncsu.csc216.issue_manager.model.issue.Issue;
 import edu.ncsu.csc216.issue_manager.model.issue.Issue.IssueType;
 
 public class IssueManagerTest {
+    private static final String AUTOSAVE_FILE = "test-issues-autosave.txt";
+    private static final String OTHER_FILE = "test-issues-other.txt";
+    private static final String KEPT_FILE = "test-issues-kept.txt";
     private IssueManager manager;
+    private Runnable restoreList;
 
     @Before
     public void setUp() {
         manager = IssueManager.getInstance();
     }
 
+    @After
+    public void tearDown() {
+        manager.stopAutosave();
+        if (restoreList != null) {
+            restoreList.run();
+            restoreList = null;
+        }
+        for (String fileName : new String[] {"test-issues.txt", AUTOSAVE_FILE, OTHER_FILE}) {
+            new File(fileName).delete();
+            new File(fileName + ".idx").delete();
+        }
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        // The list of the other tests is kept in this file between tests
+        new File(KEPT_FILE).delete();
+        new File(KEPT_FILE + ".idx").delete();
+    }
+
     @Test
     public void testSaveAndLoadIssues() {
         // Add some issues to the manager
@@ -102,4 +135,208 @@ public class IssueManagerTest {
         Object[][] invalidTypeIssues = manager.getIssueListAsArrayByIssueType("INVALID_TYPE");
         assertEquals(0, invalidTypeIssues.length);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testAutosaveOnChangeCount() throws InterruptedException {
+        keepList();
+        startList(AUTOSAVE_FILE, "Saved");
+        manager.startAutosave(0, 3);
+
+        // Fewer changes than the count are not written
+        manager.addIssueToList(IssueType.BUG, "Bug 1", "Note 1");
+        manager.addIssueToList(IssueType.BUG, "Bug 2", "Note 2");
+        assertEquals(1, IssueReader.readIssuesFromFile(AUTOSAVE_FILE).size());
+
+        // The change that reaches the count starts an autosave
+        manager.addIssueToList(IssueType.BUG, "Bug 3", "Note 3");
+        waitForIssues(AUTOSAVE_FILE, 4);
+        manager.stopAutosave();
+        assertFileHoldsList(AUTOSAVE_FILE);
+    }
+
+    @Test
+    public void testAutosaveOnInterval() throws InterruptedException {
+        keepList();
+        startList(AUTOSAVE_FILE, "Saved");
+        manager.startAutosave(20, 0);
+        manager.addIssueToList(IssueType.BUG, "Bug 1", "Note 1");
+        waitForIssues(AUTOSAVE_FILE, 2);
+        manager.stopAutosave();
+        assertFileHoldsList(AUTOSAVE_FILE);
+    }
+
+    @Test
+    public void testAutosaveCoalescesChanges() throws InterruptedException {
+        keepList();
+        startList(AUTOSAVE_FILE, "Saved");
+        manager.startAutosave(0, 1);
+
+        // The autosave started by the first change waits for the lock, so it
+        // writes the changes made after it was started as well
+        synchronized (manager) {
+            for (int i = 1; i <= 5; i++) {
+                manager.addIssueToList(IssueType.BUG, "Bug " + i, "Note " + i);
+            }
+            assertEquals(1, IssueReader.readIssuesFromFile(AUTOSAVE_FILE).size());
+        }
+        waitForIssues(AUTOSAVE_FILE, 6);
+        assertFileHoldsList(AUTOSAVE_FILE);
+        manager.stopAutosave();
+        assertFileHoldsList(AUTOSAVE_FILE);
+    }
+
+    @Test
+    public void testStopAutosaveWritesChanges() {
+        keepList();
+        startList(AUTOSAVE_FILE, "Saved");
+        manager.startAutosave(0, 100);
+        manager.addIssueToList(IssueType.BUG, "Bug 1", "Note 1");
+        manager.addIssueToList(IssueType.ENHANCEMENT, "Enhancement 1", "Note 2");
+        manager.deleteIssueById(1);
+        assertEquals(1, IssueReader.readIssuesFromFile(AUTOSAVE_FILE).size());
+
+        manager.stopAutosave();
+        assertFileHoldsList(AUTOSAVE_FILE);
+        assertEquals(2, IssueReader.readIssuesFromFile(AUTOSAVE_FILE).size());
+    }
+
+    @Test
+    public void testManualSaveDropsAutosave() throws InterruptedException {
+        keepList();
+        startList(AUTOSAVE_FILE, "Saved");
+        manager.startAutosave(0, 1);
+
+        // The autosave takes its copy and waits for the file lock; the manual
+        // save made meanwhile must not be overwritten by that older copy
+        synchronized (manager.fileLock) {
+            manager.addIssueToList(IssueType.BUG, "Bug 1", "Note 1");
+            waitForBlockedAutosave();
+            manager.addIssueToList(IssueType.BUG, "Bug 2", "Note 2");
+            manager.saveIssuesToFile(AUTOSAVE_FILE);
+        }
+        manager.stopAutosave();
+        assertFileHoldsList(AUTOSAVE_FILE);
+        assertEquals(3, IssueReader.readIssuesFromFile(AUTOSAVE_FILE).size());
+    }
+
+    @Test
+    public void testLoadDropsAutosave() throws InterruptedException {
+        keepList();
+        startList(OTHER_FILE, "Other 1");
+        manager.addIssueToList(IssueType.BUG, "Other 2", "Note");
+        manager.saveIssuesToFile(OTHER_FILE);
+        startList(AUTOSAVE_FILE, "Saved");
+        manager.startAutosave(0, 1);
+
+        // The autosave takes its copy and waits for the file lock; the load
+        // made meanwhile replaces the list, so the copy must not be written
+        synchronized (manager.fileLock) {
+            manager.addIssueToList(IssueType.BUG, "Unsaved", "Note");
+            waitForBlockedAutosave();
+            manager.loadIssuesFromFile(OTHER_FILE);
+        }
+        manager.stopAutosave();
+        List<Issue> saved = IssueReader.readIssuesFromFile(AUTOSAVE_FILE);
+        assertEquals(1, saved.size());
+        assertEquals("Saved", saved.get(0).getSummary());
+        assertFileHoldsList(OTHER_FILE);
+        assertEquals(2, manager.getIssueListAsArray().length);
+    }
+
+    @Test
+    public void testAutosaveKeepsLaterChanges() throws InterruptedException {
+        keepList();
+        startList(AUTOSAVE_FILE, "Saved");
+        manager.startAutosave(0, 1);
+
+        // A change made while the autosave waits for the file lock is not in
+        // its copy, so it stays unsaved and is written by the next autosave
+        synchronized (manager.fileLock) {
+            manager.addIssueToList(IssueType.BUG, "Bug 1", "Note 1");
+            waitForBlockedAutosave();
+            manager.addIssueToList(IssueType.BUG, "Bug 2", "Note 2");
+        }
+        manager.stopAutosave();
+        assertFileHoldsList(AUTOSAVE_FILE);
+        assertEquals(3, IssueReader.readIssuesFromFile(AUTOSAVE_FILE).size());
+
+        // A manual save after the autosaves only writes what changed since
+        manager.executeCommand(2, new Command(CommandValue.CONFIRM, null, null, "Confirmed"));
+        manager.saveIssuesToFile(AUTOSAVE_FILE);
+        assertFileHoldsList(AUTOSAVE_FILE);
+    }
+
+    /**
+     * Saves the list the other tests built up, so a test can replace it; the
+     * list is loaded back after the test.
+     */
+    private void keepList() {
+        if (manager.getIssueListAsArray().length == 0) {
+            restoreList = () -> manager.createNewIssueList();
+        } else {
+            manager.saveIssuesToFile(KEPT_FILE);
+            restoreList = () -> manager.loadIssuesFromFile(KEPT_FILE);
+        }
+    }
+
+    /**
+     * Replaces the list with a new list of one issue saved to a file.
+     *
+     * @param fileName The file to save the list to.
+     * @param summary  The summary of the issue.
+     */
+    private void startList(String fileName, String summary) {
+        manager.createNewIssueList();
+        manager.addIssueToList(IssueType.BUG, summary, "Note");
+        manager.saveIssuesToFile(fileName);
+    }
+
+    /**
+     * Waits until an autosave wrote a number of issues to a file.
+     *
+     * @param fileName The file.
+     * @param count    The number of issues.
+     * @throws InterruptedException If the wait is interrupted.
+     */
+    private void waitForIssues(String fileName, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (IssueReader.readIssuesFromFile(fileName).size() != count) {
+            assertTrue("No autosave wrote " + count + " issues", System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * Waits until the autosave thread is blocked, waiting for a lock.
+     *
+     * @throws InterruptedException If the wait is interrupted.
+     */
+    private void waitForBlockedAutosave() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (true) {
+            for (Thread thread : Thread.getAllStackTraces().keySet()) {
+                if ("IssueManager autosave".equals(thread.getName()) && thread.getState() == Thread.State.BLOCKED) {
+                    return;
+                }
+            }
+            assertTrue("The autosave did not start", System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * Checks that a file holds the issues of the list, in order.
+     *
+     * @param fileName The file.
+     */
+    private void assertFileHoldsList(String fileName) {
+        List<Issue> saved = IssueReader.readIssuesFromFile(fileName);
+        Object[][] list = manager.getIssueListAsArray();
+        assertEquals(list.length, saved.size());
+        for (int i = 0; i < list.length; i++) {
+            assertEquals(list[i][0], saved.get(i).getIssueId());
+            assertEquals(list[i][1], saved.get(i).getStateName());
+            assertEquals(list[i][3], saved.get(i).getSummary());
+        }
+    }
+}